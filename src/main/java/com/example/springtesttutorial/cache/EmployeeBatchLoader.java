@@ -0,0 +1,141 @@
+package com.example.springtesttutorial.cache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import com.example.springtesttutorial.config.EmployeeBatchLoaderProperties;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.repository.EmployeeRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// dataloader-style batching: ids requested within the same short window are collected and
+// resolved together with a single findAllById, so a burst of lookups needs one connection
+// instead of one per request. Each caller still blocks only for its own employee.
+public class EmployeeBatchLoader implements MeterBinder, DisposableBean {
+
+  private static final int DISPATCH_THREADS = 2;
+
+  private final EmployeeRepository employeeRepository;
+
+  private final boolean enabled;
+
+  private final long windowNanos;
+
+  private final int maxBatchSize;
+
+  private final ScheduledExecutorService scheduler;
+
+  private final Object lock = new Object();
+
+  private Map<Long, CompletableFuture<Optional<Employee>>> pending = new HashMap<>();
+
+  private ScheduledFuture<?> scheduledDispatch;
+
+  private final LongAdder batches = new LongAdder();
+
+  private final LongAdder ids = new LongAdder();
+
+  public EmployeeBatchLoader(EmployeeRepository employeeRepository, EmployeeBatchLoaderProperties properties) {
+    this.employeeRepository = employeeRepository;
+    this.enabled = properties.enabled();
+    this.windowNanos = properties.window().toNanos();
+    this.maxBatchSize = properties.maxBatchSize();
+
+    AtomicInteger threads = new AtomicInteger();
+    this.scheduler = !enabled ? null : Executors.newScheduledThreadPool(DISPATCH_THREADS, runnable -> {
+      Thread thread = new Thread(runnable, "employee-batch-loader-" + threads.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public Optional<Employee> load(Long id) {
+    CompletableFuture<Optional<Employee>> future;
+    Map<Long, CompletableFuture<Optional<Employee>>> full = null;
+
+    synchronized (lock) {
+      future = pending.computeIfAbsent(id, key -> new CompletableFuture<>());
+
+      if (pending.size() >= maxBatchSize) {
+        full = takePending();
+      } else if (scheduledDispatch == null) {
+        scheduledDispatch = scheduler.schedule(this::dispatchPending, windowNanos, TimeUnit.NANOSECONDS);
+      }
+    }
+
+    // a full batch is sent right away by the caller that filled it
+    if (full != null) {
+      dispatch(full);
+    }
+    return SingleFlight.join(future);
+  }
+
+  private Map<Long, CompletableFuture<Optional<Employee>>> takePending() {
+    Map<Long, CompletableFuture<Optional<Employee>>> batch = pending;
+    pending = new HashMap<>();
+    if (scheduledDispatch != null) {
+      scheduledDispatch.cancel(false);
+      scheduledDispatch = null;
+    }
+    return batch;
+  }
+
+  private void dispatchPending() {
+    Map<Long, CompletableFuture<Optional<Employee>>> batch;
+    synchronized (lock) {
+      batch = takePending();
+    }
+    if (!batch.isEmpty()) {
+      dispatch(batch);
+    }
+  }
+
+  private void dispatch(Map<Long, CompletableFuture<Optional<Employee>>> batch) {
+    batches.increment();
+    ids.add(batch.size());
+
+    try {
+      List<Employee> employees = employeeRepository.findAllById(batch.keySet());
+      Map<Long, Employee> byId = new HashMap<>();
+      employees.forEach(employee -> byId.put(employee.getId(), employee));
+      batch.forEach((id, future) -> future.complete(Optional.ofNullable(byId.get(id))));
+    } catch (RuntimeException | Error e) {
+      batch.values().forEach(future -> future.completeExceptionally(e));
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("employee.batch-loader.batches", batches, LongAdder::sum)
+        .description("findAllById queries sent by the batch loader")
+        .register(registry);
+    FunctionCounter.builder("employee.batch-loader.ids", ids, LongAdder::sum)
+        .description("Distinct ids resolved by the batch loader")
+        .register(registry);
+  }
+
+  @Override
+  public void destroy() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+}
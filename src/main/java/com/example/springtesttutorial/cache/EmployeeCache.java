@@ -0,0 +1,176 @@
+package com.example.springtesttutorial.cache;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import com.example.springtesttutorial.config.EmployeeCacheProperties;
+import com.example.springtesttutorial.model.Employee;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// bounded read-through cache of employees by id, evicted by size (w-tinylfu) and ttl.
+// An empty Optional is a cached "not found", kept only when miss caching is enabled.
+// hit/miss/eviction counts are published as cache.* metrics with the tag cache=employees.
+// Entries are futures: a miss only inserts an incomplete one and the caller loads outside the
+// map's locks, so a blocking query never pins a virtual thread's carrier; concurrent callers wait
+// for that future. An eviction while loading removes the future, the result is not cached then.
+public class EmployeeCache implements MeterBinder {
+
+  public static final String NAME = "employees";
+
+  private final AsyncCache<Long, Optional<Employee>> cache;
+
+  private final boolean cacheMisses;
+
+  public EmployeeCache(EmployeeCacheProperties properties) {
+    this.cacheMisses = properties.cacheMisses();
+
+    if (!properties.enabled()) {
+      this.cache = null;
+      return;
+    }
+
+    long ttl = properties.ttl().toNanos();
+    long missTtl = properties.missTtl().toNanos();
+
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(properties.maximumSize())
+        .expireAfter(new Expiry<Long, Optional<Employee>>() {
+
+          @Override
+          public long expireAfterCreate(Long id, Optional<Employee> employee, long currentTime) {
+            return employee.isPresent() ? ttl : missTtl;
+          }
+
+          @Override
+          public long expireAfterUpdate(Long id, Optional<Employee> employee, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, employee, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(Long id, Optional<Employee> employee, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .recordStats()
+        .buildAsync();
+  }
+
+  public Optional<Employee> get(Long id, Function<Long, Optional<Employee>> loader) {
+    if (cache == null) {
+      return loader.apply(id);
+    }
+
+    CompletableFuture<Optional<Employee>> created = new CompletableFuture<>();
+    CompletableFuture<Optional<Employee>> employee = cache.get(id, (key, executor) -> created);
+    return employee == created ? fill(id, created, loader) : join(employee);
+  }
+
+  // the miss path behind getIfPresent, which already counted the hit or miss: loads and fills the
+  // entry unless another caller filled it or is loading it in the meantime
+  public Optional<Employee> load(Long id, Function<Long, Optional<Employee>> loader) {
+    if (cache == null) {
+      return loader.apply(id);
+    }
+
+    CompletableFuture<Optional<Employee>> created = new CompletableFuture<>();
+    CompletableFuture<Optional<Employee>> employee = cache.asMap().putIfAbsent(id, created);
+    return employee == null ? fill(id, created, loader) : join(employee);
+  }
+
+  // waiting callers read a null result as not found
+  private Optional<Employee> fill(Long id, CompletableFuture<Optional<Employee>> future,
+      Function<Long, Optional<Employee>> loader) {
+    Optional<Employee> loaded;
+    try {
+      loaded = loader.apply(id);
+    } catch (RuntimeException e) {
+      cache.asMap().remove(id, future);
+      future.completeExceptionally(e);
+      throw e;
+    }
+    if (loaded.isPresent() || cacheMisses) {
+      future.complete(loaded);
+      // an entry has no expiry while loading, replacing it with itself computes the ttl
+      cache.asMap().replace(id, future, future);
+    } else {
+      cache.asMap().remove(id, future);
+      future.complete(null);
+    }
+    return loaded;
+  }
+
+  private static Optional<Employee> join(CompletableFuture<Optional<Employee>> future) {
+    try {
+      Optional<Employee> employee = future.join();
+      return employee == null ? Optional.empty() : employee;
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  // the loaded value, null while loading or when the load failed
+  private static Optional<Employee> loaded(CompletableFuture<Optional<Employee>> future) {
+    return future != null && future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+  }
+
+  // an entry still loading counts as absent
+  public Optional<Employee> getIfPresent(Long id) {
+    if (cache == null) {
+      return Optional.empty();
+    }
+    Optional<Employee> employee = loaded(cache.getIfPresent(id));
+    return employee == null ? Optional.empty() : employee;
+  }
+
+  public void put(Employee employee) {
+    if (cache != null) {
+      cache.put(employee.getId(), CompletableFuture.completedFuture(Optional.of(employee)));
+    }
+  }
+
+  public void evict(Long id) {
+    if (cache != null) {
+      cache.synchronous().invalidate(id);
+    }
+  }
+
+  // a remote change only drops entries older than itself; one at least as new stays cached,
+  // a cached "not found" and a load still running always go
+  public void evictOlderThan(Long id, long version) {
+    if (cache != null) {
+      cache.asMap().computeIfPresent(id, (key, future) -> {
+        Optional<Employee> employee = loaded(future);
+        return employee != null && employee.isPresent() && employee.get().getVersion() >= version ? future : null;
+      });
+    }
+  }
+
+  public void evictAll() {
+    if (cache != null) {
+      cache.synchronous().invalidateAll();
+    }
+  }
+
+  public CacheStats stats() {
+    return cache == null ? CacheStats.empty() : cache.synchronous().stats();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    if (cache != null) {
+      CaffeineCacheMetrics.monitor(registry, cache, NAME);
+    }
+  }
+}
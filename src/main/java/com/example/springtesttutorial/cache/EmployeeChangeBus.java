@@ -0,0 +1,190 @@
+package com.example.springtesttutorial.cache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.springtesttutorial.cache.EmployeeChangedEvent.Change;
+
+// keeps the per-node employee caches coherent without an external broker: local changes are
+// sent with NOTIFY once committed, and a dedicated connection LISTENs for the other nodes' changes
+@Component
+@ConditionalOnProperty(name = "employee.cache.invalidation.enabled", havingValue = "true")
+public class EmployeeChangeBus implements SmartLifecycle {
+
+  static final String CHANNEL = "employee_changes";
+
+  private static final Logger log = LoggerFactory.getLogger(EmployeeChangeBus.class);
+
+  // NOTIFY payloads must stay below 8000 bytes, larger events are split across notifications
+  static final int MAX_PAYLOAD_LENGTH = 7900;
+
+  private static final int POLL_TIMEOUT_MILLIS = 1000;
+  private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+  private final String nodeId = UUID.randomUUID().toString();
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final DataSourceProperties dataSourceProperties;
+
+  private final EmployeeCache employeeCache;
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  private volatile boolean running;
+
+  private volatile Thread listener;
+
+  public EmployeeChangeBus(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties,
+      EmployeeCache employeeCache, ApplicationEventPublisher eventPublisher) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.dataSourceProperties = dataSourceProperties;
+    this.employeeCache = employeeCache;
+    this.eventPublisher = eventPublisher;
+  }
+
+  // runs after the writing transaction committed (or right away when there was none); the
+  // notifications need a transaction of their own, NOTIFY is only delivered on commit. One
+  // statement per event, however many changes (and payloads) it holds
+  @TransactionalEventListener(fallbackExecution = true)
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public void publish(EmployeeChangedEvent event) {
+    if (event.remote() || event.changes().isEmpty()) {
+      return;
+    }
+    jdbcTemplate.query("SELECT pg_notify(?, payload) FROM unnest(CAST(? AS text[])) AS payload",
+        (RowCallbackHandler) resultSet -> {
+        }, CHANNEL, toPayloads(nodeId, event).toArray(String[]::new));
+  }
+
+  void receive(String payload) {
+    String[] parts = payload.split(":", 2);
+    List<Change> changes = parts.length == 2 ? parseChanges(parts[1]) : null;
+    if (changes == null) {
+      log.warn("Ignoring malformed employee change notification {}", payload);
+      return;
+    }
+    if (nodeId.equals(parts[0])) {
+      return;
+    }
+
+    changes.forEach(change -> employeeCache.evictOlderThan(change.id(), change.version()));
+    eventPublisher.publishEvent(new EmployeeChangedEvent(changes, true));
+  }
+
+  // id:version pairs separated by commas, null when any of them is malformed
+  private static List<Change> parseChanges(String changes) {
+    List<Change> parsed = new ArrayList<>();
+    for (String change : changes.split(",")) {
+      String[] parts = change.split(":");
+      if (parts.length != 2 || !isNumber(parts[0]) || !isNumber(parts[1])) {
+        return null;
+      }
+      parsed.add(new Change(Long.parseLong(parts[0]), Long.parseLong(parts[1]), null));
+    }
+    return parsed;
+  }
+
+  private static boolean isNumber(String part) {
+    return !part.isEmpty() && part.chars().allMatch(Character::isDigit);
+  }
+
+  // nodeId:id:version[,id:version...], as few payloads as fit below the NOTIFY limit
+  static List<String> toPayloads(String nodeId, EmployeeChangedEvent event) {
+    List<String> payloads = new ArrayList<>();
+    StringBuilder payload = new StringBuilder(nodeId);
+    int emptyLength = payload.length();
+    for (Change change : event.changes()) {
+      String entry = change.id() + ":" + change.version();
+      if (payload.length() > emptyLength && payload.length() + 1 + entry.length() > MAX_PAYLOAD_LENGTH) {
+        payloads.add(payload.toString());
+        payload.setLength(emptyLength);
+      }
+      payload.append(payload.length() == emptyLength ? ':' : ',').append(entry);
+    }
+    payloads.add(payload.toString());
+    return payloads;
+  }
+
+  String getNodeId() {
+    return nodeId;
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    listener = new Thread(this::listen, "employee-change-listener");
+    listener.setDaemon(true);
+    listener.start();
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    Thread thread = listener;
+    if (thread != null) {
+      thread.interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void listen() {
+    while (running) {
+      try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+          dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("LISTEN " + CHANNEL);
+        }
+        // notifications sent while we were not listening are lost, start from a clean cache
+        employeeCache.evictAll();
+
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (running) {
+          PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+          if (notifications != null) {
+            for (PGNotification notification : notifications) {
+              receive(notification.getParameter());
+            }
+          }
+        }
+      } catch (SQLException | RuntimeException e) {
+        if (!running) {
+          return;
+        }
+        log.warn("Employee change listener lost its connection, reconnecting in {} ms", RECONNECT_DELAY_MILLIS, e);
+        employeeCache.evictAll();
+        try {
+          Thread.sleep(RECONNECT_DELAY_MILLIS);
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+}
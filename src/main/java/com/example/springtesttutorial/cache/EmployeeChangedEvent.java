@@ -0,0 +1,45 @@
+package com.example.springtesttutorial.cache;
+
+import java.util.List;
+
+import com.example.springtesttutorial.model.Employee;
+
+// published after employees were created, updated or deleted, one event per write or per chunk of
+// a bulk write; remote events were received from another node through the change bus and must not
+// be broadcast again. Each change carries the version the write produced, so receivers can tell
+// it from an older change that arrives late, and a local one the written employee itself, so
+// listeners need not read it back
+public record EmployeeChangedEvent(List<Change> changes, boolean remote) {
+
+  // a deletion is newer than every version the employee ever had
+  public static final long DELETED = Long.MAX_VALUE;
+
+  // employee is the state as written, null for a deletion and for a change from another node
+  public record Change(long id, long version, Employee employee) {
+
+    public boolean isDeleted() {
+      return version == DELETED;
+    }
+  }
+
+  public static EmployeeChangedEvent local(Employee employee) {
+    return local(List.of(employee));
+  }
+
+  public static EmployeeChangedEvent local(List<Employee> employees) {
+    return new EmployeeChangedEvent(
+        employees.stream().map(employee -> new Change(employee.getId(), employee.getVersion(), employee)).toList(), false);
+  }
+
+  public static EmployeeChangedEvent deleted(long id) {
+    return deleted(List.of(id));
+  }
+
+  public static EmployeeChangedEvent deleted(List<Long> ids) {
+    return new EmployeeChangedEvent(ids.stream().map(id -> new Change(id, DELETED, null)).toList(), false);
+  }
+
+  public List<Long> ids() {
+    return changes.stream().map(Change::id).toList();
+  }
+}
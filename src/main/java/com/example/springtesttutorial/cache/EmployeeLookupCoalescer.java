@@ -0,0 +1,48 @@
+package com.example.springtesttutorial.cache;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.example.springtesttutorial.model.Employee;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// shares one in-flight database lookup between concurrent callers asking for the same employee,
+// employee.lookup.coalesced / employee.lookup.calls shows how much of the herd was absorbed
+@Component
+public class EmployeeLookupCoalescer implements MeterBinder {
+
+  private final SingleFlight<Long, Optional<Employee>> byId = new SingleFlight<>();
+
+  private final SingleFlight<String, Optional<Employee>> byEmail = new SingleFlight<>();
+
+  public Optional<Employee> byId(Long id, Supplier<Optional<Employee>> loader) {
+    return byId.execute(id, loader);
+  }
+
+  public Optional<Employee> byEmail(String email, Supplier<Optional<Employee>> loader) {
+    return byEmail.execute(email.toLowerCase(Locale.ROOT), loader);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    bind(registry, "id", byId);
+    bind(registry, "email", byEmail);
+  }
+
+  private static void bind(MeterRegistry registry, String key, SingleFlight<?, ?> flights) {
+    FunctionCounter.builder("employee.lookup.calls", flights, SingleFlight::calls)
+        .tag("key", key)
+        .description("Employee lookups requested")
+        .register(registry);
+    FunctionCounter.builder("employee.lookup.coalesced", flights, SingleFlight::coalesced)
+        .tag("key", key)
+        .description("Employee lookups that joined an in-flight query instead of running their own")
+        .register(registry);
+  }
+}
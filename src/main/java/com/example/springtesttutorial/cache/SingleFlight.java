@@ -0,0 +1,63 @@
+package com.example.springtesttutorial.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// request coalescing: while a load for a key is running, further callers for the same key
+// wait for it and share its result or exception instead of starting their own
+public class SingleFlight<K, V> {
+
+  private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+  private final LongAdder calls = new LongAdder();
+
+  private final LongAdder coalesced = new LongAdder();
+
+  public V execute(K key, Supplier<V> loader) {
+    calls.increment();
+
+    CompletableFuture<V> flight = new CompletableFuture<>();
+    CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+    if (existing != null) {
+      coalesced.increment();
+      return join(existing);
+    }
+
+    try {
+      V value = loader.get();
+      flight.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, flight);
+    }
+  }
+
+  // waits for a shared future and rethrows the loader's own exception rather than a wrapper
+  static <V> V join(CompletableFuture<V> flight) {
+    try {
+      return flight.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  public long calls() {
+    return calls.sum();
+  }
+
+  public long coalesced() {
+    return coalesced.sum();
+  }
+}
@@ -0,0 +1,63 @@
+package com.example.springtesttutorial.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+// caps how many callers may be waiting for a pool connection at once. On virtual threads every request
+// reaches the pool, and thousands queueing into its connection timeout only turn a short overload into
+// a long one; callers over the cap are refused at once (answered with a 503 by GlobalExceptionHandler).
+final class ConnectionWaitLimitingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+  private final int maxWaiters;
+
+  private final AtomicInteger waiting = new AtomicInteger();
+
+  ConnectionWaitLimitingDataSource(DataSource target, int maxWaiters) {
+    super(target);
+    this.maxWaiters = maxWaiters;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    admit();
+    try {
+      return super.getConnection();
+    } finally {
+      waiting.decrementAndGet();
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    admit();
+    try {
+      return super.getConnection(username, password);
+    } finally {
+      waiting.decrementAndGet();
+    }
+  }
+
+  int waiting() {
+    return waiting.get();
+  }
+
+  private void admit() throws SQLException {
+    if (waiting.incrementAndGet() > maxWaiters) {
+      waiting.decrementAndGet();
+      throw new SQLTransientConnectionException(String.format("More than %s callers are waiting for a connection", maxWaiters));
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (obtainTargetDataSource() instanceof AutoCloseable pool) {
+      pool.close();
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package com.example.springtesttutorial.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+@Configuration
+public class DataSourceConfig {
+
+  // a transaction takes its pool connection with the first statement instead of at begin, so a
+  // read-only transaction answered from a cache, and the time before the first query, hold none.
+  // Read-only and auto-commit settings are applied once the real connection is fetched.
+  // With virtual threads the pool is also guarded against more waiters than max-connection-waiters.
+  @Bean
+  public static BeanPostProcessor lazyConnectionDataSourcePostProcessor(Environment environment) {
+    // bound by hand, post processors are created before configuration properties beans
+    EmployeeExecutionProperties execution = Binder.get(environment)
+        .bindOrCreate("employee.execution", EmployeeExecutionProperties.class);
+    return new BeanPostProcessor() {
+
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof LazyConnectionDataSourceProxy)) {
+          return new ClosingLazyConnectionDataSourceProxy(guard(dataSource, execution));
+        }
+        return bean;
+      }
+    };
+  }
+
+  static DataSource guard(DataSource dataSource, EmployeeExecutionProperties execution) {
+    return execution.virtualThreads() ? new ConnectionWaitLimitingDataSource(dataSource, execution.maxConnectionWaiters())
+        : dataSource;
+  }
+
+  // the container closes beans through the exposed (wrapped) instance, so close is passed on to the pool
+  static final class ClosingLazyConnectionDataSourceProxy extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    ClosingLazyConnectionDataSourceProxy(DataSource target) {
+      super(target);
+    }
+
+    @Override
+    public void close() throws Exception {
+      if (obtainTargetDataSource() instanceof AutoCloseable pool) {
+        pool.close();
+      }
+    }
+  }
+}
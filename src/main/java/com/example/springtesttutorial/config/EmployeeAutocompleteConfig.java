@@ -0,0 +1,19 @@
+package com.example.springtesttutorial.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.springtesttutorial.search.EmployeePrefixIndex;
+
+@Configuration
+@EnableConfigurationProperties(EmployeeAutocompleteProperties.class)
+@ConditionalOnProperty(name = "employee.autocomplete.enabled", havingValue = "true", matchIfMissing = true)
+public class EmployeeAutocompleteConfig {
+
+  @Bean
+  public EmployeePrefixIndex employeePrefixIndex(EmployeeAutocompleteProperties properties) {
+    return new EmployeePrefixIndex(properties.maxDeltaSize(), properties.deletedRetention());
+  }
+}
@@ -0,0 +1,22 @@
+package com.example.springtesttutorial.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "employee.autocomplete")
+public record EmployeeAutocompleteProperties(
+
+    @DefaultValue("true") boolean enabled,
+
+    // writes kept outside the array segment before it is rebuilt
+    @DefaultValue("10000") int maxDeltaSize,
+
+    // how long a deleted id still wins over changes sent before the deletion and arriving late
+    @DefaultValue("5m") Duration deletedRetention,
+
+    @DefaultValue("10") int defaultLimit,
+
+    @DefaultValue("50") int maxLimit) {
+}
@@ -0,0 +1,18 @@
+package com.example.springtesttutorial.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "employee.batch-loader")
+public record EmployeeBatchLoaderProperties(
+
+    @DefaultValue("false") boolean enabled,
+
+    // how long the first id of a batch waits for others to join it
+    @DefaultValue("2ms") Duration window,
+
+    // a batch is sent as soon as it reaches this many distinct ids
+    @DefaultValue("100") int maxBatchSize) {
+}
@@ -0,0 +1,28 @@
+package com.example.springtesttutorial.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.example.springtesttutorial.cache.EmployeeBatchLoader;
+import com.example.springtesttutorial.cache.EmployeeCache;
+import com.example.springtesttutorial.repository.EmployeeRepository;
+import com.example.springtesttutorial.service.EmployeeServiceImpl;
+
+@Configuration
+@EnableConfigurationProperties({ EmployeeCacheProperties.class, EmployeeBatchLoaderProperties.class })
+public class EmployeeCacheConfig {
+
+  @Bean
+  public EmployeeCache employeeCache(EmployeeCacheProperties properties) {
+    return new EmployeeCache(properties);
+  }
+
+  @Bean
+  @Profile(EmployeeServiceImpl.PROFILE)
+  public EmployeeBatchLoader employeeBatchLoader(EmployeeRepository employeeRepository,
+      EmployeeBatchLoaderProperties properties) {
+    return new EmployeeBatchLoader(employeeRepository, properties);
+  }
+}
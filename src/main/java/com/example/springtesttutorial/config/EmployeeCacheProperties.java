@@ -0,0 +1,21 @@
+package com.example.springtesttutorial.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "employee.cache")
+public record EmployeeCacheProperties(
+
+    @DefaultValue("true") boolean enabled,
+
+    @DefaultValue("10000") long maximumSize,
+
+    @DefaultValue("10m") Duration ttl,
+
+    // negative caching: remember unknown ids for a short time so repeated 404s skip the database
+    @DefaultValue("false") boolean cacheMisses,
+
+    @DefaultValue("5s") Duration missTtl) {
+}
@@ -0,0 +1,14 @@
+package com.example.springtesttutorial.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "employee.execution")
+public record EmployeeExecutionProperties(
+
+    // requests and the shard fan-out run on virtual threads, needs java 21 or later at runtime
+    @DefaultValue("false") boolean virtualThreads,
+
+    // with virtual threads: callers over this many already waiting for a pool connection get a 503
+    @DefaultValue("200") int maxConnectionWaiters) {
+}
@@ -0,0 +1,19 @@
+package com.example.springtesttutorial.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.springtesttutorial.readmodel.EmployeeReadModel;
+
+@Configuration
+@EnableConfigurationProperties(EmployeeReadModelProperties.class)
+@ConditionalOnProperty(name = "employee.read-model.enabled", havingValue = "true")
+public class EmployeeReadModelConfig {
+
+  @Bean
+  public EmployeeReadModel employeeReadModel(EmployeeReadModelProperties properties) {
+    return new EmployeeReadModel(properties.maxDeltaSize(), properties.deletedRetention());
+  }
+}
@@ -0,0 +1,18 @@
+package com.example.springtesttutorial.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "employee.read-model")
+public record EmployeeReadModelProperties(
+
+    @DefaultValue("false") boolean enabled,
+
+    // writes kept outside the columns before they are rebuilt
+    @DefaultValue("10000") int maxDeltaSize,
+
+    // how long a deleted id still wins over changes sent before the deletion and arriving late
+    @DefaultValue("5m") Duration deletedRetention) {
+}
@@ -0,0 +1,25 @@
+package com.example.springtesttutorial.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "employee.replicas")
+public record EmployeeReplicaProperties(
+
+    @DefaultValue("false") boolean enabled,
+
+    // jdbc urls of the read replicas, user, password and hikari settings are the primary's
+    @DefaultValue List<String> urls,
+
+    // a replica further behind than this is skipped, and an employee changed within this
+    // time is read from the primary
+    @DefaultValue("5s") Duration maxLag,
+
+    @DefaultValue("5s") Duration healthCheckInterval,
+
+    // after a write a client reads from the primary for this long, 0 turns it off
+    @DefaultValue("5s") Duration readYourWritesWindow) {
+}
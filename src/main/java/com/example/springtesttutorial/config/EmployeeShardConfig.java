@@ -0,0 +1,62 @@
+package com.example.springtesttutorial.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import com.example.springtesttutorial.service.ShardedEmployeeService;
+import com.example.springtesttutorial.shard.EmployeeIdGenerator;
+import com.example.springtesttutorial.shard.EmployeeShards;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// the profile turns boot's single datasource off, spring.datasource.* only supplies the credentials
+@Configuration
+@Profile(ShardedEmployeeService.PROFILE)
+@EnableConfigurationProperties({ EmployeeShardProperties.class, EmployeeExecutionProperties.class, DataSourceProperties.class })
+public class EmployeeShardConfig {
+
+  // one pool per shard url (metrics tagged shard-0, shard-1 ...), the schema is created or checked on startup
+  @Bean
+  public EmployeeShards employeeShards(DataSourceProperties dataSourceProperties, EmployeeShardProperties properties,
+      EmployeeExecutionProperties execution, Environment environment, ObjectProvider<MeterRegistry> meterRegistry)
+      throws Exception {
+    if (properties.urls().isEmpty()) {
+      throw new IllegalStateException("employee.shards.urls lists no database");
+    }
+
+    List<DataSource> pools = new ArrayList<>();
+    int connections = 0;
+    for (int i = 0; i < properties.urls().size(); i++) {
+      HikariDataSource pool = ReplicaRoutingConfig.pool(dataSourceProperties, properties.urls().get(i), "shard-" + i,
+          environment, meterRegistry);
+      connections += pool.getMaximumPoolSize();
+      pools.add(DataSourceConfig.guard(pool, execution));
+    }
+
+    EmployeeShards shards = new EmployeeShards(pools, execution.virtualThreads()
+        ? VirtualThreads.newExecutor("employee-shard-") : EmployeeShards.fanOutExecutor(connections));
+    try {
+      shards.createSchema();
+    } catch (RuntimeException e) {
+      shards.close();
+      throw e;
+    }
+    return shards;
+  }
+
+  @Bean
+  public EmployeeIdGenerator employeeIdGenerator(EmployeeShards employeeShards) {
+    return new EmployeeIdGenerator(employeeShards);
+  }
+}
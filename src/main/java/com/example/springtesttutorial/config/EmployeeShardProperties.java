@@ -0,0 +1,14 @@
+package com.example.springtesttutorial.config;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "employee.shards")
+public record EmployeeShardProperties(
+
+    // jdbc urls of the shards, user, password and hikari settings are spring.datasource's;
+    // the order is part of the placement, urls may change but never their number or order
+    @DefaultValue List<String> urls) {
+}
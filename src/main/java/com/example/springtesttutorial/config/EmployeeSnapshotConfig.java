@@ -0,0 +1,27 @@
+package com.example.springtesttutorial.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.example.springtesttutorial.repository.EmployeeRepository;
+import com.example.springtesttutorial.service.EmployeeService;
+import com.example.springtesttutorial.service.EmployeeServiceImpl;
+import com.example.springtesttutorial.snapshot.EmployeeSnapshotStore;
+
+import jakarta.persistence.EntityManager;
+
+@Configuration
+@EnableConfigurationProperties(EmployeeSnapshotProperties.class)
+@ConditionalOnProperty(name = "employee.snapshot.enabled", havingValue = "true")
+@Profile(EmployeeServiceImpl.PROFILE)
+public class EmployeeSnapshotConfig {
+
+  @Bean
+  public EmployeeSnapshotStore employeeSnapshotStore(EmployeeService employeeService,
+      EmployeeRepository employeeRepository, EntityManager entityManager, EmployeeSnapshotProperties properties) {
+    return new EmployeeSnapshotStore(employeeService, employeeRepository, entityManager, properties);
+  }
+}
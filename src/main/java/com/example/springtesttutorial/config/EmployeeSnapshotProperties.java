@@ -0,0 +1,19 @@
+package com.example.springtesttutorial.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "employee.snapshot")
+public record EmployeeSnapshotProperties(
+
+    @DefaultValue("false") boolean enabled,
+
+    // node-local file, written to <path>.tmp first and moved in place
+    @DefaultValue("employees.snapshot") Path path,
+
+    // time between two snapshots, the first one is written this long after startup
+    @DefaultValue("10m") Duration interval) {
+}
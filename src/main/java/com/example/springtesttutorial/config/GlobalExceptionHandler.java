@@ -1,12 +1,22 @@
 package com.example.springtesttutorial.config;
 
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessResourceException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import com.example.springtesttutorial.exception.BatchTooLargeException;
 import com.example.springtesttutorial.exception.EmployeeAlreadyExistsException;
 import com.example.springtesttutorial.exception.EmployeeNotFoundException;
+import com.example.springtesttutorial.exception.EmployeeVersionMismatchException;
+import com.example.springtesttutorial.exception.InvalidCursorException;
+import com.example.springtesttutorial.exception.InvalidDeleteRequestException;
+import com.example.springtesttutorial.exception.InvalidFieldsException;
+import com.example.springtesttutorial.exception.InvalidSearchException;
+import com.example.springtesttutorial.exception.PreconditionRequiredException;
 import com.example.springtesttutorial.model.ErrorMessage;
 
 @ControllerAdvice
@@ -39,5 +49,117 @@ public class GlobalExceptionHandler {
 
     return new ResponseEntity<>(errorMessage, status);
   }
-  
+
+  @ExceptionHandler(InvalidCursorException.class)
+  public ResponseEntity<ErrorMessage> handleInvalidCursorException(InvalidCursorException exception) {
+
+    HttpStatus status = HttpStatus.BAD_REQUEST;
+
+    ErrorMessage errorMessage = new ErrorMessage();
+    errorMessage.setStatus(status.toString());
+    errorMessage.setException(exception.getClass().getSimpleName());
+    errorMessage.setMessage(exception.getMessage());
+    errorMessage.setDate(new java.util.Date());
+
+    return new ResponseEntity<>(errorMessage, status);
+  }
+
+  @ExceptionHandler(BatchTooLargeException.class)
+  public ResponseEntity<ErrorMessage> handleBatchTooLargeException(BatchTooLargeException exception) {
+
+    HttpStatus status = HttpStatus.PAYLOAD_TOO_LARGE;
+
+    ErrorMessage errorMessage = new ErrorMessage();
+    errorMessage.setStatus(status.toString());
+    errorMessage.setException(exception.getClass().getSimpleName());
+    errorMessage.setMessage(exception.getMessage());
+    errorMessage.setDate(new java.util.Date());
+
+    return new ResponseEntity<>(errorMessage, status);
+  }
+
+  @ExceptionHandler(InvalidDeleteRequestException.class)
+  public ResponseEntity<ErrorMessage> handleInvalidDeleteRequestException(InvalidDeleteRequestException exception) {
+
+    HttpStatus status = HttpStatus.BAD_REQUEST;
+
+    ErrorMessage errorMessage = new ErrorMessage();
+    errorMessage.setStatus(status.toString());
+    errorMessage.setException(exception.getClass().getSimpleName());
+    errorMessage.setMessage(exception.getMessage());
+    errorMessage.setDate(new java.util.Date());
+
+    return new ResponseEntity<>(errorMessage, status);
+  }
+
+  @ExceptionHandler(EmployeeVersionMismatchException.class)
+  public ResponseEntity<ErrorMessage> handleEmployeeVersionMismatchException(EmployeeVersionMismatchException exception) {
+
+    HttpStatus status = HttpStatus.PRECONDITION_FAILED;
+
+    ErrorMessage errorMessage = new ErrorMessage();
+    errorMessage.setStatus(status.toString());
+    errorMessage.setException(exception.getClass().getSimpleName());
+    errorMessage.setMessage(exception.getMessage());
+    errorMessage.setDate(new java.util.Date());
+
+    return new ResponseEntity<>(errorMessage, status);
+  }
+
+  @ExceptionHandler(PreconditionRequiredException.class)
+  public ResponseEntity<ErrorMessage> handlePreconditionRequiredException(PreconditionRequiredException exception) {
+
+    HttpStatus status = HttpStatus.PRECONDITION_REQUIRED;
+
+    ErrorMessage errorMessage = new ErrorMessage();
+    errorMessage.setStatus(status.toString());
+    errorMessage.setException(exception.getClass().getSimpleName());
+    errorMessage.setMessage(exception.getMessage());
+    errorMessage.setDate(new java.util.Date());
+
+    return new ResponseEntity<>(errorMessage, status);
+  }
+
+  @ExceptionHandler(InvalidFieldsException.class)
+  public ResponseEntity<ErrorMessage> handleInvalidFieldsException(InvalidFieldsException exception) {
+
+    HttpStatus status = HttpStatus.BAD_REQUEST;
+
+    ErrorMessage errorMessage = new ErrorMessage();
+    errorMessage.setStatus(status.toString());
+    errorMessage.setException(exception.getClass().getSimpleName());
+    errorMessage.setMessage(exception.getMessage());
+    errorMessage.setDate(new java.util.Date());
+
+    return new ResponseEntity<>(errorMessage, status);
+  }
+
+  @ExceptionHandler(InvalidSearchException.class)
+  public ResponseEntity<ErrorMessage> handleInvalidSearchException(InvalidSearchException exception) {
+
+    HttpStatus status = HttpStatus.BAD_REQUEST;
+
+    ErrorMessage errorMessage = new ErrorMessage();
+    errorMessage.setStatus(status.toString());
+    errorMessage.setException(exception.getClass().getSimpleName());
+    errorMessage.setMessage(exception.getMessage());
+    errorMessage.setDate(new java.util.Date());
+
+    return new ResponseEntity<>(errorMessage, status);
+  }
+
+  // no pool connection to be had: the pool timed out or too many callers were already waiting
+  @ExceptionHandler({ DataAccessResourceFailureException.class, TransientDataAccessResourceException.class })
+  public ResponseEntity<ErrorMessage> handleConnectionUnavailable(DataAccessException exception) {
+
+    HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+
+    ErrorMessage errorMessage = new ErrorMessage();
+    errorMessage.setStatus(status.toString());
+    errorMessage.setException(exception.getClass().getSimpleName());
+    errorMessage.setMessage("No database connection available, retry later");
+    errorMessage.setDate(new java.util.Date());
+
+    return new ResponseEntity<>(errorMessage, status);
+  }
 }
@@ -0,0 +1,20 @@
+package com.example.springtesttutorial.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.example.springtesttutorial.service.ReactiveEmployeeService;
+
+@Configuration
+@Profile(ReactiveEmployeeService.PROFILE)
+public class ReactiveWebConfig {
+
+  // tomcat is on the classpath for the default stack and boot would prefer it as reactive server too;
+  // netty serves all connections from a few event-loop threads
+  @Bean
+  public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+    return new NettyReactiveWebServerFactory();
+  }
+}
@@ -0,0 +1,70 @@
+package com.example.springtesttutorial.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.example.springtesttutorial.routing.ReadRouting;
+import com.example.springtesttutorial.routing.ReadYourWritesFilter;
+import com.example.springtesttutorial.routing.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(EmployeeReplicaProperties.class)
+public class ReplicaRoutingConfig {
+
+  @Bean
+  public ReadRouting readRouting(EmployeeReplicaProperties properties) {
+    return new ReadRouting(properties);
+  }
+
+  // replaces boot's single pool: one pool for the primary (spring.datasource.*) and one per replica url,
+  // all with the spring.datasource.hikari settings; pool metrics are tagged with the pool name
+  @Bean
+  @ConditionalOnProperty(name = "employee.replicas.enabled", havingValue = "true")
+  public DataSource dataSource(DataSourceProperties dataSourceProperties, EmployeeReplicaProperties properties,
+      Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+    HikariDataSource primary = pool(dataSourceProperties, dataSourceProperties.determineUrl(), "primary", environment, meterRegistry);
+    List<DataSource> replicas = new ArrayList<>();
+    for (int i = 0; i < properties.urls().size(); i++) {
+      HikariDataSource replica = pool(dataSourceProperties, properties.urls().get(i), "replica-" + i, environment, meterRegistry);
+      replica.setReadOnly(true);
+      replicas.add(replica);
+    }
+    return new ReplicaRoutingDataSource(primary, replicas, properties.maxLag(), properties.healthCheckInterval());
+  }
+
+  static HikariDataSource pool(DataSourceProperties dataSourceProperties, String url, String name,
+      Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+    HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+    Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+    pool.setPoolName(name);
+    meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+    return pool;
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "employee.replicas.enabled", havingValue = "true")
+  public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(EmployeeReplicaProperties properties) {
+    FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(
+        new ReadYourWritesFilter(properties.readYourWritesWindow()));
+    registration.addUrlPatterns("/api/*");
+    registration.setEnabled(!properties.readYourWritesWindow().isZero());
+    return registration;
+  }
+}
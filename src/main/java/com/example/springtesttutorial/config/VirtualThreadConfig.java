@@ -0,0 +1,31 @@
+package com.example.springtesttutorial.config;
+
+import java.util.concurrent.ExecutorService;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(EmployeeExecutionProperties.class)
+@ConditionalOnProperty(name = "employee.execution.virtual-threads", havingValue = "true")
+public class VirtualThreadConfig {
+
+  // fails the startup on java 17 with the property named, before any bean asks for an executor
+  public VirtualThreadConfig() {
+    VirtualThreads.requireSupported();
+  }
+
+  // tomcat hands every request to a new virtual thread instead of its worker pool, so a request waiting
+  // on jdbc parks a virtual thread and server.tomcat.threads.max no longer caps the concurrency; the
+  // connection pool does (see ConnectionWaitLimitingDataSource). Virtual threads never keep the jvm
+  // alive, the executor needs no shutdown.
+  @Bean
+  public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+    ExecutorService executor = VirtualThreads.newExecutor("http-virtual-");
+    return protocolHandler -> protocolHandler.setExecutor(executor);
+  }
+}
@@ -0,0 +1,42 @@
+package com.example.springtesttutorial.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// the build targets java 17, so the java 21 api (Thread.ofVirtual, Executors.newThreadPerTaskExecutor)
+// is looked up at runtime; on an older jvm the virtual thread mode fails the startup
+public final class VirtualThreads {
+
+  private VirtualThreads() {
+  }
+
+  public static boolean isSupported() {
+    return Runtime.version().feature() >= 21;
+  }
+
+  // checked when the mode is switched on, before anything looks the api up
+  public static void requireSupported() {
+    if (!isSupported()) {
+      throw new IllegalStateException(String.format(
+          "employee.execution.virtual-threads=true needs java 21 or later, this is java %s; run on java 21 or set it to false",
+          Runtime.version()));
+    }
+  }
+
+  // a new virtual thread per task, named prefix0, prefix1 ...
+  public static ExecutorService newExecutor(String prefix) {
+    requireSupported();
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+      builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+      ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+      Method executor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      return (ExecutorService) executor.invoke(null, factory);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Virtual threads are not available", e);
+    }
+  }
+}
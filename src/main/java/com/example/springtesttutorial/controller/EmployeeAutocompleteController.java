@@ -0,0 +1,36 @@
+package com.example.springtesttutorial.controller;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.springtesttutorial.config.EmployeeAutocompleteProperties;
+import com.example.springtesttutorial.model.EmployeeSuggestion;
+import com.example.springtesttutorial.search.EmployeePrefixIndex;
+
+// type-ahead served from the in-process prefix index, never from the database
+@RestController
+@RequestMapping("/api/v1/employee/autocomplete")
+@ConditionalOnProperty(name = "employee.autocomplete.enabled", havingValue = "true", matchIfMissing = true)
+public class EmployeeAutocompleteController {
+
+  private EmployeePrefixIndex employeePrefixIndex;
+
+  private EmployeeAutocompleteProperties properties;
+
+  public EmployeeAutocompleteController(EmployeePrefixIndex employeePrefixIndex,
+      EmployeeAutocompleteProperties properties) {
+    this.employeePrefixIndex = employeePrefixIndex;
+    this.properties = properties;
+  }
+
+  @GetMapping
+  public List<EmployeeSuggestion> autocomplete(@RequestParam String q, @RequestParam(required = false) Integer limit) {
+    int max = limit == null ? properties.defaultLimit() : Math.max(1, Math.min(limit, properties.maxLimit()));
+    return employeePrefixIndex.search(q, max);
+  }
+}
@@ -1,26 +1,42 @@
 package com.example.springtesttutorial.controller;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import com.example.springtesttutorial.exception.InvalidSearchException;
 import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeeDeleteReport;
+import com.example.springtesttutorial.model.EmployeeDeleteRequest;
+import com.example.springtesttutorial.model.EmployeeFieldsPage;
+import com.example.springtesttutorial.model.EmployeeLookupResult;
+import com.example.springtesttutorial.model.EmployeePage;
+import com.example.springtesttutorial.model.EmployeeSearch;
 import com.example.springtesttutorial.service.EmployeeService;
+import com.example.springtesttutorial.service.ReactiveEmployeeService;
 
 @RestController
 @RequestMapping("/api/v1/employee")
+@Profile("!" + ReactiveEmployeeService.PROFILE)
 public class EmployeeController {
+
+  static final String FIELDS_WITH_SEARCH = "fields cannot be combined with firstName, lastName, emailDomain or sort";
  
   private EmployeeService employeeService;
 
@@ -29,31 +45,85 @@ public class EmployeeController {
   }
 
   @PostMapping
+  public ResponseEntity<Employee> saveEmployee(@RequestBody Employee employee) {
+    Employee savedEmployee = employeeService.saveEmployee(employee);
+    return ResponseEntity.status(HttpStatus.CREATED).eTag(EmployeeETag.of(savedEmployee.getVersion())).body(savedEmployee);
+  }
+
+  @PostMapping("/batch")
   @ResponseStatus(HttpStatus.CREATED)
-  public Employee saveEmployee(@RequestBody Employee employee) {
-    return employeeService.saveEmployee(employee);
+  public List<Employee> saveEmployees(@RequestBody List<Employee> employees) {
+    return employeeService.saveEmployees(employees);
   }
 
+  // responses carrying an ETag are answered with 304 and no body when it matches If-None-Match;
+  // firstName, lastName, emailDomain and sort are bound into the search from the query string
   @GetMapping
-  public List<Employee> getAllEmployees() {
-    return employeeService.getAllEmployees();
+  public ResponseEntity<EmployeePage> getAllEmployees(EmployeeSearch search,
+      @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+    EmployeePage page = employeeService.searchEmployees(search, cursor, size);
+    return ResponseEntity.ok().eTag(EmployeeETag.of(page)).body(page);
+  }
+
+  // sparse fieldset, e.g. fields=id,email: only those columns are selected and serialized. The
+  // projection pages by id over all employees, filters or a sort are refused instead of ignored
+  @GetMapping(params = "fields")
+  public EmployeeFieldsPage getAllEmployees(EmployeeSearch search, @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer size, @RequestParam List<String> fields) {
+    if (!search.isDefault()) {
+      throw new InvalidSearchException(FIELDS_WITH_SEARCH);
+    }
+    return employeeService.getEmployeePage(cursor, size, fields);
+  }
+
+  @GetMapping(params = "ids")
+  public EmployeeLookupResult getEmployeesByIds(@RequestParam List<Long> ids) {
+    return employeeService.getEmployeesByIds(ids);
   }
 
+  // same as GET ?ids= for id lists too long for a query string
+  @PostMapping("/lookup")
+  public EmployeeLookupResult lookupEmployees(@RequestBody List<Long> ids) {
+    return employeeService.getEmployeesByIds(ids);
+  }
+
+  // served from the employee cache when possible, so a matching If-None-Match costs no query either
   @GetMapping("/{id}")
   public ResponseEntity<Employee> getEmployeeById(@PathVariable Long id) {
     Employee employee = employeeService.getEmployeeById(id);
-    return new ResponseEntity<>(employee, HttpStatus.OK);
+    return ResponseEntity.ok().eTag(EmployeeETag.of(employee.getVersion())).body(employee);
+  }
+
+  @GetMapping(path = "/{id}", params = "fields")
+  public Map<String, Object> getEmployeeById(@PathVariable Long id, @RequestParam List<String> fields) {
+    return employeeService.getEmployeeById(id, fields);
   }
 
+  @GetMapping("/email/{email}")
+  public ResponseEntity<Employee> getEmployeeByEmail(@PathVariable String email) {
+    Employee employee = employeeService.getEmployeeByEmail(email);
+    return ResponseEntity.ok().eTag(EmployeeETag.of(employee.getVersion())).body(employee);
+  }
+
+  // If-Match is required so concurrent writers cannot silently overwrite each other, "*" opts out
   @PatchMapping("/{id}")
-  public ResponseEntity<Employee> updateEmployee(@PathVariable Long id, @RequestBody Employee updatedEmployee) {
-    Employee employee = employeeService.updateEmployee(id, updatedEmployee);
-    return new ResponseEntity<>(employee, HttpStatus.OK);
+  public ResponseEntity<Employee> updateEmployee(@PathVariable Long id,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @RequestBody Employee updatedEmployee) {
+    Employee employee = employeeService.updateEmployee(id, EmployeeETag.parseIfMatch(ifMatch), updatedEmployee);
+    return ResponseEntity.ok().eTag(EmployeeETag.of(employee.getVersion())).body(employee);
   }
 
   @DeleteMapping("/{id}")
-  public ResponseEntity<String> deleteEmployee(@PathVariable Long id) {
-    employeeService.deleteEmployee(id);
+  public ResponseEntity<String> deleteEmployee(@PathVariable Long id,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    employeeService.deleteEmployee(id, EmployeeETag.parseIfMatch(ifMatch));
     return new ResponseEntity<>("Employee deleted successfully", HttpStatus.OK);
   }
+
+  // bulk delete by ids or by filter, runs in bounded chunks
+  @DeleteMapping
+  public EmployeeDeleteReport deleteEmployees(@RequestBody EmployeeDeleteRequest request) {
+    return employeeService.deleteEmployees(request);
+  }
 }
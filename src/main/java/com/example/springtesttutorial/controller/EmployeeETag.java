@@ -0,0 +1,50 @@
+package com.example.springtesttutorial.controller;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.util.DigestUtils;
+
+import com.example.springtesttutorial.exception.EmployeeVersionMismatchException;
+import com.example.springtesttutorial.exception.PreconditionRequiredException;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeePage;
+
+// strong ETags carrying the employee version, e.g. "3"
+final class EmployeeETag {
+
+  private EmployeeETag() {
+  }
+
+  static String of(long version) {
+    return "\"" + version + "\"";
+  }
+
+  // a page changes whenever one of its rows is written, a row enters or leaves it, or the next cursor moves
+  static String of(EmployeePage page) {
+    StringBuilder state = new StringBuilder();
+    for (Employee employee : page.getContent()) {
+      state.append(employee.getId()).append(':').append(employee.getVersion()).append(',');
+    }
+    state.append(page.getNext());
+    return "\"" + DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+  }
+
+  // the version an If-Match header requires, null for "*" (any current version)
+  static Long parseIfMatch(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank()) {
+      throw new PreconditionRequiredException("If-Match header with the employee ETag is required");
+    }
+    String value = ifMatch.trim();
+    if (value.equals("*")) {
+      return null;
+    }
+    // weak tags never match under If-Match, anything else we did not hand out cannot match either
+    if (value.length() > 2 && value.startsWith("\"") && value.endsWith("\"")) {
+      String version = value.substring(1, value.length() - 1);
+      if (version.chars().allMatch(Character::isDigit) && version.length() < 19) {
+        return Long.parseLong(version);
+      }
+    }
+    throw new EmployeeVersionMismatchException(String.format("If-Match %s does not match the employee", value));
+  }
+}
@@ -0,0 +1,121 @@
+package com.example.springtesttutorial.controller;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.service.EmployeeService;
+import com.example.springtesttutorial.service.ReactiveEmployeeService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+// streams every employee straight to the response, one row at a time, so the
+// export never holds the whole table in memory
+@RestController
+@RequestMapping("/api/v1/employee")
+@Profile("!" + ReactiveEmployeeService.PROFILE)
+public class EmployeeExportController {
+
+  static final String NDJSON = "application/x-ndjson";
+  static final String CSV = "text/csv";
+
+  // the first row goes out at once so the download starts, then every this many rows
+  static final int FLUSH_INTERVAL = 1000;
+
+  private EmployeeService employeeService;
+
+  private ObjectMapper objectMapper;
+
+  public EmployeeExportController(EmployeeService employeeService, ObjectMapper objectMapper) {
+    this.employeeService = employeeService;
+    this.objectMapper = objectMapper;
+  }
+
+  @GetMapping("/export")
+  public void exportEmployeesAsNdjson(HttpServletResponse response) throws IOException {
+    response.setContentType(NDJSON);
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"employees.ndjson\"");
+
+    OutputStream out = response.getOutputStream();
+    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      // rows are separated by the newline written below, not jackson's default space
+      generator.setRootValueSeparator(null);
+
+      AtomicLong rows = new AtomicLong();
+      employeeService.forEachEmployee(employee -> {
+        try {
+          generator.writeObject(employee);
+          generator.writeRaw('\n');
+          if (rows.getAndIncrement() % FLUSH_INTERVAL == 0) {
+            // through jackson's buffer to the response, which commits and sends it
+            generator.flush();
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    }
+    out.flush();
+  }
+
+  @GetMapping(path = "/export", params = "format=csv")
+  public void exportEmployeesAsCsv(HttpServletResponse response) throws IOException {
+    response.setContentType(CSV);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"employees.csv\"");
+
+    Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+    writer.write("id,firstName,lastName,email\n");
+    // push the header out immediately so clients see the download start
+    writer.flush();
+
+    AtomicLong rows = new AtomicLong();
+    employeeService.forEachEmployee(employee -> {
+      try {
+        writeCsvRow(writer, employee);
+        if (rows.getAndIncrement() % FLUSH_INTERVAL == 0) {
+          writer.flush();
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    writer.flush();
+  }
+
+  private static void writeCsvRow(Writer writer, Employee employee) throws IOException {
+    writer.write(Long.toString(employee.getId()));
+    writer.write(',');
+    writer.write(csvField(employee.getFirstName()));
+    writer.write(',');
+    writer.write(csvField(employee.getLastName()));
+    writer.write(',');
+    writer.write(csvField(employee.getEmail()));
+    writer.write('\n');
+  }
+
+  static String csvField(String value) {
+    if (value == null) {
+      return "";
+    }
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+}
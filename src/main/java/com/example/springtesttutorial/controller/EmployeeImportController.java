@@ -0,0 +1,30 @@
+package com.example.springtesttutorial.controller;
+
+import java.io.InputStream;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.springtesttutorial.model.EmployeeImportReport;
+import com.example.springtesttutorial.service.EmployeeImportService;
+import com.example.springtesttutorial.service.EmployeeServiceImpl;
+
+@RestController
+@RequestMapping("/api/v1/employee")
+@Profile(EmployeeServiceImpl.PROFILE)
+public class EmployeeImportController {
+
+  private EmployeeImportService employeeImportService;
+
+  public EmployeeImportController(EmployeeImportService employeeImportService) {
+    this.employeeImportService = employeeImportService;
+  }
+
+  // the raw request body is read as it arrives, the file is never buffered
+  @PostMapping(path = "/import", consumes = "text/csv")
+  public EmployeeImportReport importEmployees(InputStream csv) {
+    return employeeImportService.importEmployees(csv);
+  }
+}
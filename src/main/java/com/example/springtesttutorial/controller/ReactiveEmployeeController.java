@@ -0,0 +1,150 @@
+package com.example.springtesttutorial.controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.example.springtesttutorial.exception.InvalidSearchException;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeeDeleteReport;
+import com.example.springtesttutorial.model.EmployeeDeleteRequest;
+import com.example.springtesttutorial.model.EmployeeFieldsPage;
+import com.example.springtesttutorial.model.EmployeeLookupResult;
+import com.example.springtesttutorial.model.EmployeePage;
+import com.example.springtesttutorial.model.EmployeeSearch;
+import com.example.springtesttutorial.service.ReactiveEmployeeService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// the http contract of EmployeeController and EmployeeExportController on webflux (profile "reactive"),
+// errors go through the same GlobalExceptionHandler. Handlers only assemble publishers, a few event-loop
+// threads serve all connections while the database calls are in flight.
+@RestController
+@RequestMapping("/api/v1/employee")
+@Profile(ReactiveEmployeeService.PROFILE)
+public class ReactiveEmployeeController {
+
+  private ReactiveEmployeeService employeeService;
+
+  public ReactiveEmployeeController(ReactiveEmployeeService employeeService) {
+    this.employeeService = employeeService;
+  }
+
+  @PostMapping
+  public Mono<ResponseEntity<Employee>> saveEmployee(@RequestBody Employee employee) {
+    return employeeService.saveEmployee(employee).map(savedEmployee ->
+        ResponseEntity.status(HttpStatus.CREATED).eTag(EmployeeETag.of(savedEmployee.getVersion())).body(savedEmployee));
+  }
+
+  @PostMapping("/batch")
+  @ResponseStatus(HttpStatus.CREATED)
+  public Mono<List<Employee>> saveEmployees(@RequestBody List<Employee> employees) {
+    return employeeService.saveEmployees(employees);
+  }
+
+  // responses carrying an ETag are answered with 304 and no body when it matches If-None-Match;
+  // firstName, lastName, emailDomain and sort are bound into the search from the query string
+  @GetMapping
+  public Mono<ResponseEntity<EmployeePage>> getAllEmployees(EmployeeSearch search,
+      @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+    return employeeService.searchEmployees(search, cursor, size)
+        .map(page -> ResponseEntity.ok().eTag(EmployeeETag.of(page)).body(page));
+  }
+
+  // sparse fieldset, e.g. fields=id,email; paged by id over all employees like the servlet api
+  @GetMapping(params = "fields")
+  public Mono<EmployeeFieldsPage> getAllEmployees(EmployeeSearch search, @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer size, @RequestParam List<String> fields) {
+    if (!search.isDefault()) {
+      return Mono.error(new InvalidSearchException(EmployeeController.FIELDS_WITH_SEARCH));
+    }
+    return employeeService.getEmployeePage(cursor, size, fields);
+  }
+
+  @GetMapping(params = "ids")
+  public Mono<EmployeeLookupResult> getEmployeesByIds(@RequestParam List<Long> ids) {
+    return employeeService.getEmployeesByIds(ids);
+  }
+
+  // same as GET ?ids= for id lists too long for a query string
+  @PostMapping("/lookup")
+  public Mono<EmployeeLookupResult> lookupEmployees(@RequestBody List<Long> ids) {
+    return employeeService.getEmployeesByIds(ids);
+  }
+
+  @GetMapping("/{id}")
+  public Mono<ResponseEntity<Employee>> getEmployeeById(@PathVariable Long id) {
+    return employeeService.getEmployeeById(id)
+        .map(employee -> ResponseEntity.ok().eTag(EmployeeETag.of(employee.getVersion())).body(employee));
+  }
+
+  @GetMapping(path = "/{id}", params = "fields")
+  public Mono<Map<String, Object>> getEmployeeById(@PathVariable Long id, @RequestParam List<String> fields) {
+    return employeeService.getEmployeeById(id, fields);
+  }
+
+  @GetMapping("/email/{email}")
+  public Mono<ResponseEntity<Employee>> getEmployeeByEmail(@PathVariable String email) {
+    return employeeService.getEmployeeByEmail(email)
+        .map(employee -> ResponseEntity.ok().eTag(EmployeeETag.of(employee.getVersion())).body(employee));
+  }
+
+  // If-Match is required so concurrent writers cannot silently overwrite each other, "*" opts out
+  @PatchMapping("/{id}")
+  public Mono<ResponseEntity<Employee>> updateEmployee(@PathVariable Long id,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @RequestBody Employee updatedEmployee) {
+    return employeeService.updateEmployee(id, EmployeeETag.parseIfMatch(ifMatch), updatedEmployee)
+        .map(employee -> ResponseEntity.ok().eTag(EmployeeETag.of(employee.getVersion())).body(employee));
+  }
+
+  @DeleteMapping("/{id}")
+  public Mono<ResponseEntity<String>> deleteEmployee(@PathVariable Long id,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    return employeeService.deleteEmployee(id, EmployeeETag.parseIfMatch(ifMatch))
+        .thenReturn(new ResponseEntity<>("Employee deleted successfully", HttpStatus.OK));
+  }
+
+  // bulk delete by ids or by filter, runs in bounded chunks
+  @DeleteMapping
+  public Mono<EmployeeDeleteReport> deleteEmployees(@RequestBody EmployeeDeleteRequest request) {
+    return employeeService.deleteEmployees(request);
+  }
+
+  // every employee as one json object per line, flushed per row; rows are read from postgres only as
+  // fast as the client takes them, so the export never holds the table in memory
+  @GetMapping(path = "/export", produces = EmployeeExportController.NDJSON)
+  public ResponseEntity<Flux<Employee>> exportEmployeesAsNdjson() {
+    return ResponseEntity.ok()
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"employees.ndjson\"")
+        .body(employeeService.getAllEmployees());
+  }
+
+  @GetMapping(path = "/export", params = "format=csv", produces = EmployeeExportController.CSV)
+  public ResponseEntity<Flux<String>> exportEmployeesAsCsv() {
+    Flux<String> rows = employeeService.getAllEmployees().map(employee -> employee.getId() + ","
+        + EmployeeExportController.csvField(employee.getFirstName()) + ","
+        + EmployeeExportController.csvField(employee.getLastName()) + ","
+        + EmployeeExportController.csvField(employee.getEmail()) + "\n");
+    return ResponseEntity.ok()
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"employees.csv\"")
+        .body(Flux.concat(Flux.just("id,firstName,lastName,email\n"), rows));
+  }
+}
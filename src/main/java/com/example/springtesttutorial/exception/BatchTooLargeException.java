@@ -0,0 +1,12 @@
+package com.example.springtesttutorial.exception;
+
+public class BatchTooLargeException extends RuntimeException {
+
+  public BatchTooLargeException(String message) {
+    super(message);
+  }
+
+  public BatchTooLargeException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
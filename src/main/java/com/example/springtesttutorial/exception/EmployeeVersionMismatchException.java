@@ -0,0 +1,12 @@
+package com.example.springtesttutorial.exception;
+
+public class EmployeeVersionMismatchException extends RuntimeException {
+
+  public EmployeeVersionMismatchException(String message) {
+    super(message);
+  }
+
+  public EmployeeVersionMismatchException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
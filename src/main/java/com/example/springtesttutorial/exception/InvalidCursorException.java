@@ -0,0 +1,12 @@
+package com.example.springtesttutorial.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+  public InvalidCursorException(String message) {
+    super(message);
+  }
+
+  public InvalidCursorException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
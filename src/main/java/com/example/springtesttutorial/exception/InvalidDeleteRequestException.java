@@ -0,0 +1,12 @@
+package com.example.springtesttutorial.exception;
+
+public class InvalidDeleteRequestException extends RuntimeException {
+
+  public InvalidDeleteRequestException(String message) {
+    super(message);
+  }
+
+  public InvalidDeleteRequestException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
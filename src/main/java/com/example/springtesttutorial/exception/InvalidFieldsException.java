@@ -0,0 +1,12 @@
+package com.example.springtesttutorial.exception;
+
+public class InvalidFieldsException extends RuntimeException {
+
+  public InvalidFieldsException(String message) {
+    super(message);
+  }
+
+  public InvalidFieldsException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,12 @@
+package com.example.springtesttutorial.exception;
+
+public class InvalidSearchException extends RuntimeException {
+
+  public InvalidSearchException(String message) {
+    super(message);
+  }
+
+  public InvalidSearchException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
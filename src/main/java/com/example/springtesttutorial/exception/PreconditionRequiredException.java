@@ -0,0 +1,12 @@
+package com.example.springtesttutorial.exception;
+
+public class PreconditionRequiredException extends RuntimeException {
+
+  public PreconditionRequiredException(String message) {
+    super(message);
+  }
+
+  public PreconditionRequiredException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
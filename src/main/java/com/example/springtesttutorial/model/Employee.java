@@ -1,11 +1,15 @@
 package com.example.springtesttutorial.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -19,8 +23,10 @@ import lombok.NoArgsConstructor;
 @Table(name="employees")
 public class Employee {
   
+  // sequence (not identity) so hibernate can batch inserts, ids are handed out 50 at a time
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_seq")
+  @SequenceGenerator(name = "employees_seq", sequenceName = "employees_seq", allocationSize = 50)
   private long id;
 
   @Column(name="first_name", nullable = false)
@@ -31,4 +37,15 @@ public class Employee {
 
   @Column(nullable = false)
   private String email;
+
+  // maintained by postgres from email, mapped so searches can filter on it
+  @JsonIgnore
+  @Column(name = "email_domain", insertable = false, updatable = false,
+      columnDefinition = "text GENERATED ALWAYS AS (lower(split_part(email, '@', 2))) STORED")
+  private String emailDomain;
+
+  // optimistic lock, bumped on every write and exposed to clients as the ETag
+  @Version
+  @Column(nullable = false, columnDefinition = "bigint default 0")
+  private long version;
 }
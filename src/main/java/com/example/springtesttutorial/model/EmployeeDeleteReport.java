@@ -0,0 +1,13 @@
+package com.example.springtesttutorial.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeDeleteReport {
+
+  private long deleted;
+}
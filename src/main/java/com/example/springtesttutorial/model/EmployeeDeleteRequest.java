@@ -0,0 +1,23 @@
+package com.example.springtesttutorial.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeeDeleteRequest {
+
+  // either a list of ids or a filter, not both
+  private List<Long> ids;
+
+  private String lastName;
+
+  // matches emails ending in @<emailDomain>, case-insensitive
+  private String emailDomain;
+}
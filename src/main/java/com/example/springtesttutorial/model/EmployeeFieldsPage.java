@@ -0,0 +1,20 @@
+package com.example.springtesttutorial.model;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// page of sparse employees, each holding only the requested fields (plus id)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeFieldsPage {
+
+  private List<Map<String, Object>> content;
+
+  // opaque cursor for the next page, null on the last page
+  private String next;
+}
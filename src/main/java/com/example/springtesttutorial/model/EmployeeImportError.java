@@ -0,0 +1,15 @@
+package com.example.springtesttutorial.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeImportError {
+
+  private long line;
+  private String email;
+  private String message;
+}
@@ -0,0 +1,18 @@
+package com.example.springtesttutorial.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class EmployeeImportReport {
+
+  private long imported;
+  private long rejected;
+
+  // only the first errors are listed, rejected always holds the full count
+  private List<EmployeeImportError> errors = new ArrayList<>();
+}
@@ -0,0 +1,18 @@
+package com.example.springtesttutorial.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeLookupResult {
+
+  // found employees in the order their ids were requested
+  private List<Employee> content;
+
+  private List<Long> missing;
+}
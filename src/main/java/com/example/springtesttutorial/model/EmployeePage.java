@@ -0,0 +1,18 @@
+package com.example.springtesttutorial.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeePage {
+
+  private List<Employee> content;
+
+  // opaque cursor for the next page, null on the last page
+  private String next;
+}
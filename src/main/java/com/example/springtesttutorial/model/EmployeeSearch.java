@@ -0,0 +1,33 @@
+package com.example.springtesttutorial.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// filters and sort key of the employee list, bound from the query string
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeeSearch {
+
+  private String firstName;
+
+  private String lastName;
+
+  // matches emails ending in @<emailDomain>, case-insensitive
+  private String emailDomain;
+
+  // id (default) or lastName
+  private String sort;
+
+  public boolean hasFilter() {
+    return firstName != null || lastName != null || emailDomain != null;
+  }
+
+  // no filter and the default id order, all the sparse fieldset projection can page through
+  public boolean isDefault() {
+    return !hasFilter() && (sort == null || "id".equals(sort));
+  }
+}
@@ -0,0 +1,32 @@
+package com.example.springtesttutorial.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// one autocomplete hit, just enough to render and address the employee
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeeSuggestion {
+
+  private long id;
+
+  private String firstName;
+
+  private String lastName;
+
+  private String email;
+
+  // only for keeping the index current, clients address the employee by id
+  @JsonIgnore
+  private long version;
+
+  public EmployeeSuggestion(long id, String firstName, String lastName, String email) {
+    this(id, firstName, lastName, email, 0L);
+  }
+}
@@ -0,0 +1,202 @@
+package com.example.springtesttutorial.readmodel;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
+
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.replica.ReplicaSegment;
+
+// immutable columnar copy of the employees table, one array per column and rows sorted by id:
+// - ids and versions as long[]
+// - first and last names dictionary-encoded, an int code per row into the sorted distinct names
+// - emails as one UTF-8 block with offsets, plus the rows in lower-cased email order for lookups,
+//   with the lower-cased emails in that order as a second block compared byte by byte
+final class EmployeeColumns implements ReplicaSegment<Employee> {
+
+  static final EmployeeColumns EMPTY = build(List.of());
+
+  // approximate heap cost of one dictionary entry beyond its characters (String plus byte[] headers)
+  private static final int STRING_OVERHEAD = 56;
+
+  private final long[] ids;
+  private final long[] versions;
+
+  private final String[] firstNames;
+  private final int[] firstNameCodes;
+
+  private final String[] lastNames;
+  private final int[] lastNameCodes;
+
+  private final byte[] emailData;
+  private final int[] emailOffsets;
+  private final int[] emailOrder;
+  private final byte[] lowerEmailData;
+  private final int[] lowerEmailOffsets;
+
+  private EmployeeColumns(long[] ids, long[] versions, String[] firstNames, int[] firstNameCodes, String[] lastNames,
+      int[] lastNameCodes, byte[] emailData, int[] emailOffsets, int[] emailOrder, byte[] lowerEmailData,
+      int[] lowerEmailOffsets) {
+    this.ids = ids;
+    this.versions = versions;
+    this.firstNames = firstNames;
+    this.firstNameCodes = firstNameCodes;
+    this.lastNames = lastNames;
+    this.lastNameCodes = lastNameCodes;
+    this.emailData = emailData;
+    this.emailOffsets = emailOffsets;
+    this.emailOrder = emailOrder;
+    this.lowerEmailData = lowerEmailData;
+    this.lowerEmailOffsets = lowerEmailOffsets;
+  }
+
+  static EmployeeColumns build(Collection<Employee> employees) {
+    List<Employee> rows = new ArrayList<>(employees);
+    rows.sort(Comparator.comparingLong(Employee::getId));
+    int size = rows.size();
+
+    String[] firstNames = dictionary(rows, Employee::getFirstName);
+    String[] lastNames = dictionary(rows, Employee::getLastName);
+
+    long[] ids = new long[size];
+    long[] versions = new long[size];
+    int[] firstNameCodes = new int[size];
+    int[] lastNameCodes = new int[size];
+    int[] emailOffsets = new int[size + 1];
+    byte[][] lowerEmails = new byte[size][];
+    ByteArrayOutputStream emailData = new ByteArrayOutputStream();
+    for (int row = 0; row < size; row++) {
+      Employee employee = rows.get(row);
+      ids[row] = employee.getId();
+      versions[row] = employee.getVersion();
+      firstNameCodes[row] = Arrays.binarySearch(firstNames, nullToEmpty(employee.getFirstName()));
+      lastNameCodes[row] = Arrays.binarySearch(lastNames, nullToEmpty(employee.getLastName()));
+      emailOffsets[row] = emailData.size();
+      emailData.writeBytes(nullToEmpty(employee.getEmail()).getBytes(StandardCharsets.UTF_8));
+      lowerEmails[row] = nullToEmpty(employee.getEmail()).toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+    }
+    emailOffsets[size] = emailData.size();
+
+    int[] emailOrder = IntStream.range(0, size).boxed()
+        .sorted((a, b) -> Arrays.compareUnsigned(lowerEmails[a], lowerEmails[b]))
+        .mapToInt(Integer::intValue)
+        .toArray();
+    int[] lowerEmailOffsets = new int[size + 1];
+    ByteArrayOutputStream lowerEmailData = new ByteArrayOutputStream();
+    for (int position = 0; position < size; position++) {
+      lowerEmailOffsets[position] = lowerEmailData.size();
+      lowerEmailData.writeBytes(lowerEmails[emailOrder[position]]);
+    }
+    lowerEmailOffsets[size] = lowerEmailData.size();
+
+    return new EmployeeColumns(ids, versions, firstNames, firstNameCodes, lastNames, lastNameCodes,
+        emailData.toByteArray(), emailOffsets, emailOrder, lowerEmailData.toByteArray(), lowerEmailOffsets);
+  }
+
+  private static String[] dictionary(List<Employee> rows, Function<Employee, String> column) {
+    TreeSet<String> values = new TreeSet<>();
+    rows.forEach(employee -> values.add(nullToEmpty(column.apply(employee))));
+    return values.toArray(String[]::new);
+  }
+
+  private static String nullToEmpty(String value) {
+    return value == null ? "" : value;
+  }
+
+  @Override
+  public int size() {
+    return ids.length;
+  }
+
+  long id(int row) {
+    return ids[row];
+  }
+
+  // row of the id, or -1
+  int rowOf(long id) {
+    int row = Arrays.binarySearch(ids, id);
+    return row >= 0 ? row : -1;
+  }
+
+  @Override
+  public long version(long id) {
+    int row = rowOf(id);
+    return row >= 0 ? versions[row] : -1;
+  }
+
+  // first row with an id greater than the given one
+  int rowAfter(long id) {
+    int row = Arrays.binarySearch(ids, id);
+    return row >= 0 ? row + 1 : -row - 1;
+  }
+
+  // row with the email (compared lower-cased like the uk_employees_email index), or -1
+  int rowOfEmail(String lowerEmail) {
+    byte[] key = lowerEmail.getBytes(StandardCharsets.UTF_8);
+    int low = 0;
+    int high = emailOrder.length - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int compared = Arrays.compareUnsigned(lowerEmailData, lowerEmailOffsets[middle], lowerEmailOffsets[middle + 1],
+          key, 0, key.length);
+      if (compared < 0) {
+        low = middle + 1;
+      } else if (compared > 0) {
+        high = middle - 1;
+      } else {
+        return emailOrder[middle];
+      }
+    }
+    return -1;
+  }
+
+  Employee employee(int row) {
+    return Employee.builder()
+        .id(ids[row])
+        .firstName(firstNames[firstNameCodes[row]])
+        .lastName(lastNames[lastNameCodes[row]])
+        .email(email(row))
+        .version(versions[row])
+        .build();
+  }
+
+  private String email(int row) {
+    return new String(emailData, emailOffsets[row], emailOffsets[row + 1] - emailOffsets[row], StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public List<Employee> rows(LongPredicate excluded) {
+    List<Employee> employees = new ArrayList<>(ids.length);
+    for (int row = 0; row < ids.length; row++) {
+      if (!excluded.test(ids[row])) {
+        employees.add(employee(row));
+      }
+    }
+    return employees;
+  }
+
+  @Override
+  public long memoryBytes() {
+    return 8L * ids.length + 8L * versions.length + 4L * firstNameCodes.length + 4L * lastNameCodes.length
+        + dictionaryBytes(firstNames) + dictionaryBytes(lastNames)
+        + emailData.length + 4L * emailOffsets.length + 4L * emailOrder.length
+        + lowerEmailData.length + 4L * lowerEmailOffsets.length;
+  }
+
+  private static long dictionaryBytes(String[] dictionary) {
+    long bytes = 4L * dictionary.length;
+    for (String value : dictionary) {
+      bytes += STRING_OVERHEAD + value.length();
+    }
+    return bytes;
+  }
+}
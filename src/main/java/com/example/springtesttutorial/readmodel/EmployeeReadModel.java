@@ -0,0 +1,160 @@
+package com.example.springtesttutorial.readmodel;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.replica.VersionedReplica;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// the employees for reads: the versioned replica over columns, plus the delta's emails for lookups.
+// Employees handed out are fresh copies, callers may change them.
+public class EmployeeReadModel extends VersionedReplica<Employee, EmployeeColumns, EmployeeReadModel.ColumnState>
+    implements MeterBinder {
+
+  public EmployeeReadModel(int maxDeltaSize, Duration deletedRetention) {
+    super(maxDeltaSize, deletedRetention);
+  }
+
+  static final class ColumnState extends State<Employee, EmployeeColumns> {
+
+    final Map<String, Long> deltaEmails = new ConcurrentHashMap<>();
+
+    ColumnState(EmployeeColumns base, DeletedIds deleted) {
+      super(base, deleted);
+    }
+  }
+
+  @Override
+  protected ColumnState newState(EmployeeColumns base, DeletedIds deleted) {
+    return new ColumnState(base, deleted);
+  }
+
+  @Override
+  protected EmployeeColumns build(List<Employee> rows) {
+    return EmployeeColumns.build(rows);
+  }
+
+  @Override
+  protected long idOf(Employee row) {
+    return row.getId();
+  }
+
+  @Override
+  protected long versionOf(Employee row) {
+    return row.getVersion();
+  }
+
+  @Override
+  public void put(Employee employee) {
+    super.put(copy(employee));
+  }
+
+  @Override
+  protected void addedToDelta(ColumnState current, Employee employee) {
+    if (employee.getEmail() != null) {
+      current.deltaEmails.put(employee.getEmail().toLowerCase(Locale.ROOT), employee.getId());
+    }
+  }
+
+  @Override
+  protected void removedFromDelta(ColumnState current, Employee previous) {
+    if (previous.getEmail() != null) {
+      current.deltaEmails.remove(previous.getEmail().toLowerCase(Locale.ROOT), previous.getId());
+    }
+  }
+
+  public Optional<Employee> findById(long id) {
+    ColumnState current = state();
+    Employee changed = current.delta.get(id);
+    if (changed != null) {
+      return Optional.of(copy(changed));
+    }
+    int row = current.base.rowOf(id);
+    if (row < 0 || current.hidesBase(id)) {
+      return Optional.empty();
+    }
+    return Optional.of(current.base.employee(row));
+  }
+
+  // case-insensitive like the unique index on lower(email)
+  public Optional<Employee> findByEmail(String email) {
+    if (email == null) {
+      return Optional.empty();
+    }
+    String lowerEmail = email.toLowerCase(Locale.ROOT);
+    ColumnState current = state();
+    Long changedId = current.deltaEmails.get(lowerEmail);
+    if (changedId != null) {
+      Employee changed = current.delta.get(changedId);
+      if (changed != null && lowerEmail.equals(changed.getEmail().toLowerCase(Locale.ROOT))) {
+        return Optional.of(copy(changed));
+      }
+    }
+    int row = current.base.rowOfEmail(lowerEmail);
+    if (row < 0 || current.hidesBase(current.base.id(row))) {
+      return Optional.empty();
+    }
+    return Optional.of(current.base.employee(row));
+  }
+
+  // up to limit employees with an id greater than afterId, in id order
+  public List<Employee> findPage(long afterId, int limit) {
+    ColumnState current = state();
+    List<Employee> page = new ArrayList<>(Math.min(limit, 1024));
+    int row = current.base.rowAfter(afterId);
+    Iterator<Employee> changed = current.delta.tailMap(afterId, false).values().iterator();
+    Employee nextChanged = changed.hasNext() ? changed.next() : null;
+
+    while (page.size() < limit) {
+      while (row < current.base.size() && current.hidesBase(current.base.id(row))) {
+        row++;
+      }
+      boolean baseLeft = row < current.base.size();
+      if (!baseLeft && nextChanged == null) {
+        break;
+      }
+      if (nextChanged == null || baseLeft && current.base.id(row) < nextChanged.getId()) {
+        page.add(current.base.employee(row++));
+      } else {
+        // a put shows its delta row before it hides the base row, the delta row is the newer one
+        if (baseLeft && current.base.id(row) == nextChanged.getId()) {
+          row++;
+        }
+        page.add(copy(nextChanged));
+        nextChanged = changed.hasNext() ? changed.next() : null;
+      }
+    }
+    return page;
+  }
+
+  public List<Employee> findAll() {
+    return findPage(Long.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  private static Employee copy(Employee employee) {
+    return Employee.builder()
+        .id(employee.getId())
+        .firstName(employee.getFirstName())
+        .lastName(employee.getLastName())
+        .email(employee.getEmail())
+        .version(employee.getVersion())
+        .build();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("employee.read-model.entries", this, EmployeeReadModel::entries).register(registry);
+    Gauge.builder("employee.read-model.memory", this, EmployeeReadModel::memoryBytes)
+        .baseUnit("bytes").register(registry);
+  }
+}
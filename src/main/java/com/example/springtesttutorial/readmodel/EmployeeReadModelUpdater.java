@@ -0,0 +1,33 @@
+package com.example.springtesttutorial.readmodel;
+
+import java.util.function.Function;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.springtesttutorial.cache.EmployeeChangedEvent;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.replica.EmployeeReplicaUpdater;
+import com.example.springtesttutorial.repository.EmployeeRepository;
+import com.example.springtesttutorial.routing.ReadRouting;
+import com.example.springtesttutorial.service.EmployeeService;
+import com.example.springtesttutorial.snapshot.EmployeeSnapshotStore;
+
+// changes are applied before the write returns, so a writer reads its own change back
+@Component
+@ConditionalOnProperty(name = "employee.read-model.enabled", havingValue = "true")
+public class EmployeeReadModelUpdater extends EmployeeReplicaUpdater<Employee> {
+
+  public EmployeeReadModelUpdater(EmployeeReadModel readModel, EmployeeService employeeService,
+      EmployeeRepository employeeRepository, ObjectProvider<EmployeeSnapshotStore> snapshotStore,
+      ReadRouting readRouting) {
+    super(readModel, Function.identity(), employeeService, employeeRepository, snapshotStore, readRouting);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onChanged(EmployeeChangedEvent event) {
+    apply(event.changes());
+  }
+}
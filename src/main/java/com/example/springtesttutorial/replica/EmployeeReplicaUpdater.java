@@ -0,0 +1,89 @@
+package com.example.springtesttutorial.replica;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import com.example.springtesttutorial.cache.EmployeeChangedEvent.Change;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.repository.EmployeeRepository;
+import com.example.springtesttutorial.routing.ReadRouting;
+import com.example.springtesttutorial.service.EmployeeService;
+import com.example.springtesttutorial.snapshot.EmployeeSnapshotStore;
+
+// keeps a versioned replica in step with the table: a full load at startup, then every committed
+// change. Changes of this node carry the written employee; those of another node are read back
+// from the primary, unless the replica already holds that version, ids without a row were deleted
+public abstract class EmployeeReplicaUpdater<T> {
+
+  private static final int READ_BACK_CHUNK_SIZE = 1000;
+
+  private final VersionedReplica<T, ?, ?> replica;
+
+  private final Function<Employee, T> toRow;
+
+  private final EmployeeService employeeService;
+
+  private final EmployeeRepository employeeRepository;
+
+  private final ObjectProvider<EmployeeSnapshotStore> snapshotStore;
+
+  private final ReadRouting readRouting;
+
+  protected EmployeeReplicaUpdater(VersionedReplica<T, ?, ?> replica, Function<Employee, T> toRow,
+      EmployeeService employeeService, EmployeeRepository employeeRepository,
+      ObjectProvider<EmployeeSnapshotStore> snapshotStore, ReadRouting readRouting) {
+    this.replica = replica;
+    this.toRow = toRow;
+    this.employeeService = employeeService;
+    this.employeeRepository = employeeRepository;
+    this.snapshotStore = snapshotStore;
+    this.readRouting = readRouting;
+  }
+
+  // from the snapshot file when there is one, the database then only supplies what changed since
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    EmployeeSnapshotStore snapshots = snapshotStore.getIfAvailable();
+    Consumer<Consumer<Employee>> source = snapshots != null && snapshots.isAvailable() ? snapshots::forEachEmployee
+        : employeeService::forEachEmployee;
+    replica.load(sink -> source.accept(employee -> sink.accept(toRow.apply(employee))));
+  }
+
+  protected void apply(Collection<Change> changes) {
+    List<Long> readBack = new ArrayList<>();
+    for (Change change : changes) {
+      if (change.employee() != null) {
+        replica.put(toRow.apply(change.employee()));
+      } else if (change.isDeleted()) {
+        replica.remove(change.id());
+      } else if (replica.version(change.id()) < change.version()) {
+        readBack.add(change.id());
+      }
+    }
+    for (int from = 0; from < readBack.size(); from += READ_BACK_CHUNK_SIZE) {
+      readBack(readBack.subList(from, Math.min(from + READ_BACK_CHUNK_SIZE, readBack.size())));
+    }
+  }
+
+  private void readBack(List<Long> ids) {
+    Map<Long, Employee> current = readRouting.onPrimary(() -> employeeRepository.findAllById(ids)).stream()
+        .collect(Collectors.toMap(Employee::getId, Function.identity()));
+    for (Long id : ids) {
+      Employee employee = current.get(id);
+      if (employee != null) {
+        replica.put(toRow.apply(employee));
+      } else {
+        replica.remove(id);
+      }
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.example.springtesttutorial.replica;
+
+import java.util.List;
+import java.util.function.LongPredicate;
+
+// the immutable bulk of a versioned replica, rows sorted by id
+public interface ReplicaSegment<T> {
+
+  int size();
+
+  // version of the row with the id, or -1 when the segment has none
+  long version(long id);
+
+  // rows for a rebuild, skipping excluded ids
+  List<T> rows(LongPredicate excluded);
+
+  long memoryBytes();
+}
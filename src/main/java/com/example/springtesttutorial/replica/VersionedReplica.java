@@ -0,0 +1,233 @@
+package com.example.springtesttutorial.replica;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+import com.example.springtesttutorial.cache.EmployeeChangedEvent;
+
+// in-process replica of the employees table. The bulk of the rows sits in an immutable segment;
+// writes since it was built go to a small delta (a skip list by id) plus tombstones for the
+// segment's replaced or deleted ids. Once the delta outgrows maxDeltaSize it is folded into a new
+// segment. Every row keeps the version it was written with and a change older than the one held
+// is dropped, so a late or replayed change never overwrites a newer one; deleted ids are kept as
+// newer than any version for deletedRetention, long enough for every change sent before the
+// deletion to have arrived. Reads never lock, they use the state current when they started.
+public abstract class VersionedReplica<T, B extends ReplicaSegment<T>, S extends VersionedReplica.State<T, B>> {
+
+  // rough per-entry cost of the delta: row object, its strings and the map nodes
+  private static final int DELTA_ENTRY_BYTES = 400;
+
+  // a boxed id and time, their map node and the queue entry
+  private static final int DELETED_ENTRY_BYTES = 96;
+
+  private final int maxDeltaSize;
+
+  private final long deletedRetentionNanos;
+
+  private volatile S state;
+
+  private volatile boolean loaded;
+
+  // writes made while a full load runs, replayed onto the loaded state
+  private List<Consumer<S>> journal;
+
+  protected VersionedReplica(int maxDeltaSize, Duration deletedRetention) {
+    this.maxDeltaSize = maxDeltaSize;
+    this.deletedRetentionNanos = deletedRetention.toNanos();
+    this.state = newState(build(List.of()), new DeletedIds());
+  }
+
+  public static class State<T, B> {
+
+    public final B base;
+
+    public final ConcurrentSkipListMap<Long, T> delta = new ConcurrentSkipListMap<>();
+
+    public final Set<Long> tombstones = ConcurrentHashMap.newKeySet();
+
+    // survives compactions, only a full load starts over
+    final DeletedIds deleted;
+
+    protected State(B base, DeletedIds deleted) {
+      this.base = base;
+      this.deleted = deleted;
+    }
+
+    public boolean hidesBase(long id) {
+      return tombstones.contains(id);
+    }
+  }
+
+  // recently deleted ids in deletion order; changed only by writers, which hold the replica's monitor
+  public static final class DeletedIds {
+
+    private final Map<Long, Long> deletedAt = new ConcurrentHashMap<>();
+
+    private final Queue<Deletion> order = new ArrayDeque<>();
+
+    private record Deletion(long id, long at) {
+    }
+
+    boolean contains(long id) {
+      return deletedAt.containsKey(id);
+    }
+
+    void add(long id, long now) {
+      deletedAt.put(id, now);
+      order.add(new Deletion(id, now));
+    }
+
+    // drops the ids deleted at least retention ago; one deleted again since keeps its newer time
+    void expire(long now, long retentionNanos) {
+      while (!order.isEmpty() && now - order.peek().at() >= retentionNanos) {
+        Deletion oldest = order.remove();
+        deletedAt.remove(oldest.id(), oldest.at());
+      }
+    }
+
+    int size() {
+      return deletedAt.size();
+    }
+  }
+
+  protected abstract S newState(B base, DeletedIds deleted);
+
+  protected abstract B build(List<T> rows);
+
+  protected abstract long idOf(T row);
+
+  protected abstract long versionOf(T row);
+
+  // keeps the subclass's lookups over the delta in step with it
+  protected void addedToDelta(S current, T row) {
+  }
+
+  protected void removedFromDelta(S current, T row) {
+  }
+
+  protected S state() {
+    return state;
+  }
+
+  // false until the first load finished
+  public boolean isLoaded() {
+    return loaded;
+  }
+
+  // replaces the whole replica with the rows the source hands out; writes arriving meanwhile are kept
+  public void load(Consumer<Consumer<T>> source) {
+    synchronized (this) {
+      journal = new ArrayList<>();
+    }
+    List<T> rows = new ArrayList<>();
+    try {
+      source.accept(rows::add);
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        journal = null;
+      }
+      throw e;
+    }
+    B base = build(rows);
+
+    synchronized (this) {
+      S next = newState(base, new DeletedIds());
+      journal.forEach(write -> write.accept(next));
+      journal = null;
+      state = next;
+      loaded = true;
+    }
+  }
+
+  public synchronized void put(T row) {
+    apply(state, current -> put(current, row));
+  }
+
+  public synchronized void remove(long id) {
+    apply(state, current -> remove(current, id));
+  }
+
+  // version held for the id: EmployeeChangedEvent.DELETED once deleted, -1 when never seen
+  public long version(long id) {
+    return version(state, id);
+  }
+
+  private long version(S current, long id) {
+    if (current.deleted.contains(id)) {
+      return EmployeeChangedEvent.DELETED;
+    }
+    T changed = current.delta.get(id);
+    if (changed != null) {
+      return versionOf(changed);
+    }
+    return current.hidesBase(id) ? -1 : current.base.version(id);
+  }
+
+  private void apply(S current, Consumer<S> write) {
+    write.accept(current);
+    if (journal != null) {
+      journal.add(write);
+      return;
+    }
+    current.deleted.expire(System.nanoTime(), deletedRetentionNanos);
+    if (current.delta.size() + current.tombstones.size() > maxDeltaSize) {
+      compact(current);
+    }
+  }
+
+  private void put(S current, T row) {
+    long id = idOf(row);
+    if (versionOf(row) < version(current, id)) {
+      return;
+    }
+    removeFromDelta(current, id);
+    current.delta.put(id, row);
+    addedToDelta(current, row);
+    // added after the delta entry, so a concurrent reader never sees neither version
+    if (current.base.version(id) >= 0) {
+      current.tombstones.add(id);
+    }
+  }
+
+  private void remove(S current, long id) {
+    current.deleted.add(id, System.nanoTime());
+    removeFromDelta(current, id);
+    if (current.base.version(id) >= 0) {
+      current.tombstones.add(id);
+    }
+  }
+
+  private void removeFromDelta(S current, long id) {
+    T previous = current.delta.remove(id);
+    if (previous != null) {
+      removedFromDelta(current, previous);
+    }
+  }
+
+  // folds the delta into a new segment, writers wait for it, readers keep using the old state
+  private void compact(S current) {
+    List<T> rows = current.base.rows(current::hidesBase);
+    rows.addAll(current.delta.values());
+    state = newState(build(rows), current.deleted);
+  }
+
+  public int entries() {
+    S current = state;
+    return current.base.size() - current.tombstones.size() + current.delta.size();
+  }
+
+  public long memoryBytes() {
+    S current = state;
+    return current.base.memoryBytes()
+        + (long) DELTA_ENTRY_BYTES * (current.delta.size() + current.tombstones.size())
+        + (long) DELETED_ENTRY_BYTES * current.deleted.size();
+  }
+}
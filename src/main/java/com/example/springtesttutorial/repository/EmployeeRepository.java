@@ -1,16 +1,75 @@
 package com.example.springtesttutorial.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.QueryHint;
 
 import com.example.springtesttutorial.model.Employee;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, JpaSpecificationExecutor<Employee>,
+    EmployeeRepositoryCustom {
 
+  // emails are compared lower-cased so the lookup uses the uk_employees_email index
+  @Query("SELECT e FROM Employee e WHERE lower(e.email) = lower(:email)")
   Optional<Employee> findByEmail(String email);
 
+  // expects lower-cased emails, returns the stored spelling of the ones that exist
+  @Query("SELECT e.email FROM Employee e WHERE lower(e.email) IN :emails")
+  List<String> findExistingEmails(Collection<String> emails);
+
+  // keyset page: walks the primary key index from the cursor instead of using an offset
+  List<Employee> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+  // server-side cursor for exports: the driver fetches rows in chunks of the fetch size
+  // (postgres only does this inside a transaction), the stream must be closed by the caller
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("SELECT e FROM Employee e ORDER BY e.id")
+  Stream<Employee> streamAll();
+
+  // id and version of the rows up to a snapshot's highest id in id order, what the snapshot is
+  // compared against; streamed like streamAll
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("SELECT e.id, e.version FROM Employee e WHERE e.id <= :maxId ORDER BY e.id")
+  Stream<Object[]> streamIdsAndVersionsUpTo(long maxId);
+
+  // the rows created after a snapshot, a range scan of the primary key; streamed like streamAll
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("SELECT e FROM Employee e WHERE e.id > :id ORDER BY e.id")
+  Stream<Employee> streamAllAfter(long id);
+
+  // one DELETE statement, the number of removed rows tells whether the id existed
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM Employee e WHERE e.id = :id")
+  int deleteEmployeeById(long id);
+
+  // as above, but only while the row still has the expected version
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM Employee e WHERE e.id = :id AND e.version = :version")
+  int deleteEmployeeByIdAndVersion(long id, long version);
+
   // custom query using JPQL
   @Query("SELECT e FROM Employee e WHERE e.firstName = ?1 AND e.lastName = ?2")
   Employee findByJPQL(String firstName, String lastName);
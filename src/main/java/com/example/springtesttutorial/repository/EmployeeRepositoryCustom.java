@@ -0,0 +1,26 @@
+package com.example.springtesttutorial.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.example.springtesttutorial.model.Employee;
+
+public interface EmployeeRepositoryCustom {
+
+  // writes only the non-null fields of changes and bumps the version in one UPDATE ... RETURNING;
+  // with an expected version the row must still have it, empty if no row matched
+  Optional<Employee> updatePartially(long id, Long expectedVersion, Employee changes);
+
+  // selects only the given attributes (tuples, no managed entities) for a keyset page ordered by id
+  List<Map<String, Object>> findFieldsByIdGreaterThan(Collection<String> attributes, long id, int limit);
+
+  Optional<Map<String, Object>> findFieldsById(Collection<String> attributes, long id);
+
+  // deletes the given ids in one statement and transaction, returns the ids that existed
+  List<Long> deleteAllByIdReturning(Collection<Long> ids);
+
+  // deletes at most limit rows matching the non-null filter fields in one transaction, returns their ids
+  List<Long> deleteMatchingReturning(String lastName, String emailDomain, int limit);
+}
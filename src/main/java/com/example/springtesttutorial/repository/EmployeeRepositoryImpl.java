@@ -0,0 +1,138 @@
+package com.example.springtesttutorial.repository;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.springtesttutorial.model.Employee;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+// picked up by spring data as the implementation of EmployeeRepositoryCustom
+class EmployeeRepositoryImpl implements EmployeeRepositoryCustom {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  @Transactional
+  @SuppressWarnings("unchecked")
+  public Optional<Employee> updatePartially(long id, Long expectedVersion, Employee changes) {
+    Map<String, String> columns = new LinkedHashMap<>();
+    if (changes.getFirstName() != null) columns.put("first_name", changes.getFirstName());
+    if (changes.getLastName() != null) columns.put("last_name", changes.getLastName());
+    if (changes.getEmail() != null) columns.put("email", changes.getEmail());
+
+    if (columns.isEmpty()) {
+      throw new IllegalArgumentException("No fields to update");
+    }
+
+    // column names come from the fixed set above, only the values are bound
+    StringJoiner assignments = new StringJoiner(", ");
+    columns.keySet().forEach(column -> assignments.add(column + " = :" + column));
+    assignments.add("version = version + 1");
+
+    Query query = entityManager.createNativeQuery("UPDATE employees SET " + assignments
+        + " WHERE id = :id" + (expectedVersion != null ? " AND version = :version" : "")
+        + " RETURNING id, first_name, last_name, email, version");
+    columns.forEach(query::setParameter);
+    query.setParameter("id", id);
+    if (expectedVersion != null) query.setParameter("version", expectedVersion);
+
+    // the returned row is mapped by hand so a stale managed instance is never handed back
+    List<Object[]> rows = query.getResultList();
+    return rows.stream().findFirst().map(row -> Employee.builder()
+        .id(((Number) row[0]).longValue())
+        .firstName((String) row[1])
+        .lastName((String) row[2])
+        .email((String) row[3])
+        .version(((Number) row[4]).longValue())
+        .build());
+  }
+
+  @Override
+  public List<Map<String, Object>> findFieldsByIdGreaterThan(Collection<String> attributes, long id, int limit) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = builder.createTupleQuery();
+    Root<Employee> employee = query.from(Employee.class);
+    query.multiselect(selections(employee, attributes))
+        .where(builder.greaterThan(employee.get("id"), id))
+        .orderBy(builder.asc(employee.get("id")));
+
+    return entityManager.createQuery(query).setMaxResults(limit).getResultList().stream()
+        .map(tuple -> toMap(tuple, attributes))
+        .toList();
+  }
+
+  @Override
+  public Optional<Map<String, Object>> findFieldsById(Collection<String> attributes, long id) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = builder.createTupleQuery();
+    Root<Employee> employee = query.from(Employee.class);
+    query.multiselect(selections(employee, attributes))
+        .where(builder.equal(employee.get("id"), id));
+
+    return entityManager.createQuery(query).getResultStream().findFirst()
+        .map(tuple -> toMap(tuple, attributes));
+  }
+
+  private static List<Selection<?>> selections(Root<Employee> employee, Collection<String> attributes) {
+    return attributes.stream().<Selection<?>>map(attribute -> employee.get(attribute).alias(attribute)).toList();
+  }
+
+  private static Map<String, Object> toMap(Tuple tuple, Collection<String> attributes) {
+    Map<String, Object> values = new LinkedHashMap<>();
+    attributes.forEach(attribute -> values.put(attribute, tuple.get(attribute)));
+    return values;
+  }
+
+  @Override
+  @Transactional
+  @SuppressWarnings("unchecked")
+  public List<Long> deleteAllByIdReturning(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    List<Number> rows = entityManager.createNativeQuery("DELETE FROM employees WHERE id IN (:ids) RETURNING id")
+        .setParameter("ids", ids)
+        .getResultList();
+    return rows.stream().map(Number::longValue).toList();
+  }
+
+  @Override
+  @Transactional
+  @SuppressWarnings("unchecked")
+  public List<Long> deleteMatchingReturning(String lastName, String emailDomain, int limit) {
+    StringJoiner conditions = new StringJoiner(" AND ");
+    if (lastName != null) conditions.add("last_name = :lastName");
+    if (emailDomain != null) conditions.add("email_domain = :emailDomain");
+
+    if (conditions.length() == 0) {
+      throw new IllegalArgumentException("No filter to delete by");
+    }
+
+    // the limit bounds how many rows one transaction locks
+    Query query = entityManager.createNativeQuery("DELETE FROM employees WHERE id IN (SELECT id FROM employees WHERE "
+        + conditions + " LIMIT :limit) RETURNING id");
+    if (lastName != null) query.setParameter("lastName", lastName);
+    if (emailDomain != null) query.setParameter("emailDomain", emailDomain.toLowerCase(Locale.ROOT));
+    query.setParameter("limit", limit);
+
+    List<Number> rows = query.getResultList();
+    return rows.stream().map(Number::longValue).toList();
+  }
+
+}
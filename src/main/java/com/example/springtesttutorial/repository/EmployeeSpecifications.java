@@ -0,0 +1,43 @@
+package com.example.springtesttutorial.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.springtesttutorial.model.Employee;
+
+// building blocks of the employee search, each one is backed by an index from schema.sql
+public final class EmployeeSpecifications {
+
+  private EmployeeSpecifications() {
+  }
+
+  public static Specification<Employee> firstNameIs(String firstName) {
+    return (employee, query, builder) -> builder.equal(employee.get("firstName"), firstName);
+  }
+
+  public static Specification<Employee> lastNameIs(String lastName) {
+    return (employee, query, builder) -> builder.equal(employee.get("lastName"), lastName);
+  }
+
+  // expects a lower-cased domain, email_domain is generated lower-cased by the database
+  public static Specification<Employee> emailDomainIs(String emailDomain) {
+    return (employee, query, builder) -> builder.equal(employee.get("emailDomain"), emailDomain);
+  }
+
+  // keyset for the id order
+  public static Specification<Employee> idAfter(long id) {
+    return (employee, query, builder) -> builder.greaterThan(employee.get("id"), id);
+  }
+
+  // keyset for the (lastName, firstName, id) order; the leading >= on lastName lets the
+  // index range scan start at the cursor, the rest expands the row comparison
+  public static Specification<Employee> nameAfter(String lastName, String firstName, long id) {
+    return (employee, query, builder) -> builder.and(
+        builder.greaterThanOrEqualTo(employee.get("lastName"), lastName),
+        builder.or(
+            builder.greaterThan(employee.get("lastName"), lastName),
+            builder.and(builder.equal(employee.get("lastName"), lastName), builder.or(
+                builder.greaterThan(employee.get("firstName"), firstName),
+                builder.and(builder.equal(employee.get("firstName"), firstName),
+                    builder.greaterThan(employee.get("id"), id))))));
+  }
+}
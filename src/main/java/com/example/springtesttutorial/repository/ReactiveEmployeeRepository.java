@@ -0,0 +1,221 @@
+package com.example.springtesttutorial.repository;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.service.ReactiveEmployeeService;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// the queries of EmployeeRepository for the reactive stack (profile "reactive"), as sql over r2dbc:
+// same table, indexes and sequence as the jpa entity. An insert takes a whole block of employees_seq
+// (hibernate's allocation size) for one id, so both stacks can write to the same database.
+@Repository
+@Profile(ReactiveEmployeeService.PROFILE)
+public class ReactiveEmployeeRepository {
+
+  private static final String COLUMNS = "id, first_name, last_name, email, version";
+
+  static final int FETCH_SIZE = 500;
+
+  private final DatabaseClient databaseClient;
+
+  public ReactiveEmployeeRepository(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  public Mono<Employee> insert(Employee employee) {
+    GenericExecuteSpec spec = databaseClient.sql("INSERT INTO employees (" + COLUMNS + ")"
+        + " VALUES (nextval('employees_seq'), :firstName, :lastName, :email, 0) RETURNING " + COLUMNS);
+    spec = bind(spec, "firstName", employee.getFirstName());
+    spec = bind(spec, "lastName", employee.getLastName());
+    spec = bind(spec, "email", employee.getEmail());
+    return spec.map(ReactiveEmployeeRepository::toEmployee).one();
+  }
+
+  // one statement for the whole batch, so it is written completely or not at all
+  public Flux<Employee> insertAll(List<Employee> employees) {
+    return databaseClient.sql("INSERT INTO employees (" + COLUMNS + ")"
+        + " SELECT nextval('employees_seq'), f, l, e, 0 FROM unnest(CAST(:firstNames AS varchar[]),"
+        + " CAST(:lastNames AS varchar[]), CAST(:emails AS varchar[])) AS t(f, l, e) RETURNING " + COLUMNS)
+        .bind("firstNames", employees.stream().map(Employee::getFirstName).toArray(String[]::new))
+        .bind("lastNames", employees.stream().map(Employee::getLastName).toArray(String[]::new))
+        .bind("emails", employees.stream().map(Employee::getEmail).toArray(String[]::new))
+        .map(ReactiveEmployeeRepository::toEmployee)
+        .all();
+  }
+
+  // expects lower-cased emails, returns the stored spelling of the ones that exist
+  public Flux<String> findExistingEmails(Collection<String> emails) {
+    return databaseClient.sql("SELECT email FROM employees WHERE lower(email) = ANY(:emails)")
+        .bind("emails", emails.toArray(String[]::new))
+        .map(row -> row.get("email", String.class))
+        .all();
+  }
+
+  // postgres hands out the rows FETCH_SIZE at a time and netty stops reading the socket while the
+  // subscriber has no demand, so a slow client holds back the query instead of filling the heap
+  public Flux<Employee> streamAll() {
+    return databaseClient.sql("SELECT " + COLUMNS + " FROM employees ORDER BY id")
+        .filter((statement, next) -> next.execute(statement.fetchSize(FETCH_SIZE)))
+        .map(ReactiveEmployeeRepository::toEmployee)
+        .all();
+  }
+
+  // keyset page in id order, or in (lastName, firstName, id) order after the name cursor; null filters are left out
+  public Flux<Employee> search(String firstName, String lastName, String emailDomain, boolean byName,
+      String afterLastName, String afterFirstName, long afterId, int limit) {
+    StringJoiner conditions = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+    Map<String, Object> values = new LinkedHashMap<>();
+    if (firstName != null) {
+      conditions.add("first_name = :firstName");
+      values.put("firstName", firstName);
+    }
+    if (lastName != null) {
+      conditions.add("last_name = :lastName");
+      values.put("lastName", lastName);
+    }
+    if (emailDomain != null) {
+      conditions.add("email_domain = :emailDomain");
+      values.put("emailDomain", emailDomain.toLowerCase(Locale.ROOT));
+    }
+    if (byName && afterLastName != null) {
+      conditions.add("(last_name, first_name, id) > (:afterLastName, :afterFirstName, :afterId)");
+      values.put("afterLastName", afterLastName);
+      values.put("afterFirstName", afterFirstName);
+      values.put("afterId", afterId);
+    } else if (!byName) {
+      conditions.add("id > :afterId");
+      values.put("afterId", afterId);
+    }
+    values.put("limit", limit);
+
+    GenericExecuteSpec spec = databaseClient.sql("SELECT " + COLUMNS + " FROM employees" + conditions
+        + " ORDER BY " + (byName ? "last_name, first_name, id" : "id") + " LIMIT :limit");
+    for (Map.Entry<String, Object> value : values.entrySet()) {
+      spec = spec.bind(value.getKey(), value.getValue());
+    }
+    return spec.map(ReactiveEmployeeRepository::toEmployee).all();
+  }
+
+  public Mono<Employee> findById(long id) {
+    return databaseClient.sql("SELECT " + COLUMNS + " FROM employees WHERE id = :id")
+        .bind("id", id)
+        .map(ReactiveEmployeeRepository::toEmployee)
+        .one();
+  }
+
+  // emails are compared lower-cased so the lookup uses the uk_employees_email index
+  public Mono<Employee> findByEmail(String email) {
+    return databaseClient.sql("SELECT " + COLUMNS + " FROM employees WHERE lower(email) = lower(:email)")
+        .bind("email", email)
+        .map(ReactiveEmployeeRepository::toEmployee)
+        .one();
+  }
+
+  public Flux<Employee> findAllById(Collection<Long> ids) {
+    return databaseClient.sql("SELECT " + COLUMNS + " FROM employees WHERE id = ANY(:ids)")
+        .bind("ids", ids.toArray(Long[]::new))
+        .map(ReactiveEmployeeRepository::toEmployee)
+        .all();
+  }
+
+  public Mono<Boolean> existsById(long id) {
+    return databaseClient.sql("SELECT 1 FROM employees WHERE id = :id")
+        .bind("id", id)
+        .map(row -> true)
+        .one()
+        .defaultIfEmpty(false);
+  }
+
+  // one UPDATE ... RETURNING with only the non-null fields, empty when the id or the version does not match
+  public Mono<Employee> updatePartially(long id, Long expectedVersion, Employee changes) {
+    Map<String, String> columns = new LinkedHashMap<>();
+    if (changes.getFirstName() != null) columns.put("first_name", changes.getFirstName());
+    if (changes.getLastName() != null) columns.put("last_name", changes.getLastName());
+    if (changes.getEmail() != null) columns.put("email", changes.getEmail());
+
+    if (columns.isEmpty()) {
+      return Mono.error(new IllegalArgumentException("No fields to update"));
+    }
+
+    // column names come from the fixed set above, only the values are bound
+    StringJoiner assignments = new StringJoiner(", ");
+    columns.keySet().forEach(column -> assignments.add(column + " = :" + column));
+    assignments.add("version = version + 1");
+
+    GenericExecuteSpec spec = databaseClient.sql("UPDATE employees SET " + assignments
+        + " WHERE id = :id" + (expectedVersion != null ? " AND version = :version" : "")
+        + " RETURNING " + COLUMNS);
+    for (Map.Entry<String, String> column : columns.entrySet()) {
+      spec = spec.bind(column.getKey(), column.getValue());
+    }
+    spec = spec.bind("id", id);
+    if (expectedVersion != null) {
+      spec = spec.bind("version", expectedVersion);
+    }
+    return spec.map(ReactiveEmployeeRepository::toEmployee).one();
+  }
+
+  // the number of removed rows tells whether the id (with the expected version) existed
+  public Mono<Long> deleteById(long id, Long expectedVersion) {
+    GenericExecuteSpec spec = databaseClient.sql("DELETE FROM employees WHERE id = :id"
+        + (expectedVersion != null ? " AND version = :version" : "")).bind("id", id);
+    if (expectedVersion != null) {
+      spec = spec.bind("version", expectedVersion);
+    }
+    return spec.fetch().rowsUpdated();
+  }
+
+  public Flux<Long> deleteAllByIdReturning(Collection<Long> ids) {
+    return databaseClient.sql("DELETE FROM employees WHERE id = ANY(:ids) RETURNING id")
+        .bind("ids", ids.toArray(Long[]::new))
+        .map(row -> row.get("id", Long.class))
+        .all();
+  }
+
+  // deletes at most limit rows matching the non-null filter fields, returns their ids
+  public Flux<Long> deleteMatchingReturning(String lastName, String emailDomain, int limit) {
+    if (lastName == null && emailDomain == null) {
+      return Flux.error(new IllegalArgumentException("No filter to delete by"));
+    }
+
+    StringJoiner conditions = new StringJoiner(" AND ");
+    if (lastName != null) conditions.add("last_name = :lastName");
+    if (emailDomain != null) conditions.add("email_domain = :emailDomain");
+
+    // the limit bounds how many rows one statement locks
+    GenericExecuteSpec spec = databaseClient.sql("DELETE FROM employees WHERE id IN (SELECT id FROM employees WHERE "
+        + conditions + " LIMIT :limit) RETURNING id").bind("limit", limit);
+    if (lastName != null) spec = spec.bind("lastName", lastName);
+    if (emailDomain != null) spec = spec.bind("emailDomain", emailDomain.toLowerCase(Locale.ROOT));
+    return spec.map(row -> row.get("id", Long.class)).all();
+  }
+
+  private static Employee toEmployee(Readable row) {
+    return Employee.builder()
+        .id(row.get("id", Long.class))
+        .firstName(row.get("first_name", String.class))
+        .lastName(row.get("last_name", String.class))
+        .email(row.get("email", String.class))
+        .version(row.get("version", Long.class))
+        .build();
+  }
+
+  // r2dbc needs the type of a null value
+  private static GenericExecuteSpec bind(GenericExecuteSpec spec, String name, String value) {
+    return value == null ? spec.bindNull(name, String.class) : spec.bind(name, value);
+  }
+}
@@ -0,0 +1,74 @@
+package com.example.springtesttutorial.routing;
+
+import java.util.function.Supplier;
+
+import org.springframework.context.event.EventListener;
+
+import com.example.springtesttutorial.cache.EmployeeChangedEvent;
+import com.example.springtesttutorial.config.EmployeeReplicaProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// which reads must not go to a replica: everything while the current thread is pinned to the
+// primary (a client within its read-your-writes window, or code re-reading a row it was told
+// changed), and the employees changed within the replicas' maximum lag. Without replicas all
+// of this is a no-op.
+public class ReadRouting {
+
+  private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+  private final boolean enabled;
+
+  private final Cache<Long, Boolean> recentlyChanged;
+
+  public ReadRouting(EmployeeReplicaProperties properties) {
+    this.enabled = properties.enabled();
+    this.recentlyChanged = !enabled ? null : Caffeine.newBuilder()
+        .expireAfterWrite(properties.maxLag())
+        .build();
+  }
+
+  static boolean isPinnedToPrimary() {
+    return Boolean.TRUE.equals(PINNED.get());
+  }
+
+  static void pin() {
+    PINNED.set(Boolean.TRUE);
+  }
+
+  static void unpin() {
+    PINNED.remove();
+  }
+
+  // runs the reads of the supplier on the primary; the connection is picked with the first
+  // statement, so a transaction that already ran one keeps its connection
+  public <T> T onPrimary(Supplier<T> reads) {
+    if (!enabled || isPinnedToPrimary()) {
+      return reads.get();
+    }
+    pin();
+    try {
+      return reads.get();
+    } finally {
+      unpin();
+    }
+  }
+
+  // reads of one employee: from the primary while a replica may still have the old row
+  public <T> T forEmployee(long id, Supplier<T> reads) {
+    return requiresPrimary(id) ? onPrimary(reads) : reads.get();
+  }
+
+  // whether a read of the employee must go to the primary right now; lets a caller keep such a
+  // read away from work done on other threads, which do not see this thread's pin
+  public boolean requiresPrimary(long id) {
+    return enabled && (isPinnedToPrimary() || recentlyChanged.getIfPresent(id) != null);
+  }
+
+  @EventListener
+  public void onChanged(EmployeeChangedEvent event) {
+    if (enabled) {
+      event.changes().forEach(change -> recentlyChanged.put(change.id(), Boolean.TRUE));
+    }
+  }
+}
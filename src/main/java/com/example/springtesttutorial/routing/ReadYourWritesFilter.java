@@ -0,0 +1,72 @@
+package com.example.springtesttutorial.routing;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// read-your-writes across replicas: a writing request hands the client a cookie with the time
+// until which its reads are served by the primary, so it never sees a replica older than its own
+// write. The time is checked here, not trusted to the cookie's max-age.
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+  static final String COOKIE = "primary-until";
+
+  private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+  private final Duration window;
+
+  public ReadYourWritesFilter(Duration window) {
+    this.window = window;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    long now = System.currentTimeMillis();
+    boolean write = WRITE_METHODS.contains(request.getMethod());
+    if (write) {
+      // set before the handler runs, the response may be committed once it returns
+      Cookie cookie = new Cookie(COOKIE, Long.toString(now + window.toMillis()));
+      cookie.setPath("/");
+      cookie.setHttpOnly(true);
+      cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+      response.addCookie(cookie);
+    }
+
+    if (!write && !pinnedUntilAfter(request, now)) {
+      chain.doFilter(request, response);
+      return;
+    }
+    ReadRouting.pin();
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      ReadRouting.unpin();
+    }
+  }
+
+  private boolean pinnedUntilAfter(HttpServletRequest request, long now) {
+    if (request.getCookies() == null) {
+      return false;
+    }
+    for (Cookie cookie : request.getCookies()) {
+      if (COOKIE.equals(cookie.getName())) {
+        try {
+          long until = Long.parseLong(cookie.getValue());
+          return until > now && until <= now + window.toMillis();
+        } catch (NumberFormatException e) {
+          return false;
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,157 @@
+package com.example.springtesttutorial.routing;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// sends the connections of read-only transactions to the replicas in turn and everything else to
+// the primary. A replica is skipped while its last health check failed or found it further behind
+// than maxLag, or after handing out a connection failed; with none left reads go to the primary.
+// The decision is made when the connection is fetched, so this has to sit behind a
+// LazyConnectionDataSourceProxy (see DataSourceConfig) for the read-only flag to be known by then.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+  static final String PRIMARY = "primary";
+
+  // seconds the replica is behind, 0 while it has replayed everything it received
+  static final String LAG_QUERY = """
+      SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+        ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END""";
+
+  private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+  private final DataSource primary;
+
+  private final List<DataSource> replicas;
+
+  private final double maxLagSeconds;
+
+  private final AtomicIntegerArray healthy;
+
+  private final AtomicInteger next = new AtomicInteger();
+
+  private final ScheduledExecutorService healthChecks;
+
+  public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration maxLag,
+      Duration healthCheckInterval) {
+    this.primary = primary;
+    this.replicas = List.copyOf(replicas);
+    this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+    this.healthy = new AtomicIntegerArray(replicas.size());
+    for (int i = 0; i < replicas.size(); i++) {
+      healthy.set(i, 1);
+    }
+
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, primary);
+    for (int i = 0; i < replicas.size(); i++) {
+      targets.put(i, replicas.get(i));
+    }
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+    setLenientFallback(false);
+
+    this.healthChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "replica-health-check");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long interval = healthCheckInterval.toMillis();
+    healthChecks.scheduleWithFixedDelay(this::checkHealth, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        || ReadRouting.isPinnedToPrimary()) {
+      return PRIMARY;
+    }
+    // round robin, starting after the replica used last and skipping unhealthy ones
+    int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+    for (int i = 0; i < replicas.size(); i++) {
+      int replica = (start + i) % replicas.size();
+      if (healthy.get(replica) == 1) {
+        return replica;
+      }
+    }
+    return PRIMARY;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    Object key = determineCurrentLookupKey();
+    if (PRIMARY.equals(key)) {
+      return primary.getConnection();
+    }
+    try {
+      return replicas.get((Integer) key).getConnection();
+    } catch (SQLException e) {
+      markUnhealthy((Integer) key, e);
+      return primary.getConnection();
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return primary.getConnection(username, password);
+  }
+
+  void checkHealth() {
+    for (int i = 0; i < replicas.size(); i++) {
+      try (Connection connection = replicas.get(i).getConnection();
+          Statement statement = connection.createStatement();
+          ResultSet lag = statement.executeQuery(LAG_QUERY)) {
+        lag.next();
+        double lagSeconds = lag.getDouble(1);
+        if (lagSeconds > maxLagSeconds) {
+          markUnhealthy(i, new SQLException(String.format("Replica is %.1f s behind", lagSeconds)));
+        } else if (healthy.getAndSet(i, 1) == 0) {
+          log.info("Replica {} is healthy again", i);
+        }
+      } catch (SQLException | RuntimeException e) {
+        markUnhealthy(i, e);
+      }
+    }
+  }
+
+  private void markUnhealthy(int replica, Exception cause) {
+    if (healthy.getAndSet(replica, 0) == 1) {
+      log.warn("Replica {} is skipped until its next successful health check: {}", replica, cause.getMessage());
+    }
+  }
+
+  boolean isHealthy(int replica) {
+    return healthy.get(replica) == 1;
+  }
+
+  // closes the health checks and the pools
+  @Override
+  public void close() throws Exception {
+    healthChecks.shutdownNow();
+    for (DataSource target : replicas) {
+      if (target instanceof AutoCloseable closeable) {
+        closeable.close();
+      }
+    }
+    if (primary instanceof AutoCloseable closeable) {
+      closeable.close();
+    }
+  }
+}
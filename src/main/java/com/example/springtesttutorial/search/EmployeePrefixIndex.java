@@ -0,0 +1,140 @@
+package com.example.springtesttutorial.search;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongPredicate;
+
+import com.example.springtesttutorial.model.EmployeeSuggestion;
+import com.example.springtesttutorial.replica.VersionedReplica;
+import com.example.springtesttutorial.search.PrefixSegment.Hit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// in-process autocomplete over first name, last name and email: the versioned replica over array
+// segments, plus the delta's lower-cased terms (a skip list) for prefix scans.
+public class EmployeePrefixIndex extends VersionedReplica<EmployeeSuggestion, PrefixSegment, EmployeePrefixIndex.TermState>
+    implements MeterBinder {
+
+  private static final Comparator<Hit> HIT_ORDER = (a, b) -> {
+    int compared = Arrays.compareUnsigned(a.term(), b.term());
+    return compared != 0 ? compared : Long.compare(a.employee().getId(), b.employee().getId());
+  };
+
+  public EmployeePrefixIndex(int maxDeltaSize, Duration deletedRetention) {
+    super(maxDeltaSize, deletedRetention);
+  }
+
+  static final class TermState extends State<EmployeeSuggestion, PrefixSegment> {
+
+    final ConcurrentSkipListMap<String, Set<Long>> deltaTerms = new ConcurrentSkipListMap<>();
+
+    TermState(PrefixSegment base, DeletedIds deleted) {
+      super(base, deleted);
+    }
+  }
+
+  @Override
+  protected TermState newState(PrefixSegment base, DeletedIds deleted) {
+    return new TermState(base, deleted);
+  }
+
+  @Override
+  protected PrefixSegment build(List<EmployeeSuggestion> rows) {
+    return PrefixSegment.build(rows);
+  }
+
+  @Override
+  protected long idOf(EmployeeSuggestion row) {
+    return row.getId();
+  }
+
+  @Override
+  protected long versionOf(EmployeeSuggestion row) {
+    return row.getVersion();
+  }
+
+  @Override
+  protected void addedToDelta(TermState current, EmployeeSuggestion employee) {
+    for (String field : PrefixSegment.fields(employee)) {
+      current.deltaTerms.computeIfAbsent(field.toLowerCase(Locale.ROOT), term -> ConcurrentHashMap.newKeySet())
+          .add(employee.getId());
+    }
+  }
+
+  @Override
+  protected void removedFromDelta(TermState current, EmployeeSuggestion previous) {
+    for (String field : PrefixSegment.fields(previous)) {
+      String term = field.toLowerCase(Locale.ROOT);
+      Set<Long> ids = current.deltaTerms.get(term);
+      if (ids != null) {
+        ids.remove(previous.getId());
+        if (ids.isEmpty()) {
+          current.deltaTerms.remove(term, ids);
+        }
+      }
+    }
+  }
+
+  // up to limit employees with a first name, last name or email starting with the query
+  public List<EmployeeSuggestion> search(String query, int limit) {
+    String prefix = query == null ? "" : query.strip().toLowerCase(Locale.ROOT);
+    if (prefix.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+
+    TermState current = state();
+    LongPredicate hidden = current::hidesBase;
+    List<Hit> hits = new ArrayList<>(current.base.search(prefix.getBytes(StandardCharsets.UTF_8), limit, hidden));
+    hits.addAll(searchDelta(current, prefix, limit));
+    hits.sort(HIT_ORDER);
+
+    List<EmployeeSuggestion> suggestions = new ArrayList<>(limit);
+    for (Hit hit : hits) {
+      if (suggestions.size() == limit) {
+        break;
+      }
+      if (suggestions.stream().noneMatch(suggestion -> suggestion.getId() == hit.employee().getId())) {
+        suggestions.add(hit.employee());
+      }
+    }
+    return suggestions;
+  }
+
+  // like the segment's search, an employee matching several terms takes one of the limit slots, at its first term
+  private static List<Hit> searchDelta(TermState current, String prefix, int limit) {
+    List<Hit> hits = new ArrayList<>();
+    Set<Long> found = new HashSet<>();
+    for (Map.Entry<String, Set<Long>> term : current.deltaTerms.tailMap(prefix).entrySet()) {
+      if (!term.getKey().startsWith(prefix) || found.size() >= limit) {
+        break;
+      }
+      byte[] termBytes = term.getKey().getBytes(StandardCharsets.UTF_8);
+      term.getValue().stream().sorted().forEach(id -> {
+        EmployeeSuggestion employee = current.delta.get(id);
+        if (employee != null && found.add(id)) {
+          hits.add(new Hit(termBytes, employee));
+        }
+      });
+    }
+    return hits;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("employee.autocomplete.entries", this, EmployeePrefixIndex::entries).register(registry);
+    Gauge.builder("employee.autocomplete.memory", this, EmployeePrefixIndex::memoryBytes)
+        .baseUnit("bytes").register(registry);
+  }
+}
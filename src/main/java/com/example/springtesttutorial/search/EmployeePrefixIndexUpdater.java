@@ -0,0 +1,105 @@
+package com.example.springtesttutorial.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.springtesttutorial.cache.EmployeeChangedEvent;
+import com.example.springtesttutorial.cache.EmployeeChangedEvent.Change;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeeSuggestion;
+import com.example.springtesttutorial.replica.EmployeeReplicaUpdater;
+import com.example.springtesttutorial.repository.EmployeeRepository;
+import com.example.springtesttutorial.routing.ReadRouting;
+import com.example.springtesttutorial.service.EmployeeService;
+import com.example.springtesttutorial.snapshot.EmployeeSnapshotStore;
+
+// the writing thread only queues its changes; one background thread applies them, keeping just
+// the newest change per id
+@Component
+@ConditionalOnProperty(name = "employee.autocomplete.enabled", havingValue = "true", matchIfMissing = true)
+public class EmployeePrefixIndexUpdater extends EmployeeReplicaUpdater<EmployeeSuggestion> implements DisposableBean {
+
+  private static final Logger log = LoggerFactory.getLogger(EmployeePrefixIndexUpdater.class);
+
+  private final Map<Long, Change> pending = new ConcurrentHashMap<>();
+
+  private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+  private final ExecutorService drainer;
+
+  @Autowired
+  public EmployeePrefixIndexUpdater(EmployeePrefixIndex index, EmployeeService employeeService,
+      EmployeeRepository employeeRepository, ObjectProvider<EmployeeSnapshotStore> snapshotStore,
+      ReadRouting readRouting) {
+    this(index, employeeService, employeeRepository, snapshotStore, readRouting,
+        Executors.newSingleThreadExecutor(runnable -> {
+          Thread thread = new Thread(runnable, "employee-autocomplete-updater");
+          thread.setDaemon(true);
+          return thread;
+        }));
+  }
+
+  EmployeePrefixIndexUpdater(EmployeePrefixIndex index, EmployeeService employeeService,
+      EmployeeRepository employeeRepository, ObjectProvider<EmployeeSnapshotStore> snapshotStore,
+      ReadRouting readRouting, ExecutorService drainer) {
+    super(index, EmployeePrefixIndexUpdater::toSuggestion, employeeService, employeeRepository, snapshotStore,
+        readRouting);
+    this.drainer = drainer;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onChanged(EmployeeChangedEvent event) {
+    event.changes().forEach(this::queue);
+    if (drainScheduled.compareAndSet(false, true)) {
+      drainer.execute(this::drain);
+    }
+  }
+
+  private void queue(Change change) {
+    pending.merge(change.id(), change, (queued, next) -> next.version() >= queued.version() ? next : queued);
+  }
+
+  private void drain() {
+    // cleared first, a change queued from now on schedules the next drain
+    drainScheduled.set(false);
+
+    List<Change> changes = new ArrayList<>();
+    for (Long id : pending.keySet()) {
+      Change change = pending.remove(id);
+      if (change != null) {
+        changes.add(change);
+      }
+    }
+    try {
+      apply(changes);
+    } catch (RuntimeException e) {
+      // queued again, the next change retries them; applying one twice does no harm
+      log.warn("Could not apply {} employee changes to the autocomplete index", changes.size(), e);
+      changes.forEach(this::queue);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    drainer.shutdownNow();
+  }
+
+  static EmployeeSuggestion toSuggestion(Employee employee) {
+    return new EmployeeSuggestion(employee.getId(), employee.getFirstName(), employee.getLastName(), employee.getEmail(),
+        employee.getVersion());
+  }
+}
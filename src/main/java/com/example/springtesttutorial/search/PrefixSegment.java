@@ -0,0 +1,205 @@
+package com.example.springtesttutorial.search;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.LongPredicate;
+
+import com.example.springtesttutorial.model.EmployeeSuggestion;
+import com.example.springtesttutorial.replica.ReplicaSegment;
+
+// immutable, array-only prefix index over first name, last name and email:
+// - documents sorted by id with their versions, their three fields as one UTF-8 block (docData/docOffsets)
+// - the distinct lower-cased terms sorted by their UTF-8 bytes (termData/termOffsets)
+// - per term the documents containing it (postings, sliced by postingOffsets)
+// no object is allocated per employee, a lookup is a binary search plus a forward scan
+final class PrefixSegment implements ReplicaSegment<EmployeeSuggestion> {
+
+  static final PrefixSegment EMPTY = build(List.of());
+
+  private static final int FIELDS = 3;
+
+  private final long[] ids;
+  private final long[] versions;
+  private final byte[] docData;
+  private final int[] docOffsets;
+
+  private final byte[] termData;
+  private final int[] termOffsets;
+  private final int[] postingOffsets;
+  private final int[] postings;
+
+  private PrefixSegment(long[] ids, long[] versions, byte[] docData, int[] docOffsets, byte[] termData, int[] termOffsets,
+      int[] postingOffsets, int[] postings) {
+    this.ids = ids;
+    this.versions = versions;
+    this.docData = docData;
+    this.docOffsets = docOffsets;
+    this.termData = termData;
+    this.termOffsets = termOffsets;
+    this.postingOffsets = postingOffsets;
+    this.postings = postings;
+  }
+
+  private record Entry(byte[] term, int doc) {
+  }
+
+  static PrefixSegment build(Collection<EmployeeSuggestion> employees) {
+    List<EmployeeSuggestion> docs = new ArrayList<>(employees);
+    docs.sort(Comparator.comparingLong(EmployeeSuggestion::getId));
+
+    long[] ids = new long[docs.size()];
+    long[] versions = new long[docs.size()];
+    int[] docOffsets = new int[docs.size() * FIELDS + 1];
+    ByteArrayOutputStream docData = new ByteArrayOutputStream();
+    List<Entry> entries = new ArrayList<>(docs.size() * FIELDS);
+    for (int doc = 0; doc < docs.size(); doc++) {
+      EmployeeSuggestion employee = docs.get(doc);
+      ids[doc] = employee.getId();
+      versions[doc] = employee.getVersion();
+      String[] fields = fields(employee);
+      for (int field = 0; field < FIELDS; field++) {
+        docOffsets[doc * FIELDS + field] = docData.size();
+        docData.writeBytes(fields[field].getBytes(StandardCharsets.UTF_8));
+        entries.add(new Entry(term(fields[field]), doc));
+      }
+    }
+    docOffsets[docs.size() * FIELDS] = docData.size();
+
+    entries.sort((a, b) -> {
+      int compared = Arrays.compareUnsigned(a.term(), b.term());
+      return compared != 0 ? compared : Integer.compare(a.doc(), b.doc());
+    });
+
+    ByteArrayOutputStream termData = new ByteArrayOutputStream();
+    int[] termOffsets = new int[entries.size() + 1];
+    int[] postingOffsets = new int[entries.size() + 1];
+    int[] postings = new int[entries.size()];
+    int terms = 0;
+    int posting = 0;
+    byte[] previous = null;
+    for (Entry entry : entries) {
+      if (previous == null || !Arrays.equals(previous, entry.term())) {
+        termOffsets[terms] = termData.size();
+        postingOffsets[terms] = posting;
+        termData.writeBytes(entry.term());
+        previous = entry.term();
+        terms++;
+      } else if (postings[posting - 1] == entry.doc()) {
+        // same term in two fields of one employee (e.g. first and last name)
+        continue;
+      }
+      postings[posting++] = entry.doc();
+    }
+    termOffsets[terms] = termData.size();
+    postingOffsets[terms] = posting;
+
+    return new PrefixSegment(ids, versions, docData.toByteArray(), docOffsets, termData.toByteArray(),
+        Arrays.copyOf(termOffsets, terms + 1), Arrays.copyOf(postingOffsets, terms + 1), Arrays.copyOf(postings, posting));
+  }
+
+  static String[] fields(EmployeeSuggestion employee) {
+    return new String[] { nullToEmpty(employee.getFirstName()), nullToEmpty(employee.getLastName()), nullToEmpty(employee.getEmail()) };
+  }
+
+  static byte[] term(String value) {
+    return value.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String nullToEmpty(String value) {
+    return value == null ? "" : value;
+  }
+
+  // a hit: the matched term (for ordering against the delta) and the document
+  record Hit(byte[] term, EmployeeSuggestion employee) {
+  }
+
+  // employees with a term starting with prefix, in term then id order, skipping excluded ids
+  List<Hit> search(byte[] prefix, int limit, LongPredicate excluded) {
+    List<Hit> hits = new ArrayList<>();
+    int terms = termOffsets.length - 1;
+    for (int term = lowerBound(prefix); term < terms && hits.size() < limit && startsWith(term, prefix); term++) {
+      for (int posting = postingOffsets[term]; posting < postingOffsets[term + 1] && hits.size() < limit; posting++) {
+        int doc = postings[posting];
+        if (excluded.test(ids[doc]) || containsDoc(hits, ids[doc])) {
+          continue;
+        }
+        hits.add(new Hit(Arrays.copyOfRange(termData, termOffsets[term], termOffsets[term + 1]), document(doc)));
+      }
+    }
+    return hits;
+  }
+
+  private static boolean containsDoc(List<Hit> hits, long id) {
+    // hits are capped at the (small) autocomplete limit, a scan is cheaper than a set
+    for (Hit hit : hits) {
+      if (hit.employee().getId() == id) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // first term that is >= prefix
+  private int lowerBound(byte[] prefix) {
+    int low = 0;
+    int high = termOffsets.length - 1;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (Arrays.compareUnsigned(termData, termOffsets[middle], termOffsets[middle + 1], prefix, 0, prefix.length) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private boolean startsWith(int term, byte[] prefix) {
+    int start = termOffsets[term];
+    return termOffsets[term + 1] - start >= prefix.length
+        && Arrays.equals(termData, start, start + prefix.length, prefix, 0, prefix.length);
+  }
+
+  private EmployeeSuggestion document(int doc) {
+    return new EmployeeSuggestion(ids[doc], field(doc, 0), field(doc, 1), field(doc, 2), versions[doc]);
+  }
+
+  private String field(int doc, int field) {
+    int start = docOffsets[doc * FIELDS + field];
+    return new String(docData, start, docOffsets[doc * FIELDS + field + 1] - start, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public long version(long id) {
+    int doc = Arrays.binarySearch(ids, id);
+    return doc >= 0 ? versions[doc] : -1;
+  }
+
+  @Override
+  public List<EmployeeSuggestion> rows(LongPredicate excluded) {
+    List<EmployeeSuggestion> documents = new ArrayList<>(ids.length);
+    for (int doc = 0; doc < ids.length; doc++) {
+      if (!excluded.test(ids[doc])) {
+        documents.add(document(doc));
+      }
+    }
+    return documents;
+  }
+
+  @Override
+  public int size() {
+    return ids.length;
+  }
+
+  @Override
+  public long memoryBytes() {
+    return 8L * ids.length + 8L * versions.length + docData.length + 4L * docOffsets.length + termData.length + 4L * termOffsets.length
+        + 4L * postingOffsets.length + 4L * postings.length;
+  }
+}
@@ -0,0 +1,94 @@
+package com.example.springtesttutorial.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// minimal streaming RFC 4180 reader: quoted fields may contain commas, quotes ("") and
+// line breaks, only the current record is ever held in memory
+class EmployeeCsvReader {
+
+  record CsvRecord(long line, List<String> fields) {
+  }
+
+  private final Reader reader;
+
+  private long line = 1;
+
+  private int pending = -2;
+
+  EmployeeCsvReader(Reader reader) {
+    this.reader = reader;
+  }
+
+  CsvRecord next() throws IOException {
+    int c = read();
+    if (c == -1) {
+      return null;
+    }
+
+    long recordLine = line;
+    List<String> fields = new ArrayList<>(3);
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+
+    while (true) {
+      if (quoted) {
+        if (c == -1) {
+          break;
+        }
+        if (c == '"') {
+          int after = read();
+          if (after == '"') {
+            field.append('"');
+          } else {
+            quoted = false;
+            c = after;
+            continue;
+          }
+        } else {
+          if (c == '\n') {
+            line++;
+          }
+          field.append((char) c);
+        }
+      } else if (c == '"' && field.length() == 0) {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else if (c == '\r' || c == '\n' || c == -1) {
+        if (c == '\r') {
+          int after = read();
+          if (after != '\n') {
+            unread(after);
+          }
+        }
+        if (c != -1) {
+          line++;
+        }
+        break;
+      } else {
+        field.append((char) c);
+      }
+      c = read();
+    }
+
+    fields.add(field.toString());
+    return new CsvRecord(recordLine, fields);
+  }
+
+  private int read() throws IOException {
+    if (pending != -2) {
+      int c = pending;
+      pending = -2;
+      return c;
+    }
+    return reader.read();
+  }
+
+  private void unread(int c) {
+    pending = c;
+  }
+}
@@ -0,0 +1,38 @@
+package com.example.springtesttutorial.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.example.springtesttutorial.exception.InvalidCursorException;
+
+// keyset cursor: the id of the last employee on the previous page, handed to
+// clients as an opaque url-safe token so the encoding can change later
+record EmployeeCursor(long lastId) {
+
+  private static final String PREFIX = "id:";
+
+  static EmployeeCursor first() {
+    return new EmployeeCursor(0L);
+  }
+
+  static EmployeeCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      return first();
+    }
+
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      if (!decoded.startsWith(PREFIX)) {
+        throw new InvalidCursorException(String.format("Invalid cursor %s", token));
+      }
+      return new EmployeeCursor(Long.parseLong(decoded.substring(PREFIX.length())));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidCursorException(String.format("Invalid cursor %s", token), e);
+    }
+  }
+
+  String encode() {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+  }
+}
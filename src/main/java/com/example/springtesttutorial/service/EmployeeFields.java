@@ -0,0 +1,54 @@
+package com.example.springtesttutorial.service;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.example.springtesttutorial.exception.InvalidFieldsException;
+import com.example.springtesttutorial.model.Employee;
+
+// the employee attributes a fields= parameter may select; id is always included since
+// clients need it to address the employee and the keyset cursor is built from it
+final class EmployeeFields {
+
+  static final String ID = "id";
+
+  private static final Set<String> ALLOWED = Set.of(ID, "firstName", "lastName", "email", "version");
+
+  private EmployeeFields() {
+  }
+
+  static Set<String> parse(List<String> fields) {
+    Set<String> attributes = new LinkedHashSet<>();
+    attributes.add(ID);
+    for (String field : fields) {
+      String attribute = field.trim();
+      if (attribute.isEmpty()) {
+        continue;
+      }
+      if (!ALLOWED.contains(attribute)) {
+        throw new InvalidFieldsException(String.format("Unknown field %s, allowed are %s", attribute, ALLOWED));
+      }
+      attributes.add(attribute);
+    }
+    return attributes;
+  }
+
+  // slices an employee that is already at hand (e.g. cached) instead of querying again
+  static Map<String, Object> project(Employee employee, Set<String> attributes) {
+    Map<String, Object> values = new LinkedHashMap<>();
+    for (String attribute : attributes) {
+      values.put(attribute, switch (attribute) {
+        case ID -> employee.getId();
+        case "firstName" -> employee.getFirstName();
+        case "lastName" -> employee.getLastName();
+        case "email" -> employee.getEmail();
+        case "version" -> employee.getVersion();
+        default -> throw new InvalidFieldsException(String.format("Unknown field %s", attribute));
+      });
+    }
+    return values;
+  }
+}
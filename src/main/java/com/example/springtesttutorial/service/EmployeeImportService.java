@@ -0,0 +1,204 @@
+package com.example.springtesttutorial.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.springtesttutorial.cache.EmployeeChangedEvent;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeeImportError;
+import com.example.springtesttutorial.model.EmployeeImportReport;
+import com.example.springtesttutorial.service.EmployeeCsvReader.CsvRecord;
+
+// bulk load path for large csv files: rows are streamed into a temporary staging table with
+// COPY FROM STDIN and merged into employees with set-based statements in the same transaction
+@Service
+@Profile(EmployeeServiceImpl.PROFILE)
+public class EmployeeImportService {
+
+  static final int MAX_REPORTED_ERRORS = 1000;
+
+  static final int EVENT_CHUNK_SIZE = 1000;
+
+  private static final String HEADER = "firstName,lastName,email";
+
+  private static final String CREATE_STAGING_TABLE = """
+      CREATE TEMPORARY TABLE employees_import (
+        line_no bigint NOT NULL,
+        first_name text NOT NULL,
+        last_name text NOT NULL,
+        email text NOT NULL
+      ) ON COMMIT DROP""";
+
+  private static final String COPY_STAGING_TABLE = """
+      COPY employees_import (line_no, first_name, last_name, email) FROM STDIN WITH (FORMAT csv)""";
+
+  // a row is rejected when its email already exists or an earlier line of the file uses it,
+  // compared lower-cased like the uk_employees_email index
+  private static final String DUPLICATE_CONDITION = """
+      EXISTS (SELECT 1 FROM employees e WHERE lower(e.email) = lower(s.email))
+      OR EXISTS (SELECT 1 FROM employees_import d WHERE lower(d.email) = lower(s.email) AND d.line_no < s.line_no)""";
+
+  private static final String SELECT_DUPLICATES = """
+      SELECT s.line_no, s.email FROM employees_import s
+      WHERE %s
+      ORDER BY s.line_no""".formatted(DUPLICATE_CONDITION);
+
+  // ids are drawn straight from the sequence, one increment block per row, which keeps them
+  // clear of the ranges hibernate's pooled optimizer hands out from the same sequence.
+  // ON CONFLICT skips rows whose email was inserted concurrently after the duplicate check; every
+  // candidate comes back joined with its inserted id, a skipped one without, so it can be reported
+  private static final String MERGE_STAGING_TABLE = """
+      WITH candidates AS MATERIALIZED (
+        SELECT s.line_no, s.first_name, s.last_name, s.email FROM employees_import s
+        WHERE NOT (%s)
+      ), inserted AS (
+        INSERT INTO employees (id, first_name, last_name, email)
+        SELECT nextval('employees_seq'), c.first_name, c.last_name, c.email FROM candidates c
+        ORDER BY c.line_no
+        ON CONFLICT DO NOTHING
+        RETURNING id, first_name, last_name, email, version, lower(email) AS lower_email
+      )
+      SELECT c.line_no, c.email, i.id, i.first_name, i.last_name, i.email AS inserted_email, i.version FROM candidates c
+      LEFT JOIN inserted i ON i.lower_email = lower(c.email)
+      ORDER BY c.line_no""".formatted(DUPLICATE_CONDITION);
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  public EmployeeImportService(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.eventPublisher = eventPublisher;
+  }
+
+  @Transactional
+  public EmployeeImportReport importEmployees(InputStream csv) {
+    EmployeeImportReport report = new EmployeeImportReport();
+
+    jdbcTemplate.execute(CREATE_STAGING_TABLE);
+    long staged = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+      PGConnection pgConnection = connection.unwrap(PGConnection.class);
+      try (Writer copy = new BufferedWriter(new OutputStreamWriter(
+          new PGCopyOutputStream(pgConnection, COPY_STAGING_TABLE), StandardCharsets.UTF_8))) {
+        return stage(new EmployeeCsvReader(new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))),
+            copy, report);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+
+    if (staged == 0) {
+      return report;
+    }
+
+    jdbcTemplate.execute("CREATE INDEX ON employees_import (lower(email), line_no)");
+    jdbcTemplate.execute("ANALYZE employees_import");
+
+    jdbcTemplate.query(SELECT_DUPLICATES, resultSet -> {
+      reject(report, resultSet.getLong("line_no"), resultSet.getString("email"),
+          String.format("Employee with email %s already exists", resultSet.getString("email")));
+    });
+    // the inserted rows go out as change events in chunks, so listeners apply just these rows
+    List<Employee> imported = new ArrayList<>();
+    jdbcTemplate.query(MERGE_STAGING_TABLE, resultSet -> {
+      if (resultSet.getObject("id") == null) {
+        reject(report, resultSet.getLong("line_no"), resultSet.getString("email"),
+            String.format("Employee with email %s already exists", resultSet.getString("email")));
+        return;
+      }
+      report.setImported(report.getImported() + 1);
+      imported.add(Employee.builder()
+          .id(resultSet.getLong("id"))
+          .firstName(resultSet.getString("first_name"))
+          .lastName(resultSet.getString("last_name"))
+          .email(resultSet.getString("inserted_email"))
+          .version(resultSet.getLong("version"))
+          .build());
+      if (imported.size() == EVENT_CHUNK_SIZE) {
+        eventPublisher.publishEvent(EmployeeChangedEvent.local(List.copyOf(imported)));
+        imported.clear();
+      }
+    });
+    if (!imported.isEmpty()) {
+      eventPublisher.publishEvent(EmployeeChangedEvent.local(List.copyOf(imported)));
+    }
+
+    return report;
+  }
+
+  private static long stage(EmployeeCsvReader reader, Writer copy, EmployeeImportReport report) throws IOException {
+    long staged = 0;
+    CsvRecord record;
+    while ((record = reader.next()) != null) {
+      List<String> fields = record.fields();
+      if (fields.size() == 1 && fields.get(0).isBlank()) {
+        continue;
+      }
+      if (record.line() == 1 && HEADER.equalsIgnoreCase(String.join(",", fields).replace(" ", ""))) {
+        continue;
+      }
+
+      String error = validate(fields);
+      if (error != null) {
+        reject(report, record.line(), fields.size() > 2 ? fields.get(2) : null, error);
+        continue;
+      }
+
+      copy.write(Long.toString(record.line()));
+      for (String field : fields) {
+        copy.write(',');
+        writeQuoted(copy, field.strip());
+      }
+      copy.write('\n');
+      staged++;
+    }
+    return staged;
+  }
+
+  private static String validate(List<String> fields) {
+    if (fields.size() != 3) {
+      return String.format("Expected 3 columns (%s) but found %s", HEADER, fields.size());
+    }
+    if (fields.get(0).isBlank()) {
+      return "firstName is required";
+    }
+    if (fields.get(1).isBlank()) {
+      return "lastName is required";
+    }
+    if (fields.get(2).isBlank()) {
+      return "email is required";
+    }
+    return null;
+  }
+
+  private static void writeQuoted(Writer writer, String value) throws IOException {
+    writer.write('"');
+    writer.write(value.replace("\"", "\"\""));
+    writer.write('"');
+  }
+
+  private static void reject(EmployeeImportReport report, long line, String email, String message) {
+    report.setRejected(report.getRejected() + 1);
+    if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+      report.getErrors().add(new EmployeeImportError(line, email, message));
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.example.springtesttutorial.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.example.springtesttutorial.exception.InvalidCursorException;
+
+// keyset cursor of the list sorted by name: the (lastName, firstName, id) of the last
+// employee on the previous page, names are base64 encoded so they may contain ':'
+record EmployeeNameCursor(String lastName, String firstName, long lastId) {
+
+  private static final String PREFIX = "name:";
+
+  static EmployeeNameCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      return null;
+    }
+
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      String[] parts = decoded.split(":", -1);
+      if (!decoded.startsWith(PREFIX) || parts.length != 4) {
+        throw new InvalidCursorException(String.format("Invalid cursor %s", token));
+      }
+      return new EmployeeNameCursor(decodePart(parts[2]), decodePart(parts[3]), Long.parseLong(parts[1]));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidCursorException(String.format("Invalid cursor %s", token), e);
+    }
+  }
+
+  String encode() {
+    String cursor = PREFIX + lastId + ":" + encodePart(lastName) + ":" + encodePart(firstName);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String encodePart(String value) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String decodePart(String value) {
+    return new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+  }
+}
@@ -2,18 +2,46 @@ package com.example.springtesttutorial.service;
 
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeeDeleteReport;
+import com.example.springtesttutorial.model.EmployeeDeleteRequest;
+import com.example.springtesttutorial.model.EmployeeFieldsPage;
+import com.example.springtesttutorial.model.EmployeeLookupResult;
+import com.example.springtesttutorial.model.EmployeePage;
+import com.example.springtesttutorial.model.EmployeeSearch;
 
 public interface EmployeeService {
   
   Employee saveEmployee(Employee employee);
 
+  List<Employee> saveEmployees(List<Employee> employees);
+
   List<Employee> getAllEmployees();
 
+  EmployeePage getEmployeePage(String cursor, Integer size);
+
+  EmployeePage searchEmployees(EmployeeSearch search, String cursor, Integer size);
+
+  // sparse variants: only the requested fields are selected and returned
+  EmployeeFieldsPage getEmployeePage(String cursor, Integer size, List<String> fields);
+
+  Map<String, Object> getEmployeeById(Long id, List<String> fields);
+
+  void forEachEmployee(Consumer<Employee> action);
+
   Employee getEmployeeById(Long id);
 
-  Employee updateEmployee(Long id, Employee updatedEmployee);
+  Employee getEmployeeByEmail(String email);
+
+  EmployeeLookupResult getEmployeesByIds(List<Long> ids);
+
+  // expectedVersion null means any version (If-Match: *)
+  Employee updateEmployee(Long id, Long expectedVersion, Employee updatedEmployee);
+
+  void deleteEmployee(Long id, Long expectedVersion);
 
-  void deleteEmployee(Long id);
+  EmployeeDeleteReport deleteEmployees(EmployeeDeleteRequest request);
 }
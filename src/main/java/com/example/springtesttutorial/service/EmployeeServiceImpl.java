@@ -1,58 +1,445 @@
 package com.example.springtesttutorial.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.springtesttutorial.cache.EmployeeBatchLoader;
+import com.example.springtesttutorial.cache.EmployeeCache;
+import com.example.springtesttutorial.cache.EmployeeChangedEvent;
+import com.example.springtesttutorial.cache.EmployeeLookupCoalescer;
+import com.example.springtesttutorial.exception.BatchTooLargeException;
 import com.example.springtesttutorial.exception.EmployeeAlreadyExistsException;
 import com.example.springtesttutorial.exception.EmployeeNotFoundException;
+import com.example.springtesttutorial.exception.EmployeeVersionMismatchException;
+import com.example.springtesttutorial.exception.InvalidDeleteRequestException;
+import com.example.springtesttutorial.exception.InvalidSearchException;
 import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeeDeleteReport;
+import com.example.springtesttutorial.model.EmployeeDeleteRequest;
+import com.example.springtesttutorial.model.EmployeeFieldsPage;
+import com.example.springtesttutorial.model.EmployeeLookupResult;
+import com.example.springtesttutorial.model.EmployeePage;
+import com.example.springtesttutorial.model.EmployeeSearch;
 import com.example.springtesttutorial.repository.EmployeeRepository;
+import com.example.springtesttutorial.repository.EmployeeSpecifications;
+import com.example.springtesttutorial.routing.ReadRouting;
+
+import jakarta.persistence.EntityManager;
 
+// reads run in read-only transactions: hibernate neither flushes nor keeps dirty-checking snapshots,
+// postgres gets a READ ONLY transaction, and the pool connection is only taken once the first
+// statement runs (see DataSourceConfig), so cache hits never touch the pool. Writes are single
+// statements, each in its own short transaction, and evict/publish only after their commit.
 @Service
+@Profile(EmployeeServiceImpl.PROFILE)
 public class EmployeeServiceImpl implements EmployeeService {
 
+  // this engine and what needs its single jpa database, unless another engine is selected
+  public static final String PROFILE = "!" + InMemoryEmployeeService.PROFILE + " & !" + ShardedEmployeeService.PROFILE
+      + " & !" + ReactiveEmployeeService.PROFILE;
+
+  static final String EMAIL_UNIQUE_INDEX = "uk_employees_email";
+
+  static final int DEFAULT_PAGE_SIZE = 20;
+  static final int MAX_PAGE_SIZE = 100;
+
+  static final String SORT_ID = "id";
+  static final String SORT_LAST_NAME = "lastName";
+
+  // matches hibernate.jdbc.batch_size, the persistence context is flushed and cleared per batch
+  static final int INSERT_BATCH_SIZE = 50;
+  static final int MAX_INSERT_BATCH = 10_000;
+
+  static final int MAX_LOOKUP_IDS = 1000;
+
+  static final int DELETE_CHUNK_SIZE = 500;
+  static final int MAX_DELETE_IDS = 10_000;
+
   private final EmployeeRepository employeeRepository;
 
-  public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+  private final EntityManager entityManager;
+
+  private final EmployeeCache employeeCache;
+
+  private final EmployeeLookupCoalescer lookupCoalescer;
+
+  private final EmployeeBatchLoader batchLoader;
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  private final ReadRouting readRouting;
+
+  public EmployeeServiceImpl(EmployeeRepository employeeRepository, EntityManager entityManager,
+      EmployeeCache employeeCache, EmployeeLookupCoalescer lookupCoalescer, EmployeeBatchLoader batchLoader,
+      ApplicationEventPublisher eventPublisher, ReadRouting readRouting) {
     this.employeeRepository = employeeRepository;
+    this.entityManager = entityManager;
+    this.employeeCache = employeeCache;
+    this.lookupCoalescer = lookupCoalescer;
+    this.batchLoader = batchLoader;
+    this.eventPublisher = eventPublisher;
+    this.readRouting = readRouting;
   }
 
   @Override
   public Employee saveEmployee(Employee employee) {
+    // a single insert, the unique email index rejects duplicates (also under concurrent creates)
+    Employee savedEmployee;
+    try {
+      savedEmployee = employeeRepository.saveAndFlush(employee);
+    } catch (DataIntegrityViolationException e) {
+      throw translateEmailConflict(e, employee.getEmail());
+    }
+
+    // drop a cached "not found" for the new id
+    employeeCache.evict(savedEmployee.getId());
+    eventPublisher.publishEvent(EmployeeChangedEvent.local(savedEmployee));
+    return savedEmployee;
+  }
+
+  @Override
+  @Transactional
+  public List<Employee> saveEmployees(List<Employee> employees) {
+    if (employees.size() > MAX_INSERT_BATCH) {
+      throw new BatchTooLargeException(String.format("Batch of %s employees exceeds the limit of %s", employees.size(), MAX_INSERT_BATCH));
+    }
 
-    employeeRepository.findByEmail(employee.getEmail())
-        .ifPresent(e -> {
-          throw new EmployeeAlreadyExistsException(String.format("Employee with email %s already exists", employee.getEmail()));
-        });
+    Set<String> emails = new HashSet<>();
+    for (Employee employee : employees) {
+      if (employee.getEmail() != null && !emails.add(employee.getEmail().toLowerCase(Locale.ROOT))) {
+        throw new EmployeeAlreadyExistsException(String.format("Employee with email %s appears more than once in the batch", employee.getEmail()));
+      }
+    }
 
-    return employeeRepository.save(employee);
+    if (!emails.isEmpty()) {
+      List<String> existingEmails = employeeRepository.findExistingEmails(emails);
+      if (!existingEmails.isEmpty()) {
+        throw new EmployeeAlreadyExistsException(String.format("Employees with emails %s already exist", existingEmails));
+      }
+    }
+
+    try {
+      for (int i = 0; i < employees.size(); i++) {
+        employeeRepository.save(employees.get(i));
+        if ((i + 1) % INSERT_BATCH_SIZE == 0) {
+          entityManager.flush();
+          entityManager.clear();
+        }
+      }
+      entityManager.flush();
+    } catch (DataIntegrityViolationException e) {
+      // an employee with one of the emails was created concurrently
+      throw translateEmailConflict(e, null);
+    }
+
+    employees.forEach(employee -> employeeCache.evict(employee.getId()));
+    if (!employees.isEmpty()) {
+      eventPublisher.publishEvent(EmployeeChangedEvent.local(List.copyOf(employees)));
+    }
+    return employees;
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<Employee> getAllEmployees() {
     return employeeRepository.findAll();
   }
 
   @Override
-  public Employee getEmployeeById(Long id) {
-    return employeeRepository.findById(id).orElseThrow(() -> new EmployeeNotFoundException(String.format("Employee not found for id %s", id)));
+  @Transactional(readOnly = true)
+  public EmployeePage getEmployeePage(String cursor, Integer size) {
+    int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    EmployeeCursor after = EmployeeCursor.decode(cursor);
+
+    // fetch one extra row to know whether there is a next page without a count query
+    List<Employee> employees = employeeRepository.findByIdGreaterThanOrderByIdAsc(after.lastId(),
+        PageRequest.ofSize(pageSize + 1));
+
+    if (employees.size() <= pageSize) {
+      return new EmployeePage(employees, null);
+    }
+
+    List<Employee> content = employees.subList(0, pageSize);
+    String next = new EmployeeCursor(content.get(pageSize - 1).getId()).encode();
+    return new EmployeePage(content, next);
   }
 
   @Override
-  public Employee updateEmployee(Long id, Employee updatedEmployee) {
-    Employee employee = employeeRepository.findById(id)
+  @Transactional(readOnly = true)
+  public EmployeePage searchEmployees(EmployeeSearch search, String cursor, Integer size) {
+    boolean byName = SORT_LAST_NAME.equals(search.getSort());
+    if (search.getSort() != null && !byName && !SORT_ID.equals(search.getSort())) {
+      throw new InvalidSearchException(String.format("Unknown sort %s, allowed are %s and %s", search.getSort(), SORT_ID, SORT_LAST_NAME));
+    }
+    if (!search.hasFilter() && !byName) {
+      return getEmployeePage(cursor, size);
+    }
+    // only combinations an index can answer in order are accepted (see schema.sql)
+    if (byName && (search.getEmailDomain() != null || (search.getFirstName() != null && search.getLastName() == null))) {
+      throw new InvalidSearchException("sort=lastName can only be combined with a lastName (and firstName) filter");
+    }
+
+    int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+    Specification<Employee> specification = Specification.where(null);
+    if (search.getFirstName() != null) specification = specification.and(EmployeeSpecifications.firstNameIs(search.getFirstName()));
+    if (search.getLastName() != null) specification = specification.and(EmployeeSpecifications.lastNameIs(search.getLastName()));
+    if (search.getEmailDomain() != null) {
+      specification = specification.and(EmployeeSpecifications.emailDomainIs(search.getEmailDomain().toLowerCase(Locale.ROOT)));
+    }
+
+    Sort sort;
+    if (byName) {
+      EmployeeNameCursor after = EmployeeNameCursor.decode(cursor);
+      if (after != null) {
+        specification = specification.and(EmployeeSpecifications.nameAfter(after.lastName(), after.firstName(), after.lastId()));
+      }
+      sort = Sort.by("lastName", "firstName", "id");
+    } else {
+      specification = specification.and(EmployeeSpecifications.idAfter(EmployeeCursor.decode(cursor).lastId()));
+      sort = Sort.by("id");
+    }
+
+    // fetch one extra row to know whether there is a next page, the fluent query skips the count
+    List<Employee> employees = employeeRepository.findBy(specification,
+        query -> query.sortBy(sort).limit(pageSize + 1).all());
+
+    if (employees.size() <= pageSize) {
+      return new EmployeePage(employees, null);
+    }
+
+    List<Employee> content = employees.subList(0, pageSize);
+    Employee last = content.get(pageSize - 1);
+    String next = byName ? new EmployeeNameCursor(last.getLastName(), last.getFirstName(), last.getId()).encode()
+        : new EmployeeCursor(last.getId()).encode();
+    return new EmployeePage(content, next);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public EmployeeFieldsPage getEmployeePage(String cursor, Integer size, List<String> fields) {
+    int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    EmployeeCursor after = EmployeeCursor.decode(cursor);
+    Set<String> attributes = EmployeeFields.parse(fields);
+
+    List<Map<String, Object>> employees = employeeRepository.findFieldsByIdGreaterThan(attributes, after.lastId(),
+        pageSize + 1);
+
+    if (employees.size() <= pageSize) {
+      return new EmployeeFieldsPage(employees, null);
+    }
+
+    List<Map<String, Object>> content = employees.subList(0, pageSize);
+    long lastId = (Long) content.get(pageSize - 1).get(EmployeeFields.ID);
+    return new EmployeeFieldsPage(content, new EmployeeCursor(lastId).encode());
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Map<String, Object> getEmployeeById(Long id, List<String> fields) {
+    Set<String> attributes = EmployeeFields.parse(fields);
+
+    // a cached employee already holds every field, otherwise only the requested columns are read
+    Optional<Map<String, Object>> employee = employeeCache.getIfPresent(id)
+        .map(cached -> EmployeeFields.project(cached, attributes))
+        .or(() -> employeeRepository.findFieldsById(attributes, id));
+    return employee
         .orElseThrow(() -> new EmployeeNotFoundException(String.format("Employee not found for id %s", id)));
+  }
 
-    if(updatedEmployee.getFirstName() != null) employee.setFirstName(updatedEmployee.getFirstName());
-    if(updatedEmployee.getLastName() != null) employee.setLastName(updatedEmployee.getLastName());
-    if(updatedEmployee.getEmail() != null) employee.setEmail(updatedEmployee.getEmail());
+  @Override
+  @Transactional(readOnly = true)
+  public void forEachEmployee(Consumer<Employee> action) {
+    try (Stream<Employee> employees = employeeRepository.streamAll()) {
+      employees.forEach(employee -> {
+        action.accept(employee);
+        // detach once written so the persistence context does not grow with the table
+        entityManager.detach(employee);
+      });
+    }
+  }
 
-    return employeeRepository.save(employee);
+  @Override
+  @Transactional(readOnly = true)
+  public Employee getEmployeeById(Long id) {
+    // a hit never reaches the coalescer; concurrent misses for the id share one load, which fills the cache
+    Optional<Employee> employee = employeeCache.getIfPresent(id);
+    if (employee.isEmpty()) {
+      employee = lookupCoalescer.byId(id, () -> employeeCache.load(id, this::loadEmployee));
+    }
+    return employee.orElseThrow(() -> new EmployeeNotFoundException(String.format("Employee not found for id %s", id)));
   }
 
   @Override
-  public void deleteEmployee(Long id) {
-    employeeRepository.deleteById(id);
+  @Transactional(readOnly = true)
+  public EmployeeLookupResult getEmployeesByIds(List<Long> ids) {
+    Set<Long> requested = new LinkedHashSet<>(ids);
+    if (requested.size() > MAX_LOOKUP_IDS) {
+      throw new BatchTooLargeException(String.format("Lookup of %s ids exceeds the limit of %s", requested.size(), MAX_LOOKUP_IDS));
+    }
+
+    Map<Long, Employee> found = new HashMap<>();
+    List<Long> uncached = new ArrayList<>();
+    for (Long id : requested) {
+      employeeCache.getIfPresent(id).ifPresentOrElse(employee -> found.put(id, employee), () -> uncached.add(id));
+    }
+
+    // everything the cache could not answer is resolved with one IN query
+    if (!uncached.isEmpty()) {
+      employeeRepository.findAllById(uncached).forEach(employee -> found.put(employee.getId(), employee));
+    }
+
+    List<Employee> content = new ArrayList<>(found.size());
+    List<Long> missing = new ArrayList<>();
+    for (Long id : requested) {
+      Employee employee = found.get(id);
+      if (employee != null) {
+        content.add(employee);
+      } else {
+        missing.add(id);
+      }
+    }
+    return new EmployeeLookupResult(content, missing);
+  }
+
+  // cache miss path: the same id is coalesced above, distinct ids are optionally batched here
+  // a row changed within the replicas' lag is read from the primary, so no old copy gets cached
+  // batches are read on the loader's own threads, outside the caller's routing, so a read that
+  // has to see a recent write skips the batch and goes to the primary by itself
+  private Optional<Employee> loadEmployee(Long id) {
+    if (batchLoader.isEnabled() && !readRouting.requiresPrimary(id)) {
+      return batchLoader.load(id);
+    }
+    return readRouting.forEmployee(id, () -> employeeRepository.findById(id));
   }
-  
+
+  @Override
+  @Transactional(readOnly = true)
+  public Employee getEmployeeByEmail(String email) {
+    return lookupCoalescer.byEmail(email, () -> employeeRepository.findByEmail(email))
+        .orElseThrow(() -> new EmployeeNotFoundException(String.format("Employee not found for email %s", email)));
+  }
+
+  @Override
+  public Employee updateEmployee(Long id, Long expectedVersion, Employee updatedEmployee) {
+    if (updatedEmployee.getFirstName() == null && updatedEmployee.getLastName() == null
+        && updatedEmployee.getEmail() == null) {
+      // nothing to write, answer with the current state
+      Employee employee = getEmployeeById(id);
+      checkVersion(employee, expectedVersion);
+      return employee;
+    }
+
+    // one UPDATE ... RETURNING with only the supplied columns; no row means the id does not exist
+    // or the version moved on, which is only told apart on this (rare) path
+    Employee savedEmployee;
+    try {
+      savedEmployee = employeeRepository.updatePartially(id, expectedVersion, updatedEmployee)
+          .orElseThrow(() -> writeConflict(id, expectedVersion));
+    } catch (DataIntegrityViolationException e) {
+      throw translateEmailConflict(e, updatedEmployee.getEmail());
+    }
+
+    // evict rather than put, so an older concurrent update can never overwrite a newer entry
+    employeeCache.evict(id);
+    eventPublisher.publishEvent(EmployeeChangedEvent.local(savedEmployee));
+    return savedEmployee;
+  }
+
+  @Override
+  public void deleteEmployee(Long id, Long expectedVersion) {
+    // one DELETE, nothing is loaded into the persistence context first
+    int deleted = expectedVersion == null ? employeeRepository.deleteEmployeeById(id)
+        : employeeRepository.deleteEmployeeByIdAndVersion(id, expectedVersion);
+    if (deleted == 0) {
+      throw writeConflict(id, expectedVersion);
+    }
+    employeeCache.evict(id);
+    eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id));
+  }
+
+  private RuntimeException writeConflict(Long id, Long expectedVersion) {
+    if (expectedVersion != null && employeeRepository.existsById(id)) {
+      return new EmployeeVersionMismatchException(String.format("Employee %s no longer has version %s", id, expectedVersion));
+    }
+    return new EmployeeNotFoundException(String.format("Employee not found for id %s", id));
+  }
+
+  private static void checkVersion(Employee employee, Long expectedVersion) {
+    if (expectedVersion != null && employee.getVersion() != expectedVersion) {
+      throw new EmployeeVersionMismatchException(String.format("Employee %s no longer has version %s", employee.getId(), expectedVersion));
+    }
+  }
+
+  @Override
+  public EmployeeDeleteReport deleteEmployees(EmployeeDeleteRequest request) {
+    boolean byIds = request.getIds() != null;
+    boolean byFilter = request.getLastName() != null || request.getEmailDomain() != null;
+    if (byIds == byFilter) {
+      throw new InvalidDeleteRequestException("Delete by either ids or a filter (lastName, emailDomain)");
+    }
+
+    // every chunk is its own short transaction, so locks are held for one chunk only
+    long deleted = 0;
+    if (byIds) {
+      List<Long> ids = new ArrayList<>(new LinkedHashSet<>(request.getIds()));
+      if (ids.size() > MAX_DELETE_IDS) {
+        throw new BatchTooLargeException(String.format("Delete of %s ids exceeds the limit of %s", ids.size(), MAX_DELETE_IDS));
+      }
+      for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+        List<Long> chunk = ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size()));
+        deleted += evictDeleted(employeeRepository.deleteAllByIdReturning(chunk));
+      }
+    } else {
+      List<Long> chunk;
+      do {
+        chunk = employeeRepository.deleteMatchingReturning(request.getLastName(), request.getEmailDomain(), DELETE_CHUNK_SIZE);
+        deleted += evictDeleted(chunk);
+      } while (chunk.size() == DELETE_CHUNK_SIZE);
+    }
+    return new EmployeeDeleteReport(deleted);
+  }
+
+  // one event for the whole chunk, so listeners and the change bus handle it in one go
+  private int evictDeleted(List<Long> ids) {
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    ids.forEach(employeeCache::evict);
+    eventPublisher.publishEvent(EmployeeChangedEvent.deleted(ids));
+    return ids.size();
+  }
+
+  // maps a violation of the unique email index to the domain exception, anything else is rethrown
+  static RuntimeException translateEmailConflict(DataIntegrityViolationException exception, String email) {
+    for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConstraintViolationException violation
+          && EMAIL_UNIQUE_INDEX.equalsIgnoreCase(violation.getConstraintName())) {
+        String message = email == null ? "Employee with one of the emails already exists"
+            : String.format("Employee with email %s already exists", email);
+        return new EmployeeAlreadyExistsException(message, exception);
+      }
+    }
+    return exception;
+  }
+
 }
@@ -0,0 +1,470 @@
+package com.example.springtesttutorial.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.example.springtesttutorial.cache.EmployeeChangedEvent;
+import com.example.springtesttutorial.exception.BatchTooLargeException;
+import com.example.springtesttutorial.exception.EmployeeAlreadyExistsException;
+import com.example.springtesttutorial.exception.EmployeeNotFoundException;
+import com.example.springtesttutorial.exception.EmployeeVersionMismatchException;
+import com.example.springtesttutorial.exception.InvalidDeleteRequestException;
+import com.example.springtesttutorial.exception.InvalidSearchException;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeeDeleteReport;
+import com.example.springtesttutorial.model.EmployeeDeleteRequest;
+import com.example.springtesttutorial.model.EmployeeFieldsPage;
+import com.example.springtesttutorial.model.EmployeeLookupResult;
+import com.example.springtesttutorial.model.EmployeePage;
+import com.example.springtesttutorial.model.EmployeeSearch;
+
+// storage engine without a database, for load tests and small installs (profile "inmemory"):
+// employees sit in a hash index by id, next to a hash index on the lower-cased email, a sorted set
+// of ids for the keyset pages and a sorted set of (lastName, firstName, id) for the name order.
+// Writes are serialized so the indexes and the email uniqueness check stay consistent, reads never
+// lock. Stored employees are never handed out, callers get copies. Same contract and limits as
+// EmployeeServiceImpl, except that names are ordered by String.compareTo, not a database collation.
+@Service
+@Profile(InMemoryEmployeeService.PROFILE)
+public class InMemoryEmployeeService implements EmployeeService {
+
+  public static final String PROFILE = "inmemory";
+
+  private static final Comparator<String> NAME_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+  private record NameKey(String lastName, String firstName, long id) implements Comparable<NameKey> {
+
+    private static final Comparator<NameKey> ORDER = Comparator.comparing(NameKey::lastName, NAME_ORDER)
+        .thenComparing(NameKey::firstName, NAME_ORDER)
+        .thenComparingLong(NameKey::id);
+
+    static NameKey of(Employee employee) {
+      return new NameKey(employee.getLastName(), employee.getFirstName(), employee.getId());
+    }
+
+    @Override
+    public int compareTo(NameKey other) {
+      return ORDER.compare(this, other);
+    }
+  }
+
+  private final Map<Long, Employee> employees = new ConcurrentHashMap<>();
+
+  private final Map<String, Long> idsByEmail = new ConcurrentHashMap<>();
+
+  private final NavigableSet<Long> ids = new ConcurrentSkipListSet<>();
+
+  private final NavigableSet<NameKey> names = new ConcurrentSkipListSet<>();
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  private final Object writeLock = new Object();
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  public InMemoryEmployeeService(ApplicationEventPublisher eventPublisher) {
+    this.eventPublisher = eventPublisher;
+  }
+
+  @Override
+  public Employee saveEmployee(Employee employee) {
+    Employee savedEmployee;
+    synchronized (writeLock) {
+      if (emailTaken(employee.getEmail(), null)) {
+        throw new EmployeeAlreadyExistsException(String.format("Employee with email %s already exists", employee.getEmail()));
+      }
+      savedEmployee = insert(employee);
+    }
+    eventPublisher.publishEvent(EmployeeChangedEvent.local(savedEmployee));
+    return copy(savedEmployee);
+  }
+
+  @Override
+  public List<Employee> saveEmployees(List<Employee> employees) {
+    if (employees.size() > EmployeeServiceImpl.MAX_INSERT_BATCH) {
+      throw new BatchTooLargeException(String.format("Batch of %s employees exceeds the limit of %s", employees.size(), EmployeeServiceImpl.MAX_INSERT_BATCH));
+    }
+
+    Set<String> emails = new HashSet<>();
+    for (Employee employee : employees) {
+      if (employee.getEmail() != null && !emails.add(employee.getEmail().toLowerCase(Locale.ROOT))) {
+        throw new EmployeeAlreadyExistsException(String.format("Employee with email %s appears more than once in the batch", employee.getEmail()));
+      }
+    }
+
+    synchronized (writeLock) {
+      List<String> existingEmails = emails.stream().filter(idsByEmail::containsKey).sorted().toList();
+      if (!existingEmails.isEmpty()) {
+        throw new EmployeeAlreadyExistsException(String.format("Employees with emails %s already exist", existingEmails));
+      }
+      // like a persist, the given employees receive their id and version
+      for (Employee employee : employees) {
+        Employee savedEmployee = insert(employee);
+        employee.setId(savedEmployee.getId());
+        employee.setVersion(savedEmployee.getVersion());
+      }
+    }
+
+    if (!employees.isEmpty()) {
+      eventPublisher.publishEvent(EmployeeChangedEvent.local(List.copyOf(employees)));
+    }
+    return employees;
+  }
+
+  @Override
+  public List<Employee> getAllEmployees() {
+    List<Employee> all = new ArrayList<>(employees.size());
+    forEachEmployee(all::add);
+    return all;
+  }
+
+  @Override
+  public EmployeePage getEmployeePage(String cursor, Integer size) {
+    EmployeeCursor after = EmployeeCursor.decode(cursor);
+    return page(byId(after.lastId(), employee -> true), pageSize(size),
+        last -> new EmployeeCursor(last.getId()).encode());
+  }
+
+  @Override
+  public EmployeePage searchEmployees(EmployeeSearch search, String cursor, Integer size) {
+    boolean byName = EmployeeServiceImpl.SORT_LAST_NAME.equals(search.getSort());
+    if (search.getSort() != null && !byName && !EmployeeServiceImpl.SORT_ID.equals(search.getSort())) {
+      throw new InvalidSearchException(String.format("Unknown sort %s, allowed are %s and %s", search.getSort(), EmployeeServiceImpl.SORT_ID, EmployeeServiceImpl.SORT_LAST_NAME));
+    }
+    if (!search.hasFilter() && !byName) {
+      return getEmployeePage(cursor, size);
+    }
+    // same combinations as the database engine, so both answer the same requests
+    if (byName && (search.getEmailDomain() != null || (search.getFirstName() != null && search.getLastName() == null))) {
+      throw new InvalidSearchException("sort=lastName can only be combined with a lastName (and firstName) filter");
+    }
+
+    Predicate<Employee> filter = matches(search);
+    if (!byName) {
+      EmployeeCursor after = EmployeeCursor.decode(cursor);
+      return page(byId(after.lastId(), filter), pageSize(size), last -> new EmployeeCursor(last.getId()).encode());
+    }
+
+    EmployeeNameCursor after = EmployeeNameCursor.decode(cursor);
+    NavigableSet<NameKey> tail = after != null ? names.tailSet(new NameKey(after.lastName(), after.firstName(), after.lastId()), false)
+        : search.getLastName() != null ? names.tailSet(new NameKey(search.getLastName(), search.getFirstName(), Long.MIN_VALUE), true)
+        : names;
+    Iterator<Employee> employees = resolve(tail.iterator(), key -> search.getLastName() == null
+        || search.getLastName().equals(key.lastName()), filter);
+    return page(employees, pageSize(size),
+        last -> new EmployeeNameCursor(last.getLastName(), last.getFirstName(), last.getId()).encode());
+  }
+
+  @Override
+  public EmployeeFieldsPage getEmployeePage(String cursor, Integer size, List<String> fields) {
+    Set<String> attributes = EmployeeFields.parse(fields);
+    EmployeePage page = getEmployeePage(cursor, size);
+    List<Map<String, Object>> content = page.getContent().stream()
+        .map(employee -> EmployeeFields.project(employee, attributes))
+        .collect(Collectors.toList());
+    return new EmployeeFieldsPage(content, page.getNext());
+  }
+
+  @Override
+  public Map<String, Object> getEmployeeById(Long id, List<String> fields) {
+    Set<String> attributes = EmployeeFields.parse(fields);
+    return EmployeeFields.project(getEmployeeById(id), attributes);
+  }
+
+  @Override
+  public void forEachEmployee(Consumer<Employee> action) {
+    byId(0L, employee -> true).forEachRemaining(action);
+  }
+
+  @Override
+  public Employee getEmployeeById(Long id) {
+    return find(id)
+        .orElseThrow(() -> new EmployeeNotFoundException(String.format("Employee not found for id %s", id)));
+  }
+
+  @Override
+  public Employee getEmployeeByEmail(String email) {
+    return Optional.ofNullable(email)
+        .map(value -> idsByEmail.get(value.toLowerCase(Locale.ROOT)))
+        .flatMap(this::find)
+        .filter(employee -> email.equalsIgnoreCase(employee.getEmail()))
+        .orElseThrow(() -> new EmployeeNotFoundException(String.format("Employee not found for email %s", email)));
+  }
+
+  @Override
+  public EmployeeLookupResult getEmployeesByIds(List<Long> ids) {
+    Set<Long> requested = new LinkedHashSet<>(ids);
+    if (requested.size() > EmployeeServiceImpl.MAX_LOOKUP_IDS) {
+      throw new BatchTooLargeException(String.format("Lookup of %s ids exceeds the limit of %s", requested.size(), EmployeeServiceImpl.MAX_LOOKUP_IDS));
+    }
+
+    List<Employee> content = new ArrayList<>(requested.size());
+    List<Long> missing = new ArrayList<>();
+    for (Long id : requested) {
+      find(id).ifPresentOrElse(content::add, () -> missing.add(id));
+    }
+    return new EmployeeLookupResult(content, missing);
+  }
+
+  @Override
+  public Employee updateEmployee(Long id, Long expectedVersion, Employee updatedEmployee) {
+    Employee savedEmployee;
+    synchronized (writeLock) {
+      Employee current = employees.get(id);
+      if (current == null) {
+        throw new EmployeeNotFoundException(String.format("Employee not found for id %s", id));
+      }
+      checkVersion(current, expectedVersion);
+      if (updatedEmployee.getFirstName() == null && updatedEmployee.getLastName() == null
+          && updatedEmployee.getEmail() == null) {
+        // nothing to write, answer with the current state
+        return copy(current);
+      }
+      if (emailTaken(updatedEmployee.getEmail(), id)) {
+        throw new EmployeeAlreadyExistsException(String.format("Employee with email %s already exists", updatedEmployee.getEmail()));
+      }
+
+      savedEmployee = Employee.builder()
+          .id(id)
+          .firstName(updatedEmployee.getFirstName() != null ? updatedEmployee.getFirstName() : current.getFirstName())
+          .lastName(updatedEmployee.getLastName() != null ? updatedEmployee.getLastName() : current.getLastName())
+          .email(updatedEmployee.getEmail() != null ? updatedEmployee.getEmail() : current.getEmail())
+          .version(current.getVersion() + 1)
+          .build();
+      replace(current, savedEmployee);
+    }
+    eventPublisher.publishEvent(EmployeeChangedEvent.local(savedEmployee));
+    return copy(savedEmployee);
+  }
+
+  @Override
+  public void deleteEmployee(Long id, Long expectedVersion) {
+    synchronized (writeLock) {
+      Employee current = employees.get(id);
+      if (current == null) {
+        throw new EmployeeNotFoundException(String.format("Employee not found for id %s", id));
+      }
+      checkVersion(current, expectedVersion);
+      delete(current);
+    }
+    eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id));
+  }
+
+  @Override
+  public EmployeeDeleteReport deleteEmployees(EmployeeDeleteRequest request) {
+    boolean byIds = request.getIds() != null;
+    boolean byFilter = request.getLastName() != null || request.getEmailDomain() != null;
+    if (byIds == byFilter) {
+      throw new InvalidDeleteRequestException("Delete by either ids or a filter (lastName, emailDomain)");
+    }
+
+    Set<Long> candidates;
+    if (byIds) {
+      candidates = new LinkedHashSet<>(request.getIds());
+      if (candidates.size() > EmployeeServiceImpl.MAX_DELETE_IDS) {
+        throw new BatchTooLargeException(String.format("Delete of %s ids exceeds the limit of %s", candidates.size(), EmployeeServiceImpl.MAX_DELETE_IDS));
+      }
+    } else {
+      Predicate<Employee> filter = matches(EmployeeSearch.builder()
+          .lastName(request.getLastName()).emailDomain(request.getEmailDomain()).build());
+      candidates = new LinkedHashSet<>();
+      byId(0L, filter).forEachRemaining(employee -> candidates.add(employee.getId()));
+    }
+
+    List<Long> deleted = new ArrayList<>();
+    synchronized (writeLock) {
+      for (Long id : candidates) {
+        Employee current = employees.get(id);
+        if (current != null) {
+          delete(current);
+          deleted.add(id);
+        }
+      }
+    }
+    if (!deleted.isEmpty()) {
+      eventPublisher.publishEvent(EmployeeChangedEvent.deleted(deleted));
+    }
+    return new EmployeeDeleteReport(deleted.size());
+  }
+
+  // callers hold the write lock
+  private Employee insert(Employee employee) {
+    Employee savedEmployee = Employee.builder()
+        .id(sequence.incrementAndGet())
+        .firstName(employee.getFirstName())
+        .lastName(employee.getLastName())
+        .email(employee.getEmail())
+        .version(0L)
+        .build();
+    employees.put(savedEmployee.getId(), savedEmployee);
+    if (savedEmployee.getEmail() != null) {
+      idsByEmail.put(savedEmployee.getEmail().toLowerCase(Locale.ROOT), savedEmployee.getId());
+    }
+    names.add(NameKey.of(savedEmployee));
+    ids.add(savedEmployee.getId());
+    return savedEmployee;
+  }
+
+  // new index entries go in before the old ones go out, readers skip entries that no longer match
+  private void replace(Employee current, Employee savedEmployee) {
+    names.add(NameKey.of(savedEmployee));
+    if (savedEmployee.getEmail() != null) {
+      idsByEmail.put(savedEmployee.getEmail().toLowerCase(Locale.ROOT), savedEmployee.getId());
+    }
+    employees.put(savedEmployee.getId(), savedEmployee);
+    if (!NameKey.of(current).equals(NameKey.of(savedEmployee))) {
+      names.remove(NameKey.of(current));
+    }
+    if (current.getEmail() != null && !current.getEmail().equalsIgnoreCase(savedEmployee.getEmail())) {
+      idsByEmail.remove(current.getEmail().toLowerCase(Locale.ROOT), current.getId());
+    }
+  }
+
+  private void delete(Employee current) {
+    ids.remove(current.getId());
+    employees.remove(current.getId());
+    names.remove(NameKey.of(current));
+    if (current.getEmail() != null) {
+      idsByEmail.remove(current.getEmail().toLowerCase(Locale.ROOT), current.getId());
+    }
+  }
+
+  private boolean emailTaken(String email, Long exceptId) {
+    if (email == null) {
+      return false;
+    }
+    Long owner = idsByEmail.get(email.toLowerCase(Locale.ROOT));
+    return owner != null && !owner.equals(exceptId);
+  }
+
+  private static void checkVersion(Employee employee, Long expectedVersion) {
+    if (expectedVersion != null && employee.getVersion() != expectedVersion) {
+      throw new EmployeeVersionMismatchException(String.format("Employee %s no longer has version %s", employee.getId(), expectedVersion));
+    }
+  }
+
+  private Optional<Employee> find(Long id) {
+    return Optional.ofNullable(id).map(employees::get).map(InMemoryEmployeeService::copy);
+  }
+
+  private static Predicate<Employee> matches(EmployeeSearch search) {
+    String emailDomain = search.getEmailDomain() == null ? null : search.getEmailDomain().toLowerCase(Locale.ROOT);
+    return employee -> (search.getFirstName() == null || search.getFirstName().equals(employee.getFirstName()))
+        && (search.getLastName() == null || search.getLastName().equals(employee.getLastName()))
+        && (emailDomain == null || emailDomain.equals(emailDomain(employee.getEmail())));
+  }
+
+  // what the generated email_domain column holds: lower(split_part(email, '@', 2))
+  private static String emailDomain(String email) {
+    if (email == null) {
+      return null;
+    }
+    String[] parts = email.split("@", -1);
+    return parts.length < 2 ? "" : parts[1].toLowerCase(Locale.ROOT);
+  }
+
+  private Iterator<Employee> byId(long afterId, Predicate<Employee> filter) {
+    Iterator<Long> tail = ids.tailSet(afterId, false).iterator();
+    return iterator(() -> {
+      while (tail.hasNext()) {
+        Employee employee = employees.get(tail.next());
+        if (employee != null && filter.test(employee)) {
+          return copy(employee);
+        }
+      }
+      return null;
+    });
+  }
+
+  // walks the name index until a key fails inRange, keys of since renamed employees are skipped
+  private Iterator<Employee> resolve(Iterator<NameKey> keys, Predicate<NameKey> inRange, Predicate<Employee> filter) {
+    return iterator(() -> {
+      while (keys.hasNext()) {
+        NameKey key = keys.next();
+        if (!inRange.test(key)) {
+          return null;
+        }
+        Employee employee = employees.get(key.id());
+        if (employee != null && key.equals(NameKey.of(employee)) && filter.test(employee)) {
+          return copy(employee);
+        }
+      }
+      return null;
+    });
+  }
+
+  private interface Source {
+
+    Employee next();
+  }
+
+  private static Iterator<Employee> iterator(Source source) {
+    return new Iterator<>() {
+
+      private Employee next = source.next();
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public Employee next() {
+        Employee current = Objects.requireNonNull(next);
+        next = source.next();
+        return current;
+      }
+    };
+  }
+
+  private static EmployeePage page(Iterator<Employee> employees, int pageSize, Function<Employee, String> cursorOf) {
+    // one extra row tells whether there is a next page
+    List<Employee> content = new ArrayList<>(pageSize + 1);
+    while (content.size() <= pageSize && employees.hasNext()) {
+      content.add(employees.next());
+    }
+
+    if (content.size() <= pageSize) {
+      return new EmployeePage(content, null);
+    }
+
+    content = content.subList(0, pageSize);
+    return new EmployeePage(content, cursorOf.apply(content.get(pageSize - 1)));
+  }
+
+  private static int pageSize(Integer size) {
+    return size == null ? EmployeeServiceImpl.DEFAULT_PAGE_SIZE
+        : Math.max(1, Math.min(size, EmployeeServiceImpl.MAX_PAGE_SIZE));
+  }
+
+  private static Employee copy(Employee employee) {
+    return Employee.builder()
+        .id(employee.getId())
+        .firstName(employee.getFirstName())
+        .lastName(employee.getLastName())
+        .email(employee.getEmail())
+        .version(employee.getVersion())
+        .build();
+  }
+}
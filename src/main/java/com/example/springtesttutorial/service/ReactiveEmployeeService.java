@@ -0,0 +1,305 @@
+package com.example.springtesttutorial.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.example.springtesttutorial.cache.EmployeeChangedEvent;
+import com.example.springtesttutorial.exception.BatchTooLargeException;
+import com.example.springtesttutorial.exception.EmployeeAlreadyExistsException;
+import com.example.springtesttutorial.exception.EmployeeNotFoundException;
+import com.example.springtesttutorial.exception.EmployeeVersionMismatchException;
+import com.example.springtesttutorial.exception.InvalidDeleteRequestException;
+import com.example.springtesttutorial.exception.InvalidSearchException;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeeDeleteReport;
+import com.example.springtesttutorial.model.EmployeeDeleteRequest;
+import com.example.springtesttutorial.model.EmployeeFieldsPage;
+import com.example.springtesttutorial.model.EmployeeLookupResult;
+import com.example.springtesttutorial.model.EmployeePage;
+import com.example.springtesttutorial.model.EmployeeSearch;
+import com.example.springtesttutorial.repository.ReactiveEmployeeRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// non-blocking variant of EmployeeServiceImpl for the webflux stack (profile "reactive"): the same
+// contract, limits, cursors and exceptions, but every method returns a Mono or Flux and nothing blocks
+// the event loop. Each write is a single statement, so r2dbc's auto-commit is the transaction; the
+// employee cache and its invalidation are not used on this stack.
+@Service
+@Profile(ReactiveEmployeeService.PROFILE)
+public class ReactiveEmployeeService {
+
+  public static final String PROFILE = "reactive";
+
+  private final ReactiveEmployeeRepository employeeRepository;
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  public ReactiveEmployeeService(ReactiveEmployeeRepository employeeRepository, ApplicationEventPublisher eventPublisher) {
+    this.employeeRepository = employeeRepository;
+    this.eventPublisher = eventPublisher;
+  }
+
+  public Mono<Employee> saveEmployee(Employee employee) {
+    // a single insert, the unique email index rejects duplicates (also under concurrent creates)
+    return employeeRepository.insert(employee)
+        .onErrorMap(DataIntegrityViolationException.class, e -> translateEmailConflict(e, employee.getEmail()))
+        .doOnNext(this::publishChanged);
+  }
+
+  public Mono<List<Employee>> saveEmployees(List<Employee> employees) {
+    if (employees.size() > EmployeeServiceImpl.MAX_INSERT_BATCH) {
+      return Mono.error(new BatchTooLargeException(String.format("Batch of %s employees exceeds the limit of %s",
+          employees.size(), EmployeeServiceImpl.MAX_INSERT_BATCH)));
+    }
+    if (employees.isEmpty()) {
+      return Mono.just(employees);
+    }
+
+    Set<String> emails = new HashSet<>();
+    for (Employee employee : employees) {
+      if (employee.getEmail() != null && !emails.add(employee.getEmail().toLowerCase(Locale.ROOT))) {
+        return Mono.error(new EmployeeAlreadyExistsException(String.format("Employee with email %s appears more than once in the batch", employee.getEmail())));
+      }
+    }
+
+    Mono<Void> checkExisting = emails.isEmpty() ? Mono.empty()
+        : employeeRepository.findExistingEmails(emails).collectList()
+            .flatMap(existingEmails -> existingEmails.isEmpty() ? Mono.empty()
+                : Mono.error(new EmployeeAlreadyExistsException(String.format("Employees with emails %s already exist", existingEmails))));
+
+    // an employee with one of the emails may still be created concurrently, the index has the last word
+    return checkExisting.then(employeeRepository.insertAll(employees)
+        .onErrorMap(DataIntegrityViolationException.class, e -> translateEmailConflict(e, null))
+        .collectList())
+        .map(saved -> inInputOrder(employees, saved))
+        .doOnNext(saved -> {
+          if (!saved.isEmpty()) {
+            eventPublisher.publishEvent(EmployeeChangedEvent.local(saved));
+          }
+        });
+  }
+
+  // RETURNING does not promise the input order, the emails are unique within the batch
+  private static List<Employee> inInputOrder(List<Employee> employees, List<Employee> saved) {
+    Map<String, Employee> byEmail = new HashMap<>();
+    saved.forEach(employee -> byEmail.put(employee.getEmail().toLowerCase(Locale.ROOT), employee));
+    List<Employee> ordered = new ArrayList<>(employees.size());
+    employees.forEach(employee -> ordered.add(byEmail.get(employee.getEmail().toLowerCase(Locale.ROOT))));
+    return ordered;
+  }
+
+  // streamed in id order as the subscriber requests, never collected
+  public Flux<Employee> getAllEmployees() {
+    return employeeRepository.streamAll();
+  }
+
+  public Mono<EmployeePage> getEmployeePage(String cursor, Integer size) {
+    return Mono.defer(() -> {
+      int pageSize = pageSize(size);
+      EmployeeCursor after = EmployeeCursor.decode(cursor);
+
+      // fetch one extra row to know whether there is a next page without a count query
+      return employeeRepository.search(null, null, null, false, null, null, after.lastId(), pageSize + 1)
+          .collectList()
+          .map(employees -> page(employees, pageSize, false));
+    });
+  }
+
+  public Mono<EmployeePage> searchEmployees(EmployeeSearch search, String cursor, Integer size) {
+    return Mono.defer(() -> {
+      boolean byName = EmployeeServiceImpl.SORT_LAST_NAME.equals(search.getSort());
+      if (search.getSort() != null && !byName && !EmployeeServiceImpl.SORT_ID.equals(search.getSort())) {
+        return Mono.error(new InvalidSearchException(String.format("Unknown sort %s, allowed are %s and %s",
+            search.getSort(), EmployeeServiceImpl.SORT_ID, EmployeeServiceImpl.SORT_LAST_NAME)));
+      }
+      if (!search.hasFilter() && !byName) {
+        return getEmployeePage(cursor, size);
+      }
+      // only combinations an index can answer in order are accepted (see schema.sql)
+      if (byName && (search.getEmailDomain() != null || (search.getFirstName() != null && search.getLastName() == null))) {
+        return Mono.error(new InvalidSearchException("sort=lastName can only be combined with a lastName (and firstName) filter"));
+      }
+
+      int pageSize = pageSize(size);
+      Flux<Employee> employees;
+      if (byName) {
+        EmployeeNameCursor after = EmployeeNameCursor.decode(cursor);
+        employees = after == null
+            ? employeeRepository.search(search.getFirstName(), search.getLastName(), null, true, null, null, 0, pageSize + 1)
+            : employeeRepository.search(search.getFirstName(), search.getLastName(), null, true,
+                after.lastName(), after.firstName(), after.lastId(), pageSize + 1);
+      } else {
+        employees = employeeRepository.search(search.getFirstName(), search.getLastName(), search.getEmailDomain(), false,
+            null, null, EmployeeCursor.decode(cursor).lastId(), pageSize + 1);
+      }
+      return employees.collectList().map(content -> page(content, pageSize, byName));
+    });
+  }
+
+  // sparse variant: rows are projected here, the table has only a handful of narrow columns
+  public Mono<EmployeeFieldsPage> getEmployeePage(String cursor, Integer size, List<String> fields) {
+    return Mono.defer(() -> {
+      Set<String> attributes = EmployeeFields.parse(fields);
+      return getEmployeePage(cursor, size).map(page -> new EmployeeFieldsPage(page.getContent().stream()
+          .map(employee -> EmployeeFields.project(employee, attributes))
+          .toList(), page.getNext()));
+    });
+  }
+
+  public Mono<Map<String, Object>> getEmployeeById(Long id, List<String> fields) {
+    return Mono.defer(() -> {
+      Set<String> attributes = EmployeeFields.parse(fields);
+      return getEmployeeById(id).map(employee -> EmployeeFields.project(employee, attributes));
+    });
+  }
+
+  public Mono<Employee> getEmployeeById(Long id) {
+    return employeeRepository.findById(id)
+        .switchIfEmpty(Mono.error(() -> new EmployeeNotFoundException(String.format("Employee not found for id %s", id))));
+  }
+
+  public Mono<Employee> getEmployeeByEmail(String email) {
+    return employeeRepository.findByEmail(email)
+        .switchIfEmpty(Mono.error(() -> new EmployeeNotFoundException(String.format("Employee not found for email %s", email))));
+  }
+
+  public Mono<EmployeeLookupResult> getEmployeesByIds(List<Long> ids) {
+    Set<Long> requested = new LinkedHashSet<>(ids);
+    if (requested.size() > EmployeeServiceImpl.MAX_LOOKUP_IDS) {
+      return Mono.error(new BatchTooLargeException(String.format("Lookup of %s ids exceeds the limit of %s",
+          requested.size(), EmployeeServiceImpl.MAX_LOOKUP_IDS)));
+    }
+    if (requested.isEmpty()) {
+      return Mono.just(new EmployeeLookupResult(List.of(), List.of()));
+    }
+
+    // one ANY query for all ids, the result keeps the requested order
+    return employeeRepository.findAllById(requested)
+        .collectMap(Employee::getId)
+        .map(found -> {
+          List<Employee> content = new ArrayList<>(found.size());
+          List<Long> missing = new ArrayList<>();
+          for (Long id : requested) {
+            Employee employee = found.get(id);
+            if (employee != null) {
+              content.add(employee);
+            } else {
+              missing.add(id);
+            }
+          }
+          return new EmployeeLookupResult(content, missing);
+        });
+  }
+
+  public Mono<Employee> updateEmployee(Long id, Long expectedVersion, Employee updatedEmployee) {
+    if (updatedEmployee.getFirstName() == null && updatedEmployee.getLastName() == null
+        && updatedEmployee.getEmail() == null) {
+      // nothing to write, answer with the current state
+      return getEmployeeById(id).flatMap(employee -> expectedVersion != null && employee.getVersion() != expectedVersion
+          ? Mono.error(new EmployeeVersionMismatchException(String.format("Employee %s no longer has version %s", id, expectedVersion)))
+          : Mono.just(employee));
+    }
+
+    // one UPDATE ... RETURNING with only the supplied columns; no row means the id does not exist
+    // or the version moved on, which is only told apart on this (rare) path
+    return employeeRepository.updatePartially(id, expectedVersion, updatedEmployee)
+        .onErrorMap(DataIntegrityViolationException.class, e -> translateEmailConflict(e, updatedEmployee.getEmail()))
+        .switchIfEmpty(writeConflict(id, expectedVersion))
+        .doOnNext(this::publishChanged);
+  }
+
+  public Mono<Void> deleteEmployee(Long id, Long expectedVersion) {
+    return employeeRepository.deleteById(id, expectedVersion)
+        .flatMap(deleted -> deleted == 0 ? writeConflict(id, expectedVersion)
+            : Mono.fromRunnable(() -> publishDeleted(List.of(id))))
+        .then();
+  }
+
+  private <T> Mono<T> writeConflict(Long id, Long expectedVersion) {
+    Mono<Boolean> versionMismatch = expectedVersion == null ? Mono.just(false) : employeeRepository.existsById(id);
+    return versionMismatch.flatMap(mismatch -> Mono.error(mismatch
+        ? new EmployeeVersionMismatchException(String.format("Employee %s no longer has version %s", id, expectedVersion))
+        : new EmployeeNotFoundException(String.format("Employee not found for id %s", id))));
+  }
+
+  public Mono<EmployeeDeleteReport> deleteEmployees(EmployeeDeleteRequest request) {
+    boolean byIds = request.getIds() != null;
+    boolean byFilter = request.getLastName() != null || request.getEmailDomain() != null;
+    if (byIds == byFilter) {
+      return Mono.error(new InvalidDeleteRequestException("Delete by either ids or a filter (lastName, emailDomain)"));
+    }
+
+    // every chunk is its own statement (and auto-commit transaction), so locks are held for one chunk only
+    Flux<Long> deleted;
+    if (byIds) {
+      List<Long> ids = new ArrayList<>(new LinkedHashSet<>(request.getIds()));
+      if (ids.size() > EmployeeServiceImpl.MAX_DELETE_IDS) {
+        return Mono.error(new BatchTooLargeException(String.format("Delete of %s ids exceeds the limit of %s",
+            ids.size(), EmployeeServiceImpl.MAX_DELETE_IDS)));
+      }
+      deleted = Flux.fromIterable(ids)
+          .buffer(EmployeeServiceImpl.DELETE_CHUNK_SIZE)
+          .concatMap(chunk -> employeeRepository.deleteAllByIdReturning(chunk).collectList().map(this::publishDeleted));
+    } else {
+      Mono<Long> chunk = Mono.defer(() -> employeeRepository.deleteMatchingReturning(request.getLastName(),
+          request.getEmailDomain(), EmployeeServiceImpl.DELETE_CHUNK_SIZE).collectList().map(this::publishDeleted));
+      // the next chunk only runs after the previous one came back full
+      deleted = chunk.expand(count -> count == EmployeeServiceImpl.DELETE_CHUNK_SIZE ? chunk : Mono.empty());
+    }
+    return deleted.reduce(0L, Long::sum).map(EmployeeDeleteReport::new);
+  }
+
+  private void publishChanged(Employee employee) {
+    eventPublisher.publishEvent(EmployeeChangedEvent.local(employee));
+  }
+
+  // one event per deleted chunk, answers the chunk's size
+  private long publishDeleted(List<Long> ids) {
+    if (!ids.isEmpty()) {
+      eventPublisher.publishEvent(EmployeeChangedEvent.deleted(ids));
+    }
+    return ids.size();
+  }
+
+  private static int pageSize(Integer size) {
+    return size == null ? EmployeeServiceImpl.DEFAULT_PAGE_SIZE
+        : Math.max(1, Math.min(size, EmployeeServiceImpl.MAX_PAGE_SIZE));
+  }
+
+  private static EmployeePage page(List<Employee> employees, int pageSize, boolean byName) {
+    if (employees.size() <= pageSize) {
+      return new EmployeePage(employees, null);
+    }
+
+    List<Employee> content = employees.subList(0, pageSize);
+    Employee last = content.get(pageSize - 1);
+    String next = byName ? new EmployeeNameCursor(last.getLastName(), last.getFirstName(), last.getId()).encode()
+        : new EmployeeCursor(last.getId()).encode();
+    return new EmployeePage(content, next);
+  }
+
+  // r2dbc reports the violated index only in the message of the driver's exception
+  static RuntimeException translateEmailConflict(DataIntegrityViolationException exception, String email) {
+    for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+      if (cause.getMessage() != null && cause.getMessage().contains(EmployeeServiceImpl.EMAIL_UNIQUE_INDEX)) {
+        String message = email == null ? "Employee with one of the emails already exists"
+            : String.format("Employee with email %s already exists", email);
+        return new EmployeeAlreadyExistsException(message, exception);
+      }
+    }
+    return exception;
+  }
+}
@@ -0,0 +1,157 @@
+package com.example.springtesttutorial.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import com.example.springtesttutorial.exception.BatchTooLargeException;
+import com.example.springtesttutorial.exception.EmployeeNotFoundException;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeeDeleteReport;
+import com.example.springtesttutorial.model.EmployeeDeleteRequest;
+import com.example.springtesttutorial.model.EmployeeFieldsPage;
+import com.example.springtesttutorial.model.EmployeeLookupResult;
+import com.example.springtesttutorial.model.EmployeePage;
+import com.example.springtesttutorial.model.EmployeeSearch;
+import com.example.springtesttutorial.readmodel.EmployeeReadModel;
+
+// answers the plain reads (list, by id, by email) from the in-memory read model once it is loaded;
+// writes, filtered searches and sparse pages go to the database service, whose change events
+// keep the read model current
+@Service
+@Primary
+@ConditionalOnProperty(name = "employee.read-model.enabled", havingValue = "true")
+public class ReadModelEmployeeService implements EmployeeService {
+
+  private final EmployeeServiceImpl delegate;
+
+  private final EmployeeReadModel readModel;
+
+  public ReadModelEmployeeService(EmployeeServiceImpl delegate, EmployeeReadModel readModel) {
+    this.delegate = delegate;
+    this.readModel = readModel;
+  }
+
+  @Override
+  public Employee saveEmployee(Employee employee) {
+    return delegate.saveEmployee(employee);
+  }
+
+  @Override
+  public List<Employee> saveEmployees(List<Employee> employees) {
+    return delegate.saveEmployees(employees);
+  }
+
+  @Override
+  public List<Employee> getAllEmployees() {
+    if (!readModel.isLoaded()) {
+      return delegate.getAllEmployees();
+    }
+    return readModel.findAll();
+  }
+
+  @Override
+  public EmployeePage getEmployeePage(String cursor, Integer size) {
+    if (!readModel.isLoaded()) {
+      return delegate.getEmployeePage(cursor, size);
+    }
+    int pageSize = size == null ? EmployeeServiceImpl.DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, EmployeeServiceImpl.MAX_PAGE_SIZE));
+    EmployeeCursor after = EmployeeCursor.decode(cursor);
+
+    // one extra row tells whether there is a next page, same as the database path
+    List<Employee> employees = readModel.findPage(after.lastId(), pageSize + 1);
+
+    if (employees.size() <= pageSize) {
+      return new EmployeePage(employees, null);
+    }
+
+    List<Employee> content = employees.subList(0, pageSize);
+    String next = new EmployeeCursor(content.get(pageSize - 1).getId()).encode();
+    return new EmployeePage(content, next);
+  }
+
+  @Override
+  public EmployeePage searchEmployees(EmployeeSearch search, String cursor, Integer size) {
+    if (!search.hasFilter() && (search.getSort() == null || EmployeeServiceImpl.SORT_ID.equals(search.getSort()))) {
+      return getEmployeePage(cursor, size);
+    }
+    return delegate.searchEmployees(search, cursor, size);
+  }
+
+  @Override
+  public EmployeeFieldsPage getEmployeePage(String cursor, Integer size, List<String> fields) {
+    return delegate.getEmployeePage(cursor, size, fields);
+  }
+
+  @Override
+  public Map<String, Object> getEmployeeById(Long id, List<String> fields) {
+    if (!readModel.isLoaded()) {
+      return delegate.getEmployeeById(id, fields);
+    }
+    Set<String> attributes = EmployeeFields.parse(fields);
+    return EmployeeFields.project(getEmployeeById(id), attributes);
+  }
+
+  @Override
+  public void forEachEmployee(Consumer<Employee> action) {
+    delegate.forEachEmployee(action);
+  }
+
+  @Override
+  public Employee getEmployeeById(Long id) {
+    if (!readModel.isLoaded()) {
+      return delegate.getEmployeeById(id);
+    }
+    return readModel.findById(id)
+        .orElseThrow(() -> new EmployeeNotFoundException(String.format("Employee not found for id %s", id)));
+  }
+
+  @Override
+  public Employee getEmployeeByEmail(String email) {
+    if (!readModel.isLoaded()) {
+      return delegate.getEmployeeByEmail(email);
+    }
+    return readModel.findByEmail(email)
+        .orElseThrow(() -> new EmployeeNotFoundException(String.format("Employee not found for email %s", email)));
+  }
+
+  @Override
+  public EmployeeLookupResult getEmployeesByIds(List<Long> ids) {
+    if (!readModel.isLoaded()) {
+      return delegate.getEmployeesByIds(ids);
+    }
+    Set<Long> requested = new LinkedHashSet<>(ids);
+    if (requested.size() > EmployeeServiceImpl.MAX_LOOKUP_IDS) {
+      throw new BatchTooLargeException(String.format("Lookup of %s ids exceeds the limit of %s", requested.size(), EmployeeServiceImpl.MAX_LOOKUP_IDS));
+    }
+
+    List<Employee> content = new ArrayList<>(requested.size());
+    List<Long> missing = new ArrayList<>();
+    for (Long id : requested) {
+      readModel.findById(id).ifPresentOrElse(content::add, () -> missing.add(id));
+    }
+    return new EmployeeLookupResult(content, missing);
+  }
+
+  @Override
+  public Employee updateEmployee(Long id, Long expectedVersion, Employee updatedEmployee) {
+    return delegate.updateEmployee(id, expectedVersion, updatedEmployee);
+  }
+
+  @Override
+  public void deleteEmployee(Long id, Long expectedVersion) {
+    delegate.deleteEmployee(id, expectedVersion);
+  }
+
+  @Override
+  public EmployeeDeleteReport deleteEmployees(EmployeeDeleteRequest request) {
+    return delegate.deleteEmployees(request);
+  }
+}
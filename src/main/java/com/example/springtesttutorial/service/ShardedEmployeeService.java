@@ -0,0 +1,515 @@
+package com.example.springtesttutorial.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import com.example.springtesttutorial.cache.EmployeeChangedEvent;
+import com.example.springtesttutorial.exception.BatchTooLargeException;
+import com.example.springtesttutorial.exception.EmployeeAlreadyExistsException;
+import com.example.springtesttutorial.exception.EmployeeNotFoundException;
+import com.example.springtesttutorial.exception.EmployeeVersionMismatchException;
+import com.example.springtesttutorial.exception.InvalidDeleteRequestException;
+import com.example.springtesttutorial.exception.InvalidSearchException;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeeDeleteReport;
+import com.example.springtesttutorial.model.EmployeeDeleteRequest;
+import com.example.springtesttutorial.model.EmployeeFieldsPage;
+import com.example.springtesttutorial.model.EmployeeLookupResult;
+import com.example.springtesttutorial.model.EmployeePage;
+import com.example.springtesttutorial.model.EmployeeSearch;
+import com.example.springtesttutorial.shard.EmployeeIdGenerator;
+import com.example.springtesttutorial.shard.EmployeeShards;
+
+// storage engine over several postgres databases (profile "sharded", see EmployeeShards): lookups by id
+// go to the one shard the id hashes to, by email through the owner entry on the email's shard. Pages,
+// searches and filtered deletes ask every shard in parallel for its first rows after the cursor and
+// merge them, so a page costs one query per shard whatever the shard count.
+// There is no transaction across shards: an email is claimed before the row is written and released
+// again when the write fails, a crash in between leaves a claim that blocks the email until removed.
+// Same contract and limits as EmployeeServiceImpl, except that names are ordered bytewise.
+@Service
+@Profile(ShardedEmployeeService.PROFILE)
+public class ShardedEmployeeService implements EmployeeService {
+
+  public static final String PROFILE = "sharded";
+
+  static final int FOR_EACH_CHUNK_SIZE = 1000;
+
+  private static final String SELECT = "SELECT id, first_name, last_name, email, version FROM employees";
+
+  // COLLATE "C" compares utf-8 bytes, the same order as String.compareTo outside supplementary characters
+  private static final String NAME_ORDER_SQL = "last_name COLLATE \"C\", first_name COLLATE \"C\", id";
+
+  private static final Comparator<Employee> ID_ORDER = Comparator.comparingLong(Employee::getId);
+
+  private static final Comparator<Employee> NAME_ORDER = Comparator.comparing(Employee::getLastName)
+      .thenComparing(Employee::getFirstName)
+      .thenComparingLong(Employee::getId);
+
+  private static final RowMapper<Employee> EMPLOYEE = (rs, rowNum) -> Employee.builder()
+      .id(rs.getLong("id"))
+      .firstName(rs.getString("first_name"))
+      .lastName(rs.getString("last_name"))
+      .email(rs.getString("email"))
+      .version(rs.getLong("version"))
+      .build();
+
+  private final EmployeeShards shards;
+
+  private final EmployeeIdGenerator idGenerator;
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  public ShardedEmployeeService(EmployeeShards shards, EmployeeIdGenerator idGenerator,
+      ApplicationEventPublisher eventPublisher) {
+    this.shards = shards;
+    this.idGenerator = idGenerator;
+    this.eventPublisher = eventPublisher;
+  }
+
+  @Override
+  public Employee saveEmployee(Employee employee) {
+    long id = idGenerator.next();
+    claimEmail(employee.getEmail(), id);
+    try {
+      insert(shards.forId(id), List.of(employee), List.of(id));
+    } catch (RuntimeException e) {
+      releaseEmail(employee.getEmail(), id);
+      throw e;
+    }
+
+    Employee savedEmployee = Employee.builder()
+        .id(id)
+        .firstName(employee.getFirstName())
+        .lastName(employee.getLastName())
+        .email(employee.getEmail())
+        .version(0L)
+        .build();
+    eventPublisher.publishEvent(EmployeeChangedEvent.local(savedEmployee));
+    return savedEmployee;
+  }
+
+  @Override
+  public List<Employee> saveEmployees(List<Employee> employees) {
+    if (employees.size() > EmployeeServiceImpl.MAX_INSERT_BATCH) {
+      throw new BatchTooLargeException(String.format("Batch of %s employees exceeds the limit of %s", employees.size(), EmployeeServiceImpl.MAX_INSERT_BATCH));
+    }
+
+    Set<String> emails = new HashSet<>();
+    for (Employee employee : employees) {
+      if (employee.getEmail() != null && !emails.add(employee.getEmail().toLowerCase(Locale.ROOT))) {
+        throw new EmployeeAlreadyExistsException(String.format("Employee with email %s appears more than once in the batch", employee.getEmail()));
+      }
+    }
+    if (employees.isEmpty()) {
+      return employees;
+    }
+
+    Map<Integer, List<String>> emailsByShard = emails.stream().collect(Collectors.groupingBy(shards::shardOfEmail));
+    List<String> existingEmails = shards.fanOut(shard -> emailsByShard.containsKey(shard)
+        ? shards.get(shard).queryForList("SELECT email FROM employee_emails WHERE email IN (SELECT lower(e) FROM unnest(?::varchar[]) AS e)",
+            String.class, (Object) emailsByShard.get(shard).toArray(String[]::new))
+        : List.<String>of())
+        .stream().flatMap(List::stream).sorted().toList();
+    if (!existingEmails.isEmpty()) {
+      throw new EmployeeAlreadyExistsException(String.format("Employees with emails %s already exist", existingEmails));
+    }
+
+    List<Long> ids = idGenerator.next(employees.size());
+    Map<Integer, List<Integer>> rowsByEmailShard = new HashMap<>();
+    Map<Integer, List<Integer>> rowsByShard = new HashMap<>();
+    for (int row = 0; row < employees.size(); row++) {
+      if (employees.get(row).getEmail() != null) {
+        rowsByEmailShard.computeIfAbsent(shards.shardOfEmail(employees.get(row).getEmail()), shard -> new ArrayList<>()).add(row);
+      }
+      rowsByShard.computeIfAbsent(shards.shardOf(ids.get(row)), shard -> new ArrayList<>()).add(row);
+    }
+
+    try {
+      // one insert of all the shard's claims, fewer rows than claims means a concurrent create won an email
+      List<Boolean> claimed = shards.fanOut(shard -> {
+        List<Integer> rows = rowsByEmailShard.getOrDefault(shard, List.of());
+        return rows.isEmpty() || shards.get(shard).update(
+            "INSERT INTO employee_emails (email, employee_id) SELECT lower(e), i FROM unnest(?::varchar[], ?::bigint[]) AS t(e, i) ON CONFLICT (email) DO NOTHING",
+            rows.stream().map(row -> employees.get(row).getEmail()).toArray(String[]::new),
+            rows.stream().map(ids::get).toArray(Long[]::new)) == rows.size();
+      });
+      if (claimed.contains(false)) {
+        throw new EmployeeAlreadyExistsException("Employee with one of the emails already exists");
+      }
+      shards.fanOut(shard -> {
+        List<Integer> rows = rowsByShard.getOrDefault(shard, List.of());
+        insert(shards.get(shard), rows.stream().map(employees::get).toList(), rows.stream().map(ids::get).toList());
+        return null;
+      });
+    } catch (RuntimeException e) {
+      // undo whatever part of the batch made it to a shard
+      Long[] batch = ids.toArray(Long[]::new);
+      shards.fanOut(shard -> shards.get(shard).update("DELETE FROM employee_emails WHERE employee_id = ANY(?)", (Object) batch)
+          + shards.get(shard).update("DELETE FROM employees WHERE id = ANY(?)", (Object) batch));
+      throw e;
+    }
+
+    // like a persist, the given employees receive their id and version
+    for (int row = 0; row < employees.size(); row++) {
+      employees.get(row).setId(ids.get(row));
+      employees.get(row).setVersion(0L);
+    }
+    eventPublisher.publishEvent(EmployeeChangedEvent.local(List.copyOf(employees)));
+    return employees;
+  }
+
+  @Override
+  public List<Employee> getAllEmployees() {
+    return merge(shards.fanOut(shard -> shards.get(shard).query(SELECT + " ORDER BY id", EMPLOYEE)), ID_ORDER,
+        Integer.MAX_VALUE);
+  }
+
+  @Override
+  public EmployeePage getEmployeePage(String cursor, Integer size) {
+    int pageSize = pageSize(size);
+    EmployeeCursor after = EmployeeCursor.decode(cursor);
+    return page(idsAfter(after.lastId(), pageSize + 1), pageSize, last -> new EmployeeCursor(last.getId()).encode());
+  }
+
+  @Override
+  public EmployeePage searchEmployees(EmployeeSearch search, String cursor, Integer size) {
+    boolean byName = EmployeeServiceImpl.SORT_LAST_NAME.equals(search.getSort());
+    if (search.getSort() != null && !byName && !EmployeeServiceImpl.SORT_ID.equals(search.getSort())) {
+      throw new InvalidSearchException(String.format("Unknown sort %s, allowed are %s and %s", search.getSort(), EmployeeServiceImpl.SORT_ID, EmployeeServiceImpl.SORT_LAST_NAME));
+    }
+    if (!search.hasFilter() && !byName) {
+      return getEmployeePage(cursor, size);
+    }
+    // same combinations as the single database engine, so both answer the same requests
+    if (byName && (search.getEmailDomain() != null || (search.getFirstName() != null && search.getLastName() == null))) {
+      throw new InvalidSearchException("sort=lastName can only be combined with a lastName (and firstName) filter");
+    }
+
+    int pageSize = pageSize(size);
+    StringJoiner conditions = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+    List<Object> args = new ArrayList<>();
+    filter(search.getFirstName(), search.getLastName(), search.getEmailDomain(), conditions, args);
+
+    if (byName) {
+      EmployeeNameCursor after = EmployeeNameCursor.decode(cursor);
+      if (after != null) {
+        conditions.add("(" + NAME_ORDER_SQL + ") > (?, ?, ?)");
+        args.addAll(List.of(after.lastName(), after.firstName(), after.lastId()));
+      }
+    } else {
+      conditions.add("id > ?");
+      args.add(EmployeeCursor.decode(cursor).lastId());
+    }
+    args.add(pageSize + 1);
+
+    // every shard returns its first pageSize + 1 rows in the requested order, the merge keeps the first overall
+    String sql = SELECT + conditions + " ORDER BY " + (byName ? NAME_ORDER_SQL : "id") + " LIMIT ?";
+    List<Employee> employees = merge(shards.fanOut(shard -> shards.get(shard).query(sql, EMPLOYEE, args.toArray())),
+        byName ? NAME_ORDER : ID_ORDER, pageSize + 1);
+    return page(employees, pageSize, byName
+        ? last -> new EmployeeNameCursor(last.getLastName(), last.getFirstName(), last.getId()).encode()
+        : last -> new EmployeeCursor(last.getId()).encode());
+  }
+
+  @Override
+  public EmployeeFieldsPage getEmployeePage(String cursor, Integer size, List<String> fields) {
+    Set<String> attributes = EmployeeFields.parse(fields);
+    EmployeePage page = getEmployeePage(cursor, size);
+    List<Map<String, Object>> content = page.getContent().stream()
+        .map(employee -> EmployeeFields.project(employee, attributes))
+        .collect(Collectors.toList());
+    return new EmployeeFieldsPage(content, page.getNext());
+  }
+
+  @Override
+  public Map<String, Object> getEmployeeById(Long id, List<String> fields) {
+    Set<String> attributes = EmployeeFields.parse(fields);
+    return EmployeeFields.project(getEmployeeById(id), attributes);
+  }
+
+  // keyset chunks merged across the shards, so the whole table is never held at once
+  @Override
+  public void forEachEmployee(Consumer<Employee> action) {
+    List<Employee> chunk;
+    long after = 0;
+    do {
+      chunk = idsAfter(after, FOR_EACH_CHUNK_SIZE);
+      chunk.forEach(action);
+      after = chunk.isEmpty() ? after : chunk.get(chunk.size() - 1).getId();
+    } while (chunk.size() == FOR_EACH_CHUNK_SIZE);
+  }
+
+  @Override
+  public Employee getEmployeeById(Long id) {
+    return find(id)
+        .orElseThrow(() -> new EmployeeNotFoundException(String.format("Employee not found for id %s", id)));
+  }
+
+  @Override
+  public Employee getEmployeeByEmail(String email) {
+    return Optional.ofNullable(email)
+        .flatMap(value -> shards.forEmail(value)
+            .queryForList("SELECT employee_id FROM employee_emails WHERE email = lower(?)", Long.class, value)
+            .stream().findFirst())
+        .flatMap(this::find)
+        .filter(employee -> email.equalsIgnoreCase(employee.getEmail()))
+        .orElseThrow(() -> new EmployeeNotFoundException(String.format("Employee not found for email %s", email)));
+  }
+
+  @Override
+  public EmployeeLookupResult getEmployeesByIds(List<Long> ids) {
+    Set<Long> requested = new LinkedHashSet<>(ids);
+    if (requested.size() > EmployeeServiceImpl.MAX_LOOKUP_IDS) {
+      throw new BatchTooLargeException(String.format("Lookup of %s ids exceeds the limit of %s", requested.size(), EmployeeServiceImpl.MAX_LOOKUP_IDS));
+    }
+
+    // one ANY query per shard that holds any of the ids
+    Map<Integer, List<Long>> idsByShard = requested.stream().filter(id -> id != null)
+        .collect(Collectors.groupingBy(shards::shardOf));
+    Map<Long, Employee> found = new HashMap<>();
+    shards.fanOut(shard -> idsByShard.containsKey(shard)
+        ? shards.get(shard).query(SELECT + " WHERE id = ANY(?)", EMPLOYEE, (Object) idsByShard.get(shard).toArray(Long[]::new))
+        : List.<Employee>of())
+        .forEach(employees -> employees.forEach(employee -> found.put(employee.getId(), employee)));
+
+    List<Employee> content = new ArrayList<>(found.size());
+    List<Long> missing = new ArrayList<>();
+    for (Long id : requested) {
+      Employee employee = found.get(id);
+      if (employee != null) {
+        content.add(employee);
+      } else {
+        missing.add(id);
+      }
+    }
+    return new EmployeeLookupResult(content, missing);
+  }
+
+  @Override
+  public Employee updateEmployee(Long id, Long expectedVersion, Employee updatedEmployee) {
+    // compare-and-set on the version read first; losing against a concurrent write reads again, which
+    // then reports the version mismatch (or the delete) to a conditional request
+    while (true) {
+      Employee current = getEmployeeById(id);
+      checkVersion(current, expectedVersion);
+      if (updatedEmployee.getFirstName() == null && updatedEmployee.getLastName() == null
+          && updatedEmployee.getEmail() == null) {
+        // nothing to write, answer with the current state
+        return current;
+      }
+
+      Employee savedEmployee = Employee.builder()
+          .id(id)
+          .firstName(updatedEmployee.getFirstName() != null ? updatedEmployee.getFirstName() : current.getFirstName())
+          .lastName(updatedEmployee.getLastName() != null ? updatedEmployee.getLastName() : current.getLastName())
+          .email(updatedEmployee.getEmail() != null ? updatedEmployee.getEmail() : current.getEmail())
+          .version(current.getVersion() + 1)
+          .build();
+      boolean emailChanged = savedEmployee.getEmail() != null && !savedEmployee.getEmail().equalsIgnoreCase(current.getEmail());
+      if (emailChanged) {
+        claimEmail(savedEmployee.getEmail(), id);
+      }
+
+      int updated;
+      try {
+        updated = shards.forId(id).update("UPDATE employees SET first_name = ?, last_name = ?, email = ?, version = ? WHERE id = ? AND version = ?",
+            savedEmployee.getFirstName(), savedEmployee.getLastName(), savedEmployee.getEmail(), savedEmployee.getVersion(),
+            id, current.getVersion());
+      } catch (RuntimeException e) {
+        if (emailChanged) {
+          releaseEmail(savedEmployee.getEmail(), id);
+        }
+        throw e;
+      }
+
+      if (emailChanged) {
+        releaseEmail(updated == 1 ? current.getEmail() : savedEmployee.getEmail(), id);
+      }
+      if (updated == 1) {
+        eventPublisher.publishEvent(EmployeeChangedEvent.local(savedEmployee));
+        return savedEmployee;
+      }
+    }
+  }
+
+  @Override
+  public void deleteEmployee(Long id, Long expectedVersion) {
+    JdbcTemplate shard = shards.forId(id);
+    List<String> emails = expectedVersion == null
+        ? shard.queryForList("DELETE FROM employees WHERE id = ? RETURNING email", String.class, id)
+        : shard.queryForList("DELETE FROM employees WHERE id = ? AND version = ? RETURNING email", String.class, id, expectedVersion);
+    if (emails.isEmpty()) {
+      throw writeConflict(id, expectedVersion);
+    }
+    releaseEmail(emails.get(0), id);
+    eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id));
+  }
+
+  @Override
+  public EmployeeDeleteReport deleteEmployees(EmployeeDeleteRequest request) {
+    boolean byIds = request.getIds() != null;
+    boolean byFilter = request.getLastName() != null || request.getEmailDomain() != null;
+    if (byIds == byFilter) {
+      throw new InvalidDeleteRequestException("Delete by either ids or a filter (lastName, emailDomain)");
+    }
+
+    // every shard deletes in chunks, each chunk its own short transaction
+    List<List<Employee>> deleted;
+    if (byIds) {
+      Set<Long> ids = new LinkedHashSet<>(request.getIds());
+      if (ids.size() > EmployeeServiceImpl.MAX_DELETE_IDS) {
+        throw new BatchTooLargeException(String.format("Delete of %s ids exceeds the limit of %s", ids.size(), EmployeeServiceImpl.MAX_DELETE_IDS));
+      }
+      Map<Integer, List<Long>> idsByShard = ids.stream().filter(id -> id != null)
+          .collect(Collectors.groupingBy(shards::shardOf));
+      deleted = shards.fanOut(shard -> {
+        List<Long> shardIds = idsByShard.getOrDefault(shard, List.of());
+        List<Employee> rows = new ArrayList<>();
+        for (int from = 0; from < shardIds.size(); from += EmployeeServiceImpl.DELETE_CHUNK_SIZE) {
+          Long[] chunk = shardIds.subList(from, Math.min(from + EmployeeServiceImpl.DELETE_CHUNK_SIZE, shardIds.size()))
+              .toArray(Long[]::new);
+          rows.addAll(shards.get(shard).query("DELETE FROM employees WHERE id = ANY(?) RETURNING id, first_name, last_name, email, version",
+              EMPLOYEE, (Object) chunk));
+        }
+        return rows;
+      });
+    } else {
+      StringJoiner conditions = new StringJoiner(" AND ");
+      List<Object> args = new ArrayList<>();
+      filter(null, request.getLastName(), request.getEmailDomain(), conditions, args);
+      args.add(EmployeeServiceImpl.DELETE_CHUNK_SIZE);
+      String sql = "DELETE FROM employees WHERE id IN (SELECT id FROM employees WHERE " + conditions
+          + " LIMIT ?) RETURNING id, first_name, last_name, email, version";
+      deleted = shards.fanOut(shard -> {
+        List<Employee> rows = new ArrayList<>();
+        List<Employee> chunk;
+        do {
+          chunk = shards.get(shard).query(sql, EMPLOYEE, args.toArray());
+          rows.addAll(chunk);
+        } while (chunk.size() == EmployeeServiceImpl.DELETE_CHUNK_SIZE);
+        return rows;
+      });
+    }
+
+    long count = 0;
+    for (List<Employee> rows : deleted) {
+      for (Employee employee : rows) {
+        releaseEmail(employee.getEmail(), employee.getId());
+      }
+      if (!rows.isEmpty()) {
+        eventPublisher.publishEvent(EmployeeChangedEvent.deleted(rows.stream().map(Employee::getId).toList()));
+      }
+      count += rows.size();
+    }
+    return new EmployeeDeleteReport(count);
+  }
+
+  private Optional<Employee> find(Long id) {
+    return Optional.ofNullable(id)
+        .flatMap(value -> shards.forId(value).query(SELECT + " WHERE id = ?", EMPLOYEE, value).stream().findFirst());
+  }
+
+  private List<Employee> idsAfter(long afterId, int limit) {
+    return merge(shards.fanOut(shard -> shards.get(shard).query(SELECT + " WHERE id > ? ORDER BY id LIMIT ?", EMPLOYEE,
+        afterId, limit)), ID_ORDER, limit);
+  }
+
+  private static void insert(JdbcTemplate shard, List<Employee> employees, List<Long> ids) {
+    if (employees.isEmpty()) {
+      return;
+    }
+    shard.batchUpdate("INSERT INTO employees (id, first_name, last_name, email, version) VALUES (?, ?, ?, ?, 0)",
+        IntStream.range(0, employees.size())
+            .mapToObj(row -> new Object[] { ids.get(row), employees.get(row).getFirstName(), employees.get(row).getLastName(), employees.get(row).getEmail() })
+            .toList());
+  }
+
+  // the owner entry's primary key rejects an email someone else has (also under concurrent creates)
+  private void claimEmail(String email, long id) {
+    if (email == null) {
+      return;
+    }
+    int claimed = shards.forEmail(email).update(
+        "INSERT INTO employee_emails (email, employee_id) VALUES (lower(?), ?) ON CONFLICT (email) DO NOTHING", email, id);
+    if (claimed == 0) {
+      throw new EmployeeAlreadyExistsException(String.format("Employee with email %s already exists", email));
+    }
+  }
+
+  private void releaseEmail(String email, long id) {
+    if (email != null) {
+      shards.forEmail(email).update("DELETE FROM employee_emails WHERE email = lower(?) AND employee_id = ?", email, id);
+    }
+  }
+
+  private static void filter(String firstName, String lastName, String emailDomain, StringJoiner conditions, List<Object> args) {
+    if (firstName != null) {
+      conditions.add("first_name = ?");
+      args.add(firstName);
+    }
+    if (lastName != null) {
+      conditions.add("last_name = ?");
+      args.add(lastName);
+    }
+    if (emailDomain != null) {
+      conditions.add("email_domain = ?");
+      args.add(emailDomain.toLowerCase(Locale.ROOT));
+    }
+  }
+
+  private RuntimeException writeConflict(Long id, Long expectedVersion) {
+    if (expectedVersion != null && find(id).isPresent()) {
+      return new EmployeeVersionMismatchException(String.format("Employee %s no longer has version %s", id, expectedVersion));
+    }
+    return new EmployeeNotFoundException(String.format("Employee not found for id %s", id));
+  }
+
+  private static void checkVersion(Employee employee, Long expectedVersion) {
+    if (expectedVersion != null && employee.getVersion() != expectedVersion) {
+      throw new EmployeeVersionMismatchException(String.format("Employee %s no longer has version %s", employee.getId(), expectedVersion));
+    }
+  }
+
+  // the shards' results are each sorted, the stable sort merges the runs in linear time
+  static List<Employee> merge(List<List<Employee>> shardResults, Comparator<Employee> order, int limit) {
+    List<Employee> merged = new ArrayList<>();
+    shardResults.forEach(merged::addAll);
+    merged.sort(order);
+    return merged.size() <= limit ? merged : new ArrayList<>(merged.subList(0, limit));
+  }
+
+  private static EmployeePage page(List<Employee> employees, int pageSize, Function<Employee, String> cursorOf) {
+    // one extra row tells whether there is a next page
+    if (employees.size() <= pageSize) {
+      return new EmployeePage(employees, null);
+    }
+
+    List<Employee> content = employees.subList(0, pageSize);
+    return new EmployeePage(content, cursorOf.apply(content.get(pageSize - 1)));
+  }
+
+  private static int pageSize(Integer size) {
+    return size == null ? EmployeeServiceImpl.DEFAULT_PAGE_SIZE
+        : Math.max(1, Math.min(size, EmployeeServiceImpl.MAX_PAGE_SIZE));
+  }
+}
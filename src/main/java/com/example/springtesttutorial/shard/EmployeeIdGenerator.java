@@ -0,0 +1,39 @@
+package com.example.springtesttutorial.shard;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.dao.DataAccessException;
+
+// globally unique ids without a coordinator: the shards' sequences hand out disjoint ids (see
+// EmployeeShards#createSchema), so any of them can answer. They are asked in turn and one that
+// cannot be reached is skipped. Where a row is stored is decided by the hash of its id afterwards,
+// not by the sequence it came from.
+public class EmployeeIdGenerator {
+
+  private final EmployeeShards shards;
+
+  private final AtomicInteger next = new AtomicInteger();
+
+  public EmployeeIdGenerator(EmployeeShards shards) {
+    this.shards = shards;
+  }
+
+  public long next() {
+    return next(1).get(0);
+  }
+
+  public List<Long> next(int count) {
+    DataAccessException failure = null;
+    for (int attempt = 0; attempt < shards.size(); attempt++) {
+      int shard = Math.floorMod(next.getAndIncrement(), shards.size());
+      try {
+        return shards.get(shard).queryForList("SELECT nextval('employees_seq') FROM generate_series(1, ?)",
+            Long.class, count);
+      } catch (DataAccessException e) {
+        failure = e;
+      }
+    }
+    throw failure;
+  }
+}
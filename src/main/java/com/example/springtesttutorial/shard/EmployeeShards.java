@@ -0,0 +1,149 @@
+package com.example.springtesttutorial.shard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import javax.sql.DataSource;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+// the databases of the sharded profile, one pool each: an employee row lives on the shard its id hashes
+// to, the owner entry of an email (employee_emails) on the shard the lower-cased email hashes to.
+// The hash is fixed, and so is the number of shards once rows are written: another count places rows
+// elsewhere and would need every row moved, which is not done here.
+public final class EmployeeShards implements AutoCloseable {
+
+  static final String SCHEMA = "shard-schema.sql";
+
+  private final List<DataSource> dataSources;
+
+  private final List<JdbcTemplate> templates;
+
+  private final ExecutorService executor;
+
+  // the executor runs the fan-out queries and is shut down with the shards
+  public EmployeeShards(List<DataSource> dataSources, ExecutorService executor) {
+    if (dataSources.isEmpty()) {
+      throw new IllegalArgumentException("At least one shard is required");
+    }
+    this.dataSources = List.copyOf(dataSources);
+    this.templates = dataSources.stream().map(JdbcTemplate::new).toList();
+    this.executor = executor;
+  }
+
+  // platform threads for the fan-out: one per connection the pools can hand out, more would only wait
+  public static ExecutorService fanOutExecutor(int threads) {
+    AtomicInteger created = new AtomicInteger();
+    return Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+      Thread thread = new Thread(runnable, "employee-shard-" + created.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public int size() {
+    return templates.size();
+  }
+
+  public JdbcTemplate get(int shard) {
+    return templates.get(shard);
+  }
+
+  public int shardOf(long id) {
+    return Math.floorMod(mix(id), templates.size());
+  }
+
+  // String.hashCode is specified by the language, so the placement does not depend on the jvm
+  public int shardOfEmail(String email) {
+    return Math.floorMod(mix(email.toLowerCase(Locale.ROOT).hashCode()), templates.size());
+  }
+
+  public JdbcTemplate forId(long id) {
+    return get(shardOf(id));
+  }
+
+  public JdbcTemplate forEmail(String email) {
+    return get(shardOfEmail(email));
+  }
+
+  // tables and indexes from shard-schema.sql, then the shard's id sequence: shard i of n hands out
+  // i + 1, i + 1 + n, i + 1 + 2n ..., so the shards never hand out the same id (see EmployeeIdGenerator)
+  public void createSchema() {
+    ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource(SCHEMA));
+    for (int shard = 0; shard < size(); shard++) {
+      populator.execute(dataSources.get(shard));
+      JdbcTemplate template = get(shard);
+      template.execute(String.format("CREATE SEQUENCE IF NOT EXISTS employees_seq INCREMENT BY %d START WITH %d",
+          size(), shard + 1));
+      Long increment = template.queryForObject(
+          "SELECT increment_by FROM pg_sequences WHERE sequencename = 'employees_seq' AND schemaname = current_schema()",
+          Long.class);
+      if (increment == null || increment != size()) {
+        throw new IllegalStateException(String.format("Shard %s was set up for %s shards, not %s", shard, increment, size()));
+      }
+    }
+  }
+
+  // runs the task for every shard in parallel and returns the results in shard order; waits for all
+  // of them before rethrowing the first failure, so callers can clean up after a partial write
+  public <T> List<T> fanOut(IntFunction<T> task) {
+    if (size() == 1) {
+      return Collections.singletonList(task.apply(0));
+    }
+
+    List<Future<T>> futures = new ArrayList<>(size());
+    for (int shard = 0; shard < size(); shard++) {
+      int current = shard;
+      futures.add(executor.submit(() -> task.apply(current)));
+    }
+
+    List<T> results = new ArrayList<>(size());
+    RuntimeException failure = null;
+    for (Future<T> future : futures) {
+      try {
+        results.add(future.get());
+      } catch (ExecutionException e) {
+        results.add(null);
+        if (failure == null) {
+          failure = e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        futures.forEach(pending -> pending.cancel(true));
+        throw new IllegalStateException("Interrupted while waiting for the shards", e);
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    return results;
+  }
+
+  @Override
+  public void close() throws Exception {
+    executor.shutdownNow();
+    for (DataSource dataSource : dataSources) {
+      if (dataSource instanceof AutoCloseable closeable) {
+        closeable.close();
+      }
+    }
+  }
+
+  // splitmix64 finalizer: consecutive ids and similar hash codes spread evenly over the shards
+  static long mix(long value) {
+    long z = value;
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+}
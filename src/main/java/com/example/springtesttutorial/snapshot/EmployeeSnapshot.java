@@ -0,0 +1,245 @@
+package com.example.springtesttutorial.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+import com.example.springtesttutorial.model.Employee;
+
+// binary copy of the employees table, read through a memory mapping so opening it costs no copy.
+// Format (big endian):
+//   header  magic "EMPS" (int), format version (short), created at epoch millis (long),
+//           row count (int), highest id (long)
+//   rows    id (long), version (long), first name, last name, email
+//           each string as byte length (int, -1 for null) and UTF-8 bytes
+// rows are in ascending id order, which the catch-up against the database relies on
+public final class EmployeeSnapshot implements Iterable<Employee>, Closeable {
+
+  static final int MAGIC = 0x454D5053;
+
+  static final short FORMAT_VERSION = 1;
+
+  static final int HEADER_BYTES = 4 + 2 + 8 + 4 + 8;
+
+  private final FileChannel channel;
+
+  private final MappedByteBuffer buffer;
+
+  private final Instant createdAt;
+
+  private final int count;
+
+  private final long maxId;
+
+  private EmployeeSnapshot(FileChannel channel, MappedByteBuffer buffer, Instant createdAt, int count, long maxId) {
+    this.channel = channel;
+    this.buffer = buffer;
+    this.createdAt = createdAt;
+    this.count = count;
+    this.maxId = maxId;
+  }
+
+  // writes the employees the source hands out (in id order) to a temporary file next to the
+  // target and moves it in place, readers never see a half written snapshot; returns the row count
+  public static int write(Path path, Consumer<Consumer<Employee>> source) throws IOException {
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    int count;
+    long maxId;
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      channel.position(HEADER_BYTES);
+      RowWriter rows = new RowWriter(new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16)));
+      source.accept(rows);
+      rows.flush();
+      count = rows.count;
+      maxId = rows.lastId;
+
+      // the header goes in last, once the count is known
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+          .putInt(MAGIC)
+          .putShort(FORMAT_VERSION)
+          .putLong(System.currentTimeMillis())
+          .putInt(count)
+          .putLong(maxId)
+          .flip();
+      channel.write(header, 0);
+      channel.force(true);
+    } catch (UncheckedIOException e) {
+      Files.deleteIfExists(temporary);
+      throw e.getCause();
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(temporary);
+      throw e;
+    }
+    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    return count;
+  }
+
+  private static final class RowWriter implements Consumer<Employee> {
+
+    private final DataOutputStream out;
+
+    private int count;
+
+    private long lastId;
+
+    RowWriter(DataOutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public void accept(Employee employee) {
+      if (count > 0 && employee.getId() <= lastId) {
+        throw new IllegalStateException(String.format("Employees must come in ascending id order, %s after %s", employee.getId(), lastId));
+      }
+      try {
+        out.writeLong(employee.getId());
+        out.writeLong(employee.getVersion());
+        writeString(employee.getFirstName());
+        writeString(employee.getLastName());
+        writeString(employee.getEmail());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      count++;
+      lastId = employee.getId();
+    }
+
+    private void writeString(String value) throws IOException {
+      if (value == null) {
+        out.writeInt(-1);
+        return;
+      }
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+
+    void flush() throws IOException {
+      out.flush();
+    }
+  }
+
+  // maps the file and checks header and row layout, so iterating it later cannot fail half way
+  public static EmployeeSnapshot open(Path path) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      long size = channel.size();
+      if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+        throw new IOException(String.format("Snapshot %s has an unsupported size of %s bytes", path, size));
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      if (buffer.getInt() != MAGIC) {
+        throw new IOException(String.format("%s is not an employee snapshot", path));
+      }
+      short formatVersion = buffer.getShort();
+      if (formatVersion != FORMAT_VERSION) {
+        throw new IOException(String.format("Snapshot %s has format version %s, supported is %s", path, formatVersion, FORMAT_VERSION));
+      }
+      Instant createdAt = Instant.ofEpochMilli(buffer.getLong());
+      int count = buffer.getInt();
+      long maxId = buffer.getLong();
+
+      EmployeeSnapshot snapshot = new EmployeeSnapshot(channel, buffer, createdAt, count, maxId);
+      snapshot.verify(path);
+      return snapshot;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private void verify(Path path) throws IOException {
+    ByteBuffer rows = buffer.duplicate().position(HEADER_BYTES);
+    try {
+      for (int row = 0; row < count; row++) {
+        rows.position(rows.position() + 16);
+        for (int field = 0; field < 3; field++) {
+          int length = rows.getInt();
+          if (length > 0) {
+            rows.position(rows.position() + length);
+          }
+        }
+      }
+    } catch (BufferUnderflowException | IllegalArgumentException e) {
+      throw new IOException(String.format("Snapshot %s is truncated", path), e);
+    }
+    if (rows.hasRemaining()) {
+      throw new IOException(String.format("Snapshot %s has %s bytes after its last row", path, rows.remaining()));
+    }
+  }
+
+  public Instant createdAt() {
+    return createdAt;
+  }
+
+  public int count() {
+    return count;
+  }
+
+  // high-water mark: every id above it was created after the snapshot
+  public long maxId() {
+    return maxId;
+  }
+
+  // rows in id order, each iterator reads the mapping independently
+  @Override
+  public Iterator<Employee> iterator() {
+    ByteBuffer rows = buffer.duplicate().position(HEADER_BYTES);
+    return new Iterator<>() {
+
+      private int read;
+
+      @Override
+      public boolean hasNext() {
+        return read < count;
+      }
+
+      @Override
+      public Employee next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        read++;
+        return Employee.builder()
+            .id(rows.getLong())
+            .version(rows.getLong())
+            .firstName(readString(rows))
+            .lastName(readString(rows))
+            .email(readString(rows))
+            .build();
+      }
+    };
+  }
+
+  private static String readString(ByteBuffer rows) {
+    int length = rows.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    rows.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
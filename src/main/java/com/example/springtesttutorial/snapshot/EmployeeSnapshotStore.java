@@ -0,0 +1,178 @@
+package com.example.springtesttutorial.snapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.springtesttutorial.cache.EmployeeChangedEvent;
+import com.example.springtesttutorial.config.EmployeeSnapshotProperties;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.repository.EmployeeRepository;
+import com.example.springtesttutorial.service.EmployeeService;
+
+import jakarta.persistence.EntityManager;
+
+// warm start for the in-process copies (read model, autocomplete index): the employees are written
+// to a snapshot file every interval in which one changed, and the next start takes them from the
+// mapped file. Up to the snapshot's highest id only the ids and versions are read from the database
+// to find what changed since, rows updated or created in between are loaded by id and rows deleted
+// since are left out; the rows above it were all created later and are streamed as they are. That
+// compare still reads one index entry per row the snapshot covers, and every write streams the
+// whole table once, both bounded by the interval rather than by the number of writes.
+public class EmployeeSnapshotStore implements DisposableBean {
+
+  private static final Logger log = LoggerFactory.getLogger(EmployeeSnapshotStore.class);
+
+  static final int CATCH_UP_CHUNK_SIZE = 1000;
+
+  private final EmployeeService employeeService;
+
+  private final EmployeeRepository employeeRepository;
+
+  private final EntityManager entityManager;
+
+  private final Path path;
+
+  private final ScheduledExecutorService scheduler;
+
+  // set until the first write, a start may have caught up with changes the file does not hold
+  private final AtomicBoolean changedSinceWrite = new AtomicBoolean(true);
+
+  public EmployeeSnapshotStore(EmployeeService employeeService, EmployeeRepository employeeRepository,
+      EntityManager entityManager, EmployeeSnapshotProperties properties) {
+    this.employeeService = employeeService;
+    this.employeeRepository = employeeRepository;
+    this.entityManager = entityManager;
+    this.path = properties.path();
+
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "employee-snapshot");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long interval = properties.interval().toMillis();
+    scheduler.scheduleWithFixedDelay(this::writeIfChanged, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  public boolean isAvailable() {
+    return Files.isRegularFile(path);
+  }
+
+  public void write() throws IOException {
+    long start = System.nanoTime();
+    int count = EmployeeSnapshot.write(path, employeeService::forEachEmployee);
+    log.info("Wrote employee snapshot {} with {} rows in {} ms", path, count,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  @EventListener
+  public void onChanged(EmployeeChangedEvent event) {
+    changedSinceWrite.set(true);
+  }
+
+  // cleared first, a change made while the table is written marks the next interval again
+  void writeIfChanged() {
+    if (!changedSinceWrite.getAndSet(false)) {
+      return;
+    }
+    try {
+      write();
+    } catch (IOException | RuntimeException e) {
+      changedSinceWrite.set(true);
+      log.warn("Could not write employee snapshot {}", path, e);
+    }
+  }
+
+  // the current employees: snapshot rows whose version still matches, then the rows changed since,
+  // then those created after the snapshot's highest id.
+  // An unreadable snapshot falls back to streaming the whole table.
+  @Transactional(readOnly = true)
+  public void forEachEmployee(Consumer<Employee> action) {
+    EmployeeSnapshot snapshot;
+    try {
+      snapshot = EmployeeSnapshot.open(path);
+    } catch (IOException e) {
+      log.warn("Ignoring employee snapshot {}, loading from the database", path, e);
+      employeeService.forEachEmployee(action);
+      return;
+    }
+
+    long start = System.nanoTime();
+    long maxId = snapshot.maxId();
+    List<Long> changed = new ArrayList<>();
+    int unchanged = 0;
+    try (snapshot; Stream<Object[]> current = employeeRepository.streamIdsAndVersionsUpTo(maxId)) {
+      Iterator<Object[]> rows = current.iterator();
+      Object[] row = rows.hasNext() ? rows.next() : null;
+      for (Employee employee : snapshot) {
+        // ids before the snapshot's next one were created since, from an id block taken earlier
+        while (row != null && id(row) < employee.getId()) {
+          changed.add(id(row));
+          row = rows.hasNext() ? rows.next() : null;
+        }
+        if (row == null || id(row) != employee.getId()) {
+          continue; // deleted since
+        }
+        if (version(row) == employee.getVersion()) {
+          action.accept(employee);
+          unchanged++;
+        } else {
+          changed.add(employee.getId());
+        }
+        row = rows.hasNext() ? rows.next() : null;
+      }
+      while (row != null) {
+        changed.add(id(row));
+        row = rows.hasNext() ? rows.next() : null;
+      }
+    } catch (IOException e) {
+      log.debug("Could not close employee snapshot {}", path, e);
+    }
+
+    for (int from = 0; from < changed.size(); from += CATCH_UP_CHUNK_SIZE) {
+      List<Long> chunk = changed.subList(from, Math.min(from + CATCH_UP_CHUNK_SIZE, changed.size()));
+      employeeRepository.findAllById(chunk).forEach(action);
+      // keep the persistence context from growing with the number of changed rows
+      entityManager.clear();
+    }
+    AtomicInteger created = new AtomicInteger();
+    try (Stream<Employee> rows = employeeRepository.streamAllAfter(maxId)) {
+      rows.forEach(employee -> {
+        action.accept(employee);
+        entityManager.detach(employee);
+        created.incrementAndGet();
+      });
+    }
+    log.info("Loaded {} employees from snapshot {} and {} from the database in {} ms", unchanged, path,
+        changed.size() + created.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  private static long id(Object[] row) {
+    return (Long) row[0];
+  }
+
+  private static long version(Object[] row) {
+    return (Long) row[1];
+  }
+
+  @Override
+  public void destroy() {
+    scheduler.shutdownNow();
+  }
+}
@@ -0,0 +1,12 @@
+-- the table and sequence hibernate creates for the Employee entity, for the reactive profile where
+-- hibernate does not run; schema.sql adds the indexes afterwards
+CREATE SEQUENCE IF NOT EXISTS employees_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS employees (
+  id bigint PRIMARY KEY,
+  first_name varchar(255) NOT NULL,
+  last_name varchar(255) NOT NULL,
+  email varchar(255) NOT NULL,
+  email_domain text GENERATED ALWAYS AS (lower(split_part(email, '@', 2))) STORED,
+  version bigint NOT NULL DEFAULT 0
+);
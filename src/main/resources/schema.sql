@@ -0,0 +1,12 @@
+-- runs after hibernate has created or updated the tables (spring.jpa.defer-datasource-initialization)
+
+-- emails are unique regardless of case, the service relies on this index instead of checking first
+CREATE UNIQUE INDEX IF NOT EXISTS uk_employees_email ON employees (lower(email));
+
+-- employee search (GET /api/v1/employee?firstName=&lastName=&emailDomain=&sort=): every filter
+-- has an index ending in id, so the default id order and its keyset need no sort step
+CREATE INDEX IF NOT EXISTS idx_employees_first_name_id ON employees (first_name, id);
+CREATE INDEX IF NOT EXISTS idx_employees_last_name_id ON employees (last_name, id);
+CREATE INDEX IF NOT EXISTS idx_employees_email_domain_id ON employees (email_domain, id);
+-- sort=lastName, alone or with a lastName (and firstName) filter
+CREATE INDEX IF NOT EXISTS idx_employees_last_name_first_name_id ON employees (last_name, first_name, id);
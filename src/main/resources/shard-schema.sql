@@ -0,0 +1,25 @@
+-- schema of every database of the sharded profile (ShardedEmployeeService), applied on startup,
+-- employees_seq is created by EmployeeShards, its increment and start depend on the shard
+
+CREATE TABLE IF NOT EXISTS employees (
+  id bigint PRIMARY KEY,
+  first_name varchar(255) NOT NULL,
+  last_name varchar(255) NOT NULL,
+  email varchar(255) NOT NULL,
+  email_domain text GENERATED ALWAYS AS (lower(split_part(email, '@', 2))) STORED,
+  version bigint NOT NULL DEFAULT 0
+);
+
+-- the search indexes of schema.sql; names are ordered bytewise (COLLATE "C") so every shard and the
+-- merge of their pages agree on one order
+CREATE INDEX IF NOT EXISTS idx_employees_first_name_id ON employees (first_name, id);
+CREATE INDEX IF NOT EXISTS idx_employees_last_name_id ON employees (last_name, id);
+CREATE INDEX IF NOT EXISTS idx_employees_email_domain_id ON employees (email_domain, id);
+CREATE INDEX IF NOT EXISTS idx_employees_last_name_first_name_id ON employees (last_name COLLATE "C", first_name COLLATE "C", id);
+
+-- emails are unique across shards: the lower-cased email is claimed on the shard it hashes to
+-- before the employee is written to the shard of its id
+CREATE TABLE IF NOT EXISTS employee_emails (
+  email varchar(255) PRIMARY KEY,
+  employee_id bigint NOT NULL
+);
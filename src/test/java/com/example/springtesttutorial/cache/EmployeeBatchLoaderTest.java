@@ -0,0 +1,130 @@
+package com.example.springtesttutorial.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.springtesttutorial.config.EmployeeBatchLoaderProperties;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.repository.EmployeeRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeBatchLoaderTest {
+
+  @Mock
+  private EmployeeRepository employeeRepository;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+  private EmployeeBatchLoader batchLoader;
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+    if (batchLoader != null) {
+      batchLoader.destroy();
+    }
+  }
+
+  private static Employee employee(long id) {
+    return Employee.builder().id(id).firstName("John").lastName("Doe").email("John" + id + "@mail.com").build();
+  }
+
+  private void givenRepositoryReturnsRequestedIds() {
+    BDDMockito.given(employeeRepository.findAllById(ArgumentMatchers.<Iterable<Long>>any())).willAnswer(invocation -> {
+      List<Employee> employees = new ArrayList<>();
+      for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+        if (id != 404L) {
+          employees.add(employee(id));
+        }
+      }
+      return employees;
+    });
+  }
+
+  private List<Future<Optional<Employee>>> loadConcurrently(Long... ids) {
+    List<Future<Optional<Employee>>> results = new ArrayList<>();
+    for (Long id : ids) {
+      results.add(executor.submit(() -> batchLoader.load(id)));
+    }
+    return results;
+  }
+
+  @Test
+  @DisplayName("ids within the window share one query")
+  @SuppressWarnings("unchecked")
+  public void givenConcurrentLoads_whenWithinWindow_thenResolveWithOneQuery() throws Exception {
+    // given
+    batchLoader = new EmployeeBatchLoader(employeeRepository,
+        new EmployeeBatchLoaderProperties(true, Duration.ofMillis(200), 100));
+    givenRepositoryReturnsRequestedIds();
+
+    // when
+    List<Future<Optional<Employee>>> results = loadConcurrently(1L, 2L, 404L);
+
+    // then
+    assertThat(results.get(0).get(5, TimeUnit.SECONDS)).contains(employee(1L));
+    assertThat(results.get(1).get(5, TimeUnit.SECONDS)).contains(employee(2L));
+    assertThat(results.get(2).get(5, TimeUnit.SECONDS)).isEmpty();
+
+    ArgumentCaptor<Iterable<Long>> ids = ArgumentCaptor.forClass(Iterable.class);
+    verify(employeeRepository, times(1)).findAllById(ids.capture());
+    assertThat((Collection<Long>) ids.getValue()).containsExactlyInAnyOrder(1L, 2L, 404L);
+  }
+
+  @Test
+  @DisplayName("a full batch is sent without waiting for the window")
+  public void givenMaxBatchSizeReached_whenLoad_thenDispatchImmediately() throws Exception {
+    // given
+    batchLoader = new EmployeeBatchLoader(employeeRepository,
+        new EmployeeBatchLoaderProperties(true, Duration.ofMinutes(1), 1));
+    givenRepositoryReturnsRequestedIds();
+
+    // when
+    Optional<Employee> employee = executor.submit(() -> batchLoader.load(7L)).get(5, TimeUnit.SECONDS);
+
+    // then
+    assertThat(employee).contains(employee(7L));
+    verify(employeeRepository).findAllById(Set.of(7L));
+  }
+
+  @Test
+  @DisplayName("a failing query fails every caller of the batch")
+  public void givenFailingQuery_whenLoad_thenPropagateException() {
+    // given
+    batchLoader = new EmployeeBatchLoader(employeeRepository,
+        new EmployeeBatchLoaderProperties(true, Duration.ofMillis(1), 100));
+    IllegalStateException failure = new IllegalStateException("connection refused");
+    BDDMockito.given(employeeRepository.findAllById(ArgumentMatchers.<Iterable<Long>>any())).willThrow(failure);
+
+    // when
+    Future<Optional<Employee>> result = executor.submit(() -> batchLoader.load(1L));
+
+    // then
+    ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+    assertThat(exception.getCause()).isSameAs(failure);
+  }
+}
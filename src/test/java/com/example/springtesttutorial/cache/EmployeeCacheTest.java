@@ -0,0 +1,212 @@
+package com.example.springtesttutorial.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.springtesttutorial.config.EmployeeCacheProperties;
+import com.example.springtesttutorial.model.Employee;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class EmployeeCacheTest {
+
+  private Employee employee;
+
+  private AtomicInteger loads;
+
+  @BeforeEach
+  public void setUp() {
+    employee = Employee.builder().id(1L).firstName("John").lastName("Doe").email("John@mail.com").build();
+    loads = new AtomicInteger();
+  }
+
+  private Function<Long, Optional<Employee>> loader(Optional<Employee> result) {
+    return id -> {
+      loads.incrementAndGet();
+      return result;
+    };
+  }
+
+  private static EmployeeCache cache(boolean enabled, boolean cacheMisses) {
+    return new EmployeeCache(new EmployeeCacheProperties(enabled, 100, Duration.ofMinutes(10), cacheMisses, Duration.ofMinutes(1)));
+  }
+
+  @Test
+  @DisplayName("hit after first load")
+  public void givenLoadedEmployee_whenGet_thenServeFromCache() {
+    // given
+    EmployeeCache employeeCache = cache(true, false);
+
+    // when
+    employeeCache.get(1L, loader(Optional.of(employee)));
+    Optional<Employee> cached = employeeCache.get(1L, loader(Optional.of(employee)));
+
+    // then
+    assertThat(cached).contains(employee);
+    assertThat(loads).hasValue(1);
+    assertThat(employeeCache.stats().hitCount()).isEqualTo(1);
+    assertThat(employeeCache.stats().missCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("misses are not cached by default")
+  public void givenUnknownId_whenGetTwice_thenLoadTwice() {
+    // given
+    EmployeeCache employeeCache = cache(true, false);
+
+    // when
+    employeeCache.get(2L, loader(Optional.empty()));
+    Optional<Employee> result = employeeCache.get(2L, loader(Optional.empty()));
+
+    // then
+    assertThat(result).isEmpty();
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("misses are cached when enabled")
+  public void givenMissCaching_whenGetUnknownIdTwice_thenLoadOnce() {
+    // given
+    EmployeeCache employeeCache = cache(true, true);
+
+    // when
+    employeeCache.get(2L, loader(Optional.empty()));
+    Optional<Employee> result = employeeCache.get(2L, loader(Optional.empty()));
+
+    // then
+    assertThat(result).isEmpty();
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("evict forces a reload")
+  public void givenCachedEmployee_whenEvict_thenLoadAgain() {
+    // given
+    EmployeeCache employeeCache = cache(true, false);
+    employeeCache.get(1L, loader(Optional.of(employee)));
+
+    // when
+    employeeCache.evict(1L);
+    employeeCache.get(1L, loader(Optional.of(employee)));
+
+    // then
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("a remote change only evicts older entries")
+  public void givenCachedVersion_whenEvictOlderThan_thenKeepSameOrNewer() {
+    // given
+    EmployeeCache employeeCache = cache(true, false);
+    employee.setVersion(3L);
+    employeeCache.put(employee);
+
+    // when
+    employeeCache.evictOlderThan(1L, 2L);
+    employeeCache.evictOlderThan(1L, 3L);
+    Optional<Employee> afterLateChanges = employeeCache.getIfPresent(1L);
+    employeeCache.evictOlderThan(1L, 4L);
+
+    // then
+    assertThat(afterLateChanges).contains(employee);
+    assertThat(employeeCache.getIfPresent(1L)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("the load runs outside the cache's locks, an eviction meanwhile keeps its result out of the cache")
+  public void givenEvictionDuringLoad_whenLoad_thenReturnButDoNotCache() {
+    // given
+    EmployeeCache employeeCache = cache(true, false);
+
+    // when
+    Optional<Employee> loaded = employeeCache.load(1L, id -> {
+      employeeCache.evict(id);
+      return Optional.of(employee);
+    });
+
+    // then
+    assertThat(loaded).contains(employee);
+    assertThat(employeeCache.getIfPresent(1L)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("a caller missing while another loads waits for that load")
+  public void givenRunningLoad_whenLoad_thenShareResult() throws Exception {
+    // given
+    EmployeeCache employeeCache = cache(true, false);
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    Future<Optional<Employee>> first = executor.submit(() -> employeeCache.load(1L, id -> {
+      loading.countDown();
+      awaitQuietly(release);
+      return loader(Optional.of(employee)).apply(id);
+    }));
+    loading.await();
+
+    // when
+    Future<Optional<Employee>> second = executor.submit(() -> employeeCache.load(1L, loader(Optional.of(employee))));
+    release.countDown();
+
+    // then
+    assertThat(first.get(5, TimeUnit.SECONDS)).contains(employee);
+    assertThat(second.get(5, TimeUnit.SECONDS)).contains(employee);
+    assertThat(loads).hasValue(1);
+    executor.shutdown();
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Test
+  @DisplayName("disabled cache passes through")
+  public void givenDisabledCache_whenGet_thenAlwaysLoad() {
+    // given
+    EmployeeCache employeeCache = cache(false, true);
+
+    // when
+    employeeCache.get(1L, loader(Optional.of(employee)));
+    employeeCache.get(1L, loader(Optional.of(employee)));
+
+    // then
+    assertThat(loads).hasValue(2);
+    assertThat(employeeCache.getIfPresent(1L)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("stats are published as metrics")
+  public void givenRegistry_whenBindTo_thenPublishCacheMetrics() {
+    // given
+    EmployeeCache employeeCache = cache(true, false);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    employeeCache.bindTo(registry);
+
+    // when
+    employeeCache.get(1L, loader(Optional.of(employee)));
+    employeeCache.get(1L, loader(Optional.of(employee)));
+
+    // then
+    assertThat(registry.get("cache.gets").tag("cache", EmployeeCache.NAME).tag("result", "hit").functionCounter().count())
+        .isEqualTo(1.0);
+    assertThat(registry.get("cache.gets").tag("cache", EmployeeCache.NAME).tag("result", "miss").functionCounter().count())
+        .isEqualTo(1.0);
+  }
+}
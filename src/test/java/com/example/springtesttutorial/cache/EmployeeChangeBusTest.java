@@ -0,0 +1,117 @@
+package com.example.springtesttutorial.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.AdditionalMatchers;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.example.springtesttutorial.cache.EmployeeChangedEvent.Change;
+import com.example.springtesttutorial.model.Employee;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeChangeBusTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @Mock
+  private EmployeeCache employeeCache;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  private EmployeeChangeBus employeeChangeBus;
+
+  @BeforeEach
+  void setUp() {
+    employeeChangeBus = new EmployeeChangeBus(jdbcTemplate, new DataSourceProperties(), employeeCache, eventPublisher);
+  }
+
+  @Test
+  @DisplayName("publish local change")
+  public void givenLocalChange_whenPublish_thenNotifyWithNodeIdAndVersion() {
+    // when
+    employeeChangeBus.publish(EmployeeChangedEvent.local(Employee.builder().id(42L).version(3L).build()));
+
+    // then
+    verify(jdbcTemplate).query(ArgumentMatchers.anyString(), ArgumentMatchers.any(RowCallbackHandler.class),
+        ArgumentMatchers.eq(EmployeeChangeBus.CHANNEL),
+        AdditionalMatchers.aryEq(new String[] { employeeChangeBus.getNodeId() + ":42:3" }));
+  }
+
+  @Test
+  @DisplayName("a chunk of changes is sent in as few payloads as fit the notify limit")
+  public void givenManyChanges_whenToPayloads_thenSplitBelowLimit() {
+    // given
+    List<Long> ids = LongStream.rangeClosed(1, 2000).boxed().toList();
+
+    // when
+    List<String> payloads = EmployeeChangeBus.toPayloads("node", EmployeeChangedEvent.deleted(ids));
+
+    // then
+    assertThat(payloads).hasSizeGreaterThan(1)
+        .allSatisfy(payload -> assertThat(payload).startsWith("node:").hasSizeLessThanOrEqualTo(EmployeeChangeBus.MAX_PAYLOAD_LENGTH));
+    assertThat(payloads.get(0)).startsWith("node:1:" + EmployeeChangedEvent.DELETED + ",2:");
+    assertThat(String.join(",", payloads).split(",")).hasSize(ids.size());
+  }
+
+  @Test
+  @DisplayName("remote change is not broadcast again")
+  public void givenRemoteChange_whenPublish_thenDoNothing() {
+    // when
+    employeeChangeBus.publish(new EmployeeChangedEvent(List.of(new Change(42L, 3L, null)), true));
+
+    // then
+    verifyNoInteractions(jdbcTemplate);
+  }
+
+  @Test
+  @DisplayName("receive change from another node")
+  public void givenNotificationFromOtherNode_whenReceive_thenEvictOlderAndPublishRemoteEvent() {
+    // when
+    employeeChangeBus.receive("other-node:42:3,43:" + EmployeeChangedEvent.DELETED);
+
+    // then
+    verify(employeeCache).evictOlderThan(42L, 3L);
+    verify(employeeCache).evictOlderThan(43L, EmployeeChangedEvent.DELETED);
+    verify(eventPublisher).publishEvent(new EmployeeChangedEvent(
+        List.of(new Change(42L, 3L, null), new Change(43L, EmployeeChangedEvent.DELETED, null)), true));
+  }
+
+  @Test
+  @DisplayName("own notifications are ignored")
+  public void givenOwnNotification_whenReceive_thenIgnore() {
+    // when
+    employeeChangeBus.receive(employeeChangeBus.getNodeId() + ":42:3");
+
+    // then
+    verify(employeeCache, never()).evictOlderThan(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong());
+    verifyNoInteractions(eventPublisher);
+  }
+
+  @Test
+  @DisplayName("malformed notifications are ignored")
+  public void givenMalformedNotification_whenReceive_thenIgnore() {
+    // when
+    employeeChangeBus.receive("other-node:42:3,43:not-a-version");
+
+    // then
+    verifyNoInteractions(employeeCache, eventPublisher);
+  }
+}
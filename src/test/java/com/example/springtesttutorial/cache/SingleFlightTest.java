@@ -0,0 +1,119 @@
+package com.example.springtesttutorial.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.springtesttutorial.exception.EmployeeNotFoundException;
+
+public class SingleFlightTest {
+
+  private static final int CALLERS = 8;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+  private final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  // the first caller blocks in the loader until every other caller has joined its flight
+  private List<Future<String>> concurrentCalls(CountDownLatch release, RuntimeException failure) {
+    List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < CALLERS; i++) {
+      results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+        loads.incrementAndGet();
+        await(release);
+        if (failure != null) {
+          throw failure;
+        }
+        return "John";
+      })));
+    }
+    return results;
+  }
+
+  private void waitUntilCoalesced(long count) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (singleFlight.coalesced() < count && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Test
+  @DisplayName("concurrent calls share one load")
+  public void givenConcurrentCallsForSameKey_whenExecute_thenLoadOnceAndShareResult() throws Exception {
+    // given
+    CountDownLatch release = new CountDownLatch(1);
+
+    // when
+    List<Future<String>> results = concurrentCalls(release, null);
+    waitUntilCoalesced(CALLERS - 1);
+    release.countDown();
+
+    // then
+    for (Future<String> result : results) {
+      assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("John");
+    }
+    assertThat(loads).hasValue(1);
+    assertThat(singleFlight.calls()).isEqualTo(CALLERS);
+    assertThat(singleFlight.coalesced()).isEqualTo(CALLERS - 1);
+  }
+
+  @Test
+  @DisplayName("concurrent calls share one exception")
+  public void givenFailingLoad_whenExecuteConcurrently_thenEveryCallerGetsTheException() throws Exception {
+    // given
+    CountDownLatch release = new CountDownLatch(1);
+    EmployeeNotFoundException failure = new EmployeeNotFoundException("Employee not found for id 1");
+
+    // when
+    List<Future<String>> results = concurrentCalls(release, failure);
+    waitUntilCoalesced(CALLERS - 1);
+    release.countDown();
+
+    // then
+    for (Future<String> result : results) {
+      ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+      assertThat(exception.getCause()).isSameAs(failure);
+    }
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("sequential calls load again")
+  public void givenCompletedFlight_whenExecuteAgain_thenLoadAgain() {
+    // when
+    singleFlight.execute(1L, () -> "John" + loads.incrementAndGet());
+    String second = singleFlight.execute(1L, () -> "John" + loads.incrementAndGet());
+
+    // then
+    assertThat(second).isEqualTo("John2");
+    assertThat(singleFlight.coalesced()).isZero();
+  }
+}
@@ -0,0 +1,66 @@
+package com.example.springtesttutorial.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+
+public class ConnectionWaitLimitingDataSourceTest {
+
+  @Test
+  @DisplayName("callers over the cap are refused while the others wait, once they are served the cap is free again")
+  public void givenWaitersAtTheCap_whenGetConnection_thenRefuseAtOnce() throws Exception {
+    // given
+    DataSource pool = Mockito.mock(DataSource.class);
+    Connection connection = Mockito.mock(Connection.class);
+    CountDownLatch poolExhausted = new CountDownLatch(1);
+    BDDMockito.given(pool.getConnection()).willAnswer(invocation -> {
+      poolExhausted.await();
+      return connection;
+    });
+    ConnectionWaitLimitingDataSource dataSource = new ConnectionWaitLimitingDataSource(pool, 2);
+    ExecutorService callers = Executors.newFixedThreadPool(2);
+
+    try {
+      Future<Connection> first = callers.submit(() -> dataSource.getConnection());
+      Future<Connection> second = callers.submit(() -> dataSource.getConnection());
+      while (dataSource.waiting() < 2) {
+        Thread.sleep(1);
+      }
+
+      // when, then
+      assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+      poolExhausted.countDown();
+      assertThat(first.get(1, TimeUnit.SECONDS)).isSameAs(connection);
+      assertThat(second.get(1, TimeUnit.SECONDS)).isSameAs(connection);
+      assertThat(dataSource.waiting()).isZero();
+      assertThat(dataSource.getConnection()).isSameAs(connection);
+    } finally {
+      callers.shutdownNow();
+    }
+  }
+
+  @Test
+  @DisplayName("the pool is only guarded in the virtual thread mode")
+  public void givenExecutionMode_whenGuard_thenWrapOnlyForVirtualThreads() {
+    DataSource pool = Mockito.mock(DataSource.class);
+
+    assertThat(DataSourceConfig.guard(pool, new EmployeeExecutionProperties(false, 200))).isSameAs(pool);
+    assertThat(DataSourceConfig.guard(pool, new EmployeeExecutionProperties(true, 200)))
+        .isInstanceOf(ConnectionWaitLimitingDataSource.class);
+  }
+}
@@ -0,0 +1,38 @@
+package com.example.springtesttutorial.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+public class VirtualThreadConfigTest {
+
+  private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+      .withUserConfiguration(VirtualThreadConfig.class);
+
+  @Test
+  @DisplayName("switching virtual threads on before java 21 fails the startup with the property named")
+  public void givenJavaBefore21_whenVirtualThreadsOn_thenStartupFails() {
+    assumeFalse(VirtualThreads.isSupported());
+
+    // given / when
+    contextRunner.withPropertyValues("employee.execution.virtual-threads=true").run(context -> {
+      // then
+      assertThat(context).hasFailed();
+      assertThat(context.getStartupFailure()).rootCause()
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessageContaining("employee.execution.virtual-threads=true needs java 21 or later");
+    });
+  }
+
+  @Test
+  @DisplayName("with virtual threads off the configuration stays out")
+  public void givenVirtualThreadsOff_whenStart_thenNoCustomizer() {
+    contextRunner.run(context -> {
+      assertThat(context).hasNotFailed();
+      assertThat(context).doesNotHaveBean(VirtualThreadConfig.class);
+    });
+  }
+}
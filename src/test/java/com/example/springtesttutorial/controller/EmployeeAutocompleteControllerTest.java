@@ -0,0 +1,48 @@
+package com.example.springtesttutorial.controller;
+
+import java.util.List;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.example.springtesttutorial.config.EmployeeAutocompleteConfig;
+import com.example.springtesttutorial.model.EmployeeSuggestion;
+import com.example.springtesttutorial.search.EmployeePrefixIndex;
+
+@WebMvcTest(EmployeeAutocompleteController.class)
+@Import(EmployeeAutocompleteConfig.class)
+public class EmployeeAutocompleteControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private EmployeePrefixIndex employeePrefixIndex;
+
+  // JUnit test for autocomplete
+  @Test
+  public void givenPrefix_whenAutocomplete_thenReturnSuggestionsWithBoundedLimit() throws Exception {
+    // given
+    BDDMockito.given(employeePrefixIndex.search("jo", 50))
+        .willReturn(List.of(new EmployeeSuggestion(1L, "John", "Doe", "John@mail.com")));
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee/autocomplete")
+        .param("q", "jo")
+        .param("limit", "1000"));
+
+    // then
+    response.andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(1)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].firstName").value("John"));
+  }
+}
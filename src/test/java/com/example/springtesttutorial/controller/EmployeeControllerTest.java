@@ -1,6 +1,7 @@
 package com.example.springtesttutorial.controller;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.swing.text.html.Option;
@@ -14,6 +15,8 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
@@ -23,7 +26,17 @@ import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import com.example.springtesttutorial.exception.EmployeeNotFoundException;
+import com.example.springtesttutorial.exception.EmployeeVersionMismatchException;
+import com.example.springtesttutorial.exception.InvalidCursorException;
+import com.example.springtesttutorial.exception.InvalidFieldsException;
+import com.example.springtesttutorial.exception.InvalidSearchException;
 import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeeDeleteReport;
+import com.example.springtesttutorial.model.EmployeeDeleteRequest;
+import com.example.springtesttutorial.model.EmployeeFieldsPage;
+import com.example.springtesttutorial.model.EmployeeLookupResult;
+import com.example.springtesttutorial.model.EmployeePage;
+import com.example.springtesttutorial.model.EmployeeSearch;
 import com.example.springtesttutorial.service.EmployeeService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -59,6 +72,27 @@ public class EmployeeControllerTest {
         .andExpect(MockMvcResultMatchers.jsonPath("$.email").value(employee.getEmail()));
   }
 
+  // JUnit test for batch create employees
+  @Test
+  public void givenEmployees_whenCreateEmployeesBatch_thenReturnNewEmployees() throws Exception {
+    // given
+    Employee employee1 = Employee.builder().firstName("John").lastName("Doe").email("John@mail.com").build();
+    Employee employee2 = Employee.builder().firstName("Jane").lastName("Doe").email("Jane@mail.com").build();
+    BDDMockito.given(employeeService.saveEmployees(ArgumentMatchers.anyList()))
+        .willAnswer((invocation) -> invocation.getArgument(0));
+
+    // when
+    ResultActions result = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/employee/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(List.of(employee1, employee2))));
+
+    // then
+    result.andExpect(MockMvcResultMatchers.status().isCreated())
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(2)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].email").value(employee1.getEmail()))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[1].email").value(employee2.getEmail()));
+  }
+
   // JUnit test for get all employees
   @Test
   public void givenEmployees_whenGetEmployees_thenReturnEmployees() throws Exception {
@@ -67,7 +101,7 @@ public class EmployeeControllerTest {
     Employee employee2 = Employee.builder().firstName("Jane").lastName("Doe").email("Jane@mail.com").build();
 
     List<Employee> employees = List.of(employee1, employee2);
-    BDDMockito.given(employeeService.getAllEmployees()).willReturn(employees);
+    BDDMockito.given(employeeService.searchEmployees(new EmployeeSearch(), null, null)).willReturn(new EmployeePage(employees, null));
 
     // when
     ResultActions result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee"));
@@ -75,16 +109,148 @@ public class EmployeeControllerTest {
     // then
     result.andExpect(MockMvcResultMatchers.status().isOk())
         .andDo(MockMvcResultHandlers.print())
-        .andExpect(MockMvcResultMatchers.jsonPath("$").isArray())
-        .andExpect(MockMvcResultMatchers.jsonPath("$").isNotEmpty())
-        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(2)))
-        .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(2)))
-        .andExpect(MockMvcResultMatchers.jsonPath("$[0].firstName").value(employee1.getFirstName()))
-        .andExpect(MockMvcResultMatchers.jsonPath("$[0].lastName").value(employee1.getLastName()))
-        .andExpect(MockMvcResultMatchers.jsonPath("$[0].email").value(employee1.getEmail()))
-        .andExpect(MockMvcResultMatchers.jsonPath("$[1].firstName").value(employee2.getFirstName()))
-        .andExpect(MockMvcResultMatchers.jsonPath("$[1].lastName").value(employee2.getLastName()))
-        .andExpect(MockMvcResultMatchers.jsonPath("$[1].email").value(employee2.getEmail()));
+        .andExpect(MockMvcResultMatchers.jsonPath("$.content").isArray())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.content").isNotEmpty())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.content", Matchers.hasSize(2)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.content.size()", CoreMatchers.is(2)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].firstName").value(employee1.getFirstName()))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].lastName").value(employee1.getLastName()))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].email").value(employee1.getEmail()))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.content[1].firstName").value(employee2.getFirstName()))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.content[1].lastName").value(employee2.getLastName()))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.content[1].email").value(employee2.getEmail()))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.next").doesNotExist());
+  }
+
+  // JUnit test for get employees with cursor
+  @Test
+  public void givenCursor_whenGetEmployees_thenReturnNextPage() throws Exception {
+    // given
+    Employee employee = Employee.builder().id(3L).firstName("John").lastName("Doe").email("John@mail.com").build();
+
+    BDDMockito.given(employeeService.searchEmployees(new EmployeeSearch(), "abc", 1)).willReturn(new EmployeePage(List.of(employee), "def"));
+
+    // when
+    ResultActions result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee")
+        .param("cursor", "abc")
+        .param("size", "1"));
+
+    // then
+    result.andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.content", Matchers.hasSize(1)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].id").value(3))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.next").value("def"));
+  }
+
+  // JUnit test for searching employees
+  @Test
+  public void givenFilterAndSort_whenGetEmployees_thenSearch() throws Exception {
+    // given
+    Employee employee = Employee.builder().id(3L).firstName("John").lastName("Doe").email("John@mail.com").build();
+    EmployeeSearch search = EmployeeSearch.builder().lastName("Doe").emailDomain("mail.com").sort("id").build();
+
+    BDDMockito.given(employeeService.searchEmployees(search, null, 10)).willReturn(new EmployeePage(List.of(employee), null));
+
+    // when
+    ResultActions result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee")
+        .param("lastName", "Doe")
+        .param("emailDomain", "mail.com")
+        .param("sort", "id")
+        .param("size", "10"));
+
+    // then
+    result.andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].lastName").value("Doe"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].emailDomain").doesNotExist());
+  }
+
+  // JUnit test for searching employees with an unsupported sort
+  @Test
+  public void givenUnknownSort_whenGetEmployees_thenReturnBadRequest() throws Exception {
+    // given
+    BDDMockito.given(employeeService.searchEmployees(EmployeeSearch.builder().sort("salary").build(), null, null))
+        .willThrow(new InvalidSearchException("Unknown sort salary"));
+
+    // when
+    ResultActions result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee").param("sort", "salary"));
+
+    // then
+    result.andExpect(MockMvcResultMatchers.status().isBadRequest());
+  }
+
+  // JUnit test for get employees with a sparse fieldset
+  @Test
+  public void givenFields_whenGetEmployees_thenReturnOnlyThoseFields() throws Exception {
+    // given
+    BDDMockito.given(employeeService.getEmployeePage(null, null, List.of("id", "email")))
+        .willReturn(new EmployeeFieldsPage(List.of(Map.of("id", 1L, "email", "John@mail.com")), null));
+
+    // when
+    ResultActions result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee").param("fields", "id,email"));
+
+    // then
+    result.andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].email").value("John@mail.com"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].firstName").doesNotExist());
+  }
+
+  // JUnit test for a sparse fieldset combined with a filter or sort, which the projection cannot apply
+  @Test
+  public void givenFieldsWithFilter_whenGetEmployees_thenReturnBadRequest() throws Exception {
+    // when
+    ResultActions filtered = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee")
+        .param("fields", "id,email").param("lastName", "Doe"));
+    ResultActions sorted = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee")
+        .param("fields", "id,email").param("sort", "lastName"));
+
+    // then
+    filtered.andExpect(MockMvcResultMatchers.status().isBadRequest())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.exception").value("InvalidSearchException"));
+    sorted.andExpect(MockMvcResultMatchers.status().isBadRequest());
+    BDDMockito.then(employeeService).shouldHaveNoInteractions();
+  }
+
+  // JUnit test for get employee by id with an unknown field
+  @Test
+  public void givenUnknownField_whenGetEmployeeById_thenReturnBadRequest() throws Exception {
+    // given
+    BDDMockito.given(employeeService.getEmployeeById(1L, List.of("salary")))
+        .willThrow(new InvalidFieldsException("Unknown field salary"));
+
+    // when
+    ResultActions result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee/{id}", 1L).param("fields", "salary"));
+
+    // then
+    result.andExpect(MockMvcResultMatchers.status().isBadRequest());
+  }
+
+  // JUnit test for get employee by id without a free database connection
+  @Test
+  public void givenNoConnection_whenGetEmployeeById_thenReturnServiceUnavailable() throws Exception {
+    // given
+    BDDMockito.given(employeeService.getEmployeeById(1L))
+        .willThrow(new TransientDataAccessResourceException("More than 200 callers are waiting for a connection"));
+
+    // when
+    ResultActions result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee/{id}", 1L));
+
+    // then
+    result.andExpect(MockMvcResultMatchers.status().isServiceUnavailable());
+  }
+
+  // JUnit test for get employees with a bad cursor
+  @Test
+  public void givenBadCursor_whenGetEmployees_thenReturnBadRequest() throws Exception {
+    // given
+    BDDMockito.given(employeeService.searchEmployees(new EmployeeSearch(), "bad", null))
+        .willThrow(new InvalidCursorException("Invalid cursor bad"));
+
+    // when
+    ResultActions result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee").param("cursor", "bad"));
+
+    // then
+    result.andExpect(MockMvcResultMatchers.status().isBadRequest())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("Invalid cursor bad"));
   }
 
   // JUnit test for get employee by id
@@ -106,6 +272,62 @@ public class EmployeeControllerTest {
         .andExpect(MockMvcResultMatchers.jsonPath("$.email").value(employee.getEmail()));
   }
 
+  // JUnit test for get employees by ids
+  @Test
+  public void givenIds_whenGetEmployeesByIds_thenReturnFoundAndMissing() throws Exception {
+    // given
+    Employee employee = Employee.builder().id(2L).firstName("John").lastName("Doe").email("John@mail.com").build();
+
+    BDDMockito.given(employeeService.getEmployeesByIds(List.of(2L, 9L)))
+        .willReturn(new EmployeeLookupResult(List.of(employee), List.of(9L)));
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee").param("ids", "2,9"));
+
+    // then
+    response.andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.content", Matchers.hasSize(1)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].id").value(2))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.missing[0]").value(9));
+  }
+
+  // JUnit test for looking up employees by ids in the body
+  @Test
+  public void givenIdsInBody_whenLookupEmployees_thenReturnFoundAndMissing() throws Exception {
+    // given
+    Employee employee = Employee.builder().id(2L).firstName("John").lastName("Doe").email("John@mail.com").build();
+
+    BDDMockito.given(employeeService.getEmployeesByIds(List.of(2L, 9L)))
+        .willReturn(new EmployeeLookupResult(List.of(employee), List.of(9L)));
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/employee/lookup")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[2, 9]"));
+
+    // then
+    response.andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].email").value(employee.getEmail()))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.missing[0]").value(9));
+  }
+
+  // JUnit test for get employee by email
+  @Test
+  public void givenEmail_whenGetEmployeeByEmail_thenReturnEmployee() throws Exception {
+    // given
+    Employee employee = Employee.builder().id(1L).firstName("John").lastName("Doe").email("John@mail.com").build();
+
+    BDDMockito.given(employeeService.getEmployeeByEmail("John@mail.com")).willReturn(employee);
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee/email/{email}", employee.getEmail()));
+
+    // then
+    response.andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(1))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.email").value(employee.getEmail()));
+  }
+
   // JUnit test for get employee by id exception
   @Test
   public void givenBadID_whenGetEmployeeById_thenThrowException() throws Exception {
@@ -137,11 +359,12 @@ public class EmployeeControllerTest {
     Employee updatedEmployee = Employee.builder().id(id).firstName("Jane").lastName("Doe").email("John@mail.com")
         .build();
 
-    BDDMockito.given(employeeService.updateEmployee(ArgumentMatchers.anyLong(), ArgumentMatchers.any(Employee.class)))
+    BDDMockito.given(employeeService.updateEmployee(ArgumentMatchers.anyLong(), ArgumentMatchers.any(), ArgumentMatchers.any(Employee.class)))
         .willReturn(updatedEmployee);
 
     // when
     ResultActions response = mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/employee/{id}", employee.getId())
+        .header(HttpHeaders.IF_MATCH, "\"0\"")
         .contentType(MediaType.APPLICATION_JSON)
         .content(objectMapper.writeValueAsString(update)));
 
@@ -158,11 +381,12 @@ public class EmployeeControllerTest {
     // given
     Employee update = Employee.builder().id(1L).firstName("Jane").build();
 
-    BDDMockito.given(employeeService.updateEmployee(ArgumentMatchers.anyLong(), ArgumentMatchers.any(Employee.class)))
+    BDDMockito.given(employeeService.updateEmployee(ArgumentMatchers.anyLong(), ArgumentMatchers.any(), ArgumentMatchers.any(Employee.class)))
         .willThrow(new EmployeeNotFoundException("Employee not found for id 1"));
 
     // when
     ResultActions response = mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/employee/{id}", update.getId())
+        .header(HttpHeaders.IF_MATCH, "*")
         .contentType(MediaType.APPLICATION_JSON)
         .content(objectMapper.writeValueAsString(update)));
 
@@ -177,16 +401,152 @@ public class EmployeeControllerTest {
     // given
     Long id = 1L;
     Employee employee = Employee.builder().id(id).firstName("John").lastName("Doe").email("John@mail.com").build();
-    BDDMockito.doNothing().when(employeeService).deleteEmployee(ArgumentMatchers.anyLong());
+    BDDMockito.doNothing().when(employeeService).deleteEmployee(ArgumentMatchers.anyLong(), ArgumentMatchers.any());
 
     // when
-    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/employee/{id}", employee.getId()));
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/employee/{id}", employee.getId())
+        .header(HttpHeaders.IF_MATCH, "\"0\""));
 
     // then
     response.andExpect(MockMvcResultMatchers.status().isOk())
         .andDo(MockMvcResultHandlers.print())
         .andExpect(MockMvcResultMatchers.content().string("Employee deleted successfully"));
 
-    BDDMockito.verify(employeeService, Mockito.times(1)).deleteEmployee(id);
+    BDDMockito.verify(employeeService, Mockito.times(1)).deleteEmployee(id, 0L);
+  }
+
+  // JUnit test for delete employee not found
+  @Test
+  public void givenNonExistingId_whenDeleteEmployee_thenReturnNotFound() throws Exception {
+    // given
+    BDDMockito.willThrow(new EmployeeNotFoundException("Employee not found for id 99"))
+        .given(employeeService).deleteEmployee(99L, null);
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/employee/{id}", 99L)
+        .header(HttpHeaders.IF_MATCH, "*"));
+
+    // then
+    response.andExpect(MockMvcResultMatchers.status().isNotFound());
+  }
+
+  // JUnit test for bulk delete
+  @Test
+  public void givenIds_whenDeleteEmployees_thenReturnDeletedCount() throws Exception {
+    // given
+    EmployeeDeleteRequest request = EmployeeDeleteRequest.builder().ids(List.of(1L, 2L)).build();
+    BDDMockito.given(employeeService.deleteEmployees(request)).willReturn(new EmployeeDeleteReport(2));
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/employee")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(request)));
+
+    // then
+    response.andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.deleted").value(2));
+  }
+
+  // JUnit test for update employee without If-Match
+  @Test
+  public void givenNoIfMatch_whenUpdateEmployee_thenReturnPreconditionRequired() throws Exception {
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/employee/{id}", 1L)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"firstName\": \"Jane\"}"));
+
+    // then
+    response.andExpect(MockMvcResultMatchers.status().isPreconditionRequired());
+    BDDMockito.verify(employeeService, Mockito.never())
+        .updateEmployee(ArgumentMatchers.anyLong(), ArgumentMatchers.any(), ArgumentMatchers.any(Employee.class));
+  }
+
+  // JUnit test for update employee with a stale ETag
+  @Test
+  public void givenStaleIfMatch_whenUpdateEmployee_thenReturnPreconditionFailed() throws Exception {
+    // given
+    BDDMockito.given(employeeService.updateEmployee(ArgumentMatchers.eq(1L), ArgumentMatchers.eq(3L), ArgumentMatchers.any(Employee.class)))
+        .willThrow(new EmployeeVersionMismatchException("Employee 1 no longer has version 3"));
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/employee/{id}", 1L)
+        .header(HttpHeaders.IF_MATCH, "\"3\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"firstName\": \"Jane\"}"));
+
+    // then
+    response.andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+  }
+
+  // JUnit test for the ETag of a read employee
+  @Test
+  public void givenEmployee_whenGetEmployeeById_thenReturnVersionAsETag() throws Exception {
+    // given
+    Employee employee = Employee.builder().id(1L).firstName("John").lastName("Doe").email("John@mail.com").version(4L).build();
+    BDDMockito.given(employeeService.getEmployeeById(1L)).willReturn(employee);
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee/{id}", 1L));
+
+    // then
+    response.andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"4\""));
+  }
+
+  // JUnit test for conditional get of an unchanged employee
+  @Test
+  public void givenMatchingIfNoneMatch_whenGetEmployeeById_thenReturnNotModified() throws Exception {
+    // given
+    Employee employee = Employee.builder().id(1L).firstName("John").lastName("Doe").email("John@mail.com").version(4L).build();
+    BDDMockito.given(employeeService.getEmployeeById(1L)).willReturn(employee);
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee/{id}", 1L)
+        .header(HttpHeaders.IF_NONE_MATCH, "\"4\""));
+
+    // then
+    response.andExpect(MockMvcResultMatchers.status().isNotModified())
+        .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"4\""))
+        .andExpect(MockMvcResultMatchers.content().string(""));
+  }
+
+  // JUnit test for conditional get of a changed employee
+  @Test
+  public void givenStaleIfNoneMatch_whenGetEmployeeById_thenReturnEmployee() throws Exception {
+    // given
+    Employee employee = Employee.builder().id(1L).firstName("John").lastName("Doe").email("John@mail.com").version(5L).build();
+    BDDMockito.given(employeeService.getEmployeeById(1L)).willReturn(employee);
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee/{id}", 1L)
+        .header(HttpHeaders.IF_NONE_MATCH, "\"4\""));
+
+    // then
+    response.andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.version").value(5));
+  }
+
+  // JUnit test for conditional get of an unchanged page
+  @Test
+  public void givenUnchangedPage_whenGetAllEmployeesWithIfNoneMatch_thenReturnNotModified() throws Exception {
+    // given
+    Employee employee = Employee.builder().id(1L).firstName("John").lastName("Doe").email("John@mail.com").build();
+    BDDMockito.given(employeeService.searchEmployees(new EmployeeSearch(), null, null))
+        .willReturn(new EmployeePage(List.of(employee), null));
+
+    String eTag = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee"))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    // when
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee")
+        .header(HttpHeaders.IF_NONE_MATCH, eTag));
+
+    // then
+    response.andExpect(MockMvcResultMatchers.status().isNotModified());
+
+    // a write to a row on the page changes the tag
+    employee.setVersion(1L);
+    mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee").header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(MockMvcResultMatchers.status().isOk());
   }
 }
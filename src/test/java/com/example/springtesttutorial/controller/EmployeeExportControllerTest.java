@@ -0,0 +1,111 @@
+package com.example.springtesttutorial.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.WebUtils;
+
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.service.EmployeeService;
+
+@WebMvcTest(EmployeeExportController.class)
+public class EmployeeExportControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private EmployeeService employeeService;
+
+  private void givenEmployees(Employee... employees) {
+    BDDMockito.willAnswer(invocation -> {
+      Consumer<Employee> action = invocation.getArgument(0);
+      for (Employee employee : employees) {
+        action.accept(employee);
+      }
+      return null;
+    }).given(employeeService).forEachEmployee(ArgumentMatchers.any());
+  }
+
+  // JUnit test for ndjson export
+  @Test
+  public void givenEmployees_whenExport_thenStreamOneJsonObjectPerLine() throws Exception {
+    // given
+    givenEmployees(
+        Employee.builder().id(1L).firstName("John").lastName("Doe").email("John@mail.com").build(),
+        Employee.builder().id(2L).firstName("Jane").lastName("Doe").email("Jane@mail.com").build());
+
+    // when
+    ResultActions result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee/export"));
+
+    // then
+    result.andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.content().contentType(EmployeeExportController.NDJSON))
+        .andExpect(MockMvcResultMatchers.content().string(
+            "{\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\",\"email\":\"John@mail.com\",\"version\":0}\n"
+                + "{\"id\":2,\"firstName\":\"Jane\",\"lastName\":\"Doe\",\"email\":\"Jane@mail.com\",\"version\":0}\n"));
+  }
+
+  // JUnit test for the ndjson export sending its first row before the rest is read
+  @Test
+  public void givenEmployees_whenExport_thenFlushFirstRowRightAway() throws Exception {
+    // given: what the client has received when the service hands out the second employee
+    Employee john = Employee.builder().id(1L).firstName("John").lastName("Doe").email("John@mail.com").build();
+    Employee jane = Employee.builder().id(2L).firstName("Jane").lastName("Doe").email("Jane@mail.com").build();
+    List<String> sentBeforeSecondRow = new ArrayList<>();
+    BDDMockito.willAnswer(invocation -> {
+      Consumer<Employee> action = invocation.getArgument(0);
+      action.accept(john);
+      MockHttpServletResponse response = WebUtils.getNativeResponse(
+          ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getResponse(),
+          MockHttpServletResponse.class);
+      sentBeforeSecondRow.add(response.isCommitted() + " " + response.getContentAsString());
+      action.accept(jane);
+      return null;
+    }).given(employeeService).forEachEmployee(ArgumentMatchers.any());
+
+    // when
+    ResultActions result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee/export"));
+
+    // then
+    result.andExpect(MockMvcResultMatchers.status().isOk());
+    assertThat(sentBeforeSecondRow).containsExactly(
+        "true {\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\",\"email\":\"John@mail.com\",\"version\":0}\n");
+  }
+
+  // JUnit test for csv export
+  @Test
+  public void givenEmployees_whenExportCsv_thenStreamCsvRows() throws Exception {
+    // given
+    givenEmployees(
+        Employee.builder().id(1L).firstName("John").lastName("Doe, Jr.").email("John@mail.com").build(),
+        Employee.builder().id(2L).firstName("Jane \"JD\"").lastName("Doe").email("Jane@mail.com").build());
+
+    // when
+    ResultActions result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/employee/export").param("format", "csv"));
+
+    // then
+    result.andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(EmployeeExportController.CSV))
+        .andExpect(MockMvcResultMatchers.content().string(
+            "id,firstName,lastName,email\n"
+                + "1,John,\"Doe, Jr.\",John@mail.com\n"
+                + "2,\"Jane \"\"JD\"\"\",Doe,Jane@mail.com\n"));
+  }
+}
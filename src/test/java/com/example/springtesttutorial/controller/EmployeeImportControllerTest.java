@@ -0,0 +1,53 @@
+package com.example.springtesttutorial.controller;
+
+import java.io.InputStream;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.example.springtesttutorial.model.EmployeeImportError;
+import com.example.springtesttutorial.model.EmployeeImportReport;
+import com.example.springtesttutorial.service.EmployeeImportService;
+
+@WebMvcTest(EmployeeImportController.class)
+public class EmployeeImportControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private EmployeeImportService employeeImportService;
+
+  // JUnit test for csv import
+  @Test
+  public void givenCsv_whenImportEmployees_thenReturnReport() throws Exception {
+    // given
+    EmployeeImportReport report = new EmployeeImportReport();
+    report.setImported(1);
+    report.setRejected(1);
+    report.setErrors(List.of(new EmployeeImportError(3, "John@mail.com", "Employee with email John@mail.com already exists")));
+
+    BDDMockito.given(employeeImportService.importEmployees(ArgumentMatchers.any(InputStream.class))).willReturn(report);
+
+    // when
+    ResultActions result = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/employee/import")
+        .contentType("text/csv")
+        .content("firstName,lastName,email\nJohn,Doe,John@mail.com\nJohn,Doe,John@mail.com\n"));
+
+    // then
+    result.andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.imported").value(1))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.rejected").value(1))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.errors[0].line").value(3))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.errors[0].email").value("John@mail.com"));
+  }
+}
@@ -0,0 +1,213 @@
+package com.example.springtesttutorial.controller;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.springtesttutorial.exception.EmployeeAlreadyExistsException;
+import com.example.springtesttutorial.exception.EmployeeNotFoundException;
+import com.example.springtesttutorial.exception.EmployeeVersionMismatchException;
+import com.example.springtesttutorial.exception.InvalidSearchException;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeePage;
+import com.example.springtesttutorial.model.EmployeeSearch;
+import com.example.springtesttutorial.service.ReactiveEmployeeService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(ReactiveEmployeeController.class)
+@ActiveProfiles(ReactiveEmployeeService.PROFILE)
+public class ReactiveEmployeeControllerTest {
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @MockBean
+  private ReactiveEmployeeService employeeService;
+
+  // JUnit test for create employee
+  @Test
+  public void givenEmployee_whenCreateEmployee_thenReturnNewEmployeeWithETag() {
+    // given
+    Employee employee = Employee.builder().firstName("John").lastName("Doe").email("John@mail.com").build();
+    BDDMockito.given(employeeService.saveEmployee(ArgumentMatchers.any(Employee.class)))
+        .willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+    // when / then
+    webTestClient.post().uri("/api/v1/employee").contentType(MediaType.APPLICATION_JSON).bodyValue(employee)
+        .exchange()
+        .expectStatus().isCreated()
+        .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+        .expectBody()
+        .jsonPath("$.firstName").isEqualTo("John")
+        .jsonPath("$.email").isEqualTo("John@mail.com");
+  }
+
+  // JUnit test for duplicate email, answered by the shared GlobalExceptionHandler
+  @Test
+  public void givenExistingEmail_whenCreateEmployee_thenReturnConflict() {
+    // given
+    BDDMockito.given(employeeService.saveEmployee(ArgumentMatchers.any(Employee.class)))
+        .willReturn(Mono.error(new EmployeeAlreadyExistsException("Employee with email John@mail.com already exists")));
+
+    // when / then
+    webTestClient.post().uri("/api/v1/employee").contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Employee.builder().firstName("John").lastName("Doe").email("John@mail.com").build())
+        .exchange()
+        .expectStatus().isEqualTo(409)
+        .expectBody().jsonPath("$.exception").isEqualTo("EmployeeAlreadyExistsException");
+  }
+
+  // JUnit test for the employee list with filters bound from the query string
+  @Test
+  public void givenFilterAndSort_whenGetEmployees_thenSearch() {
+    // given
+    Employee employee = Employee.builder().id(1L).firstName("John").lastName("Doe").email("John@mail.com").build();
+    EmployeeSearch search = EmployeeSearch.builder().lastName("Doe").sort("lastName").build();
+    BDDMockito.given(employeeService.searchEmployees(search, null, 10))
+        .willReturn(Mono.just(new EmployeePage(List.of(employee), "next")));
+
+    // when / then
+    webTestClient.get().uri("/api/v1/employee?lastName=Doe&sort=lastName&size=10")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.content.length()").isEqualTo(1)
+        .jsonPath("$.next").isEqualTo("next");
+  }
+
+  // JUnit test for an unknown sort
+  @Test
+  public void givenUnknownSort_whenGetEmployees_thenReturnBadRequest() {
+    // given
+    BDDMockito.given(employeeService.searchEmployees(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+        .willReturn(Mono.error(new InvalidSearchException("Unknown sort email")));
+
+    // when / then
+    webTestClient.get().uri("/api/v1/employee?sort=email")
+        .exchange()
+        .expectStatus().isBadRequest();
+  }
+
+  // JUnit test for a sparse fieldset combined with a filter
+  @Test
+  public void givenFieldsWithFilter_whenGetEmployees_thenReturnBadRequest() {
+    // when / then
+    webTestClient.get().uri("/api/v1/employee?fields=id,email&emailDomain=mail.com")
+        .exchange()
+        .expectStatus().isBadRequest()
+        .expectBody().jsonPath("$.exception").isEqualTo("InvalidSearchException");
+
+    BDDMockito.then(employeeService).shouldHaveNoInteractions();
+  }
+
+  // JUnit test for an unknown id
+  @Test
+  public void givenBadID_whenGetEmployeeById_thenReturnNotFound() {
+    // given
+    BDDMockito.given(employeeService.getEmployeeById(1L))
+        .willReturn(Mono.error(new EmployeeNotFoundException("Employee not found for id 1")));
+
+    // when / then
+    webTestClient.get().uri("/api/v1/employee/{id}", 1L)
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+  // JUnit test for conditional get
+  @Test
+  public void givenMatchingIfNoneMatch_whenGetEmployeeById_thenReturnNotModified() {
+    // given
+    Employee employee = Employee.builder().id(1L).firstName("John").lastName("Doe").email("John@mail.com").version(3L).build();
+    BDDMockito.given(employeeService.getEmployeeById(1L)).willReturn(Mono.just(employee));
+
+    // when / then
+    webTestClient.get().uri("/api/v1/employee/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+        .exchange()
+        .expectStatus().isNotModified()
+        .expectBody().isEmpty();
+  }
+
+  // JUnit test for update without If-Match
+  @Test
+  public void givenNoIfMatch_whenUpdateEmployee_thenReturnPreconditionRequired() {
+    // when / then
+    webTestClient.patch().uri("/api/v1/employee/{id}", 1L).contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Employee.builder().firstName("Jane").build())
+        .exchange()
+        .expectStatus().isEqualTo(428);
+
+    BDDMockito.then(employeeService).shouldHaveNoInteractions();
+  }
+
+  // JUnit test for update with a stale If-Match
+  @Test
+  public void givenStaleIfMatch_whenUpdateEmployee_thenReturnPreconditionFailed() {
+    // given
+    BDDMockito.given(employeeService.updateEmployee(ArgumentMatchers.eq(1L), ArgumentMatchers.eq(2L), ArgumentMatchers.any()))
+        .willReturn(Mono.error(new EmployeeVersionMismatchException("Employee 1 no longer has version 2")));
+
+    // when / then
+    webTestClient.patch().uri("/api/v1/employee/{id}", 1L).header(HttpHeaders.IF_MATCH, "\"2\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Employee.builder().firstName("Jane").build())
+        .exchange()
+        .expectStatus().isEqualTo(412);
+  }
+
+  // JUnit test for delete
+  @Test
+  public void givenEmployeeId_whenDeleteEmployee_thenEmployeeIsDeleted() {
+    // given
+    BDDMockito.given(employeeService.deleteEmployee(1L, null)).willReturn(Mono.empty());
+
+    // when / then
+    webTestClient.delete().uri("/api/v1/employee/{id}", 1L).header(HttpHeaders.IF_MATCH, "*")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(String.class).isEqualTo("Employee deleted successfully");
+  }
+
+  // JUnit test for ndjson export
+  @Test
+  public void givenEmployees_whenExport_thenStreamOneJsonObjectPerLine() {
+    // given
+    BDDMockito.given(employeeService.getAllEmployees()).willReturn(Flux.just(
+        Employee.builder().id(1L).firstName("John").lastName("Doe").email("John@mail.com").build(),
+        Employee.builder().id(2L).firstName("Jane").lastName("Doe").email("Jane@mail.com").build()));
+
+    // when / then
+    webTestClient.get().uri("/api/v1/employee/export")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(EmployeeExportController.NDJSON)
+        .expectBody(String.class).isEqualTo(
+            "{\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\",\"email\":\"John@mail.com\",\"version\":0}\n"
+                + "{\"id\":2,\"firstName\":\"Jane\",\"lastName\":\"Doe\",\"email\":\"Jane@mail.com\",\"version\":0}\n");
+  }
+
+  // JUnit test for csv export
+  @Test
+  public void givenEmployees_whenExportCsv_thenStreamCsvRows() {
+    // given
+    BDDMockito.given(employeeService.getAllEmployees()).willReturn(Flux.just(
+        Employee.builder().id(1L).firstName("John").lastName("Doe, Jr.").email("John@mail.com").build()));
+
+    // when / then
+    webTestClient.get().uri("/api/v1/employee/export?format=csv")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(EmployeeExportController.CSV)
+        .expectBody(String.class).isEqualTo("id,firstName,lastName,email\n1,John,\"Doe, Jr.\",John@mail.com\n");
+  }
+}
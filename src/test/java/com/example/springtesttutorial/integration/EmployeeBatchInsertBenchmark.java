@@ -0,0 +1,69 @@
+package com.example.springtesttutorial.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.repository.EmployeeRepository;
+import com.example.springtesttutorial.service.EmployeeService;
+
+// not picked up by the default surefire includes, run it explicitly against the postgres container:
+// ./mvnw test -Dtest=EmployeeBatchInsertBenchmark
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+public class EmployeeBatchInsertBenchmark extends AbstractContainerBaseTest {
+
+  private static final int ROWS = 5_000;
+
+  @Autowired
+  private EmployeeService employeeService;
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+
+  @BeforeEach
+  public void clearDatabase() {
+    employeeRepository.deleteAllInBatch();
+  }
+
+  @Test
+  @DisplayName("batch insert vs one saveEmployee per row")
+  public void compareBatchInsertWithSaveEmployeeLoop() {
+    // warm up both paths so the comparison is not dominated by class loading and JIT
+    employeeService.saveEmployees(employees("warmup-batch", 500));
+    employees("warmup-loop", 500).forEach(employeeService::saveEmployee);
+    employeeRepository.deleteAllInBatch();
+
+    double loopRate = rowsPerSecond(employees("loop", ROWS), list -> list.forEach(employeeService::saveEmployee));
+    double batchRate = rowsPerSecond(employees("batch", ROWS), employeeService::saveEmployees);
+
+    System.out.printf("%nsaveEmployee loop: %,.0f rows/sec%nsaveEmployees batch: %,.0f rows/sec (%.1fx)%n%n",
+        loopRate, batchRate, batchRate / loopRate);
+
+    assertThat(employeeRepository.count()).isEqualTo(2L * ROWS);
+    assertThat(batchRate).isGreaterThan(loopRate);
+  }
+
+  private static double rowsPerSecond(List<Employee> employees, Consumer<List<Employee>> insert) {
+    long start = System.nanoTime();
+    insert.accept(employees);
+    long elapsed = System.nanoTime() - start;
+    return employees.size() / (elapsed / 1_000_000_000.0);
+  }
+
+  private static List<Employee> employees(String prefix, int count) {
+    List<Employee> employees = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      employees.add(Employee.builder().firstName("First" + i).lastName("Last" + i).email(prefix + i + "@mail.com").build());
+    }
+    return employees;
+  }
+}
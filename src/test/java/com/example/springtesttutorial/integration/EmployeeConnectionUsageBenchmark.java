@@ -0,0 +1,109 @@
+package com.example.springtesttutorial.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import com.example.springtesttutorial.cache.EmployeeCache;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.repository.EmployeeRepository;
+import com.example.springtesttutorial.service.EmployeeService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// not picked up by the default surefire includes, run it explicitly against the postgres container:
+// ./mvnw test -Dtest='EmployeeConnectionUsage*Benchmark'
+// which measures with open-in-view off (this class) and on (EmployeeConnectionUsageOpenInViewBenchmark)
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureMockMvc
+public class EmployeeConnectionUsageBenchmark extends AbstractContainerBaseTest {
+
+  private static final int ROWS = 1_000;
+
+  private static final int REQUESTS = 2_000;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private EmployeeService employeeService;
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+
+  @Autowired
+  private EmployeeCache employeeCache;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${spring.jpa.open-in-view}")
+  private boolean openInView;
+
+  private List<Long> ids;
+
+  @BeforeEach
+  public void setUp() {
+    employeeRepository.deleteAllInBatch();
+    employeeCache.evictAll();
+    List<Employee> employees = new ArrayList<>();
+    for (int i = 0; i < ROWS; i++) {
+      employees.add(Employee.builder().firstName("First" + i).lastName("Last" + i).email("usage" + i + "@mail.com").build());
+    }
+    ids = employeeService.saveEmployees(employees).stream().map(Employee::getId).toList();
+  }
+
+  @Test
+  @DisplayName("connection hold time per request for list pages, cache misses and cache hits")
+  public void measureConnectionHoldTime() throws Exception {
+    measure("list page", i -> get("/api/v1/employee").param("size", "100"));
+    employeeCache.evictAll();
+    measure("by id, miss", i -> get("/api/v1/employee/{id}", ids.get(i % ROWS)));
+    long hitCheckouts = measure("by id, hit", i -> get("/api/v1/employee/{id}", ids.get(i % ROWS)));
+
+    // cache hits run in a read-only transaction that never issues a statement
+    if (!openInView) {
+      assertThat(hitCheckouts).isZero();
+    }
+  }
+
+  private interface Request {
+
+    RequestBuilder build(int i);
+  }
+
+  // returns the number of connection checkouts
+  private long measure(String name, Request request) throws Exception {
+    Timer usage = meterRegistry.get("hikaricp.connections.usage").timer();
+    long countBefore = usage.count();
+    double totalBefore = usage.totalTime(TimeUnit.MICROSECONDS);
+
+    long start = System.nanoTime();
+    for (int i = 0; i < REQUESTS; i++) {
+      mockMvc.perform(request.build(i)).andExpect(status().isOk());
+    }
+    long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+
+    long checkouts = usage.count() - countBefore;
+    double heldMicros = usage.totalTime(TimeUnit.MICROSECONDS) - totalBefore;
+    System.out.printf("%n%s, open-in-view %s: %d requests, %d connection checkouts, %.0f us held per request (%.0f%% of request time)%n%n",
+        name, openInView ? "on" : "off", REQUESTS, checkouts, heldMicros / REQUESTS, 100.0 * heldMicros / elapsedMicros);
+
+    return checkouts;
+  }
+}
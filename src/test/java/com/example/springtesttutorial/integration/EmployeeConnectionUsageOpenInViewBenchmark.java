@@ -0,0 +1,8 @@
+package com.example.springtesttutorial.integration;
+
+import org.springframework.test.context.TestPropertySource;
+
+// the same measurement with the session held open for the whole request, the figures to compare against
+@TestPropertySource(properties = "spring.jpa.open-in-view=true")
+public class EmployeeConnectionUsageOpenInViewBenchmark extends EmployeeConnectionUsageBenchmark {
+}
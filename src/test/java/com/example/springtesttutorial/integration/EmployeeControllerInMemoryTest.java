@@ -0,0 +1,70 @@
+package com.example.springtesttutorial.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.springtesttutorial.service.InMemoryEmployeeService;
+import com.jayway.jsonpath.JsonPath;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// the whole http stack on the in-memory engine, runs without a database
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles(InMemoryEmployeeService.PROFILE)
+public class EmployeeControllerInMemoryTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  @DisplayName("create, read, update and delete an employee without a database")
+  public void givenInMemoryProfile_whenCrud_thenSameContract() throws Exception {
+    // create
+    String created = mockMvc.perform(post("/api/v1/employee")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"firstName\":\"John\",\"lastName\":\"Doe\",\"email\":\"john@mail.com\"}"))
+        .andExpect(status().isCreated())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+        .andReturn().getResponse().getContentAsString();
+    long id = ((Number) JsonPath.read(created, "$.id")).longValue();
+
+    mockMvc.perform(post("/api/v1/employee")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"firstName\":\"Other\",\"lastName\":\"Doe\",\"email\":\"JOHN@mail.com\"}"))
+        .andExpect(status().isConflict());
+
+    // read
+    mockMvc.perform(get("/api/v1/employee/{id}", id))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.email").value("john@mail.com"));
+    mockMvc.perform(get("/api/v1/employee").param("lastName", "Doe"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content.length()").value(1));
+
+    // update
+    mockMvc.perform(patch("/api/v1/employee/{id}", id)
+        .header(HttpHeaders.IF_MATCH, "\"0\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"firstName\":\"Jonathan\"}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.firstName").value("Jonathan"))
+        .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    mockMvc.perform(delete("/api/v1/employee/{id}", id).header(HttpHeaders.IF_MATCH, "\"0\""))
+        .andExpect(status().isPreconditionFailed());
+
+    // delete
+    mockMvc.perform(delete("/api/v1/employee/{id}", id).header(HttpHeaders.IF_MATCH, "\"1\""))
+        .andExpect(status().is2xxSuccessful());
+    mockMvc.perform(get("/api/v1/employee/{id}", id))
+        .andExpect(status().isNotFound());
+  }
+}
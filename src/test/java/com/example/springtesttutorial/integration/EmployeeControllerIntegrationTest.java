@@ -7,13 +7,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
+import com.example.springtesttutorial.cache.EmployeeCache;
 import com.example.springtesttutorial.model.Employee;
 import com.example.springtesttutorial.repository.EmployeeRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -35,9 +38,13 @@ public class EmployeeControllerIntegrationTest {
   @Autowired
   private ObjectMapper objectMapper;
 
+  @Autowired
+  private EmployeeCache employeeCache;
+
   @BeforeEach
   public void clearDatabase() {
     employeeRepository.deleteAll();
+    employeeCache.evictAll();
   }
 
   @Test
@@ -66,6 +73,27 @@ public class EmployeeControllerIntegrationTest {
     }
   }
 
+  @Test
+  @DisplayName("save employee exception")
+  public void givenExistingEmailInOtherCase_whenCreateEmployee_thenReturnConflict() throws Exception {
+    // given
+    employeeRepository.save(Employee.builder().firstName("John").lastName("Doe").email("John@mail.com").build());
+
+    Employee employee = Employee.builder().firstName("Johnny").lastName("Doe").email("JOHN@mail.com").build();
+
+    // when
+    ResultActions result = mockMvc.perform(post("/api/v1/employee")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(employee)));
+
+    // then
+    result.andExpect(status().isConflict())
+        .andExpect(jsonPath("$.message").value("Employee with email JOHN@mail.com already exists"))
+        .andExpect(jsonPath("$.status").value("409 CONFLICT"));
+
+    assertThat(employeeRepository.count()).isEqualTo(1);
+  }
+
   @Test
   @DisplayName("get all employees")
   public void givenEmployees_whenGetEmployees_thenReturnJsonArray() throws Exception {
@@ -82,13 +110,43 @@ public class EmployeeControllerIntegrationTest {
 
     // then
     result.andExpect(status().isOk())
-        .andExpect(jsonPath("$", Matchers.hasSize(2)))
-        .andExpect(jsonPath("$[0].firstName").value(employee1.getFirstName()))
-        .andExpect(jsonPath("$[0].lastName").value(employee1.getLastName()))
-        .andExpect(jsonPath("$[0].email").value(employee1.getEmail()))
-        .andExpect(jsonPath("$[1].firstName").value(employee2.getFirstName()))
-        .andExpect(jsonPath("$[1].lastName").value(employee2.getLastName()))
-        .andExpect(jsonPath("$[1].email").value(employee2.getEmail()));
+        .andExpect(jsonPath("$.content", Matchers.hasSize(2)))
+        .andExpect(jsonPath("$.content[0].firstName").value(employee1.getFirstName()))
+        .andExpect(jsonPath("$.content[0].lastName").value(employee1.getLastName()))
+        .andExpect(jsonPath("$.content[0].email").value(employee1.getEmail()))
+        .andExpect(jsonPath("$.content[1].firstName").value(employee2.getFirstName()))
+        .andExpect(jsonPath("$.content[1].lastName").value(employee2.getLastName()))
+        .andExpect(jsonPath("$.content[1].email").value(employee2.getEmail()))
+        .andExpect(jsonPath("$.next").doesNotExist());
+  }
+
+  @Test
+  @DisplayName("get employees page by page")
+  public void givenEmployees_whenGetEmployeesWithSize_thenFollowNextCursor() throws Exception {
+    // given
+    Employee employee1 = Employee.builder().firstName("John").lastName("Doe").email("John@mail.com").build();
+    Employee employee2 = Employee.builder().firstName("Jane").lastName("Doe").email("Jane@mail.com").build();
+
+    employeeRepository.save(employee1);
+    employeeRepository.save(employee2);
+
+    // when
+    String firstPage = mockMvc.perform(get("/api/v1/employee").param("size", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content", Matchers.hasSize(1)))
+        .andExpect(jsonPath("$.content[0].email").value(employee1.getEmail()))
+        .andExpect(jsonPath("$.next").isNotEmpty())
+        .andReturn().getResponse().getContentAsString();
+
+    String next = objectMapper.readTree(firstPage).get("next").asText();
+
+    ResultActions result = mockMvc.perform(get("/api/v1/employee").param("size", "1").param("cursor", next));
+
+    // then
+    result.andExpect(status().isOk())
+        .andExpect(jsonPath("$.content", Matchers.hasSize(1)))
+        .andExpect(jsonPath("$.content[0].email").value(employee2.getEmail()))
+        .andExpect(jsonPath("$.next").doesNotExist());
   }
 
   @Test
@@ -146,6 +204,7 @@ public class EmployeeControllerIntegrationTest {
 
     // when
     ResultActions result = mockMvc.perform(patch("/api/v1/employee/{id}", employee.getId())
+        .header(HttpHeaders.IF_MATCH, "\"0\"")
         .contentType(MediaType.APPLICATION_JSON)
         .content(objectMapper.writeValueAsString(updatedEmployee)));
 
@@ -174,6 +233,7 @@ public class EmployeeControllerIntegrationTest {
 
     // when
     ResultActions result = mockMvc.perform(patch("/api/v1/employee/{id}", id)
+        .header(HttpHeaders.IF_MATCH, "*")
         .contentType(MediaType.APPLICATION_JSON)
         .content(objectMapper.writeValueAsString(updatedEmployee)));
 
@@ -193,6 +253,7 @@ public class EmployeeControllerIntegrationTest {
 
     // when
     ResultActions result = mockMvc.perform(delete("/api/v1/employee/{id}", employee.getId())
+        .header(HttpHeaders.IF_MATCH, "\"0\"")
         .contentType(MediaType.APPLICATION_JSON));
 
     // then
@@ -203,4 +264,90 @@ public class EmployeeControllerIntegrationTest {
 
     assertThat(savedEmployee).isEmpty();
   }
+
+  @Test
+  @DisplayName("delete employee exception")
+  public void givenNoEmployee_whenDeleteEmployee_thenStatusNotFound() throws Exception {
+    // when
+    ResultActions result = mockMvc.perform(delete("/api/v1/employee/{id}", 99L)
+        .header(HttpHeaders.IF_MATCH, "*"));
+
+    // then
+    result.andExpect(status().isNotFound());
+  }
+
+  @Test
+  @DisplayName("delete employees by email domain")
+  public void givenEmployees_whenDeleteEmployeesByEmailDomain_thenOnlyMatchingAreDeleted() throws Exception {
+    // given
+    employeeRepository.save(Employee.builder().firstName("John").lastName("Doe").email("John@old.com").build());
+    employeeRepository.save(Employee.builder().firstName("Jane").lastName("Doe").email("Jane@OLD.com").build());
+    employeeRepository.save(Employee.builder().firstName("Jack").lastName("Doe").email("Jack@new.com").build());
+
+    // when
+    ResultActions result = mockMvc.perform(delete("/api/v1/employee")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"emailDomain\": \"old.com\"}"));
+
+    // then
+    result.andExpect(status().isOk())
+          .andExpect(jsonPath("$.deleted").value(2));
+
+    assertThat(employeeRepository.findAll()).extracting(Employee::getEmail).containsExactly("Jack@new.com");
+  }
+
+  @Test
+  @DisplayName("update employee with stale version")
+  public void givenStaleETag_whenUpdateEmployee_thenStatusPreconditionFailed() throws Exception {
+    // given
+    Employee employee = Employee.builder().firstName("John").lastName("Doe").email("John@mail.com").build();
+    employeeRepository.save(employee);
+
+    // the first writer moves the version from 0 to 1
+    mockMvc.perform(patch("/api/v1/employee/{id}", employee.getId())
+        .header(HttpHeaders.IF_MATCH, "\"0\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"firstName\": \"Jane\"}"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+    // when
+    ResultActions result = mockMvc.perform(patch("/api/v1/employee/{id}", employee.getId())
+        .header(HttpHeaders.IF_MATCH, "\"0\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"firstName\": \"Jack\"}"));
+
+    // then
+    result.andExpect(status().isPreconditionFailed());
+    assertThat(employeeRepository.findById(employee.getId())).get().extracting(Employee::getFirstName).isEqualTo("Jane");
+  }
+
+  @Test
+  @DisplayName("search employees by last name sorted by name")
+  public void givenEmployees_whenSearchByLastNameSortedByName_thenPageInNameOrder() throws Exception {
+    // given
+    employeeRepository.save(Employee.builder().firstName("Zoe").lastName("Doe").email("Zoe@mail.com").build());
+    employeeRepository.save(Employee.builder().firstName("Adam").lastName("Doe").email("Adam@mail.com").build());
+    employeeRepository.save(Employee.builder().firstName("John").lastName("Smith").email("John@mail.com").build());
+
+    // when
+    ResultActions result = mockMvc.perform(get("/api/v1/employee")
+        .param("lastName", "Doe")
+        .param("sort", "lastName")
+        .param("size", "1"));
+
+    // then
+    String next = JsonPath.read(result.andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].firstName").value("Adam"))
+        .andReturn().getResponse().getContentAsString(), "$.next");
+
+    mockMvc.perform(get("/api/v1/employee")
+        .param("lastName", "Doe")
+        .param("sort", "lastName")
+        .param("size", "1")
+        .param("cursor", next))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].firstName").value("Zoe"))
+        .andExpect(jsonPath("$.next").doesNotExist());
+  }
 }
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
@@ -16,6 +17,7 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import com.example.springtesttutorial.cache.EmployeeCache;
 import com.example.springtesttutorial.model.Employee;
 import com.example.springtesttutorial.repository.EmployeeRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -41,9 +43,13 @@ public class EmployeeControllerIntegrationTestContainer extends AbstractContaine
   @Autowired
   private ObjectMapper objectMapper;
 
+  @Autowired
+  private EmployeeCache employeeCache;
+
   @BeforeEach
   public void clearDatabase() {
     employeeRepository.deleteAll();
+    employeeCache.evictAll();
   }
 
   @Test
@@ -73,6 +79,27 @@ public class EmployeeControllerIntegrationTestContainer extends AbstractContaine
     }
   }
 
+  @Test
+  @DisplayName("save employee exception")
+  public void givenExistingEmailInOtherCase_whenCreateEmployee_thenReturnConflict() throws Exception {
+    // given
+    employeeRepository.save(Employee.builder().firstName("John").lastName("Doe").email("John@mail.com").build());
+
+    Employee employee = Employee.builder().firstName("Johnny").lastName("Doe").email("JOHN@mail.com").build();
+
+    // when
+    ResultActions result = mockMvc.perform(post("/api/v1/employee")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(employee)));
+
+    // then
+    result.andExpect(status().isConflict())
+        .andExpect(jsonPath("$.message").value("Employee with email JOHN@mail.com already exists"))
+        .andExpect(jsonPath("$.status").value("409 CONFLICT"));
+
+    assertThat(employeeRepository.count()).isEqualTo(1);
+  }
+
   @Test
   @DisplayName("get all employees")
   public void givenEmployees_whenGetEmployees_thenReturnJsonArray() throws Exception {
@@ -89,13 +116,43 @@ public class EmployeeControllerIntegrationTestContainer extends AbstractContaine
 
     // then
     result.andExpect(status().isOk())
-        .andExpect(jsonPath("$", Matchers.hasSize(2)))
-        .andExpect(jsonPath("$[0].firstName").value(employee1.getFirstName()))
-        .andExpect(jsonPath("$[0].lastName").value(employee1.getLastName()))
-        .andExpect(jsonPath("$[0].email").value(employee1.getEmail()))
-        .andExpect(jsonPath("$[1].firstName").value(employee2.getFirstName()))
-        .andExpect(jsonPath("$[1].lastName").value(employee2.getLastName()))
-        .andExpect(jsonPath("$[1].email").value(employee2.getEmail()));
+        .andExpect(jsonPath("$.content", Matchers.hasSize(2)))
+        .andExpect(jsonPath("$.content[0].firstName").value(employee1.getFirstName()))
+        .andExpect(jsonPath("$.content[0].lastName").value(employee1.getLastName()))
+        .andExpect(jsonPath("$.content[0].email").value(employee1.getEmail()))
+        .andExpect(jsonPath("$.content[1].firstName").value(employee2.getFirstName()))
+        .andExpect(jsonPath("$.content[1].lastName").value(employee2.getLastName()))
+        .andExpect(jsonPath("$.content[1].email").value(employee2.getEmail()))
+        .andExpect(jsonPath("$.next").doesNotExist());
+  }
+
+  @Test
+  @DisplayName("get employees page by page")
+  public void givenEmployees_whenGetEmployeesWithSize_thenFollowNextCursor() throws Exception {
+    // given
+    Employee employee1 = Employee.builder().firstName("John").lastName("Doe").email("John@mail.com").build();
+    Employee employee2 = Employee.builder().firstName("Jane").lastName("Doe").email("Jane@mail.com").build();
+
+    employeeRepository.save(employee1);
+    employeeRepository.save(employee2);
+
+    // when
+    String firstPage = mockMvc.perform(get("/api/v1/employee").param("size", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content", Matchers.hasSize(1)))
+        .andExpect(jsonPath("$.content[0].email").value(employee1.getEmail()))
+        .andExpect(jsonPath("$.next").isNotEmpty())
+        .andReturn().getResponse().getContentAsString();
+
+    String next = objectMapper.readTree(firstPage).get("next").asText();
+
+    ResultActions result = mockMvc.perform(get("/api/v1/employee").param("size", "1").param("cursor", next));
+
+    // then
+    result.andExpect(status().isOk())
+        .andExpect(jsonPath("$.content", Matchers.hasSize(1)))
+        .andExpect(jsonPath("$.content[0].email").value(employee2.getEmail()))
+        .andExpect(jsonPath("$.next").doesNotExist());
   }
 
   @Test
@@ -153,6 +210,7 @@ public class EmployeeControllerIntegrationTestContainer extends AbstractContaine
 
     // when
     ResultActions result = mockMvc.perform(patch("/api/v1/employee/{id}", employee.getId())
+        .header(HttpHeaders.IF_MATCH, "\"0\"")
         .contentType(MediaType.APPLICATION_JSON)
         .content(objectMapper.writeValueAsString(updatedEmployee)));
 
@@ -181,6 +239,7 @@ public class EmployeeControllerIntegrationTestContainer extends AbstractContaine
 
     // when
     ResultActions result = mockMvc.perform(patch("/api/v1/employee/{id}", id)
+        .header(HttpHeaders.IF_MATCH, "*")
         .contentType(MediaType.APPLICATION_JSON)
         .content(objectMapper.writeValueAsString(updatedEmployee)));
 
@@ -200,6 +259,7 @@ public class EmployeeControllerIntegrationTestContainer extends AbstractContaine
 
     // when
     ResultActions result = mockMvc.perform(delete("/api/v1/employee/{id}", employee.getId())
+        .header(HttpHeaders.IF_MATCH, "\"0\"")
         .contentType(MediaType.APPLICATION_JSON));
 
     // then
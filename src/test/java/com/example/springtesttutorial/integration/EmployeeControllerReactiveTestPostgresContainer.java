@@ -0,0 +1,129 @@
+package com.example.springtesttutorial.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeePage;
+import com.example.springtesttutorial.service.ReactiveEmployeeService;
+
+// the reactive stack end to end: netty, webflux, r2dbc and the schema created by reactive-schema.sql
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles(ReactiveEmployeeService.PROFILE)
+public class EmployeeControllerReactiveTestPostgresContainer extends AbstractContainerBaseTest {
+
+  @DynamicPropertySource
+  public static void r2dbcProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + POSTGRE_SQL_CONTAINER.getHost() + ":"
+        + POSTGRE_SQL_CONTAINER.getFirstMappedPort() + "/" + POSTGRE_SQL_CONTAINER.getDatabaseName());
+  }
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  @BeforeEach
+  public void clearEmployees() {
+    databaseClient.sql("DELETE FROM employees").then().block();
+  }
+
+  private static List<Employee> employees(int count) {
+    return IntStream.range(0, count)
+        .mapToObj(i -> Employee.builder().firstName("First" + i).lastName("Last" + i).email("employee" + i + "@mail.com").build())
+        .toList();
+  }
+
+  @Test
+  @DisplayName("create, read, update and delete one employee with its ETag")
+  public void givenEmployee_whenCreateReadUpdateDelete_thenVersionsFollow() {
+    // create
+    Employee created = webTestClient.post().uri("/api/v1/employee").contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Employee.builder().firstName("John").lastName("Doe").email("John@mail.com").build())
+        .exchange()
+        .expectStatus().isCreated()
+        .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+        .expectBody(Employee.class).returnResult().getResponseBody();
+
+    // same email in another case
+    webTestClient.post().uri("/api/v1/employee").contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Employee.builder().firstName("Johnny").lastName("Doe").email("john@MAIL.com").build())
+        .exchange()
+        .expectStatus().isEqualTo(409);
+
+    // read by email
+    webTestClient.get().uri("/api/v1/employee/email/{email}", "john@mail.com")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody().jsonPath("$.id").isEqualTo(created.getId());
+
+    // update with the current version, then with the old one again
+    webTestClient.patch().uri("/api/v1/employee/{id}", created.getId()).header(HttpHeaders.IF_MATCH, "\"0\"")
+        .contentType(MediaType.APPLICATION_JSON).bodyValue(Employee.builder().firstName("Jack").build())
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+        .expectBody().jsonPath("$.firstName").isEqualTo("Jack");
+    webTestClient.patch().uri("/api/v1/employee/{id}", created.getId()).header(HttpHeaders.IF_MATCH, "\"0\"")
+        .contentType(MediaType.APPLICATION_JSON).bodyValue(Employee.builder().firstName("Jim").build())
+        .exchange()
+        .expectStatus().isEqualTo(412);
+
+    // delete
+    webTestClient.delete().uri("/api/v1/employee/{id}", created.getId()).header(HttpHeaders.IF_MATCH, "\"1\"")
+        .exchange()
+        .expectStatus().isOk();
+    webTestClient.get().uri("/api/v1/employee/{id}", created.getId())
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+  @Test
+  @DisplayName("a batch is listed page by page and exported as ndjson")
+  public void givenBatch_whenPageAndExport_thenEveryEmployeeOnce() {
+    // given
+    List<Employee> saved = webTestClient.post().uri("/api/v1/employee/batch").contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(employees(45))
+        .exchange()
+        .expectStatus().isCreated()
+        .expectBody(new ParameterizedTypeReference<List<Employee>>() {}).returnResult().getResponseBody();
+    assertThat(saved).extracting(Employee::getEmail).containsExactlyElementsOf(employees(45).stream().map(Employee::getEmail).toList());
+
+    // when
+    EmployeePage first = webTestClient.get().uri("/api/v1/employee?size=20")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(EmployeePage.class).returnResult().getResponseBody();
+    EmployeePage second = webTestClient.get().uri("/api/v1/employee?size=20&cursor={cursor}", first.getNext())
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(EmployeePage.class).returnResult().getResponseBody();
+    List<Employee> exported = webTestClient.get().uri("/api/v1/employee/export")
+        .exchange()
+        .expectStatus().isOk()
+        .returnResult(Employee.class).getResponseBody().collectList().block();
+
+    // then
+    assertThat(first.getContent()).hasSize(20);
+    assertThat(second.getContent()).hasSize(20);
+    assertThat(second.getContent().get(0).getId()).isGreaterThan(first.getContent().get(19).getId());
+    assertThat(exported).extracting(Employee::getId).doesNotHaveDuplicates().hasSize(45);
+  }
+}
@@ -0,0 +1,158 @@
+package com.example.springtesttutorial.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.consumer.RecordingStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.springtesttutorial.SpringTestTutorialApplication;
+import com.example.springtesttutorial.config.VirtualThreads;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.repository.EmployeeRepository;
+import com.example.springtesttutorial.service.EmployeeService;
+
+// not picked up by the default surefire includes, run it explicitly against the postgres container:
+// ./mvnw test -Dtest=EmployeeVirtualThreadLoadBenchmark [-Dbenchmark.clients=2000]
+// starts the application on tomcat's platform threads (the default 200) and then on virtual threads
+// (needs a java 21 runtime, skipped otherwise), each with the same pool and the default configuration,
+// and keeps CLIENTS requests in flight against GET /api/v1/employee/{id}. jdk.VirtualThreadPinned
+// events are recorded meanwhile, a carrier pinned by a blocking call shows up in the pinned column
+public class EmployeeVirtualThreadLoadBenchmark extends AbstractContainerBaseTest {
+
+  private static final int ROWS = 10_000;
+
+  private static final int CLIENTS = Integer.getInteger("benchmark.clients", 1_000);
+
+  private static final int POOL_SIZE = 50;
+
+  private static final Duration WARM_UP = Duration.ofSeconds(5);
+
+  private static final Duration MEASUREMENT = Duration.ofSeconds(20);
+
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+  private record Result(String mode, double throughput, double p50, double p99, long unavailable, long failed,
+      long pinned) {
+
+    Result withPinned(long pinned) {
+      return new Result(mode, throughput, p50, p99, unavailable, failed, pinned);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%-16s %8.0f req/s   p50 %7.1f ms   p99 %7.1f ms   503 %6d   failed %6d   pinned %6d",
+          mode, throughput, p50, p99, unavailable, failed, pinned);
+    }
+  }
+
+  @Test
+  @DisplayName("throughput and p99 of by-id reads at 1k+ concurrent clients, platform threads against virtual threads")
+  public void measureThroughputAndLatency() throws Exception {
+    List<Result> results = new ArrayList<>();
+    results.add(run("platform threads", false));
+    if (VirtualThreads.isSupported()) {
+      results.add(run("virtual threads", true));
+    }
+
+    System.out.printf("%s clients, pool of %s connections%n", CLIENTS, POOL_SIZE);
+    results.forEach(System.out::println);
+    if (!VirtualThreads.isSupported()) {
+      System.out.printf("virtual threads  skipped, java %s%n", Runtime.version());
+    }
+    assertThat(results).allSatisfy(result -> assertThat(result.failed()).isZero());
+  }
+
+  private Result run(String mode, boolean virtualThreads) throws Exception {
+    // command line arguments, so they win over application.properties
+    try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringTestTutorialApplication.class).run(
+        "--server.port=0",
+        "--spring.datasource.url=" + POSTGRE_SQL_CONTAINER.getJdbcUrl(),
+        "--spring.datasource.username=" + POSTGRE_SQL_CONTAINER.getUsername(),
+        "--spring.datasource.password=" + POSTGRE_SQL_CONTAINER.getPassword(),
+        "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+        "--spring.jpa.show-sql=false",
+        "--employee.execution.virtual-threads=" + virtualThreads,
+        // nobody is turned away, both modes serve every request
+        "--employee.execution.max-connection-waiters=" + CLIENTS)) {
+      List<Long> ids = seed(context);
+      String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1/employee/";
+
+      HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+      // every pin counts, also the short ones below the event's default threshold of 20 ms
+      LongAdder pinned = new LongAdder();
+      try (RecordingStream recording = new RecordingStream()) {
+        recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO);
+        recording.onEvent(PINNED_EVENT, event -> pinned.increment());
+        recording.startAsync();
+        drive(client, base, ids, WARM_UP, null);
+        Result result = drive(client, base, ids, MEASUREMENT, mode);
+        // events are flushed about once a second
+        Thread.sleep(2_000);
+        return result.withPinned(pinned.sum());
+      }
+    }
+  }
+
+  private static List<Long> seed(ConfigurableApplicationContext context) {
+    context.getBean(EmployeeRepository.class).deleteAllInBatch();
+    List<Employee> employees = new ArrayList<>();
+    for (int i = 0; i < ROWS; i++) {
+      employees.add(Employee.builder().firstName("First" + i).lastName("Last" + i).email("load" + i + "@mail.com").build());
+    }
+    return context.getBean(EmployeeService.class).saveEmployees(employees).stream().map(Employee::getId).toList();
+  }
+
+  // closed loop: a new request goes out whenever one of the CLIENTS in flight completes
+  private static Result drive(HttpClient client, String base, List<Long> ids, Duration duration, String mode)
+      throws InterruptedException {
+    Semaphore inFlight = new Semaphore(CLIENTS);
+    ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+    LongAdder unavailable = new LongAdder();
+    LongAdder failed = new LongAdder();
+
+    long start = System.nanoTime();
+    long end = start + duration.toNanos();
+    while (System.nanoTime() < end) {
+      inFlight.acquire();
+      long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+      long sent = System.nanoTime();
+      client.sendAsync(HttpRequest.newBuilder(URI.create(base + id)).build(), HttpResponse.BodyHandlers.discarding())
+          .whenComplete((response, error) -> {
+            if (error != null || (response.statusCode() != 200 && response.statusCode() != 503)) {
+              failed.increment();
+            } else if (response.statusCode() == 503) {
+              unavailable.increment();
+            } else {
+              latencies.add(System.nanoTime() - sent);
+            }
+            inFlight.release();
+          });
+    }
+    inFlight.acquire(CLIENTS);
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+    return new Result(mode, sorted.length / seconds, percentile(sorted, 0.50), percentile(sorted, 0.99),
+        unavailable.sum(), failed.sum(), 0);
+  }
+
+  private static double percentile(long[] sorted, double quantile) {
+    return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+  }
+}
@@ -0,0 +1,176 @@
+package com.example.springtesttutorial.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.example.springtesttutorial.exception.EmployeeAlreadyExistsException;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeeDeleteReport;
+import com.example.springtesttutorial.model.EmployeeDeleteRequest;
+import com.example.springtesttutorial.model.EmployeePage;
+import com.example.springtesttutorial.model.EmployeeSearch;
+import com.example.springtesttutorial.service.EmployeeService;
+import com.example.springtesttutorial.service.ShardedEmployeeService;
+import com.example.springtesttutorial.shard.EmployeeShards;
+
+// three databases in the one container stand in for three shard servers
+@SpringBootTest
+@ActiveProfiles(ShardedEmployeeService.PROFILE)
+public class ShardedEmployeeServiceTestPostgresContainer extends AbstractContainerBaseTest {
+
+  private static final int SHARDS = 3;
+
+  @DynamicPropertySource
+  public static void shardProperties(DynamicPropertyRegistry registry) throws SQLException {
+    List<String> urls = new ArrayList<>();
+    try (Connection connection = DriverManager.getConnection(POSTGRE_SQL_CONTAINER.getJdbcUrl(),
+        POSTGRE_SQL_CONTAINER.getUsername(), POSTGRE_SQL_CONTAINER.getPassword());
+        Statement statement = connection.createStatement()) {
+      for (int shard = 0; shard < SHARDS; shard++) {
+        String database = "shard_" + shard;
+        try {
+          statement.execute("CREATE DATABASE " + database);
+        } catch (SQLException e) {
+          // created by an earlier context of this jvm
+        }
+        urls.add(POSTGRE_SQL_CONTAINER.getJdbcUrl().replace("/" + POSTGRE_SQL_CONTAINER.getDatabaseName(), "/" + database));
+      }
+    }
+    registry.add("employee.shards.urls", () -> String.join(",", urls));
+  }
+
+  @Autowired
+  private EmployeeService employeeService;
+
+  @Autowired
+  private EmployeeShards shards;
+
+  @BeforeEach
+  public void clearShards() {
+    shards.fanOut(shard -> {
+      shards.get(shard).execute("TRUNCATE employees, employee_emails");
+      return null;
+    });
+  }
+
+  @Test
+  @DisplayName("employees are stored on the shard their id hashes to, ids are unique across shards")
+  public void givenEmployees_whenSave_thenPlacedByIdHash() {
+    // when
+    List<Employee> saved = employeeService.saveEmployees(employees(60));
+    Employee single = employeeService.saveEmployee(Employee.builder().firstName("Single").lastName("Doe").email("single@mail.com").build());
+
+    // then
+    assertThat(saved).extracting(Employee::getId).doesNotHaveDuplicates().doesNotContain(single.getId());
+    for (Employee employee : saved) {
+      assertThat(shards.get(shards.shardOf(employee.getId()))
+          .queryForObject("SELECT count(*) FROM employees WHERE id = ?", Long.class, employee.getId())).isEqualTo(1L);
+    }
+    assertThat(shards.fanOut(shard -> shards.get(shard).queryForObject("SELECT count(*) FROM employees", Long.class)))
+        .allSatisfy(count -> assertThat(count).isPositive());
+    assertThat(employeeService.getEmployeeById(single.getId()).getEmail()).isEqualTo("single@mail.com");
+    assertThat(employeeService.getEmployeeByEmail("SINGLE@mail.com").getId()).isEqualTo(single.getId());
+  }
+
+  @Test
+  @DisplayName("emails are unique across shards, regardless of case")
+  public void givenTakenEmail_whenSaveOrUpdate_thenReject() {
+    // given
+    Employee john = employeeService.saveEmployee(Employee.builder().firstName("John").lastName("Doe").email("john@mail.com").build());
+    Employee jane = employeeService.saveEmployee(Employee.builder().firstName("Jane").lastName("Doe").email("jane@mail.com").build());
+
+    // then
+    assertThatThrownBy(() -> employeeService.saveEmployee(Employee.builder().firstName("Other").lastName("Doe").email("JOHN@mail.com").build()))
+        .isInstanceOf(EmployeeAlreadyExistsException.class);
+    assertThatThrownBy(() -> employeeService.saveEmployees(List.of(
+        Employee.builder().firstName("New").lastName("Doe").email("new@mail.com").build(),
+        Employee.builder().firstName("Other").lastName("Doe").email("Jane@mail.com").build())))
+        .isInstanceOf(EmployeeAlreadyExistsException.class);
+    assertThatThrownBy(() -> employeeService.updateEmployee(jane.getId(), null, Employee.builder().email("john@MAIL.com").build()))
+        .isInstanceOf(EmployeeAlreadyExistsException.class);
+
+    // a changed email frees the old one, a delete frees the current one
+    employeeService.updateEmployee(john.getId(), 0L, Employee.builder().email("johnny@mail.com").build());
+    employeeService.deleteEmployee(jane.getId(), null);
+    Employee reused = employeeService.saveEmployee(Employee.builder().firstName("Reused").lastName("Doe").email("john@mail.com").build());
+    employeeService.saveEmployee(Employee.builder().firstName("Reused").lastName("Doe").email("jane@mail.com").build());
+    assertThat(employeeService.getEmployeeByEmail("john@mail.com").getId()).isEqualTo(reused.getId());
+    assertThat(employeeService.getEmployeeByEmail("johnny@mail.com").getVersion()).isEqualTo(1L);
+    assertThat(employeeService.getEmployeesByIds(List.of(john.getId(), jane.getId())).getMissing()).containsExactly(jane.getId());
+  }
+
+  @Test
+  @DisplayName("pages merge the shards in id or name order and the cursor walks every employee once")
+  public void givenEmployeesOnAllShards_whenPaging_thenGlobalOrder() {
+    // given
+    List<Long> ids = employeeService.saveEmployees(employees(45)).stream().map(Employee::getId).sorted().toList();
+
+    // when
+    List<Long> paged = new ArrayList<>();
+    String cursor = null;
+    do {
+      EmployeePage page = employeeService.getEmployeePage(cursor, 10);
+      page.getContent().forEach(employee -> paged.add(employee.getId()));
+      cursor = page.getNext();
+    } while (cursor != null);
+
+    List<String> byName = new ArrayList<>();
+    cursor = null;
+    do {
+      EmployeePage page = employeeService.searchEmployees(EmployeeSearch.builder().sort("lastName").build(), cursor, 7);
+      page.getContent().forEach(employee -> byName.add(employee.getLastName()));
+      cursor = page.getNext();
+    } while (cursor != null);
+
+    // then
+    assertThat(paged).isEqualTo(ids);
+    assertThat(byName).hasSize(45).isSorted();
+    List<Long> streamed = new ArrayList<>();
+    employeeService.forEachEmployee(employee -> streamed.add(employee.getId()));
+    assertThat(streamed).isEqualTo(ids);
+  }
+
+  @Test
+  @DisplayName("a filtered delete removes the matches on every shard and frees their emails")
+  public void givenFilter_whenDeleteEmployees_thenDeleteOnAllShards() {
+    // given
+    employeeService.saveEmployees(employees(30));
+
+    // when
+    EmployeeDeleteReport report = employeeService.deleteEmployees(EmployeeDeleteRequest.builder().emailDomain("EVEN.com").build());
+
+    // then
+    assertThat(report.getDeleted()).isEqualTo(15);
+    assertThat(employeeService.getAllEmployees()).hasSize(15)
+        .allSatisfy(employee -> assertThat(employee.getEmail()).endsWith("@odd.com"));
+    employeeService.saveEmployee(Employee.builder().firstName("Again").lastName("Doe").email("employee0@even.com").build());
+  }
+
+  private static List<Employee> employees(int count) {
+    return IntStream.range(0, count)
+        .mapToObj(i -> Employee.builder()
+            .firstName("First" + i)
+            .lastName(String.format("Last%03d", (i * 7) % count))
+            .email("employee" + i + (i % 2 == 0 ? "@even.com" : "@odd.com"))
+            .build())
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,74 @@
+package com.example.springtesttutorial.readmodel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.springtesttutorial.model.Employee;
+
+// not picked up by the default surefire includes, run it explicitly (needs about 2g of heap):
+// ./mvnw test -Dtest=EmployeeReadModelBenchmark -DargLine=-Xmx2g
+public class EmployeeReadModelBenchmark {
+
+  private static final int EMPLOYEES = 1_000_000;
+
+  private static final int LOOKUPS = 1_000_000;
+
+  private static final String[] FIRST_NAMES = { "John", "Jane", "Jack", "Mary", "Peter", "Anna", "Paul", "Linda",
+      "Mark", "Susan", "Tom", "Emma", "James", "Olivia", "Robert", "Sophia", "Michael", "Isabella", "David", "Mia" };
+
+  @Test
+  @DisplayName("heap per row of the read model against a list of entities, and lookup latency")
+  public void measureMemoryAndLatency() {
+    long before = usedHeap();
+    List<Employee> entities = employees();
+    long entityBytes = usedHeap() - before;
+    assertThat(entities).hasSize(EMPLOYEES);
+    entities = null;
+
+    before = usedHeap();
+    EmployeeReadModel readModel = new EmployeeReadModel(10_000, Duration.ofMinutes(5));
+    readModel.load(sink -> employees().forEach(sink));
+    long readModelBytes = usedHeap() - before;
+
+    Random random = new Random(7);
+    long start = System.nanoTime();
+    for (int i = 0; i < LOOKUPS; i++) {
+      readModel.findById(1 + random.nextInt(EMPLOYEES));
+    }
+    long byIdNanos = (System.nanoTime() - start) / LOOKUPS;
+
+    System.out.printf("%nentities: %.0f bytes/row, read model: %.0f bytes/row measured, %.0f bytes/row estimated%n"
+        + "findById %d ns on average%n%n",
+        entityBytes / (double) EMPLOYEES, readModelBytes / (double) EMPLOYEES,
+        readModel.memoryBytes() / (double) EMPLOYEES, byIdNanos);
+
+    assertThat(readModel.entries()).isEqualTo(EMPLOYEES);
+  }
+
+  private static List<Employee> employees() {
+    Random random = new Random(42);
+    List<Employee> employees = new ArrayList<>(EMPLOYEES);
+    for (int i = 1; i <= EMPLOYEES; i++) {
+      String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+      String lastName = "Last" + random.nextInt(50_000);
+      employees.add(Employee.builder().id(i).firstName(firstName).lastName(lastName)
+          .email(firstName.toLowerCase() + "." + i + "@mail.com").build());
+    }
+    return employees;
+  }
+
+  private static long usedHeap() {
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,201 @@
+package com.example.springtesttutorial.readmodel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.springtesttutorial.model.Employee;
+
+public class EmployeeReadModelTest {
+
+  private EmployeeReadModel readModel;
+
+  private Employee john;
+  private Employee jane;
+  private Employee jack;
+
+  @BeforeEach
+  public void setUp() {
+    readModel = new EmployeeReadModel(100, Duration.ofMinutes(5));
+    john = employee(1L, "John", "Doe", "John.Doe@mail.com");
+    jane = employee(2L, "Jane", "Doe", "jane@mail.com");
+    jack = employee(3L, "Jack", "Smith", "jsmith@mail.com");
+    readModel.load(sink -> List.of(jack, john, jane).forEach(sink));
+  }
+
+  private static Employee employee(long id, String firstName, String lastName, String email) {
+    return Employee.builder().id(id).firstName(firstName).lastName(lastName).email(email).version(1L).build();
+  }
+
+  @Test
+  @DisplayName("loaded employees are found by id and case-insensitively by email")
+  public void givenLoadedReadModel_whenFind_thenReturnEmployees() {
+    // then
+    assertThat(readModel.isLoaded()).isTrue();
+    assertThat(readModel.findById(2L)).contains(jane);
+    assertThat(readModel.findById(4L)).isEmpty();
+    assertThat(readModel.findByEmail("john.doe@MAIL.com")).contains(john);
+    assertThat(readModel.findByEmail("nobody@mail.com")).isEmpty();
+    assertThat(readModel.findAll()).containsExactly(john, jane, jack);
+    assertThat(readModel.entries()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("pages follow the id order after the cursor")
+  public void givenLoadedReadModel_whenFindPage_thenReturnRowsAfterId() {
+    // then
+    assertThat(readModel.findPage(0L, 2)).containsExactly(john, jane);
+    assertThat(readModel.findPage(2L, 2)).containsExactly(jack);
+    assertThat(readModel.findPage(3L, 2)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("writes after the load are visible and merged into the id order")
+  public void givenWrites_whenFind_thenReflectPutAndRemove() {
+    // given
+    Employee renamed = employee(1L, "Jonathan", "Doe", "jonathan@mail.com");
+    Employee added = employee(5L, "Johanna", "Berg", "jb@mail.com");
+
+    // when
+    readModel.put(renamed);
+    readModel.put(added);
+    readModel.remove(2L);
+
+    // then
+    assertThat(readModel.findById(1L)).contains(renamed);
+    assertThat(readModel.findById(2L)).isEmpty();
+    assertThat(readModel.findByEmail("John.Doe@mail.com")).isEmpty();
+    assertThat(readModel.findByEmail("JONATHAN@mail.com")).contains(renamed);
+    assertThat(readModel.findByEmail("jane@mail.com")).isEmpty();
+    assertThat(readModel.findAll()).containsExactly(renamed, jack, added);
+    assertThat(readModel.findPage(1L, 1)).containsExactly(jack);
+    assertThat(readModel.entries()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("a change older than the one held is dropped, also after a removal and a compaction")
+  public void givenOlderChange_whenPut_thenKeepNewerVersion() {
+    // given
+    readModel = new EmployeeReadModel(1, Duration.ofMinutes(5));
+    readModel.load(sink -> List.of(john, jane).forEach(sink));
+    Employee renamed = Employee.builder().id(1L).firstName("Jonathan").lastName("Doe").email("jonathan@mail.com").version(2L).build();
+
+    // when
+    readModel.put(renamed);
+    readModel.remove(2L);
+    readModel.put(john);
+    readModel.put(jane);
+
+    // then
+    assertThat(readModel.findAll()).containsExactly(renamed);
+    assertThat(readModel.version(1L)).isEqualTo(2L);
+  }
+
+  @Test
+  @DisplayName("a deleted id is forgotten once the retention passed, a later change is applied again")
+  public void givenRetentionPassed_whenPut_thenDeletedIdNoLongerWins() {
+    // given
+    readModel = new EmployeeReadModel(100, Duration.ZERO);
+    readModel.load(sink -> List.of(john, jane).forEach(sink));
+
+    // when
+    readModel.remove(2L);
+
+    // then
+    assertThat(readModel.version(2L)).isEqualTo(-1L);
+    readModel.put(jane);
+    assertThat(readModel.findById(2L)).contains(jane);
+  }
+
+  @Test
+  @DisplayName("a page read while an update is half applied lists the employee once, with the update")
+  public void givenUpdateBeforeTombstone_whenFindPage_thenListEmployeeOnce() {
+    // given: reads from inside the put, after the delta row and before the base row is hidden
+    List<List<Employee>> pages = new ArrayList<>();
+    readModel = new EmployeeReadModel(100, Duration.ofMinutes(5)) {
+
+      @Override
+      protected void addedToDelta(ColumnState current, Employee employee) {
+        super.addedToDelta(current, employee);
+        pages.add(findAll());
+      }
+    };
+    readModel.load(sink -> List.of(john, jane).forEach(sink));
+    Employee renamed = employee(1L, "Jonathan", "Doe", "jonathan@mail.com");
+
+    // when
+    readModel.put(renamed);
+
+    // then
+    assertThat(pages).containsExactly(List.of(renamed, jane));
+  }
+
+  @Test
+  @DisplayName("returned employees are copies, changing them does not change the read model")
+  public void givenReturnedEmployee_whenChanged_thenReadModelUnchanged() {
+    // given
+    Employee added = employee(5L, "Johanna", "Berg", "jb@mail.com");
+    readModel.put(added);
+
+    // when
+    added.setFirstName("Changed");
+    readModel.findById(1L).orElseThrow().setFirstName("Changed");
+    readModel.findById(5L).orElseThrow().setFirstName("Changed");
+
+    // then
+    assertThat(readModel.findById(1L).orElseThrow().getFirstName()).isEqualTo("John");
+    assertThat(readModel.findById(5L).orElseThrow().getFirstName()).isEqualTo("Johanna");
+  }
+
+  @Test
+  @DisplayName("the delta is folded into new columns once it outgrows the limit")
+  public void givenDeltaOverLimit_whenWrite_thenCompactAndKeepContent() {
+    // given
+    readModel = new EmployeeReadModel(1, Duration.ofMinutes(5));
+    readModel.load(sink -> List.of(john, jane).forEach(sink));
+
+    // when
+    readModel.put(jack);
+    readModel.remove(1L);
+
+    // then
+    assertThat(readModel.findAll()).containsExactly(jane, jack);
+    assertThat(readModel.findByEmail("jsmith@mail.com")).contains(jack);
+    assertThat(readModel.entries()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("writes during a load are replayed onto the loaded state")
+  public void givenWriteDuringLoad_whenLoaded_thenWriteKept() {
+    // given
+    Employee added = employee(5L, "Johanna", "Berg", "jb@mail.com");
+
+    // when
+    readModel.load(sink -> {
+      sink.accept(john);
+      readModel.put(added);
+      readModel.remove(1L);
+    });
+
+    // then
+    assertThat(readModel.findAll()).containsExactly(added);
+  }
+
+  @Test
+  @DisplayName("an unloaded read model is empty and reports it")
+  public void givenNoLoad_whenFind_thenEmptyAndNotLoaded() {
+    // given
+    EmployeeReadModel empty = new EmployeeReadModel(100, Duration.ofMinutes(5));
+
+    // then
+    assertThat(empty.isLoaded()).isFalse();
+    assertThat(empty.findAll()).isEmpty();
+    assertThat(empty.findByEmail("jane@mail.com")).isEmpty();
+  }
+}
@@ -3,6 +3,8 @@ package com.example.springtesttutorial.repository;
 import static org.assertj.core.api.Assertions.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -157,6 +159,51 @@ public class EmployeeRepositoryTestPostgresContainer extends AbstractContainerBa
     assertThat(updatedEmployee.getFirstName()).isEqualTo("Jane");
   }
 
+  // JUnit test for partial update in one statement
+  @Test
+  @DisplayName("Update employee partially")
+  public void givenEmployee_whenUpdatePartially_thenOnlySuppliedColumnsChange() {
+    // given
+    employeeRepository.saveAndFlush(employee);
+    Employee changes = Employee.builder().firstName("Jane").build();
+
+    // when
+    Optional<Employee> updatedEmployee = employeeRepository.updatePartially(employee.getId(), null, changes);
+
+    // then
+    assertThat(updatedEmployee).isPresent();
+    assertThat(updatedEmployee.get().getFirstName()).isEqualTo("Jane");
+    assertThat(updatedEmployee.get().getLastName()).isEqualTo(employee.getLastName());
+    assertThat(updatedEmployee.get().getEmail()).isEqualTo(employee.getEmail());
+  }
+
+  // JUnit test for partial update of a missing employee
+  @Test
+  @DisplayName("Update missing employee partially")
+  public void givenNoEmployee_whenUpdatePartially_thenReturnEmpty() {
+    // when
+    Optional<Employee> updatedEmployee = employeeRepository.updatePartially(-1L, null, Employee.builder().firstName("Jane").build());
+
+    // then
+    assertThat(updatedEmployee).isEmpty();
+  }
+
+  // JUnit test for selecting only some columns
+  @Test
+  @DisplayName("Find fields by id")
+  public void givenEmployee_whenFindFieldsById_thenReturnOnlyThoseFields() {
+    // given
+    employeeRepository.save(employee);
+
+    // when
+    Optional<Map<String, Object>> foundEmployee = employeeRepository.findFieldsById(List.of("id", "email"), employee.getId());
+
+    // then
+    assertThat(foundEmployee).isPresent();
+    assertThat(foundEmployee.get()).containsOnlyKeys("id", "email");
+    assertThat(foundEmployee.get().get("email")).isEqualTo(employee.getEmail());
+  }
+
   // JUnit test for delete employee
   @Test
   @DisplayName("Delete employee")
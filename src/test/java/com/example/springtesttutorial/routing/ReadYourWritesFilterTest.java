@@ -0,0 +1,89 @@
+package com.example.springtesttutorial.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.example.springtesttutorial.cache.EmployeeChangedEvent;
+import com.example.springtesttutorial.config.EmployeeReplicaProperties;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServlet;
+
+public class ReadYourWritesFilterTest {
+
+  private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+
+  private final List<Boolean> pinned = new ArrayList<>();
+
+  private MockFilterChain chain() {
+    return new MockFilterChain(new HttpServlet() {
+    }, (request, response, next) -> pinned.add(ReadRouting.isPinnedToPrimary()));
+  }
+
+  @Test
+  @DisplayName("a write hands out the cookie and runs on the primary")
+  public void givenWrite_whenFilter_thenSetCookieAndPin() throws Exception {
+    // given
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // when
+    filter.doFilter(new MockHttpServletRequest("PATCH", "/api/v1/employee/1"), response, chain());
+
+    // then
+    assertThat(response.getCookie(ReadYourWritesFilter.COOKIE)).isNotNull();
+    assertThat(pinned).containsExactly(true);
+    assertThat(ReadRouting.isPinnedToPrimary()).isFalse();
+  }
+
+  @Test
+  @DisplayName("reads within the window are pinned, later or forged ones are not")
+  public void givenCookie_whenRead_thenPinOnlyWithinWindow() throws Exception {
+    long now = System.currentTimeMillis();
+    for (long until : new long[] { now + 2_000, now - 1, now + 60_000 }) {
+      MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/employee/1");
+      request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(until)));
+      filter.doFilter(request, new MockHttpServletResponse(), chain());
+    }
+    filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/employee/1"), new MockHttpServletResponse(), chain());
+
+    assertThat(pinned).containsExactly(true, false, false, false);
+  }
+
+  @Test
+  @DisplayName("an employee changed within the maximum lag is read from the primary")
+  public void givenRecentChange_whenForEmployee_thenPin() {
+    // given
+    ReadRouting readRouting = new ReadRouting(new EmployeeReplicaProperties(true, List.of(), Duration.ofSeconds(5),
+        Duration.ofSeconds(5), Duration.ofSeconds(5)));
+
+    // when
+    readRouting.onChanged(EmployeeChangedEvent.deleted(1L));
+
+    // then
+    assertThat(readRouting.forEmployee(1L, ReadRouting::isPinnedToPrimary)).isTrue();
+    assertThat(readRouting.forEmployee(2L, ReadRouting::isPinnedToPrimary)).isFalse();
+  }
+
+  @Test
+  @DisplayName("a pinned thread or a recent change requires the primary")
+  public void givenPinOrRecentChange_whenRequiresPrimary_thenTrue() {
+    // given
+    ReadRouting readRouting = new ReadRouting(new EmployeeReplicaProperties(true, List.of(), Duration.ofSeconds(5),
+        Duration.ofSeconds(5), Duration.ofSeconds(5)));
+    readRouting.onChanged(EmployeeChangedEvent.deleted(1L));
+
+    // when / then
+    assertThat(readRouting.requiresPrimary(1L)).isTrue();
+    assertThat(readRouting.requiresPrimary(2L)).isFalse();
+    assertThat(readRouting.onPrimary(() -> readRouting.requiresPrimary(2L))).isTrue();
+  }
+}
@@ -0,0 +1,132 @@
+package com.example.springtesttutorial.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.springtesttutorial.config.EmployeeReplicaProperties;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ReplicaRoutingDataSourceTest {
+
+  @Mock
+  private DataSource primary;
+
+  @Mock
+  private DataSource replica0;
+
+  @Mock
+  private DataSource replica1;
+
+  @Mock
+  private Connection primaryConnection;
+
+  @Mock
+  private Connection replica0Connection;
+
+  @Mock
+  private Connection replica1Connection;
+
+  private ReplicaRoutingDataSource dataSource;
+
+  @BeforeEach
+  public void setUp() throws SQLException {
+    BDDMockito.given(primary.getConnection()).willReturn(primaryConnection);
+    BDDMockito.given(replica0.getConnection()).willReturn(replica0Connection);
+    BDDMockito.given(replica1.getConnection()).willReturn(replica1Connection);
+    dataSource = new ReplicaRoutingDataSource(primary, List.of(replica0, replica1), Duration.ofSeconds(5), Duration.ofHours(1));
+    dataSource.afterPropertiesSet();
+  }
+
+  @AfterEach
+  public void tearDown() throws Exception {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    dataSource.close();
+  }
+
+  @Test
+  @DisplayName("writes and reads outside a read-only transaction use the primary")
+  public void givenNoReadOnlyTransaction_whenGetConnection_thenPrimary() throws SQLException {
+    assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+  }
+
+  @Test
+  @DisplayName("read-only transactions take the replicas in turn")
+  public void givenReadOnlyTransaction_whenGetConnection_thenRoundRobin() throws SQLException {
+    // given
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    // then
+    assertThat(List.of(dataSource.getConnection(), dataSource.getConnection(), dataSource.getConnection()))
+        .containsExactly(replica0Connection, replica1Connection, replica0Connection);
+  }
+
+  @Test
+  @DisplayName("a replica that fails to hand out a connection is skipped, with none left reads go to the primary")
+  public void givenFailingReplica_whenGetConnection_thenSkipIt() throws SQLException {
+    // given
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    BDDMockito.given(replica0.getConnection()).willThrow(new SQLException("down"));
+
+    // then
+    assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+    assertThat(dataSource.isHealthy(0)).isFalse();
+    assertThat(List.of(dataSource.getConnection(), dataSource.getConnection())).containsOnly(replica1Connection);
+
+    BDDMockito.given(replica1.getConnection()).willThrow(new SQLException("down"));
+    dataSource.getConnection();
+    assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+  }
+
+  @Test
+  @DisplayName("a failed health check takes a replica out, a passing one puts it back")
+  public void givenHealthCheck_whenReplicaFailsAndRecovers_thenToggleIt() throws SQLException {
+    // given
+    BDDMockito.given(replica0.getConnection()).willThrow(new SQLException("down"));
+    BDDMockito.given(replica1Connection.createStatement()).willThrow(new SQLException("down"));
+
+    // when
+    dataSource.checkHealth();
+
+    // then
+    assertThat(dataSource.isHealthy(0)).isFalse();
+    assertThat(dataSource.isHealthy(1)).isFalse();
+  }
+
+  @Test
+  @DisplayName("a thread pinned to the primary reads from it")
+  public void givenPinnedThread_whenGetConnection_thenPrimary() {
+    // given
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    ReadRouting readRouting = new ReadRouting(new EmployeeReplicaProperties(true, List.of(), Duration.ofSeconds(5),
+        Duration.ofSeconds(5), Duration.ofSeconds(5)));
+
+    // then
+    Connection connection = readRouting.onPrimary(() -> {
+      try {
+        return dataSource.getConnection();
+      } catch (SQLException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    assertThat(connection).isSameAs(primaryConnection);
+  }
+}
@@ -0,0 +1,60 @@
+package com.example.springtesttutorial.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.springtesttutorial.model.EmployeeSuggestion;
+
+// not picked up by the default surefire includes, run it explicitly (needs about 1g of heap):
+// ./mvnw test -Dtest=EmployeePrefixIndexBenchmark
+public class EmployeePrefixIndexBenchmark {
+
+  private static final int EMPLOYEES = 1_000_000;
+
+  private static final int QUERIES = 200_000;
+
+  private static final String[] FIRST_NAMES = { "John", "Jane", "Jack", "Mary", "Peter", "Anna", "Paul", "Linda",
+      "Mark", "Susan", "Tom", "Emma", "James", "Olivia", "Robert", "Sophia", "Michael", "Isabella", "David", "Mia" };
+
+  @Test
+  @DisplayName("memory per 1M employees and search latency percentiles")
+  public void measureMemoryAndLatency() {
+    Random random = new Random(42);
+    EmployeePrefixIndex index = new EmployeePrefixIndex(10_000, Duration.ofMinutes(5));
+    index.load(sink -> {
+      for (int i = 1; i <= EMPLOYEES; i++) {
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = "Last" + random.nextInt(50_000);
+        sink.accept(new EmployeeSuggestion(i, firstName, lastName, firstName.toLowerCase() + "." + i + "@mail.com"));
+      }
+    });
+
+    String[] prefixes = { "j", "jo", "joh", "last1", "last12", "mar", "mary.12", "so", "pe", "emma.9" };
+    for (int i = 0; i < QUERIES / 10; i++) {
+      index.search(prefixes[i % prefixes.length], 10);
+    }
+
+    long[] nanos = new long[QUERIES];
+    for (int i = 0; i < QUERIES; i++) {
+      String prefix = prefixes[random.nextInt(prefixes.length)];
+      long start = System.nanoTime();
+      index.search(prefix, 10);
+      nanos[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(nanos);
+
+    System.out.printf("%nprefix index: %,d employees, %,d bytes (%.1f MB, %.0f bytes/employee)%n"
+        + "search p50 %.1f us, p99 %.1f us, p99.9 %.1f us%n%n",
+        index.entries(), index.memoryBytes(), index.memoryBytes() / 1_048_576.0,
+        index.memoryBytes() / (double) EMPLOYEES,
+        nanos[QUERIES / 2] / 1000.0, nanos[QUERIES * 99 / 100] / 1000.0, nanos[QUERIES * 999 / 1000] / 1000.0);
+
+    assertThat(nanos[QUERIES * 99 / 100]).isLessThan(1_000_000L);
+  }
+}
@@ -0,0 +1,145 @@
+package com.example.springtesttutorial.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.springtesttutorial.model.EmployeeSuggestion;
+
+public class EmployeePrefixIndexTest {
+
+  private EmployeePrefixIndex index;
+
+  private EmployeeSuggestion john;
+  private EmployeeSuggestion jane;
+  private EmployeeSuggestion jack;
+
+  @BeforeEach
+  public void setUp() {
+    index = new EmployeePrefixIndex(100, Duration.ofMinutes(5));
+    john = new EmployeeSuggestion(1L, "John", "Doe", "john.doe@mail.com");
+    jane = new EmployeeSuggestion(2L, "Jane", "Johnson", "jane@mail.com");
+    jack = new EmployeeSuggestion(3L, "Jack", "Smith", "jsmith@mail.com");
+    index.load(sink -> List.of(john, jane, jack).forEach(sink));
+  }
+
+  @Test
+  @DisplayName("prefix matches first name, last name and email case-insensitively")
+  public void givenLoadedIndex_whenSearch_thenMatchAnyFieldPrefix() {
+    // when
+    List<EmployeeSuggestion> suggestions = index.search("JOH", 10);
+
+    // then: john by first name ("john") and jane by last name ("johnson"), in term order
+    assertThat(suggestions).containsExactly(john, jane);
+    assertThat(index.search("jsm", 10)).containsExactly(jack);
+    assertThat(index.search("x", 10)).isEmpty();
+    assertThat(index.search("  ", 10)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("an employee matching several terms is suggested once")
+  public void givenSeveralMatchingTerms_whenSearch_thenSuggestEmployeeOnce() {
+    // when
+    List<EmployeeSuggestion> suggestions = index.search("j", 10);
+
+    // then
+    assertThat(suggestions).containsExactlyInAnyOrder(john, jane, jack);
+    assertThat(index.search("j", 2)).hasSize(2);
+  }
+
+  @Test
+  @DisplayName("an employee matching on all three fields takes one slot, the limit is filled with others")
+  public void givenEmployeeMatchingSeveralTerms_whenSearch_thenFillLimitWithDistinctEmployees() {
+    // given: one employee of each pair matches "ma" / "mo" on its first name, last name and email
+    EmployeeSuggestion mo = new EmployeeSuggestion(4L, "Mo", "Mob", "moc@mail.com");
+    EmployeeSuggestion moz = new EmployeeSuggestion(5L, "Moz", "Berg", "berg@mail.com");
+    EmployeeSuggestion ma = new EmployeeSuggestion(6L, "Ma", "Mab", "mac@mail.com");
+    EmployeeSuggestion maz = new EmployeeSuggestion(7L, "Maz", "Berg", "maz.berg@mail.com");
+    index.load(sink -> List.of(mo, moz).forEach(sink));
+
+    // when: written after the load, so searched in the delta
+    index.put(ma);
+    index.put(maz);
+
+    // then
+    assertThat(index.search("mo", 2)).containsExactly(mo, moz);
+    assertThat(index.search("ma", 2)).containsExactly(ma, maz);
+  }
+
+  @Test
+  @DisplayName("writes after the load are visible")
+  public void givenWrites_whenSearch_thenReflectPutAndRemove() {
+    // given
+    EmployeeSuggestion renamed = new EmployeeSuggestion(1L, "Jonathan", "Doe", "john.doe@mail.com");
+    EmployeeSuggestion added = new EmployeeSuggestion(4L, "Johanna", "Berg", "jb@mail.com");
+
+    // when
+    index.put(renamed);
+    index.put(added);
+    index.remove(2L);
+
+    // then
+    assertThat(index.search("joh", 10)).containsExactly(added, renamed);
+    assertThat(index.search("jonathan", 10)).containsExactly(renamed);
+    assertThat(index.search("jane", 10)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("a change older than the one held is dropped, also after a removal")
+  public void givenOlderChange_whenPut_thenKeepNewerVersion() {
+    // given
+    EmployeeSuggestion renamed = new EmployeeSuggestion(1L, "Jonathan", "Doe", "john.doe@mail.com", 2L);
+    EmployeeSuggestion late = new EmployeeSuggestion(1L, "Johnny", "Doe", "john.doe@mail.com", 1L);
+
+    // when
+    index.put(renamed);
+    index.put(late);
+    index.remove(2L);
+    index.put(jane);
+
+    // then
+    assertThat(index.search("jo", 10)).containsExactly(renamed);
+    assertThat(index.version(1L)).isEqualTo(2L);
+    assertThat(index.search("jane", 10)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("the delta is folded into a new segment once it is full")
+  public void givenMoreWritesThanDeltaSize_whenSearch_thenResultsSurviveCompaction() {
+    // given
+    EmployeePrefixIndex small = new EmployeePrefixIndex(2, Duration.ofMinutes(5));
+    small.load(sink -> sink.accept(john));
+
+    // when
+    small.put(jane);
+    small.put(jack);
+    small.put(new EmployeeSuggestion(4L, "Johanna", "Berg", "jb@mail.com"));
+    small.remove(1L);
+
+    // then
+    assertThat(small.entries()).isEqualTo(3);
+    assertThat(small.search("joh", 10)).extracting(EmployeeSuggestion::getId).containsExactly(4L, 2L);
+  }
+
+  @Test
+  @DisplayName("writes made during a load are not lost")
+  public void givenWriteDuringLoad_whenLoadFinishes_thenWriteIsKept() {
+    // given
+    EmployeeSuggestion added = new EmployeeSuggestion(4L, "Johanna", "Berg", "jb@mail.com");
+
+    // when
+    index.load(sink -> {
+      sink.accept(john);
+      index.put(added);
+      index.remove(1L);
+    });
+
+    // then
+    assertThat(index.search("joh", 10)).containsExactly(added);
+  }
+}
@@ -0,0 +1,140 @@
+package com.example.springtesttutorial.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.example.springtesttutorial.cache.EmployeeChangedEvent;
+import com.example.springtesttutorial.cache.EmployeeChangedEvent.Change;
+import com.example.springtesttutorial.config.EmployeeReplicaProperties;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeeSuggestion;
+import com.example.springtesttutorial.repository.EmployeeRepository;
+import com.example.springtesttutorial.routing.ReadRouting;
+import com.example.springtesttutorial.service.EmployeeService;
+import com.example.springtesttutorial.snapshot.EmployeeSnapshotStore;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeePrefixIndexUpdaterTest {
+
+  @Mock
+  private EmployeePrefixIndex index;
+
+  @Mock
+  private EmployeeService employeeService;
+
+  @Mock
+  private EmployeeRepository employeeRepository;
+
+  @Mock
+  private ObjectProvider<EmployeeSnapshotStore> snapshotStore;
+
+  @Spy
+  private ReadRouting readRouting = new ReadRouting(new EmployeeReplicaProperties(false, List.of(), Duration.ofSeconds(5),
+      Duration.ofSeconds(5), Duration.ofSeconds(5)));
+
+  private ExecutorService drainer;
+
+  private EmployeePrefixIndexUpdater updater;
+
+  @BeforeEach
+  public void setup() {
+    drainer = Executors.newSingleThreadExecutor();
+    updater = new EmployeePrefixIndexUpdater(index, employeeService, employeeRepository, snapshotStore, readRouting, drainer);
+  }
+
+  // the index methods are synchronized, verifying while the drain runs would hold the mock's monitor
+  private void awaitDrained() throws InterruptedException {
+    drainer.shutdown();
+    assertThat(drainer.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  @DisplayName("a local change is applied from the written employee without a query")
+  public void givenLocalChange_whenOnChanged_thenPutWrittenEmployee() throws InterruptedException {
+    // given
+    Employee employee = Employee.builder().id(1L).firstName("John").lastName("Doe").email("John@mail.com").build();
+
+    // when
+    updater.onChanged(EmployeeChangedEvent.local(employee));
+
+    // then
+    awaitDrained();
+    verify(index).put(new EmployeeSuggestion(1L, "John", "Doe", "John@mail.com"));
+    verifyNoInteractions(employeeRepository);
+  }
+
+  @Test
+  @DisplayName("a bulk change is applied row by row")
+  public void givenBulkChange_whenOnChanged_thenPutEveryEmployee() throws InterruptedException {
+    // given
+    List<Employee> employees = List.of(
+        Employee.builder().id(1L).firstName("John").lastName("Doe").email("John@mail.com").build(),
+        Employee.builder().id(2L).firstName("Jane").lastName("Doe").email("Jane@mail.com").build());
+
+    // when
+    updater.onChanged(EmployeeChangedEvent.local(employees));
+
+    // then
+    awaitDrained();
+    verify(index).put(new EmployeeSuggestion(1L, "John", "Doe", "John@mail.com"));
+    verify(index).put(new EmployeeSuggestion(2L, "Jane", "Doe", "Jane@mail.com"));
+  }
+
+  @Test
+  @DisplayName("a remote change is read back from the primary")
+  public void givenRemoteChange_whenOnChanged_thenPutCurrentRow() throws InterruptedException {
+    // given
+    Employee employee = Employee.builder().id(1L).firstName("John").lastName("Doe").email("John@mail.com").version(2L).build();
+    BDDMockito.given(employeeRepository.findAllById(List.of(1L))).willReturn(List.of(employee));
+
+    // when
+    updater.onChanged(new EmployeeChangedEvent(List.of(new Change(1L, 2L, null)), true));
+
+    // then
+    awaitDrained();
+    verify(index).put(new EmployeeSuggestion(1L, "John", "Doe", "John@mail.com", 2L));
+  }
+
+  @Test
+  @DisplayName("a remote change the index already holds is not read back")
+  public void givenRemoteChangeNotNewer_whenOnChanged_thenSkipReadBack() throws InterruptedException {
+    // given
+    BDDMockito.given(index.version(1L)).willReturn(2L);
+
+    // when
+    updater.onChanged(new EmployeeChangedEvent(List.of(new Change(1L, 2L, null)), true));
+
+    // then
+    awaitDrained();
+    verifyNoInteractions(employeeRepository);
+  }
+
+  @Test
+  @DisplayName("deleted employee is removed from the index")
+  public void givenDeletedEmployee_whenOnChanged_thenRemove() throws InterruptedException {
+    // when
+    updater.onChanged(new EmployeeChangedEvent(EmployeeChangedEvent.deleted(1L).changes(), true));
+
+    // then
+    awaitDrained();
+    verify(index).remove(1L);
+    verifyNoInteractions(employeeRepository);
+  }
+}
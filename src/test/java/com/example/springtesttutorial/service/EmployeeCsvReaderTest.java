@@ -0,0 +1,48 @@
+package com.example.springtesttutorial.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.springtesttutorial.service.EmployeeCsvReader.CsvRecord;
+
+public class EmployeeCsvReaderTest {
+
+  @Test
+  @DisplayName("read plain records")
+  public void givenPlainCsv_whenNext_thenReturnRecordsWithLineNumbers() throws IOException {
+    // given
+    EmployeeCsvReader reader = new EmployeeCsvReader(new StringReader("John,Doe,John@mail.com\r\nJane,Doe,Jane@mail.com"));
+
+    // when
+    CsvRecord first = reader.next();
+    CsvRecord second = reader.next();
+
+    // then
+    assertThat(first).isEqualTo(new CsvRecord(1, List.of("John", "Doe", "John@mail.com")));
+    assertThat(second).isEqualTo(new CsvRecord(2, List.of("Jane", "Doe", "Jane@mail.com")));
+    assertThat(reader.next()).isNull();
+  }
+
+  @Test
+  @DisplayName("read quoted fields")
+  public void givenQuotedFields_whenNext_thenUnescapeCommasQuotesAndLineBreaks() throws IOException {
+    // given
+    EmployeeCsvReader reader = new EmployeeCsvReader(new StringReader(
+        "\"Doe, John\",\"the \"\"boss\"\"\",\"multi\nline\"\nJane,Doe,Jane@mail.com\n"));
+
+    // when
+    CsvRecord first = reader.next();
+    CsvRecord second = reader.next();
+
+    // then
+    assertThat(first).isEqualTo(new CsvRecord(1, List.of("Doe, John", "the \"boss\"", "multi\nline")));
+    assertThat(second).isEqualTo(new CsvRecord(3, List.of("Jane", "Doe", "Jane@mail.com")));
+    assertThat(reader.next()).isNull();
+  }
+}
@@ -0,0 +1,111 @@
+package com.example.springtesttutorial.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.springtesttutorial.integration.AbstractContainerBaseTest;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeeImportError;
+import com.example.springtesttutorial.model.EmployeeImportReport;
+import com.example.springtesttutorial.repository.EmployeeRepository;
+
+// COPY is postgres only, so this runs against the container
+@SpringBootTest
+public class EmployeeImportServiceTestPostgresContainer extends AbstractContainerBaseTest {
+
+  @Autowired
+  private EmployeeImportService employeeImportService;
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  public void clearDatabase() {
+    employeeRepository.deleteAll();
+  }
+
+  @Test
+  @DisplayName("import csv")
+  public void givenCsv_whenImportEmployees_thenInsertValidRowsAndReportErrors() {
+    // given
+    employeeRepository.save(Employee.builder().firstName("John").lastName("Doe").email("John@mail.com").build());
+
+    String csv = """
+        firstName,lastName,email
+        Jane,Doe,Jane@mail.com
+        John,Doe,John@mail.com
+        Jack,Doe
+        Jane,Again,Jane@mail.com
+        "Doe, Jr.",Jim,Jim@mail.com
+        """;
+
+    // when
+    EmployeeImportReport report = employeeImportService.importEmployees(
+        new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+    // then
+    assertThat(report.getImported()).isEqualTo(2);
+    assertThat(report.getRejected()).isEqualTo(3);
+    assertThat(report.getErrors()).extracting(EmployeeImportError::getLine).containsExactlyInAnyOrder(3L, 4L, 5L);
+    assertThat(employeeRepository.count()).isEqualTo(3);
+    assertThat(employeeRepository.findByEmail("Jim@mail.com")).get()
+        .extracting(Employee::getFirstName).isEqualTo("Doe, Jr.");
+  }
+
+  @Test
+  @DisplayName("import racing a concurrent insert of the same email")
+  public void givenConcurrentInsert_whenImportEmployees_thenReportSkippedRowAsDuplicate() throws Exception {
+    String csv = """
+        Jane,Doe,Jane@mail.com
+        John,Doe,John@mail.com
+        """;
+
+    try (Connection other = dataSource.getConnection()) {
+      // given: another transaction holds john@mail.com in the unique index but has not committed yet
+      other.setAutoCommit(false);
+      try (Statement statement = other.createStatement()) {
+        statement.executeUpdate("INSERT INTO employees (id, first_name, last_name, email, version) "
+            + "VALUES (nextval('employees_seq'), 'Johnny', 'Doe', 'john@MAIL.com', 0)");
+      }
+
+      // when: the import passes its duplicate check, waits on the index entry and then skips the row
+      CompletableFuture<EmployeeImportReport> importing = CompletableFuture.supplyAsync(() ->
+          employeeImportService.importEmployees(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+      while (jdbcTemplate.queryForObject(
+          "SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'", Long.class) == 0) {
+        Thread.sleep(10);
+      }
+      other.commit();
+      EmployeeImportReport report = importing.get();
+
+      // then
+      assertThat(report.getImported()).isEqualTo(1);
+      assertThat(report.getRejected()).isEqualTo(1);
+      assertThat(report.getErrors()).singleElement().satisfies(error -> {
+        assertThat(error.getLine()).isEqualTo(2L);
+        assertThat(error.getMessage()).isEqualTo("Employee with email John@mail.com already exists");
+      });
+      assertThat(employeeRepository.count()).isEqualTo(2);
+    }
+  }
+}
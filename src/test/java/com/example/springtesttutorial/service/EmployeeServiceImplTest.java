@@ -2,25 +2,66 @@ package com.example.springtesttutorial.service;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.springtesttutorial.cache.EmployeeBatchLoader;
+import com.example.springtesttutorial.cache.EmployeeCache;
+import com.example.springtesttutorial.cache.EmployeeChangedEvent;
+import com.example.springtesttutorial.cache.EmployeeLookupCoalescer;
+import com.example.springtesttutorial.config.EmployeeCacheProperties;
+import com.example.springtesttutorial.config.EmployeeReplicaProperties;
+import com.example.springtesttutorial.exception.BatchTooLargeException;
 import com.example.springtesttutorial.exception.EmployeeAlreadyExistsException;
 import com.example.springtesttutorial.exception.EmployeeNotFoundException;
+import com.example.springtesttutorial.exception.EmployeeVersionMismatchException;
+import com.example.springtesttutorial.exception.InvalidDeleteRequestException;
+import com.example.springtesttutorial.exception.InvalidFieldsException;
+import com.example.springtesttutorial.exception.InvalidSearchException;
+import com.example.springtesttutorial.exception.InvalidCursorException;
 import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeeDeleteReport;
+import com.example.springtesttutorial.model.EmployeeDeleteRequest;
+import com.example.springtesttutorial.model.EmployeeFieldsPage;
+import com.example.springtesttutorial.model.EmployeeLookupResult;
+import com.example.springtesttutorial.model.EmployeePage;
+import com.example.springtesttutorial.model.EmployeeSearch;
 import com.example.springtesttutorial.repository.EmployeeRepository;
+import com.example.springtesttutorial.routing.ReadRouting;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 
 @ExtendWith(MockitoExtension.class)
 public class EmployeeServiceImplTest {
@@ -28,6 +69,26 @@ public class EmployeeServiceImplTest {
   @Mock
   private EmployeeRepository employeeRepository;
 
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Spy
+  private EmployeeLookupCoalescer lookupCoalescer = new EmployeeLookupCoalescer();
+
+  @Mock
+  private EmployeeBatchLoader batchLoader;
+
+  @Spy
+  private EmployeeCache employeeCache = new EmployeeCache(
+      new EmployeeCacheProperties(true, 100, Duration.ofMinutes(10), false, Duration.ofSeconds(5)));
+
+  @Spy
+  private ReadRouting readRouting = new ReadRouting(new EmployeeReplicaProperties(false, List.of(), Duration.ofSeconds(5),
+      Duration.ofSeconds(5), Duration.ofSeconds(5)));
+
   @InjectMocks
   private EmployeeServiceImpl employeeService;
 
@@ -45,27 +106,91 @@ public class EmployeeServiceImplTest {
   @DisplayName("save employee")
   public void givenEmployee_whenSaveEmployee_thenEmployeeIsSaved() {
     // given
-    BDDMockito.given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
-    BDDMockito.given(employeeRepository.save(employee)).willReturn(employee);
+    BDDMockito.given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
 
     // when
     Employee savedEmployee = employeeService.saveEmployee(employee);
 
     // then
     assertThat(savedEmployee).isNotNull();
+    verify(employeeRepository, never()).findByEmail(employee.getEmail());
   }
 
   @Test
   @DisplayName("save employee exception")
   public void givenExistingEmail_whenSaveEmployee_thenThrowException() {
     // given
-    BDDMockito.given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+    BDDMockito.given(employeeRepository.saveAndFlush(employee)).willThrow(emailConflict());
 
     // when
-    assertThrows(EmployeeAlreadyExistsException.class, () -> {
+    EmployeeAlreadyExistsException exception = assertThrows(EmployeeAlreadyExistsException.class, () -> {
       employeeService.saveEmployee(employee);
     });
 
+    // then
+    assertThat(exception.getMessage()).isEqualTo("Employee with email John@mail.com already exists");
+  }
+
+  @Test
+  @DisplayName("save employee other constraint violation")
+  public void givenOtherConstraintViolation_whenSaveEmployee_thenRethrow() {
+    // given
+    DataIntegrityViolationException notNull = new DataIntegrityViolationException("not null",
+        new ConstraintViolationException("not null", new SQLException(), null));
+    BDDMockito.given(employeeRepository.saveAndFlush(employee)).willThrow(notNull);
+
+    // when
+    assertThrows(DataIntegrityViolationException.class, () -> {
+      employeeService.saveEmployee(employee);
+    });
+  }
+
+  @Test
+  @DisplayName("save employees batch")
+  public void givenEmployees_whenSaveEmployees_thenCheckEmailsOnceAndSaveAll() {
+    // given
+    Employee employee2 = Employee.builder().firstName("Jane").lastName("Doe").email("Jane@mail.com").build();
+    BDDMockito.given(employeeRepository.findExistingEmails(Set.of("john@mail.com", "jane@mail.com")))
+        .willReturn(List.of());
+
+    // when
+    List<Employee> savedEmployees = employeeService.saveEmployees(List.of(employee, employee2));
+
+    // then
+    assertThat(savedEmployees).containsExactly(employee, employee2);
+    verify(employeeRepository).save(employee);
+    verify(employeeRepository).save(employee2);
+    verify(employeeRepository, never()).findByEmail(ArgumentMatchers.anyString());
+    verify(eventPublisher).publishEvent(EmployeeChangedEvent.local(List.of(employee, employee2)));
+  }
+
+  @Test
+  @DisplayName("save employees batch duplicate in batch")
+  public void givenDuplicateEmailInBatch_whenSaveEmployees_thenThrowException() {
+    // given
+    Employee duplicate = Employee.builder().firstName("Johnny").lastName("Doe").email("JOHN@mail.com").build();
+
+    // when
+    assertThrows(EmployeeAlreadyExistsException.class, () -> {
+      employeeService.saveEmployees(List.of(employee, duplicate));
+    });
+
+    // then
+    verify(employeeRepository, never()).save(ArgumentMatchers.any(Employee.class));
+  }
+
+  @Test
+  @DisplayName("save employees batch existing email")
+  public void givenExistingEmail_whenSaveEmployees_thenThrowException() {
+    // given
+    BDDMockito.given(employeeRepository.findExistingEmails(Set.of("john@mail.com")))
+        .willReturn(List.of(employee.getEmail()));
+
+    // when
+    assertThrows(EmployeeAlreadyExistsException.class, () -> {
+      employeeService.saveEmployees(List.of(employee));
+    });
+
     // then
     verify(employeeRepository, never()).save(employee);
   }
@@ -101,6 +226,180 @@ public class EmployeeServiceImplTest {
     assertThat(employees.size()).isEqualTo(0);
   }
 
+  @Test
+  @DisplayName("get employee page")
+  public void givenMoreEmployeesThanPageSize_whenGetEmployeePage_thenReturnPageWithNextCursor() {
+    // given
+    Employee employee1 = Employee.builder().id(1L).firstName("John").lastName("Doe").email("John@mail.com").build();
+    Employee employee2 = Employee.builder().id(2L).firstName("Jane").lastName("Doe").email("Jane@mail.com").build();
+    Employee employee3 = Employee.builder().id(3L).firstName("Jack").lastName("Doe").email("Jack@mail.com").build();
+
+    BDDMockito.given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(3)))
+        .willReturn(List.of(employee1, employee2, employee3));
+    BDDMockito.given(employeeRepository.findByIdGreaterThanOrderByIdAsc(2L, PageRequest.ofSize(3)))
+        .willReturn(List.of(employee3));
+
+    // when
+    EmployeePage firstPage = employeeService.getEmployeePage(null, 2);
+    EmployeePage lastPage = employeeService.getEmployeePage(firstPage.getNext(), 2);
+
+    // then
+    assertThat(firstPage.getContent()).containsExactly(employee1, employee2);
+    assertThat(firstPage.getNext()).isNotNull();
+    assertThat(lastPage.getContent()).containsExactly(employee3);
+    assertThat(lastPage.getNext()).isNull();
+  }
+
+  @Test
+  @DisplayName("get employee page size is bounded")
+  public void givenTooLargeSize_whenGetEmployeePage_thenClampToMaxPageSize() {
+    // given
+    BDDMockito.given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L,
+        PageRequest.ofSize(EmployeeServiceImpl.MAX_PAGE_SIZE + 1))).willReturn(List.of());
+
+    // when
+    EmployeePage page = employeeService.getEmployeePage(null, 1_000_000);
+
+    // then
+    assertThat(page.getContent()).isEmpty();
+    assertThat(page.getNext()).isNull();
+  }
+
+  @Test
+  @DisplayName("get employee page invalid cursor")
+  public void givenInvalidCursor_whenGetEmployeePage_thenThrowException() {
+    // when
+    assertThrows(InvalidCursorException.class, () -> {
+      employeeService.getEmployeePage("not a cursor", null);
+    });
+  }
+
+  @Test
+  @DisplayName("search employees without filter uses the keyset page")
+  public void givenNoFilter_whenSearchEmployees_thenUseIdKeyset() {
+    // given
+    BDDMockito.given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(EmployeeServiceImpl.DEFAULT_PAGE_SIZE + 1)))
+        .willReturn(List.of(employee));
+
+    // when
+    EmployeePage page = employeeService.searchEmployees(new EmployeeSearch(), null, null);
+
+    // then
+    assertThat(page.getContent()).containsExactly(employee);
+    verify(employeeRepository, never()).findBy(ArgumentMatchers.<Specification<Employee>>any(), ArgumentMatchers.any());
+  }
+
+  @Test
+  @DisplayName("search employees by filter")
+  public void givenFilter_whenSearchEmployees_thenQueryBySpecification() {
+    // given
+    Employee employee2 = Employee.builder().id(2L).firstName("Jane").lastName("Doe").email("Jane@mail.com").build();
+    BDDMockito.given(employeeRepository.findBy(ArgumentMatchers.<Specification<Employee>>any(), ArgumentMatchers.any()))
+        .willReturn(List.of(employee, employee2));
+
+    // when
+    EmployeePage page = employeeService.searchEmployees(EmployeeSearch.builder().lastName("Doe").sort("lastName").build(), null, 1);
+
+    // then
+    assertThat(page.getContent()).containsExactly(employee);
+    assertThat(page.getNext()).isNotNull();
+    assertThat(EmployeeNameCursor.decode(page.getNext()))
+        .isEqualTo(new EmployeeNameCursor(employee.getLastName(), employee.getFirstName(), employee.getId()));
+  }
+
+  @Test
+  @DisplayName("search employees with unknown sort")
+  public void givenUnknownSort_whenSearchEmployees_thenThrowException() {
+    // when
+    assertThrows(InvalidSearchException.class, () -> {
+      employeeService.searchEmployees(EmployeeSearch.builder().sort("email").build(), null, null);
+    });
+  }
+
+  @Test
+  @DisplayName("search employees with sort no index can serve")
+  public void givenSortByNameAndDomainFilter_whenSearchEmployees_thenThrowException() {
+    // when
+    assertThrows(InvalidSearchException.class, () -> {
+      employeeService.searchEmployees(EmployeeSearch.builder().emailDomain("mail.com").sort("lastName").build(), null, null);
+    });
+
+    // then
+    verify(employeeRepository, never()).findBy(ArgumentMatchers.<Specification<Employee>>any(), ArgumentMatchers.any());
+  }
+
+  @Test
+  @DisplayName("get employee page with fields")
+  public void givenFields_whenGetEmployeePage_thenSelectOnlyThoseFieldsAndId() {
+    // given
+    Set<String> attributes = Set.of("id", "email");
+    BDDMockito.given(employeeRepository.findFieldsByIdGreaterThan(ArgumentMatchers.argThat(attributes::equals),
+        ArgumentMatchers.eq(0L), ArgumentMatchers.eq(2)))
+        .willReturn(List.of(Map.of("id", 1L, "email", "John@mail.com"), Map.of("id", 2L, "email", "Jane@mail.com")));
+
+    // when
+    EmployeeFieldsPage page = employeeService.getEmployeePage(null, 1, List.of("email"));
+
+    // then
+    assertThat(page.getContent()).containsExactly(Map.of("id", 1L, "email", "John@mail.com"));
+    assertThat(page.getNext()).isNotNull();
+    verify(employeeRepository, never()).findByIdGreaterThanOrderByIdAsc(ArgumentMatchers.anyLong(), ArgumentMatchers.any());
+  }
+
+  @Test
+  @DisplayName("get employee page with unknown field")
+  public void givenUnknownField_whenGetEmployeePage_thenThrowException() {
+    // when
+    assertThrows(InvalidFieldsException.class, () -> {
+      employeeService.getEmployeePage(null, null, List.of("salary"));
+    });
+  }
+
+  @Test
+  @DisplayName("get employee by id with fields from the cache")
+  public void givenCachedEmployee_whenGetEmployeeByIdWithFields_thenProjectWithoutQuery() {
+    // given
+    employeeCache.put(employee);
+
+    // when
+    Map<String, Object> foundEmployee = employeeService.getEmployeeById(employee.getId(), List.of("email"));
+
+    // then
+    assertThat(foundEmployee).containsExactly(Map.entry("id", employee.getId()), Map.entry("email", employee.getEmail()));
+    verify(employeeRepository, never()).findFieldsById(ArgumentMatchers.any(), ArgumentMatchers.anyLong());
+  }
+
+  @Test
+  @DisplayName("get employee by id with fields not found")
+  public void givenNoEmployee_whenGetEmployeeByIdWithFields_thenThrowException() {
+    // given
+    BDDMockito.given(employeeRepository.findFieldsById(ArgumentMatchers.any(), ArgumentMatchers.eq(50L)))
+        .willReturn(Optional.empty());
+
+    // when
+    assertThrows(EmployeeNotFoundException.class, () -> {
+      employeeService.getEmployeeById(50L, List.of("email"));
+    });
+  }
+
+  @Test
+  @DisplayName("for each employee")
+  public void givenEmployees_whenForEachEmployee_thenVisitAndDetachEachEmployee() {
+    // given
+    Employee employee2 = Employee.builder().firstName("Jane").lastName("Doe").email("Jane@mail.com").build();
+    BDDMockito.given(employeeRepository.streamAll()).willReturn(Stream.of(employee, employee2));
+
+    List<Employee> visited = new ArrayList<>();
+
+    // when
+    employeeService.forEachEmployee(visited::add);
+
+    // then
+    assertThat(visited).containsExactly(employee, employee2);
+    verify(entityManager).detach(employee);
+    verify(entityManager).detach(employee2);
+  }
+
   @Test
   @DisplayName("get employee by id")
   public void givenEmployeeId_whenGetEmployeeById_thenReturnEmployee() {
@@ -115,6 +414,176 @@ public class EmployeeServiceImplTest {
     assertThat(foundEmployee.getEmail()).isEqualTo(employee.getEmail());
   }
 
+  @Test
+  @DisplayName("get employee by id is cached")
+  public void givenEmployeeId_whenGetEmployeeByIdTwice_thenQueryRepositoryOnce() {
+    // given
+    BDDMockito.given(employeeRepository.findById(employee.getId())).willReturn(Optional.of(employee));
+
+    // when
+    employeeService.getEmployeeById(employee.getId());
+    Employee foundEmployee = employeeService.getEmployeeById(employee.getId());
+
+    // then
+    assertThat(foundEmployee).isEqualTo(employee);
+    verify(employeeRepository, times(1)).findById(employee.getId());
+  }
+
+  @Test
+  @DisplayName("concurrent misses for one id share a single query")
+  public void givenConcurrentMisses_whenGetEmployeeById_thenQueryRepositoryOnce() throws Exception {
+    // given: the query only returns once every caller has asked for the employee
+    int callers = 8;
+    CountDownLatch allAsked = new CountDownLatch(1);
+    BDDMockito.given(employeeRepository.findById(employee.getId())).willAnswer(invocation -> {
+      allAsked.await(5, TimeUnit.SECONDS);
+      return Optional.of(employee);
+    });
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    lookupCoalescer.bindTo(registry);
+
+    // when
+    ExecutorService executor = Executors.newFixedThreadPool(callers);
+    try {
+      List<Future<Employee>> results = new ArrayList<>();
+      for (int i = 0; i < callers; i++) {
+        results.add(executor.submit(() -> employeeService.getEmployeeById(employee.getId())));
+      }
+      while (registry.get("employee.lookup.coalesced").tag("key", "id").functionCounter().count() < callers - 1) {
+        Thread.sleep(5);
+      }
+      allAsked.countDown();
+
+      // then
+      for (Future<Employee> result : results) {
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(employee);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    verify(employeeRepository, times(1)).findById(employee.getId());
+    assertThat(employeeCache.getIfPresent(employee.getId())).contains(employee);
+  }
+
+  @Test
+  @DisplayName("delete employee evicts cache")
+  public void givenCachedEmployee_whenDeleteEmployee_thenNextGetQueriesRepository() {
+    // given
+    BDDMockito.given(employeeRepository.findById(employee.getId()))
+        .willReturn(Optional.of(employee))
+        .willReturn(Optional.empty());
+    employeeService.getEmployeeById(employee.getId());
+
+    BDDMockito.given(employeeRepository.deleteEmployeeById(employee.getId())).willReturn(1);
+
+    // when
+    employeeService.deleteEmployee(employee.getId(), null);
+
+    // then
+    assertThrows(EmployeeNotFoundException.class, () -> {
+      employeeService.getEmployeeById(employee.getId());
+    });
+    verify(employeeRepository, times(2)).findById(employee.getId());
+  }
+
+  @Test
+  @DisplayName("get employee by id through the batch loader")
+  public void givenBatchLoaderEnabled_whenGetEmployeeById_thenLoadThroughBatchLoader() {
+    // given
+    BDDMockito.given(batchLoader.isEnabled()).willReturn(true);
+    BDDMockito.given(batchLoader.load(employee.getId())).willReturn(Optional.of(employee));
+
+    // when
+    Employee foundEmployee = employeeService.getEmployeeById(employee.getId());
+
+    // then
+    assertThat(foundEmployee).isEqualTo(employee);
+    verify(employeeRepository, never()).findById(employee.getId());
+  }
+
+  @Test
+  @DisplayName("get recently changed employee by id bypasses the batch loader")
+  public void givenRecentChange_whenGetEmployeeById_thenReadOnPrimaryWithoutBatchLoader() {
+    // given
+    BDDMockito.given(batchLoader.isEnabled()).willReturn(true);
+    BDDMockito.willReturn(true).given(readRouting).requiresPrimary(employee.getId());
+    BDDMockito.given(employeeRepository.findById(employee.getId())).willReturn(Optional.of(employee));
+
+    // when
+    Employee foundEmployee = employeeService.getEmployeeById(employee.getId());
+
+    // then
+    assertThat(foundEmployee).isEqualTo(employee);
+    verify(batchLoader, never()).load(ArgumentMatchers.anyLong());
+    verify(readRouting).onPrimary(ArgumentMatchers.any());
+  }
+
+  @Test
+  @DisplayName("get employees by ids")
+  public void givenIds_whenGetEmployeesByIds_thenReturnFoundInRequestedOrderAndMissing() {
+    // given
+    Employee employee1 = Employee.builder().id(1L).firstName("John").lastName("Doe").email("John@mail.com").build();
+    Employee employee2 = Employee.builder().id(2L).firstName("Jane").lastName("Doe").email("Jane@mail.com").build();
+    Employee employee3 = Employee.builder().id(3L).firstName("Jack").lastName("Doe").email("Jack@mail.com").build();
+
+    // employee 3 is already cached and must not be queried again
+    employeeCache.put(employee3);
+    BDDMockito.given(employeeRepository.findAllById(List.of(2L, 9L, 1L))).willReturn(List.of(employee1, employee2));
+
+    // when
+    EmployeeLookupResult result = employeeService.getEmployeesByIds(List.of(3L, 2L, 9L, 1L, 2L));
+
+    // then
+    assertThat(result.getContent()).containsExactly(employee3, employee2, employee1);
+    assertThat(result.getMissing()).containsExactly(9L);
+    verify(employeeRepository, times(1)).findAllById(ArgumentMatchers.any());
+  }
+
+  @Test
+  @DisplayName("get employees by ids too many")
+  public void givenTooManyIds_whenGetEmployeesByIds_thenThrowException() {
+    // given
+    List<Long> ids = new ArrayList<>();
+    for (long id = 1; id <= EmployeeServiceImpl.MAX_LOOKUP_IDS + 1; id++) {
+      ids.add(id);
+    }
+
+    // when
+    assertThrows(BatchTooLargeException.class, () -> {
+      employeeService.getEmployeesByIds(ids);
+    });
+
+    // then
+    verify(employeeRepository, never()).findAllById(ArgumentMatchers.any());
+  }
+
+  @Test
+  @DisplayName("get employee by email")
+  public void givenEmail_whenGetEmployeeByEmail_thenReturnEmployee() {
+    // given
+    BDDMockito.given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+
+    // when
+    Employee foundEmployee = employeeService.getEmployeeByEmail(employee.getEmail());
+
+    // then
+    assertThat(foundEmployee).isEqualTo(employee);
+    verify(lookupCoalescer).byEmail(ArgumentMatchers.eq(employee.getEmail()), ArgumentMatchers.any());
+  }
+
+  @Test
+  @DisplayName("get employee by email exception")
+  public void givenUnknownEmail_whenGetEmployeeByEmail_thenThrowException() {
+    // given
+    BDDMockito.given(employeeRepository.findByEmail("nobody@mail.com")).willReturn(Optional.empty());
+
+    // when
+    assertThrows(EmployeeNotFoundException.class, () -> {
+      employeeService.getEmployeeByEmail("nobody@mail.com");
+    });
+  }
+
   @Test
   @DisplayName("get employee by id exception")
   public void givenNoEmployeeId_whenGetEmployeeById_thenThrowException() {
@@ -131,21 +600,23 @@ public class EmployeeServiceImplTest {
   @DisplayName("update employee")
   public void givenEmployee_whenUpdateEmployee_thenReturnUpdatedEmployee() {
     // given
-    Employee employee = Employee.builder().id(1L).firstName("John").lastName("Doe").email("John@mail.com").build();
+    Employee changes = Employee.builder().firstName("Jack").build();
     Employee updatedEmployee = Employee.builder().id(1L).firstName("Jack").lastName("Doe").email("John@mail.com")
         .build();
 
-    BDDMockito.given(employeeRepository.findById(employee.getId())).willReturn(Optional.of(employee));
-    BDDMockito.given(employeeRepository.save(updatedEmployee)).willReturn(updatedEmployee);
+    BDDMockito.given(employeeRepository.updatePartially(1L, null, changes)).willReturn(Optional.of(updatedEmployee));
 
     // when
-    Employee result = employeeService.updateEmployee(1L, updatedEmployee);
+    Employee result = employeeService.updateEmployee(1L, null, changes);
 
     // then
     assertThat(result).isNotNull();
     assertThat(result.getFirstName()).isEqualTo(updatedEmployee.getFirstName());
-    verify(employeeRepository).findById(employee.getId());
-    verify(employeeRepository).save(updatedEmployee);
+    assertThat(result.getLastName()).isEqualTo(updatedEmployee.getLastName());
+    verify(employeeRepository).updatePartially(1L, null, changes);
+    verify(employeeRepository, never()).findById(ArgumentMatchers.anyLong());
+    verify(employeeRepository, never()).save(ArgumentMatchers.any(Employee.class));
+    verify(eventPublisher).publishEvent(EmployeeChangedEvent.local(updatedEmployee));
   }
 
   @Test
@@ -156,30 +627,169 @@ public class EmployeeServiceImplTest {
     Employee updatedEmployee = Employee.builder().id(id).firstName("Jack").lastName("Doe").email("John@mail.com")
         .build();
 
-    BDDMockito.given(employeeRepository.findById(updatedEmployee.getId())).willReturn(Optional.empty());
+    BDDMockito.given(employeeRepository.updatePartially(id, null, updatedEmployee)).willReturn(Optional.empty());
 
     // when
     assertThrows(EmployeeNotFoundException.class, () -> {
-      employeeService.updateEmployee(id,updatedEmployee);
+      employeeService.updateEmployee(id, null, updatedEmployee);
     });
 
     // then
-    verify(employeeRepository).findById(updatedEmployee.getId());
-    verify(employeeRepository, never()).save(updatedEmployee);
+    verify(employeeRepository).updatePartially(id, null, updatedEmployee);
+    verify(eventPublisher, never()).publishEvent(ArgumentMatchers.any(Object.class));
+  }
+
+  @Test
+  @DisplayName("update employee with stale version")
+  public void givenStaleVersion_whenUpdateEmployee_thenThrowVersionMismatch() {
+    // given
+    Employee changes = Employee.builder().firstName("Jack").build();
+
+    BDDMockito.given(employeeRepository.updatePartially(1L, 3L, changes)).willReturn(Optional.empty());
+    BDDMockito.given(employeeRepository.existsById(1L)).willReturn(true);
+
+    // when
+    assertThrows(EmployeeVersionMismatchException.class, () -> {
+      employeeService.updateEmployee(1L, 3L, changes);
+    });
+
+    // then
+    verify(eventPublisher, never()).publishEvent(ArgumentMatchers.any(Object.class));
+  }
+
+  @Test
+  @DisplayName("update employee with taken email")
+  public void givenTakenEmail_whenUpdateEmployee_thenThrowEmployeeAlreadyExistsException() {
+    // given
+    Employee changes = Employee.builder().email("Taken@mail.com").build();
+
+    BDDMockito.given(employeeRepository.updatePartially(1L, null, changes)).willThrow(emailConflict());
+
+    // when
+    assertThrows(EmployeeAlreadyExistsException.class, () -> {
+      employeeService.updateEmployee(1L, null, changes);
+    });
+
+    // then
+    verify(eventPublisher, never()).publishEvent(ArgumentMatchers.any(Object.class));
+  }
+
+  @Test
+  @DisplayName("update employee without changes")
+  public void givenNoChanges_whenUpdateEmployee_thenReturnCurrentEmployee() {
+    // given
+    BDDMockito.given(employeeRepository.findById(employee.getId())).willReturn(Optional.of(employee));
+
+    // when
+    Employee result = employeeService.updateEmployee(employee.getId(), null, new Employee());
+
+    // then
+    assertThat(result).isEqualTo(employee);
+    verify(employeeRepository, never()).updatePartially(ArgumentMatchers.anyLong(), ArgumentMatchers.any(), ArgumentMatchers.any());
   }
 
   @Test
   @DisplayName("delete employee")
   public void givenEmployeeId_whenDeleteEmployee_thenEmployeeIsDeleted() {
     // given
-    BDDMockito.doNothing().when(employeeRepository).deleteById(employee.getId());
+    BDDMockito.given(employeeRepository.deleteEmployeeById(employee.getId())).willReturn(1);
 
     // when
-    employeeService.deleteEmployee(employee.getId());
+    employeeService.deleteEmployee(employee.getId(), null);
 
     // then
-    verify(employeeRepository).deleteById(employee.getId());
+    verify(employeeRepository).deleteEmployeeById(employee.getId());
+    verify(employeeRepository, never()).findById(ArgumentMatchers.anyLong());
+    verify(eventPublisher).publishEvent(EmployeeChangedEvent.deleted(employee.getId()));
+  }
+
+  @Test
+  @DisplayName("delete employee with stale version")
+  public void givenStaleVersion_whenDeleteEmployee_thenThrowVersionMismatch() {
+    // given
+    BDDMockito.given(employeeRepository.deleteEmployeeByIdAndVersion(1L, 3L)).willReturn(0);
+    BDDMockito.given(employeeRepository.existsById(1L)).willReturn(true);
+
+    // when
+    assertThrows(EmployeeVersionMismatchException.class, () -> {
+      employeeService.deleteEmployee(1L, 3L);
+    });
+
+    // then
+    verify(employeeRepository, never()).deleteEmployeeById(ArgumentMatchers.anyLong());
+  }
+
+  @Test
+  @DisplayName("delete employee exception")
+  public void givenNoEmployee_whenDeleteEmployee_thenThrowException() {
+    // given
+    BDDMockito.given(employeeRepository.deleteEmployeeById(99L)).willReturn(0);
+
+    // when
+    assertThrows(EmployeeNotFoundException.class, () -> {
+      employeeService.deleteEmployee(99L, null);
+    });
+
+    // then
+    verify(eventPublisher, never()).publishEvent(ArgumentMatchers.any(Object.class));
+  }
+
+  @Test
+  @DisplayName("delete employees by ids in chunks")
+  public void givenIds_whenDeleteEmployees_thenDeleteInChunks() {
+    // given
+    List<Long> ids = new ArrayList<>();
+    for (long id = 1; id <= EmployeeServiceImpl.DELETE_CHUNK_SIZE + 1; id++) {
+      ids.add(id);
+    }
+    BDDMockito.given(employeeRepository.deleteAllByIdReturning(ArgumentMatchers.anyList()))
+        .willAnswer(invocation -> invocation.getArgument(0));
+
+    // when
+    EmployeeDeleteReport report = employeeService.deleteEmployees(EmployeeDeleteRequest.builder().ids(ids).build());
+
+    // then
+    assertThat(report.getDeleted()).isEqualTo(ids.size());
+    verify(employeeRepository, times(2)).deleteAllByIdReturning(ArgumentMatchers.anyList());
+    verify(eventPublisher).publishEvent(EmployeeChangedEvent.deleted(ids.subList(0, EmployeeServiceImpl.DELETE_CHUNK_SIZE)));
+    verify(eventPublisher).publishEvent(EmployeeChangedEvent.deleted(List.of((long) ids.size())));
+  }
+
+  @Test
+  @DisplayName("delete employees by filter until no full chunk is left")
+  public void givenFilter_whenDeleteEmployees_thenRepeatWhileChunksAreFull() {
+    // given
+    List<Long> fullChunk = new ArrayList<>();
+    for (long id = 1; id <= EmployeeServiceImpl.DELETE_CHUNK_SIZE; id++) {
+      fullChunk.add(id);
+    }
+    BDDMockito.given(employeeRepository.deleteMatchingReturning("Doe", null, EmployeeServiceImpl.DELETE_CHUNK_SIZE))
+        .willReturn(fullChunk)
+        .willReturn(List.of(1000L));
+
+    // when
+    EmployeeDeleteReport report = employeeService.deleteEmployees(EmployeeDeleteRequest.builder().lastName("Doe").build());
+
+    // then
+    assertThat(report.getDeleted()).isEqualTo(EmployeeServiceImpl.DELETE_CHUNK_SIZE + 1);
+    verify(employeeRepository, times(2)).deleteMatchingReturning("Doe", null, EmployeeServiceImpl.DELETE_CHUNK_SIZE);
+  }
+
+  @Test
+  @DisplayName("delete employees without ids or filter")
+  public void givenEmptyRequest_whenDeleteEmployees_thenThrowException() {
+    // when
+    assertThrows(InvalidDeleteRequestException.class, () -> {
+      employeeService.deleteEmployees(new EmployeeDeleteRequest());
+    });
+
+    // then
+    verify(employeeRepository, never()).deleteMatchingReturning(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyInt());
+  }
+
+  private static DataIntegrityViolationException emailConflict() {
+    return new DataIntegrityViolationException("duplicate key",
+        new ConstraintViolationException("duplicate key", new SQLException(), EmployeeServiceImpl.EMAIL_UNIQUE_INDEX));
   }
-  
 
 }
@@ -0,0 +1,237 @@
+package com.example.springtesttutorial.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.example.springtesttutorial.cache.EmployeeChangedEvent;
+import com.example.springtesttutorial.exception.BatchTooLargeException;
+import com.example.springtesttutorial.exception.EmployeeAlreadyExistsException;
+import com.example.springtesttutorial.exception.EmployeeNotFoundException;
+import com.example.springtesttutorial.exception.EmployeeVersionMismatchException;
+import com.example.springtesttutorial.exception.InvalidDeleteRequestException;
+import com.example.springtesttutorial.exception.InvalidSearchException;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeeDeleteRequest;
+import com.example.springtesttutorial.model.EmployeeLookupResult;
+import com.example.springtesttutorial.model.EmployeePage;
+import com.example.springtesttutorial.model.EmployeeSearch;
+
+@ExtendWith(MockitoExtension.class)
+public class InMemoryEmployeeServiceTest {
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  private InMemoryEmployeeService employeeService;
+
+  @BeforeEach
+  public void setUp() {
+    employeeService = new InMemoryEmployeeService(eventPublisher);
+  }
+
+  private Employee save(String firstName, String lastName, String email) {
+    return employeeService.saveEmployee(Employee.builder().firstName(firstName).lastName(lastName).email(email).build());
+  }
+
+  @Test
+  @DisplayName("saved employee gets an id and version 0 and is found by id and email")
+  public void givenEmployee_whenSave_thenFindByIdAndEmail() {
+    // when
+    Employee saved = save("John", "Doe", "John@mail.com");
+
+    // then
+    assertThat(saved.getId()).isPositive();
+    assertThat(saved.getVersion()).isZero();
+    assertThat(employeeService.getEmployeeById(saved.getId())).isEqualTo(saved);
+    assertThat(employeeService.getEmployeeByEmail("john@MAIL.com")).isEqualTo(saved);
+    verify(eventPublisher).publishEvent(EmployeeChangedEvent.local(saved));
+  }
+
+  @Test
+  @DisplayName("email is unique regardless of case, also within a batch")
+  public void givenExistingEmail_whenSave_thenThrowAlreadyExists() {
+    // given
+    save("John", "Doe", "john@mail.com");
+
+    // then
+    assertThrows(EmployeeAlreadyExistsException.class, () -> save("Other", "Doe", "JOHN@mail.com"));
+    assertThrows(EmployeeAlreadyExistsException.class, () -> employeeService.saveEmployees(List.of(
+        Employee.builder().email("a@mail.com").build(), Employee.builder().email("A@mail.com").build())));
+    assertThrows(EmployeeAlreadyExistsException.class, () -> employeeService.saveEmployees(List.of(
+        Employee.builder().email("b@mail.com").build(), Employee.builder().email("john@mail.com").build())));
+    assertThat(employeeService.getAllEmployees()).hasSize(1);
+  }
+
+  @Test
+  @DisplayName("batch save assigns ids to the given employees")
+  public void givenBatch_whenSaveEmployees_thenAssignIds() {
+    // given
+    List<Employee> employees = List.of(Employee.builder().firstName("John").email("john@mail.com").build(),
+        Employee.builder().firstName("Jane").email("jane@mail.com").build());
+
+    // when
+    List<Employee> saved = employeeService.saveEmployees(employees);
+
+    // then
+    assertThat(saved).extracting(Employee::getId).doesNotContain(0L).doesNotHaveDuplicates();
+    assertThat(employeeService.getAllEmployees()).extracting(Employee::getFirstName).containsExactly("John", "Jane");
+  }
+
+  @Test
+  @DisplayName("pages follow the id order with keyset cursors")
+  public void givenEmployees_whenGetEmployeePage_thenPageById() {
+    // given
+    Employee john = save("John", "Doe", "john@mail.com");
+    Employee jane = save("Jane", "Doe", "jane@mail.com");
+    Employee jack = save("Jack", "Smith", "jack@mail.com");
+
+    // when
+    EmployeePage first = employeeService.getEmployeePage(null, 2);
+    EmployeePage second = employeeService.getEmployeePage(first.getNext(), 2);
+
+    // then
+    assertThat(first.getContent()).containsExactly(john, jane);
+    assertThat(second.getContent()).containsExactly(jack);
+    assertThat(second.getNext()).isNull();
+  }
+
+  @Test
+  @DisplayName("search filters and sorts by name like the database engine")
+  public void givenEmployees_whenSearch_thenFilterAndSort() {
+    // given
+    Employee john = save("John", "Doe", "john@corp.com");
+    Employee adam = save("Adam", "Doe", "adam@mail.com");
+    Employee jack = save("Jack", "Smith", "jack@CORP.com");
+
+    // when
+    EmployeePage byDomain = employeeService.searchEmployees(EmployeeSearch.builder().emailDomain("corp.com").build(), null, 10);
+    EmployeePage byName = employeeService.searchEmployees(EmployeeSearch.builder().lastName("Doe").sort("lastName").build(), null, 1);
+    EmployeePage byNameNext = employeeService.searchEmployees(EmployeeSearch.builder().lastName("Doe").sort("lastName").build(), byName.getNext(), 1);
+    EmployeePage all = employeeService.searchEmployees(EmployeeSearch.builder().sort("lastName").build(), null, 10);
+
+    // then
+    assertThat(byDomain.getContent()).containsExactly(john, jack);
+    assertThat(byName.getContent()).containsExactly(adam);
+    assertThat(byNameNext.getContent()).containsExactly(john);
+    assertThat(all.getContent()).containsExactly(adam, john, jack);
+    assertThrows(InvalidSearchException.class,
+        () -> employeeService.searchEmployees(EmployeeSearch.builder().sort("email").build(), null, 10));
+  }
+
+  @Test
+  @DisplayName("renamed employee moves in the name order")
+  public void givenRename_whenSearchByName_thenNewPosition() {
+    // given
+    Employee john = save("John", "Doe", "john@mail.com");
+    save("Jack", "Smith", "jack@mail.com");
+
+    // when
+    employeeService.updateEmployee(john.getId(), null, Employee.builder().lastName("Zed").build());
+
+    // then
+    EmployeePage all = employeeService.searchEmployees(EmployeeSearch.builder().sort("lastName").build(), null, 10);
+    assertThat(all.getContent()).extracting(Employee::getLastName).containsExactly("Smith", "Zed");
+  }
+
+  @Test
+  @DisplayName("update writes the supplied fields, bumps the version and checks the expected one")
+  public void givenExistingEmployee_whenUpdate_thenChangeFieldsAndVersion() {
+    // given
+    Employee john = save("John", "Doe", "john@mail.com");
+    save("Jane", "Doe", "jane@mail.com");
+
+    // when
+    Employee updated = employeeService.updateEmployee(john.getId(), 0L, Employee.builder().email("jd@mail.com").build());
+
+    // then
+    assertThat(updated.getFirstName()).isEqualTo("John");
+    assertThat(updated.getEmail()).isEqualTo("jd@mail.com");
+    assertThat(updated.getVersion()).isEqualTo(1L);
+    assertThat(employeeService.getEmployeeByEmail("jd@mail.com")).isEqualTo(updated);
+    assertThrows(EmployeeNotFoundException.class, () -> employeeService.getEmployeeByEmail("john@mail.com"));
+    assertThrows(EmployeeVersionMismatchException.class,
+        () -> employeeService.updateEmployee(john.getId(), 0L, Employee.builder().firstName("X").build()));
+    assertThrows(EmployeeAlreadyExistsException.class,
+        () -> employeeService.updateEmployee(john.getId(), null, Employee.builder().email("JANE@mail.com").build()));
+    assertThrows(EmployeeNotFoundException.class,
+        () -> employeeService.updateEmployee(99L, null, Employee.builder().firstName("X").build()));
+  }
+
+  @Test
+  @DisplayName("returned employees are copies")
+  public void givenReturnedEmployee_whenChanged_thenStoreUnchanged() {
+    // given
+    Employee john = save("John", "Doe", "john@mail.com");
+
+    // when
+    john.setFirstName("Changed");
+    employeeService.getEmployeeById(john.getId()).setFirstName("Changed");
+
+    // then
+    assertThat(employeeService.getEmployeeById(john.getId()).getFirstName()).isEqualTo("John");
+  }
+
+  @Test
+  @DisplayName("delete checks the version and frees the email")
+  public void givenExistingEmployee_whenDelete_thenRemove() {
+    // given
+    Employee john = save("John", "Doe", "john@mail.com");
+
+    // then
+    assertThrows(EmployeeVersionMismatchException.class, () -> employeeService.deleteEmployee(john.getId(), 5L));
+    employeeService.deleteEmployee(john.getId(), 0L);
+    assertThrows(EmployeeNotFoundException.class, () -> employeeService.getEmployeeById(john.getId()));
+    assertThrows(EmployeeNotFoundException.class, () -> employeeService.deleteEmployee(john.getId(), null));
+    assertThat(save("John", "Doe", "john@mail.com").getId()).isNotEqualTo(john.getId());
+  }
+
+  @Test
+  @DisplayName("bulk delete by ids or filter reports the deleted count")
+  public void givenEmployees_whenDeleteEmployees_thenReportDeleted() {
+    // given
+    Employee john = save("John", "Doe", "john@mail.com");
+    save("Jane", "Doe", "jane@corp.com");
+    Employee jack = save("Jack", "Smith", "jack@corp.com");
+
+    // then
+    assertThat(employeeService.deleteEmployees(EmployeeDeleteRequest.builder().ids(List.of(john.getId(), 99L)).build())
+        .getDeleted()).isEqualTo(1);
+    assertThat(employeeService.deleteEmployees(EmployeeDeleteRequest.builder().lastName("Doe").emailDomain("CORP.com").build())
+        .getDeleted()).isEqualTo(1);
+    assertThat(employeeService.getAllEmployees()).containsExactly(jack);
+    assertThrows(InvalidDeleteRequestException.class, () -> employeeService.deleteEmployees(new EmployeeDeleteRequest()));
+  }
+
+  @Test
+  @DisplayName("id lookup and sparse reads")
+  public void givenEmployees_whenLookup_thenReportMissingAndProject() {
+    // given
+    Employee john = save("John", "Doe", "john@mail.com");
+
+    // when
+    EmployeeLookupResult lookup = employeeService.getEmployeesByIds(List.of(john.getId(), 99L));
+    Map<String, Object> fields = employeeService.getEmployeeById(john.getId(), List.of("email"));
+
+    // then
+    assertThat(lookup.getContent()).containsExactly(john);
+    assertThat(lookup.getMissing()).containsExactly(99L);
+    assertThat(fields).containsExactly(Map.entry("id", john.getId()), Map.entry("email", "john@mail.com"));
+    assertThat(employeeService.getEmployeePage(null, 10, List.of("lastName")).getContent())
+        .containsExactly(Map.of("id", john.getId(), "lastName", "Doe"));
+    assertThrows(BatchTooLargeException.class, () -> employeeService.getEmployeesByIds(
+        LongStream.rangeClosed(1, EmployeeServiceImpl.MAX_LOOKUP_IDS + 1).boxed().toList()));
+  }
+}
@@ -0,0 +1,160 @@
+package com.example.springtesttutorial.service;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.example.springtesttutorial.cache.EmployeeChangedEvent;
+import com.example.springtesttutorial.exception.EmployeeAlreadyExistsException;
+import com.example.springtesttutorial.exception.EmployeeNotFoundException;
+import com.example.springtesttutorial.exception.EmployeeVersionMismatchException;
+import com.example.springtesttutorial.exception.InvalidCursorException;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeeDeleteReport;
+import com.example.springtesttutorial.model.EmployeeDeleteRequest;
+import com.example.springtesttutorial.model.EmployeePage;
+import com.example.springtesttutorial.repository.ReactiveEmployeeRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveEmployeeServiceTest {
+
+  @Mock
+  private ReactiveEmployeeRepository employeeRepository;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @InjectMocks
+  private ReactiveEmployeeService employeeService;
+
+  private static Employee employee(long id, String email) {
+    return Employee.builder().id(id).firstName("John").lastName("Doe").email(email).build();
+  }
+
+  @Test
+  @DisplayName("save employee with an existing email")
+  public void givenExistingEmail_whenSaveEmployee_thenThrowEmployeeAlreadyExistsException() {
+    // given
+    BDDMockito.given(employeeRepository.insert(ArgumentMatchers.any())).willReturn(Mono.error(
+        new DataIntegrityViolationException("duplicate key value violates unique constraint \"uk_employees_email\"")));
+
+    // when
+    EmployeeAlreadyExistsException exception = assertThrows(EmployeeAlreadyExistsException.class,
+        () -> employeeService.saveEmployee(employee(0, "John@mail.com")).block());
+
+    // then
+    assertThat(exception.getMessage()).isEqualTo("Employee with email John@mail.com already exists");
+  }
+
+  @Test
+  @DisplayName("save employees returns them in input order")
+  public void givenEmployees_whenSaveEmployees_thenReturnSavedInInputOrder() {
+    // given
+    List<Employee> employees = List.of(employee(0, "a@mail.com"), employee(0, "B@mail.com"));
+    BDDMockito.given(employeeRepository.findExistingEmails(ArgumentMatchers.any())).willReturn(Flux.empty());
+    BDDMockito.given(employeeRepository.insertAll(employees))
+        .willReturn(Flux.just(employee(51, "B@mail.com"), employee(1, "a@mail.com")));
+
+    // when
+    List<Employee> saved = employeeService.saveEmployees(employees).block();
+
+    // then
+    assertThat(saved).extracting(Employee::getId).containsExactly(1L, 51L);
+  }
+
+  @Test
+  @DisplayName("save employees with a duplicate email in the batch")
+  public void givenDuplicateEmailInBatch_whenSaveEmployees_thenNothingIsInserted() {
+    // when
+    assertThrows(EmployeeAlreadyExistsException.class, () -> employeeService.saveEmployees(
+        List.of(employee(0, "John@mail.com"), employee(0, "john@MAIL.com"))).block());
+
+    // then
+    verify(employeeRepository, never()).insertAll(ArgumentMatchers.any());
+  }
+
+  @Test
+  @DisplayName("page with more rows than the page size")
+  public void givenMoreRows_whenGetEmployeePage_thenReturnNextCursor() {
+    // given
+    BDDMockito.given(employeeRepository.search(null, null, null, false, null, null, 0L, 3))
+        .willReturn(Flux.just(employee(1, "a@mail.com"), employee(2, "b@mail.com"), employee(3, "c@mail.com")));
+
+    // when
+    EmployeePage page = employeeService.getEmployeePage(null, 2).block();
+
+    // then
+    assertThat(page.getContent()).extracting(Employee::getId).containsExactly(1L, 2L);
+    assertThat(EmployeeCursor.decode(page.getNext()).lastId()).isEqualTo(2L);
+  }
+
+  @Test
+  @DisplayName("page with a bad cursor")
+  public void givenBadCursor_whenGetEmployeePage_thenThrowInvalidCursorException() {
+    // when
+    Mono<EmployeePage> page = employeeService.getEmployeePage("not-a-cursor", null);
+
+    // then
+    assertThrows(InvalidCursorException.class, page::block);
+  }
+
+  @Test
+  @DisplayName("update of an employee whose version moved on")
+  public void givenStaleVersion_whenUpdateEmployee_thenThrowEmployeeVersionMismatchException() {
+    // given
+    Employee changes = Employee.builder().firstName("Jane").build();
+    BDDMockito.given(employeeRepository.updatePartially(1L, 2L, changes)).willReturn(Mono.empty());
+    BDDMockito.given(employeeRepository.existsById(1L)).willReturn(Mono.just(true));
+
+    // when / then
+    assertThrows(EmployeeVersionMismatchException.class, () -> employeeService.updateEmployee(1L, 2L, changes).block());
+  }
+
+  @Test
+  @DisplayName("delete of a missing employee")
+  public void givenMissingId_whenDeleteEmployee_thenThrowEmployeeNotFoundException() {
+    // given
+    BDDMockito.given(employeeRepository.deleteById(1L, null)).willReturn(Mono.just(0L));
+
+    // when / then
+    assertThrows(EmployeeNotFoundException.class, () -> employeeService.deleteEmployee(1L, null).block());
+    verify(employeeRepository, never()).existsById(ArgumentMatchers.anyLong());
+  }
+
+  @Test
+  @DisplayName("delete by filter runs chunks until one comes back short")
+  public void givenFilter_whenDeleteEmployees_thenDeleteInChunks() {
+    // given
+    Flux<Long> fullChunk = Flux.fromStream(LongStream.range(0, EmployeeServiceImpl.DELETE_CHUNK_SIZE).boxed());
+    BDDMockito.given(employeeRepository.deleteMatchingReturning("Doe", null, EmployeeServiceImpl.DELETE_CHUNK_SIZE))
+        .willReturn(fullChunk, Flux.just(1L, 2L));
+
+    // when
+    EmployeeDeleteReport report = employeeService.deleteEmployees(
+        EmployeeDeleteRequest.builder().lastName("Doe").build()).block();
+
+    // then
+    assertThat(report.getDeleted()).isEqualTo(EmployeeServiceImpl.DELETE_CHUNK_SIZE + 2);
+    verify(employeeRepository, times(2)).deleteMatchingReturning("Doe", null, EmployeeServiceImpl.DELETE_CHUNK_SIZE);
+    verify(eventPublisher).publishEvent(EmployeeChangedEvent.deleted(List.of(1L, 2L)));
+  }
+}
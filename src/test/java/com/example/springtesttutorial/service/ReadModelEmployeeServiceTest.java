@@ -0,0 +1,115 @@
+package com.example.springtesttutorial.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.springtesttutorial.exception.EmployeeNotFoundException;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.model.EmployeeLookupResult;
+import com.example.springtesttutorial.model.EmployeePage;
+import com.example.springtesttutorial.model.EmployeeSearch;
+import com.example.springtesttutorial.readmodel.EmployeeReadModel;
+
+@ExtendWith(MockitoExtension.class)
+public class ReadModelEmployeeServiceTest {
+
+  @Mock
+  private EmployeeServiceImpl delegate;
+
+  private EmployeeReadModel readModel;
+
+  private ReadModelEmployeeService employeeService;
+
+  private Employee john;
+  private Employee jane;
+
+  @BeforeEach
+  public void setUp() {
+    readModel = new EmployeeReadModel(100, Duration.ofMinutes(5));
+    employeeService = new ReadModelEmployeeService(delegate, readModel);
+    john = Employee.builder().id(1L).firstName("John").lastName("Doe").email("john@mail.com").build();
+    jane = Employee.builder().id(2L).firstName("Jane").lastName("Doe").email("jane@mail.com").build();
+  }
+
+  @Test
+  @DisplayName("reads go to the database until the read model is loaded")
+  public void givenUnloadedReadModel_whenRead_thenDelegate() {
+    // given
+    BDDMockito.given(delegate.getEmployeeById(1L)).willReturn(john);
+
+    // when
+    Employee employee = employeeService.getEmployeeById(1L);
+
+    // then
+    assertThat(employee).isEqualTo(john);
+  }
+
+  @Test
+  @DisplayName("loaded read model answers by id, by email and lookups without the database")
+  public void givenLoadedReadModel_whenRead_thenServeFromMemory() {
+    // given
+    readModel.load(sink -> List.of(john, jane).forEach(sink));
+
+    // when
+    Employee byId = employeeService.getEmployeeById(2L);
+    Employee byEmail = employeeService.getEmployeeByEmail("JOHN@mail.com");
+    EmployeeLookupResult lookup = employeeService.getEmployeesByIds(List.of(2L, 9L, 1L));
+
+    // then
+    assertThat(byId).isEqualTo(jane);
+    assertThat(byEmail).isEqualTo(john);
+    assertThat(lookup.getContent()).containsExactly(jane, john);
+    assertThat(lookup.getMissing()).containsExactly(9L);
+    assertThrows(EmployeeNotFoundException.class, () -> employeeService.getEmployeeById(9L));
+    verifyNoInteractions(delegate);
+  }
+
+  @Test
+  @DisplayName("unfiltered list is paged from the read model with the same cursors")
+  public void givenLoadedReadModel_whenSearchWithoutFilter_thenPageFromMemory() {
+    // given
+    readModel.load(sink -> List.of(john, jane).forEach(sink));
+
+    // when
+    EmployeePage first = employeeService.searchEmployees(new EmployeeSearch(), null, 1);
+    EmployeePage second = employeeService.searchEmployees(new EmployeeSearch(), first.getNext(), 1);
+
+    // then
+    assertThat(first.getContent()).containsExactly(john);
+    assertThat(first.getNext()).isEqualTo(new EmployeeCursor(1L).encode());
+    assertThat(second.getContent()).containsExactly(jane);
+    assertThat(second.getNext()).isNull();
+    verifyNoInteractions(delegate);
+  }
+
+  @Test
+  @DisplayName("filtered searches and writes go to the database service")
+  public void givenFilterOrWrite_whenCalled_thenDelegate() {
+    // given
+    readModel.load(sink -> List.of(john, jane).forEach(sink));
+    EmployeeSearch search = EmployeeSearch.builder().lastName("Doe").build();
+
+    // when
+    employeeService.searchEmployees(search, null, 10);
+    employeeService.saveEmployee(john);
+    employeeService.deleteEmployee(2L, null);
+
+    // then
+    verify(delegate).searchEmployees(search, null, 10);
+    verify(delegate).saveEmployee(john);
+    verify(delegate).deleteEmployee(2L, null);
+  }
+}
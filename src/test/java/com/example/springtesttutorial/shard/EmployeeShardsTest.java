@@ -0,0 +1,72 @@
+package com.example.springtesttutorial.shard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class EmployeeShardsTest {
+
+  private final EmployeeShards shards = new EmployeeShards(Collections.nCopies(3, Mockito.mock(DataSource.class)),
+      EmployeeShards.fanOutExecutor(3));
+
+  @AfterEach
+  public void tearDown() throws Exception {
+    shards.close();
+  }
+
+  @Test
+  @DisplayName("placement never changes, rows written by an older version must be found by a newer one")
+  public void givenIdsAndEmails_whenShardOf_thenFixedPlacement() {
+    assertThat(LongStream.of(1, 2, 3, 4, 5, 1_000_000).map(shards::shardOf).toArray())
+        .containsExactly(1, 0, 2, 1, 2, 2);
+    assertThat(shards.shardOfEmail("john@mail.com")).isEqualTo(2);
+    assertThat(shards.shardOfEmail("JOHN@Mail.com")).isEqualTo(2);
+    assertThat(shards.shardOfEmail("jane@mail.com")).isEqualTo(0);
+  }
+
+  @Test
+  @DisplayName("consecutive ids spread evenly over the shards")
+  public void givenConsecutiveIds_whenShardOf_thenEvenSpread() {
+    long[] counts = new long[shards.size()];
+    LongStream.rangeClosed(1, 300_000).forEach(id -> counts[shards.shardOf(id)]++);
+
+    assertThat(LongStream.of(counts).boxed()).allSatisfy(count -> assertThat(count).isBetween(99_000L, 101_000L));
+  }
+
+  @Test
+  @DisplayName("a fan out returns results in shard order and fails only after every shard has finished")
+  public void givenFailingShard_whenFanOut_thenWaitForAllAndRethrow() {
+    assertThat(shards.fanOut(shard -> "shard-" + shard)).containsExactly("shard-0", "shard-1", "shard-2");
+
+    // given
+    List<Integer> finished = new CopyOnWriteArrayList<>();
+
+    // when
+    assertThatThrownBy(() -> shards.fanOut(shard -> {
+      if (shard == 0) {
+        throw new IllegalStateException("shard 0 is down");
+      }
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      finished.add(shard);
+      return shard;
+    })).isInstanceOf(IllegalStateException.class).hasMessage("shard 0 is down");
+
+    // then
+    assertThat(finished).containsExactlyInAnyOrder(1, 2);
+  }
+}
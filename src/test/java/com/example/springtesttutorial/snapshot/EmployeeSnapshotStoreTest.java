@@ -0,0 +1,139 @@
+package com.example.springtesttutorial.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.springtesttutorial.cache.EmployeeChangedEvent;
+import com.example.springtesttutorial.config.EmployeeSnapshotProperties;
+import com.example.springtesttutorial.model.Employee;
+import com.example.springtesttutorial.repository.EmployeeRepository;
+import com.example.springtesttutorial.service.EmployeeService;
+
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeSnapshotStoreTest {
+
+  @Mock
+  private EmployeeService employeeService;
+
+  @Mock
+  private EmployeeRepository employeeRepository;
+
+  @Mock
+  private EntityManager entityManager;
+
+  @TempDir
+  private Path directory;
+
+  private Path path;
+
+  private EmployeeSnapshotStore snapshotStore;
+
+  @BeforeEach
+  public void setUp() {
+    path = directory.resolve("employees.snapshot");
+    snapshotStore = new EmployeeSnapshotStore(employeeService, employeeRepository, entityManager,
+        new EmployeeSnapshotProperties(true, path, Duration.ofHours(1)));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    snapshotStore.destroy();
+  }
+
+  private static Employee employee(long id, String firstName, long version) {
+    return Employee.builder().id(id).firstName(firstName).lastName("Doe").email(firstName + "@mail.com").version(version).build();
+  }
+
+  @Test
+  @DisplayName("unchanged rows come from the snapshot, created and updated rows from the database, deleted rows are left out")
+  public void givenSnapshotAndChanges_whenForEachEmployee_thenCatchUp() throws IOException {
+    // given: the snapshot has 1, 2 and 4; since then 2 was updated, 4 deleted, 3 created from an
+    // earlier id block, 5 and 6 created after the snapshot's highest id
+    EmployeeSnapshot.write(path, sink -> List.of(employee(1, "john", 0), employee(2, "jane", 0), employee(4, "jack", 0)).forEach(sink));
+    BDDMockito.given(employeeRepository.streamIdsAndVersionsUpTo(4L)).willReturn(Stream.of(
+        new Object[] { 1L, 0L }, new Object[] { 2L, 1L }, new Object[] { 3L, 0L }));
+    BDDMockito.given(employeeRepository.findAllById(List.of(2L, 3L)))
+        .willReturn(List.of(employee(2, "janet", 1), employee(3, "anna", 0)));
+    BDDMockito.given(employeeRepository.streamAllAfter(4L))
+        .willReturn(Stream.of(employee(5, "paul", 0), employee(6, "mary", 0)));
+
+    // when
+    List<Employee> employees = new ArrayList<>();
+    snapshotStore.forEachEmployee(employees::add);
+
+    // then
+    assertThat(snapshotStore.isAvailable()).isTrue();
+    assertThat(employees).containsExactly(employee(1, "john", 0), employee(2, "janet", 1), employee(3, "anna", 0),
+        employee(5, "paul", 0), employee(6, "mary", 0));
+  }
+
+  @Test
+  @DisplayName("a damaged snapshot falls back to loading the whole table")
+  public void givenDamagedSnapshot_whenForEachEmployee_thenLoadFromDatabase() throws IOException {
+    // given
+    Files.write(path, new byte[] { 1, 2, 3 });
+
+    // when
+    snapshotStore.forEachEmployee(employee -> {
+    });
+
+    // then
+    verify(employeeService).forEachEmployee(ArgumentMatchers.any());
+  }
+
+  @Test
+  @DisplayName("the periodic write is skipped while no employee changed since the last one")
+  public void givenNoChangeSinceWrite_whenWriteIfChanged_thenSkip() {
+    // given: the first interval always writes
+    snapshotStore.writeIfChanged();
+
+    // when
+    snapshotStore.writeIfChanged();
+    snapshotStore.onChanged(EmployeeChangedEvent.deleted(1L));
+    snapshotStore.writeIfChanged();
+
+    // then
+    verify(employeeService, times(2)).forEachEmployee(ArgumentMatchers.any());
+  }
+
+  @Test
+  @DisplayName("write stores the employees of the service")
+  public void givenEmployees_whenWrite_thenSnapshotHoldsThem() throws IOException {
+    // given
+    BDDMockito.willAnswer(invocation -> {
+      invocation.<Consumer<Employee>>getArgument(0).accept(employee(1, "john", 2));
+      return null;
+    }).given(employeeService).forEachEmployee(ArgumentMatchers.any());
+
+    // when
+    snapshotStore.write();
+
+    // then
+    try (EmployeeSnapshot snapshot = EmployeeSnapshot.open(path)) {
+      assertThat(snapshot).containsExactly(employee(1, "john", 2));
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.example.springtesttutorial.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.springtesttutorial.model.Employee;
+
+public class EmployeeSnapshotTest {
+
+  @TempDir
+  private Path directory;
+
+  private final Employee john = Employee.builder().id(1L).firstName("John").lastName("Doe").email("john@mail.com").version(3L).build();
+  private final Employee jose = Employee.builder().id(7L).firstName("José").lastName(null).email("jose@mail.com").build();
+
+  @Test
+  @DisplayName("written employees are read back in id order with header data")
+  public void givenEmployees_whenWriteAndOpen_thenReadBack() throws IOException {
+    // given
+    Path path = directory.resolve("employees.snapshot");
+
+    // when
+    int count = EmployeeSnapshot.write(path, sink -> List.of(john, jose).forEach(sink));
+
+    // then
+    assertThat(count).isEqualTo(2);
+    assertThat(Files.exists(directory.resolve("employees.snapshot.tmp"))).isFalse();
+    try (EmployeeSnapshot snapshot = EmployeeSnapshot.open(path)) {
+      assertThat(snapshot.count()).isEqualTo(2);
+      assertThat(snapshot.maxId()).isEqualTo(7L);
+      assertThat(snapshot.createdAt()).isNotNull();
+      assertThat(snapshot).containsExactly(john, jose);
+    }
+  }
+
+  @Test
+  @DisplayName("employees out of id order are rejected and the previous snapshot is kept")
+  public void givenUnorderedEmployees_whenWrite_thenThrowAndKeepPrevious() throws IOException {
+    // given
+    Path path = directory.resolve("employees.snapshot");
+    EmployeeSnapshot.write(path, sink -> sink.accept(john));
+
+    // then
+    assertThrows(IllegalStateException.class, () -> EmployeeSnapshot.write(path, sink -> List.of(jose, john).forEach(sink)));
+    try (EmployeeSnapshot snapshot = EmployeeSnapshot.open(path)) {
+      assertThat(snapshot).containsExactly(john);
+    }
+  }
+
+  @Test
+  @DisplayName("truncated files and foreign formats are refused on open")
+  public void givenDamagedFile_whenOpen_thenThrow() throws IOException {
+    // given
+    Path path = directory.resolve("employees.snapshot");
+    EmployeeSnapshot.write(path, sink -> List.of(john, jose).forEach(sink));
+    byte[] bytes = Files.readAllBytes(path);
+
+    Path truncated = Files.write(directory.resolve("truncated"), Arrays.copyOf(bytes, bytes.length - 3));
+    byte[] newer = bytes.clone();
+    ByteBuffer.wrap(newer).putShort(4, (short) (EmployeeSnapshot.FORMAT_VERSION + 1));
+    Path newerFormat = Files.write(directory.resolve("newer"), newer);
+    Path other = Files.write(directory.resolve("other"), new byte[EmployeeSnapshot.HEADER_BYTES]);
+
+    // then
+    assertThrows(IOException.class, () -> EmployeeSnapshot.open(truncated));
+    assertThrows(IOException.class, () -> EmployeeSnapshot.open(newerFormat));
+    assertThrows(IOException.class, () -> EmployeeSnapshot.open(other));
+  }
+}